@@ -4,37 +4,53 @@ import persistence.SaveableData;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-// Represents the account having a records log,
-// a balance (in dollars), and
+// Represents the account having a records log (stored column by column in a record store),
+// a balance (held as a whole number of cents), and
 // a category information storage
-// (containing a list of category names and total sum of each category)
+// (containing a list of category names and total sum of each category);
+// every record in the log has an id, given when it is added, that stays the same
+// while other records are added or removed;
+// in indexed mode, the account also keeps a log index
+// for running balance and range sums by position in O(log n).
+// Every change to the account is synchronized on it and makes a new version,
+// and every change to the records log is passed on to the account's listeners (see AccountListener);
+// other threads read the account through snapshots (see AccountSnapshot),
+// which are cheap to take and never change
 public class Account implements SaveableData {
-    private ArrayList<Record> log;
-    private double balance;
+    private RecordStore log;
+    private long balance;
     private CategoryInfo categories;
+    private LogIndex index;    // null unless the account is in indexed mode
+    private int indexGeneration;
+    private long version;
+    private final List<AccountListener> listeners = new ArrayList<>();
 
     // EFFECTS:  creates an account with an empty records log,
     //           an initial balance of zero,
     //           a category information storage
     public Account() {
-        log = new ArrayList<>();
+        log = new RecordStore();
         balance = 0;
         categories = new CategoryInfo(this);
     }
 
-    // EFFECTS:  creates an account with a given records log,
-    //           calculates/updates the balance based on the log,
+    // EFFECTS:  creates an account with the records of a given records log,
     //           then creates a category information storage
-    //           and calculates/updates the total sum of categories based on the log
-    public Account(ArrayList<Record> log) {
-        this.log = log;
-        updateBalance();
-
-        categories = new CategoryInfo(this);
-        for (String category : categories) {
-            updateCategory(category);
+    //           and calculates the balance and the total sum of categories
+    //           together in one pass over the log (in parallel for large logs)
+    public Account(List<Record> log) {
+        this.log = new RecordStore();
+        for (Record record : log) {
+            this.log.add(record);
         }
+        categories = new CategoryInfo(this);
+        repairTotals();
     }
 
     // --------------------------------------------------------
@@ -43,12 +59,18 @@ public class Account implements SaveableData {
 
     // MODIFIES: this
     // EFFECTS:  adds the record to the end of the records log
-    //           and then updates the balance and
-    //           record's category total sum
-    public void addRecord(Record record) {
-        log.add(record);
-        updateBalance();
-        updateCategory(record.getCategory());
+    //           and then applies the record's value to the balance and
+    //           record's category total sum;
+    //           returns the id given to the record, which it keeps until it is removed
+    public synchronized long addRecord(Record record) {
+        long id = log.add(record);
+        applyRecord(record);
+        version++;
+        if (index != null) {
+            index.append(record.getCategoryId(), record.getCents());
+        }
+        notifyAdded(id, record);
+        return id;
     }
 
     // REQUIRES: newTitle cannot contain ,
@@ -59,44 +81,140 @@ public class Account implements SaveableData {
     // EFFECTS:  edits the record in position number pos (indexed at 0)
     //           to have a title of newTitle, a category of newCategory, and
     //           a value of newValue, and then updates the balance and
-    //           the record's old and new categories' total sum;
+    //           the record's old and new categories' total sum
+    //           by the difference between the old and new record;
     //           otherwise, if no record is at position number pos,
     //           do nothing
-    public void editRecord(int pos, String newTitle, String newCategory, double newValue) {
+    public synchronized void editRecord(int pos, String newTitle, String newCategory, double newValue) {
+        editRecordCents(pos, newTitle, newCategory, Money.toCents(newValue));
+    }
+
+    // REQUIRES: newTitle cannot contain ,
+    //           newCategory cannot contain ,
+    //           newCents >= 1
+    //           pos >= 0
+    // MODIFIES: this
+    // EFFECTS:  same as editRecord, with the new value given in cents
+    public synchronized void editRecordCents(int pos, String newTitle, String newCategory, long newCents) {
         if (isInLog(pos)) {
-            Record recordToEdit = getRecord(pos);
-            String recordPreviousCategory = recordToEdit.getCategory();
-            recordToEdit.editThisRecord(newTitle, newCategory, newValue);
-            updateBalance();
-            updateCategory(recordPreviousCategory);
-            updateCategory(newCategory);
+            editRecordCentsById(log.idAt(pos), newTitle, newCategory, newCents);
+        }
+    }
+
+    // REQUIRES: newTitle cannot contain ,
+    //           newCategory cannot contain ,
+    //           newValue >= 0.01
+    // MODIFIES: this
+    // EFFECTS:  edits the record with id to have a title of newTitle, a category of newCategory,
+    //           and a value of newValue, updates the balance and the record's old and new
+    //           categories' total sum by the difference between the old and new record,
+    //           and returns true; otherwise, if no record has id, returns false
+    public synchronized boolean editRecordById(long id, String newTitle, String newCategory, double newValue) {
+        return editRecordCentsById(id, newTitle, newCategory, Money.toCents(newValue));
+    }
+
+    // REQUIRES: newTitle cannot contain ,
+    //           newCategory cannot contain ,
+    //           newCents >= 1
+    // MODIFIES: this
+    // EFFECTS:  same as editRecordById, with the new value given in cents
+    public synchronized boolean editRecordCentsById(long id, String newTitle, String newCategory, long newCents) {
+        int slot = log.slotOf(id);
+        if (slot < 0) {
+            return false;
+        }
+        Record oldRecord = log.getById(id);
+        Record editedRecord = Record.ofCents(newTitle, newCategory, newCents);
+        revertRecord(oldRecord);
+        LogIndex synced = syncIndex();
+        if (synced != null) {
+            synced.edit(slot, oldRecord.getCategoryId(), oldRecord.getCents(),
+                    editedRecord.getCategoryId(), newCents);
+        }
+        log.setById(id, editedRecord);
+        applyRecord(editedRecord);
+        version++;
+        for (AccountListener listener : listeners) {
+            listener.recordEdited(id, editedRecord);
         }
+        return true;
     }
 
     // REQUIRES: pos >= 0
-    // MODIFIES: this, record
+    // MODIFIES: this
     // EFFECTS:  removes the record in position number pos (indexed at 0)
-    //           and then updates the balance and record's category total sum;
+    //           and then takes the record's value back out of the balance
+    //           and record's category total sum;
     //           otherwise, if no record is at position number pos,
     //           do nothing
-    public void removeRecord(int pos) {
+    public synchronized void removeRecord(int pos) {
         if (isInLog(pos)) {
-            String recordCategory = getRecord(pos).getCategory();
-            log.remove(pos);
-            updateBalance();
-            updateCategory(recordCategory);
+            removeRecordById(log.idAt(pos));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  removes the record with id, takes the record's value back out of the balance
+    //           and record's category total sum, and returns true;
+    //           otherwise, if no record has id, returns false
+    public synchronized boolean removeRecordById(long id) {
+        int slot = log.slotOf(id);
+        if (slot < 0) {
+            return false;
+        }
+        Record oldRecord = log.getById(id);
+        revertRecord(oldRecord);
+        LogIndex synced = syncIndex();
+        if (synced != null) {
+            synced.remove(slot, oldRecord.getCategoryId(), oldRecord.getCents());
+        }
+        log.removeById(id);
+        version++;
+        for (AccountListener listener : listeners) {
+            listener.recordRemoved(id);
         }
+        return true;
+    }
+
+    // REQUIRES: record's title cannot contain , and its value >= 0.01;
+    //           id was given to a record by this account (or by the account whose changes are being replayed)
+    // MODIFIES: this
+    // EFFECTS:  puts a record that was removed from the log back with its old id,
+    //           in the position its id gives it, and applies its value to the balance
+    //           and record's category total sum, then returns true;
+    //           otherwise, if a record with id is already in the log, returns false
+    public synchronized boolean restoreRecord(long id, Record record) {
+        if (log.contains(id)) {
+            return false;
+        }
+        LogIndex synced = syncIndex();
+        int generation = log.getGeneration();
+        int slot = log.restore(id, record);
+        if (synced != null && log.getGeneration() == generation) {
+            synced.restore(slot, record.getCategoryId(), record.getCents());
+        }
+        applyRecord(record);
+        version++;
+        for (AccountListener listener : listeners) {
+            listener.recordRestored(id, record);
+        }
+        return true;
+    }
+
+    // EFFECTS:  returns true if a record with id is in the log, otherwise false
+    public synchronized boolean hasRecord(long id) {
+        return log.contains(id);
     }
 
     // EFFECTS:  returns true if log is empty, otherwise false
-    public boolean isLogEmpty() {
+    public synchronized boolean isLogEmpty() {
         return log.size() == 0;
     }
 
     // REQUIRES: pos >= 0
     // EFFECTS:  return true if there is a record in position number pos (indexed at 0);
     //           otherwise, if no record is found in pos, return false
-    public boolean isInLog(int pos) {
+    public synchronized boolean isInLog(int pos) {
         int numberOfRecords = log.size();
         int canBeCalled = numberOfRecords - 1;
         return pos <= canBeCalled;
@@ -104,26 +222,301 @@ public class Account implements SaveableData {
 
     // --------------------------------------------------------
 
+    // Batch records log methods
+
+    // MODIFIES: this
+    // EFFECTS:  adds every record in records to the end of the records log, in order,
+    //           and then applies their values to the balance and
+    //           category total sums at once;
+    //           returns the ids given to the records, in the same order
+    public synchronized long[] addRecords(Collection<Record> records) {
+        long[] ids = new long[records.size()];
+        Aggregates delta = new Aggregates();
+        int i = 0;
+        for (Record record : records) {
+            ids[i] = log.add(record);
+            delta.add(record.getCategoryId(), record.getCents());
+            if (index != null) {
+                index.append(record.getCategoryId(), record.getCents());
+            }
+            i++;
+        }
+        applyDelta(delta);
+        version++;
+        i = 0;
+        for (Record record : records) {
+            notifyAdded(ids[i++], record);
+        }
+        return ids;
+    }
+
+    // REQUIRES: totals holds the balance and category total sums of the records in records
+    // MODIFIES: this, records
+    // EFFECTS:  adds every record in records to the end of the records log, in order,
+    //           copying the store's columns in bulk, and then applies the precomputed totals
+    //           to the balance and category total sums without visiting the records again
+    //           (in indexed mode, appends them to the log index, or rebuilds it if they are most of the log);
+    //           returns the id given to the first record, the others following consecutively
+    public synchronized long addRecords(RecordStore records, Aggregates totals) {
+        int count = records.size();
+        LogIndex synced = syncIndex();
+        int firstSlot = log.slotCount();
+        long firstId = log.addAll(records);
+        applyDelta(totals);
+        if (synced != null) {
+            appendToIndex(firstSlot, count);
+        }
+        version++;
+        if (!listeners.isEmpty()) {
+            for (int i = 0; i < count; i++) {
+                notifyAdded(firstId + i, log.getById(firstId + i));
+            }
+        }
+        return firstId;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  removes every record in the log that filter accepts
+    //           (filter is given a copy of each record), compacting the log in one pass,
+    //           and then takes their values back out of the balance and
+    //           category total sums at once;
+    //           returns the number of records removed
+    public synchronized int removeIf(Predicate<Record> filter) {
+        Aggregates delta = new Aggregates();
+        int removed = log.removeIf(filter, delta);
+        applyDelta(delta);
+        version++;
+        if (removed > 0) {
+            notifyChanged();
+        }
+        return removed;
+    }
+
+    // REQUIRES: 0 <= count <= number of records in the log
+    // MODIFIES: this
+    // EFFECTS:  removes the first count records of the log, moving the rest down in one pass,
+    //           and then takes their values back out of the balance and
+    //           category total sums at once
+    public synchronized void removeFirst(int count) {
+        Aggregates delta = new Aggregates();
+        log.removeFirst(count, delta);
+        applyDelta(delta);
+        version++;
+        if (count > 0) {
+            notifyChanged();
+        }
+    }
+
+    // REQUIRES: editor does not give a record a title containing ,
+    //           or a value less than 0.01
+    // MODIFIES: this
+    // EFFECTS:  passes a copy of every record in the log that filter accepts to editor
+    //           and replaces the record with the edited copy (keeping its id),
+    //           and then updates the balance and category total sums
+    //           by the difference between the old and new records at once
+    //           (in indexed mode, updates the log index slot by slot, or rebuilds it if most of the log was edited);
+    //           returns the number of records edited
+    public synchronized int editWhere(Predicate<Record> filter, Consumer<Record> editor) {
+        Aggregates delta = new Aggregates();
+        LogIndex synced = syncIndex();
+        LogIndex.Edits edits = synced == null ? null : new LogIndex.Edits(log.size() / 2);
+        int edited = log.editWhere(filter, editor, delta, edits);
+        applyDelta(delta);
+        version++;
+        if (edits != null && edits.isOverflowed()) {
+            setIndexed(true);
+        } else if (edits != null) {
+            edits.applyTo(synced);
+        }
+        if (edited > 0) {
+            notifyChanged();
+        }
+        return edited;
+    }
+
+    // --------------------------------------------------------
+
+    // Listener methods
+
+    // MODIFIES: this
+    // EFFECTS:  makes listener be told about every later change to the records log
+    public synchronized void addListener(AccountListener listener) {
+        listeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stops listener being told about changes to the records log
+    public synchronized void removeListener(AccountListener listener) {
+        listeners.remove(listener);
+    }
+
+    // EFFECTS:  tells every listener that record was added with id
+    private void notifyAdded(long id, Record record) {
+        for (AccountListener listener : listeners) {
+            listener.recordAdded(id, record);
+        }
+    }
+
+    // EFFECTS:  tells every listener that a batch change changed the records log
+    private void notifyChanged() {
+        for (AccountListener listener : listeners) {
+            listener.recordsChanged(this);
+        }
+    }
+
+    // --------------------------------------------------------
+
     // Update balance and category methods
 
+    // MODIFIES: this
+    // EFFECTS:  adds the record's contribution to the balance
+    //           and to the record's category total sum
+    private void applyRecord(Record record) {
+        balance = record.addToBalance(balance);
+        categories.addToCategory(record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  takes the record's contribution back out of the balance
+    //           and out of the record's category total sum
+    private void revertRecord(Record record) {
+        balance = record.removeFromBalance(balance);
+        categories.removeFromCategory(record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  applies the change gathered in delta to the balance and category total sums
+    private void applyDelta(Aggregates delta) {
+        balance += delta.getBalanceCents();
+        categories.applyDelta(delta);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  recalculates the balance and every category's total sum
+    //           together in one scan of the log (split across cores for large logs);
+    //           used to repair totals and to total a loaded log, not on every mutation
+    public synchronized void repairTotals() {
+        Aggregates totals = log.aggregate();
+        balance = totals.getBalanceCents();
+        categories.setTotals(totals);
+        version++;
+    }
+
+    // EFFECTS:  returns true if the balance and every category's total sum
+    //           match a full recalculation from the log (in one scan), otherwise false;
+    //           this does not modify the stored totals
+    public synchronized boolean verifyTotals() {
+        Aggregates totals = log.aggregate();
+        return totals.getBalanceCents() == balance && categories.matches(totals);
+    }
+
     // MODIFIES: this
     // EFFECTS:  calculates new balance based on records in the log
     //           and updates the balance;
     //           if log is empty, balance is zero
-    public void updateBalance() {
-        double sum = 0;
-        if (! isLogEmpty()) {
-            for (Record record : log) {
-                sum = record.addToBalance(sum);
-            }
-        }
-        balance = sum;
+    public synchronized void updateBalance() {
+        balance = log.sumBalance();
+        version++;
     }
 
     // MODIFIES: this
-    // EFFECTS:  calculates and updates category's total sum (in dollars) based on records in the log
-    public void updateCategory(String category) {
+    // EFFECTS:  calculates and updates category's total sum (in cents) based on records in the log
+    public synchronized void updateCategory(String category) {
         categories.updateCategory(category);
+        version++;
+    }
+
+    // --------------------------------------------------------
+
+    // Running balance and range sum methods
+
+    // MODIFIES: this
+    // EFFECTS:  if indexed is true, builds a log index so that running balance and range sums
+    //           take O(log n) and mutations keep it up to date in O(log n);
+    //           otherwise drops the index and those sums scan the log
+    public synchronized void setIndexed(boolean indexed) {
+        index = indexed ? new LogIndex(log) : null;
+        indexGeneration = log.getGeneration();
+    }
+
+    // EFFECTS:  returns true if the account is in indexed mode, otherwise false
+    public synchronized boolean isIndexed() {
+        return index != null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  if offHeap is true, moves the records log off the heap into direct buffers
+    //           (see RecordStore.setOffHeap), so that however many records it holds, the garbage collector
+    //           only sees a handful of objects; otherwise moves it back onto the heap;
+    //           every other operation works the same either way
+    public synchronized void setOffHeap(boolean offHeap) {
+        log.setOffHeap(offHeap);
+    }
+
+    // EFFECTS:  returns true if the records log is kept off the heap, otherwise false
+    public synchronized boolean isOffHeap() {
+        return log.isOffHeap();
+    }
+
+    // REQUIRES: pos >= 0 and
+    //           a record is found in position number pos of log
+    // EFFECTS:  returns the balance (in cents) right after the record in position number pos
+    public synchronized long getBalanceCentsAfter(int pos) {
+        return getRangeSumCents(0, pos + 1);
+    }
+
+    // REQUIRES: 0 <= from <= to <= number of records in the log
+    // EFFECTS:  returns how much the records from position from (inclusive)
+    //           to position to (exclusive) changed the balance (in cents)
+    public synchronized long getRangeSumCents(int from, int to) {
+        LogIndex synced = syncIndex();
+        if (synced != null) {
+            return synced.netBefore(to) - synced.netBefore(from);
+        }
+        return log.sumBalance(from, to);
+    }
+
+    // REQUIRES: 0 <= from <= to <= number of records in the log
+    // EFFECTS:  returns the total sum (in cents) of the records in the category with categoryId
+    //           from position from (inclusive) to position to (exclusive)
+    public synchronized long getCategoryRangeSumCents(int categoryId, int from, int to) {
+        LogIndex synced = syncIndex();
+        if (synced != null) {
+            return synced.categoryBefore(categoryId, to) - synced.categoryBefore(categoryId, from);
+        }
+        return log.sumCategory(categoryId, from, to);
+    }
+
+    // REQUIRES: 0 <= from <= to <= number of records in the log
+    // EFFECTS:  returns the total spent (in cents) by records that are not income
+    //           from position from (inclusive) to position to (exclusive)
+    public synchronized long getSpendingCents(int from, int to) {
+        return getCategoryRangeSumCents(Categories.INCOME, from, to) - getRangeSumCents(from, to);
+    }
+
+    // REQUIRES: the log index was in step with the log before count records were added from firstSlot on
+    // MODIFIES: this
+    // EFFECTS:  appends the added records to the log index in O(count log n),
+    //           or rebuilds the index in O(n) if they make up most of the log (or the log took new slots)
+    private void appendToIndex(int firstSlot, int count) {
+        if (count > log.size() / 2 || log.getGeneration() != indexGeneration) {
+            setIndexed(true);
+            return;
+        }
+        for (int slot = firstSlot; slot < log.slotCount(); slot++) {
+            index.append(log.categoryIdAtSlot(slot), log.centsAtSlot(slot));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  if the log has compacted its slots since the log index was built,
+    //           rebuilds the index over the new slots; returns the index, or null if not indexed
+    private LogIndex syncIndex() {
+        if (index != null && indexGeneration != log.getGeneration()) {
+            index = new LogIndex(log);
+            indexGeneration = log.getGeneration();
+        }
+        return index;
     }
 
     // --------------------------------------------------------
@@ -133,9 +526,9 @@ public class Account implements SaveableData {
     // MODIFIES: printWriter
     // EFFECTS:  writes the records log to printWriter
     @Override
-    public void save(PrintWriter printWriter) {
-        for (Record r : log) {
-            r.save(printWriter);
+    public synchronized void save(PrintWriter printWriter) {
+        for (int i = 0; i < log.size(); i++) {
+            log.save(i, printWriter);
             printWriter.print("\n");
         }
     }
@@ -144,20 +537,58 @@ public class Account implements SaveableData {
 
     // Getters
 
-    // EFFECTS:  returns the records log of the account
-    public ArrayList<Record> getLog() {
-        return log;
+    // EFFECTS:  returns a read-only view of the records log of the account;
+    //           the view follows changes to the account, so threads other than
+    //           the one changing the account should read a snapshot instead
+    public List<Record> getLog() {
+        return log.asList();
     }
 
     // REQUIRES: pos >= 0 and
     //           a record is found in position number pos of log
-    // EFFECTS:  gets and returns the record in position number pos (indexed at 0)
-    public Record getRecord(int pos) {
+    // EFFECTS:  returns a copy of the record in position number pos (indexed at 0);
+    //           changing the copy does not change the account
+    public synchronized Record getRecord(int pos) {
         return log.get(pos);
     }
 
-    // EFFECTS:  returns the balance of the account
-    public double getBalance() {
+    // EFFECTS:  returns a copy of the record with id,
+    //           or null if no record with id is in the log
+    public synchronized Record getRecordById(long id) {
+        return log.getById(id);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns a snapshot of the records log, balance and category totals as they are now;
+    //           taking it copies no records, and it never changes afterwards
+    public synchronized AccountSnapshot snapshot() {
+        return new AccountSnapshot(version, log.snapshot(), balance,
+                categories.copyTotals(), categories.getCategories());
+    }
+
+    // EFFECTS:  returns a copy of the balance and category totals as they are now, without the records log;
+    //           cheaper to take than a snapshot, for showing a summary of the account
+    public synchronized AccountTotals getTotals() {
+        return new Totals(log.size() == 0, balance, categories.copyTotals(), categories.getCategories());
+    }
+
+    // EFFECTS:  returns the record store holding the records log
+    RecordStore getStore() {
+        return log;
+    }
+
+    // EFFECTS:  returns the balance of the account (in dollars)
+    public synchronized double getBalance() {
+        return Money.toDollars(balance);
+    }
+
+    // EFFECTS:  returns the version of the account; every change to the account makes a new version
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // EFFECTS:  returns the balance of the account (in cents)
+    public synchronized long getBalanceCents() {
         return balance;
     }
 
@@ -168,8 +599,64 @@ public class Account implements SaveableData {
 
     // REQUIRES: category exists in categories.categoryNames
     // EFFECTS:  returns the category's total sum (in dollars)
-    public double getCategorySum(String category) {
+    public synchronized double getCategorySum(String category) {
         return categories.getCategorySum(category);
     }
 
+    // REQUIRES: category exists in categories.categoryNames
+    // EFFECTS:  returns the category's total sum (in cents)
+    public synchronized long getCategorySumCents(String category) {
+        return categories.getCategorySumCents(category);
+    }
+
+    // REQUIRES: 0 <= categoryId < categories.size()
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId
+    public synchronized long getCategorySumCents(int categoryId) {
+        return categories.getCategorySumCents(categoryId);
+    }
+
+    // --------------------------------------------------------
+
+    // Represents the balance and category totals of an account copied at a single point in time
+    private static class Totals implements AccountTotals {
+        private final boolean logEmpty;
+        private final long balance;
+        private final long[] categoryTotals;
+        private final List<String> categoryNames;
+
+        // EFFECTS:  creates totals of a balance (in cents) and category totals (in cents, indexed by
+        //           category id) with their names, of a log that is empty if logEmpty is true
+        Totals(boolean logEmpty, long balance, long[] categoryTotals, List<String> categoryNames) {
+            this.logEmpty = logEmpty;
+            this.balance = balance;
+            this.categoryTotals = categoryTotals;
+            this.categoryNames = Collections.unmodifiableList(new ArrayList<>(categoryNames));
+        }
+
+        // EFFECTS:  returns true if the log was empty, otherwise false
+        @Override
+        public boolean isLogEmpty() {
+            return logEmpty;
+        }
+
+        // EFFECTS:  returns the balance (in cents)
+        @Override
+        public long getBalanceCents() {
+            return balance;
+        }
+
+        // EFFECTS:  returns the category names, in category id order
+        @Override
+        public List<String> getCategories() {
+            return categoryNames;
+        }
+
+        // REQUIRES: 0 <= categoryId < getCategories().size()
+        // EFFECTS:  returns the total sum (in cents) of the category with categoryId
+        @Override
+        public long getCategorySumCents(int categoryId) {
+            return categoryTotals[categoryId];
+        }
+    }
+
 }
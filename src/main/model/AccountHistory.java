@@ -0,0 +1,308 @@
+package model;
+
+// Represents the history of changes made to an account, for undo, redo and looking back in time:
+// each change to the account's records log makes a new version holding
+// the balance, the category totals, the change that made it, and the log as a persistent tree
+// (sharing all but O(log n) nodes with the version before).
+// The first version holds a snapshot of the account instead of a tree; the trees are built from it
+// (and from the changes after it) only when an earlier version's log is first read, or when the first version
+// is dropped, so starting a history copies no records.
+// Undo and redo move the current version back or forward and make the matching change to the account
+// (removing, editing back, or putting back a record by its id);
+// any earlier version's log, balance and category totals can be read without changing the account.
+// Only the latest maxVersions versions are kept: once there are more, the oldest is dropped
+// (so at most maxVersions - 1 changes can be undone); versions keep their numbers when older ones are dropped.
+// The versions are kept in a ring buffer, so dropping the oldest one moves no others
+public class AccountHistory {
+    public static final int DEFAULT_MAX_VERSIONS = 1000;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Account acc;
+    private final int maxVersions;
+    private Version[] versions; // ring buffer: the oldest version kept is at first
+    private int first;
+    private int count;          // number of versions kept
+    private int dropped;        // number of versions dropped, which is the number of the oldest version kept
+    private int current;        // position (from the oldest kept) of the current version
+
+    // EFFECTS:  creates a history of acc with its current log as the first version,
+    //           keeping at most DEFAULT_MAX_VERSIONS versions
+    public AccountHistory(Account acc) {
+        this(acc, DEFAULT_MAX_VERSIONS);
+    }
+
+    // REQUIRES: maxVersions >= 1
+    // EFFECTS:  creates a history of acc with its current log as the first version,
+    //           keeping at most maxVersions versions
+    public AccountHistory(Account acc, int maxVersions) {
+        this.acc = acc;
+        this.maxVersions = maxVersions;
+        versions = new Version[Math.min(INITIAL_CAPACITY, maxVersions + 1)];
+        AccountSnapshot snapshot = acc.snapshot();
+        Version version = new Version(snapshot.getBalanceCents(), acc.getCategories().copyTotals(),
+                null, Record.NO_ID, null, null);
+        version.snapshot = snapshot;
+        append(version);
+    }
+
+    // --------------------------------------------------------
+
+    // Records log methods (each makes a new version)
+
+    // MODIFIES: this, acc
+    // EFFECTS:  adds the record to the end of acc's records log (see Account.addRecord),
+    //           makes a new version and returns the id given to the record;
+    //           any versions that were undone can no longer be redone
+    public synchronized long addRecord(Record record) {
+        long id = acc.addRecord(record);
+        push(Change.ADD, id, null, acc.getRecordById(id));
+        return id;
+    }
+
+    // REQUIRES: newTitle cannot contain ,
+    //           newCategory cannot contain ,
+    //           newCents >= 1
+    // MODIFIES: this, acc
+    // EFFECTS:  edits the record with id in acc's records log (see Account.editRecordCentsById),
+    //           makes a new version and returns true; otherwise, if no record has id, returns false;
+    //           any versions that were undone can no longer be redone
+    public synchronized boolean editRecordCentsById(long id, String newTitle, String newCategory, long newCents) {
+        Record before = acc.getRecordById(id);
+        if (!acc.editRecordCentsById(id, newTitle, newCategory, newCents)) {
+            return false;
+        }
+        push(Change.EDIT, id, before, acc.getRecordById(id));
+        return true;
+    }
+
+    // MODIFIES: this, acc
+    // EFFECTS:  removes the record with id from acc's records log (see Account.removeRecordById),
+    //           makes a new version and returns true; otherwise, if no record has id, returns false;
+    //           any versions that were undone can no longer be redone
+    public synchronized boolean removeRecordById(long id) {
+        Record before = acc.getRecordById(id);
+        if (!acc.removeRecordById(id)) {
+            return false;
+        }
+        push(Change.REMOVE, id, before, null);
+        return true;
+    }
+
+    // --------------------------------------------------------
+
+    // Undo and redo methods
+
+    // MODIFIES: this, acc
+    // EFFECTS:  if there is a version before the current one, undoes the change that made
+    //           the current version on acc, makes the version before it current and returns true;
+    //           otherwise returns false
+    public synchronized boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        Version version = versionAt(current);
+        if (version.change == Change.ADD) {
+            acc.removeRecordById(version.id);
+        } else if (version.change == Change.EDIT) {
+            edit(version.id, version.before);
+        } else {
+            acc.restoreRecord(version.id, version.before);
+        }
+        current--;
+        return true;
+    }
+
+    // MODIFIES: this, acc
+    // EFFECTS:  if a version was undone, makes the change that made it again on acc,
+    //           makes it current and returns true; otherwise returns false
+    public synchronized boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        current++;
+        Version version = versionAt(current);
+        if (version.change == Change.ADD) {
+            acc.restoreRecord(version.id, version.after);
+        } else if (version.change == Change.EDIT) {
+            edit(version.id, version.after);
+        } else {
+            acc.removeRecordById(version.id);
+        }
+        return true;
+    }
+
+    // EFFECTS:  returns true if there is a version before the current one, otherwise false
+    public synchronized boolean canUndo() {
+        return current > 0;
+    }
+
+    // EFFECTS:  returns true if a version after the current one was undone, otherwise false
+    public synchronized boolean canRedo() {
+        return current < count - 1;
+    }
+
+    // --------------------------------------------------------
+
+    // Version methods
+
+    // EFFECTS:  returns the number of the current version (the first version is 0)
+    public synchronized int getCurrentVersion() {
+        return dropped + current;
+    }
+
+    // EFFECTS:  returns the number of versions made, including any that were undone or dropped
+    public synchronized int getVersionCount() {
+        return dropped + count;
+    }
+
+    // EFFECTS:  returns the number of the oldest version kept
+    public synchronized int getOldestVersion() {
+        return dropped;
+    }
+
+    // REQUIRES: getOldestVersion() <= version < getVersionCount()
+    // MODIFIES: this
+    // EFFECTS:  returns the records log as it was at version,
+    //           building it (and the logs of the versions before it back to the last one built) if not yet built
+    public synchronized PersistentLog getLogAt(int version) {
+        return logAt(version - dropped);
+    }
+
+    // REQUIRES: getOldestVersion() <= version < getVersionCount()
+    // EFFECTS:  returns the balance (in cents) as it was at version
+    public synchronized long getBalanceCentsAt(int version) {
+        return versionAt(version - dropped).balance;
+    }
+
+    // REQUIRES: getOldestVersion() <= version < getVersionCount()
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId as it was at version;
+    //           zero if the category had no total
+    public synchronized long getCategorySumCentsAt(int version, int categoryId) {
+        long[] totals = versionAt(version - dropped).categoryTotals;
+        return categoryId >= 0 && categoryId < totals.length ? totals[categoryId] : 0;
+    }
+
+    // EFFECTS:  returns the account this is the history of
+    public Account getAccount() {
+        return acc;
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // MODIFIES: this
+    // EFFECTS:  drops any versions that were undone and makes a new current version
+    //           from the current one with change made to the record with id (building its log
+    //           if the current one's is built), dropping the oldest version if there are now more than maxVersions
+    private void push(Change change, long id, Record before, Record after) {
+        while (count > current + 1) {
+            count--;
+            versions[(first + count) % versions.length] = null;
+        }
+        Version version = new Version(acc.getBalanceCents(), acc.getCategories().copyTotals(),
+                change, id, before, after);
+        version.log = version.applyTo(versionAt(current).log);
+        append(version);
+        current++;
+        if (count > maxVersions) {
+            dropOldest();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the log of the version at pos, building it (and any logs before it not yet built)
+    //           from the last version whose log is built, or from the snapshot of the first version
+    private PersistentLog logAt(int pos) {
+        int from = pos;
+        while (versionAt(from).log == null && versionAt(from).snapshot == null) {
+            from--;
+        }
+        Version start = versionAt(from);
+        if (start.log == null) {
+            start.log = PersistentLog.of(start.snapshot.getLog());
+            start.snapshot = null;
+        }
+        for (int p = from + 1; p <= pos; p++) {
+            versionAt(p).log = versionAt(p).applyTo(versionAt(p - 1).log);
+        }
+        return versionAt(pos).log;
+    }
+
+    // EFFECTS:  returns the version at pos (from the oldest kept)
+    private Version versionAt(int pos) {
+        return versions[(first + pos) % versions.length];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  adds version after the newest version kept, growing the ring buffer if it is full
+    private void append(Version version) {
+        if (count == versions.length) {
+            Version[] grown = new Version[Math.min(versions.length * 2, maxVersions + 1)];
+            for (int pos = 0; pos < count; pos++) {
+                grown[pos] = versionAt(pos);
+            }
+            versions = grown;
+            first = 0;
+        }
+        versions[(first + count) % versions.length] = version;
+        count++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  drops the oldest version kept; if the log of the version after it is not built,
+    //           builds it first, since it can no longer be built once the oldest version is dropped
+    private void dropOldest() {
+        if (versionAt(1).log == null) {
+            logAt(1);
+        }
+        versions[first] = null;
+        first = (first + 1) % versions.length;
+        count--;
+        dropped++;
+        current--;
+    }
+
+    // MODIFIES: acc
+    // EFFECTS:  edits the record with id in acc to hold the values of record
+    private void edit(long id, Record record) {
+        acc.editRecordCentsById(id, record.getTitle(), record.getCategory(), record.getCents());
+    }
+
+    // The kinds of change that make a new version
+    private enum Change { ADD, EDIT, REMOVE }
+
+    // Represents one version: the balance, category totals and records log after a change
+    // (the log null until it is built, see logAt; the first version holds a snapshot of the account instead),
+    // and the change itself (the record with id before and after it; null where there was none)
+    private static final class Version {
+        private PersistentLog log;
+        private AccountSnapshot snapshot;
+        private final long balance;
+        private final long[] categoryTotals;
+        private final Change change;
+        private final long id;
+        private final Record before;
+        private final Record after;
+
+        // EFFECTS:  creates a version with the given balance (in cents), totals and change, and no log
+        private Version(long balance, long[] categoryTotals, Change change, long id,
+                        Record before, Record after) {
+            this.balance = balance;
+            this.categoryTotals = categoryTotals;
+            this.change = change;
+            this.id = id;
+            this.before = before;
+            this.after = after;
+        }
+
+        // EFFECTS:  returns log with this version's change made to it, or null if log is null
+        private PersistentLog applyTo(PersistentLog log) {
+            if (log == null) {
+                return null;
+            }
+            return after == null ? log.remove(id) : log.put(id, after);
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package model;
+
+// Represents an object told about every change to the records log of an account,
+// in the order the changes are made and while the account is still locked,
+// e.g. to persist each change as it happens (see persistence.Journal)
+public interface AccountListener {
+
+    // EFFECTS:  called after record was added to the end of the log with id
+    void recordAdded(long id, Record record);
+
+    // EFFECTS:  called after the record with id was edited to hold the values of record
+    void recordEdited(long id, Record record);
+
+    // EFFECTS:  called after the record with id was removed
+    void recordRemoved(long id);
+
+    // EFFECTS:  called after record was put back into the log with its old id
+    void recordRestored(long id, Record record);
+
+    // EFFECTS:  called after a batch change (removeIf, removeFirst or editWhere) changed any number of records
+    //           of account at once; the listener must read the log again to know what changed
+    void recordsChanged(Account account);
+
+}
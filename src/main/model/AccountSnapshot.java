@@ -0,0 +1,120 @@
+package model;
+
+import persistence.SaveableData;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Represents a read-only view of an account at a single point in time:
+// its records log, balance and category totals as they were when the snapshot was taken.
+// The snapshot shares the account's record columns instead of copying them (see RecordStore.snapshot),
+// so it is cheap to take, and it never changes afterwards, so any number of threads can read it
+// while the account keeps changing (for example, to save it on another thread)
+public class AccountSnapshot implements AccountTotals, SaveableData {
+    private final long version;
+    private final RecordStore log;
+    private final long balance;
+    private final long[] categoryTotals;
+    private final List<String> categoryNames;
+
+    // EFFECTS:  creates a snapshot numbered version of a log, balance (in cents),
+    //           and category totals (in cents, indexed by category id) with their names
+    AccountSnapshot(long version, RecordStore log, long balance, long[] categoryTotals, List<String> categoryNames) {
+        this.version = version;
+        this.log = log;
+        this.balance = balance;
+        this.categoryTotals = categoryTotals;
+        this.categoryNames = Collections.unmodifiableList(new ArrayList<>(categoryNames));
+    }
+
+    // --------------------------------------------------------
+
+    // Records log methods
+
+    // EFFECTS:  returns a read-only view of the records log
+    public List<Record> getLog() {
+        return log.asList();
+    }
+
+    // REQUIRES: 0 <= pos < getLog().size()
+    // EFFECTS:  returns a copy of the record in position number pos (indexed at 0)
+    public Record getRecord(int pos) {
+        return log.get(pos);
+    }
+
+    // EFFECTS:  returns a copy of the record with id, or null if no record with id is in the log
+    public Record getRecordById(long id) {
+        return log.getById(id);
+    }
+
+    // EFFECTS:  returns the position (indexed at 0) of the record with id in the log,
+    //           or -1 if no record with id is in the log
+    public int positionOf(long id) {
+        return log.positionOf(id);
+    }
+
+    // EFFECTS:  returns true if log is empty, otherwise false
+    @Override
+    public boolean isLogEmpty() {
+        return log.size() == 0;
+    }
+
+    // MODIFIES: printWriter
+    // EFFECTS:  writes the records log to printWriter, one record per line, as Account.save does
+    @Override
+    public void save(PrintWriter printWriter) {
+        for (int i = 0; i < log.size(); i++) {
+            log.save(i, printWriter);
+            printWriter.print("\n");
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Getters
+
+    // EFFECTS:  returns the version of the account the snapshot was taken at;
+    //           every change to the account makes a new version
+    public long getVersion() {
+        return version;
+    }
+
+    // EFFECTS:  returns the balance (in dollars)
+    public double getBalance() {
+        return Money.toDollars(balance);
+    }
+
+    // EFFECTS:  returns the balance (in cents)
+    @Override
+    public long getBalanceCents() {
+        return balance;
+    }
+
+    // EFFECTS:  returns the category names, in category id order
+    @Override
+    public List<String> getCategories() {
+        return categoryNames;
+    }
+
+    // REQUIRES: category exists in getCategories()
+    // EFFECTS:  returns the category's total sum (in dollars)
+    public double getCategorySum(String category) {
+        return Money.toDollars(getCategorySumCents(category));
+    }
+
+    // REQUIRES: category exists in getCategories()
+    // EFFECTS:  returns the category's total sum (in cents)
+    public long getCategorySumCents(String category) {
+        return categoryTotals[Categories.lookup(category)];
+    }
+
+    // REQUIRES: 0 <= categoryId < getCategories().size()
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId
+    @Override
+    public long getCategorySumCents(int categoryId) {
+        return categoryTotals[categoryId];
+    }
+
+}
@@ -0,0 +1,23 @@
+package model;
+
+import java.util.List;
+
+// Represents the totals of an account at a single point in time: its balance and the total sum of
+// each category, as shown in a summary of the account without reading its records
+// (e.g. an AccountSnapshot, or the totals saved in the footer of an account file, see persistence.AccountFooter)
+public interface AccountTotals {
+
+    // EFFECTS:  returns true if the account has no records, otherwise false
+    boolean isLogEmpty();
+
+    // EFFECTS:  returns the balance (in cents)
+    long getBalanceCents();
+
+    // EFFECTS:  returns the category names, in category id order
+    List<String> getCategories();
+
+    // REQUIRES: 0 <= categoryId < getCategories().size()
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId
+    long getCategorySumCents(int categoryId);
+
+}
@@ -0,0 +1,41 @@
+package model;
+
+import java.util.concurrent.RecursiveTask;
+
+// Represents a fork/join task computing the aggregates (balance and category totals)
+// of a range of slots in a record store: ranges above THRESHOLD slots are split in half,
+// the halves computed in parallel and their aggregates merged
+class AggregateTask extends RecursiveTask<Aggregates> {
+    static final int THRESHOLD = 1 << 15;
+    private static final long serialVersionUID = 1L;
+
+    private final RecordStore store;
+    private final int from;
+    private final int to;
+
+    // REQUIRES: 0 <= from <= to <= store.slotCount()
+    // EFFECTS:  creates a task for the slots of store from from (inclusive) to to (exclusive)
+    AggregateTask(RecordStore store, int from, int to) {
+        this.store = store;
+        this.from = from;
+        this.to = to;
+    }
+
+    // EFFECTS:  returns the aggregates of the task's slots
+    @Override
+    protected Aggregates compute() {
+        if (to - from <= THRESHOLD) {
+            Aggregates aggregates = new Aggregates();
+            store.aggregateSlots(from, to, aggregates);
+            return aggregates;
+        }
+        int middle = (from + to) >>> 1;
+        AggregateTask left = new AggregateTask(store, from, middle);
+        left.fork();
+        Aggregates right = new AggregateTask(store, middle, to).compute();
+        Aggregates aggregates = left.join();
+        aggregates.merge(right);
+        return aggregates;
+    }
+
+}
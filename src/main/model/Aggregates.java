@@ -0,0 +1,77 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents running totals over a group of records:
+// the balance (in cents), adding "income" records and subtracting all others,
+// and the total sum (in cents) of each category, indexed by category id;
+// used to total a log in one pass (see AggregateTask) and
+// to gather the change a batch of records makes so that it is applied to an account once
+public class Aggregates {
+    private long balance;
+    private long[] categoryTotals;
+
+    // EFFECTS:  creates aggregates with a balance and every category total of zero
+    public Aggregates() {
+        categoryTotals = new long[Categories.count()];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  adds a record with categoryId and cents to the balance and its category total
+    public void add(int categoryId, long cents) {
+        balance += categoryId == Categories.INCOME ? cents : -cents;
+        ensureCategory(categoryId);
+        categoryTotals[categoryId] += cents;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  takes a record with categoryId and cents back out of the balance and its category total
+    public void remove(int categoryId, long cents) {
+        balance -= categoryId == Categories.INCOME ? cents : -cents;
+        ensureCategory(categoryId);
+        categoryTotals[categoryId] -= cents;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  adds the balance and every category total of other to this
+    public void merge(Aggregates other) {
+        balance += other.balance;
+        ensureCategory(other.categoryTotals.length - 1);
+        for (int id = 0; id < other.categoryTotals.length; id++) {
+            categoryTotals[id] += other.categoryTotals[id];
+        }
+    }
+
+    // EFFECTS:  returns true if no record has changed the balance or any category total
+    public boolean isZero() {
+        if (balance != 0) {
+            return false;
+        }
+        for (long total : categoryTotals) {
+            if (total != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS:  returns the balance (in cents)
+    public long getBalanceCents() {
+        return balance;
+    }
+
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId;
+    //           zero if no record has this category
+    public long getCategorySumCents(int categoryId) {
+        return categoryId < categoryTotals.length ? categoryTotals[categoryId] : 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  grows the category totals so that they include categoryId
+    private void ensureCategory(int categoryId) {
+        if (categoryId >= categoryTotals.length) {
+            categoryTotals = Arrays.copyOf(categoryTotals, Math.max(categoryId + 1, Categories.count()));
+        }
+    }
+
+}
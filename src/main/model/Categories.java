@@ -0,0 +1,98 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Represents the table of category names interned to compact integer ids;
+// the default categories always have the ids 0 to DEFAULT_COUNT - 1, in this order:
+// income, bills, necessities, shopping, dining out, recreation, and other,
+// and any other category name is given the next free id the first time it is seen
+public final class Categories {
+    public static final int INCOME = 0;
+    public static final int NOT_FOUND = -1;
+
+    private static final List<String> DEFAULTS = Arrays.asList(
+            "income", "bills", "necessities", "shopping", "dining", "recreation", "other");
+    public static final int DEFAULT_COUNT = DEFAULTS.size();
+
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+    private static volatile byte[][] utf8Names = new byte[0][];     // names encoded as UTF-8, by id
+
+    static {
+        for (String category : DEFAULTS) {
+            intern(category);
+        }
+    }
+
+    // EFFECTS:  dummy constructor, Categories only has static methods
+    private Categories() {
+
+    }
+
+    // EFFECTS:  returns the id of category, giving it the next free id if it has none yet
+    public static int intern(String category) {
+        Integer id = ids.get(category);
+        if (id == null) {
+            id = internNew(category);
+        }
+        return id;
+    }
+
+    // EFFECTS:  gives category the next free id if no other thread has given it one
+    //           and returns its id
+    private static synchronized int internNew(String category) {
+        Integer id = ids.get(category);
+        if (id == null) {
+            String[] newNames = Arrays.copyOf(names, names.length + 1);
+            newNames[names.length] = category;
+            byte[][] newUtf8Names = Arrays.copyOf(utf8Names, names.length + 1);
+            newUtf8Names[names.length] = category.getBytes(StandardCharsets.UTF_8);
+            id = names.length;
+            utf8Names = newUtf8Names;
+            names = newNames;
+            ids.put(category, id);
+        }
+        return id;
+    }
+
+    // EFFECTS:  returns the id of category, or NOT_FOUND if it has never been interned
+    public static int lookup(String category) {
+        Integer id = ids.get(category);
+        return id == null ? NOT_FOUND : id;
+    }
+
+    // REQUIRES: 0 <= from <= to <= utf8.length
+    // EFFECTS:  returns the id of the category whose name is encoded as UTF-8 in utf8[from, to),
+    //           or NOT_FOUND if it has never been interned, without creating a String;
+    //           there are only a handful of categories, so they are compared one by one
+    public static int lookup(byte[] utf8, int from, int to) {
+        byte[][] known = utf8Names;
+        int length = to - from;
+        for (int id = 0; id < known.length; id++) {
+            if (known[id].length == length && Arrays.equals(known[id], 0, length, utf8, from, to)) {
+                return id;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    // REQUIRES: 0 <= id < count()
+    // EFFECTS:  returns the name of the category with id
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    // EFFECTS:  returns the number of interned categories
+    public static int count() {
+        return names.length;
+    }
+
+    // EFFECTS:  returns the default category names, in id order
+    public static List<String> defaults() {
+        return DEFAULTS;
+    }
+
+}
@@ -1,6 +1,7 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -8,62 +9,111 @@ import java.util.Map;
 // Represents a category information storage, containing
 // a list containing the following category names:
 // income, bills, necessities, shopping, dining out, recreation, and other,
-// and a categories HashMap (key: category name, value: category's total sum (in dollars))
+// and a table of each category's total sum (in cents), indexed by the category's id;
+// a categories HashMap (key: category name, value: category's total sum (in cents))
+// is only built when asked for
 public class CategoryInfo implements Iterable<String> {
     private Account acc;
     private ArrayList<String> categoryNames;
-    private Map<String, Double> categoryMap;
+    private long[] totals;
+    private Map<String, Long> categoryMap;
 
     // EFFECTS:  creates a category information storage based on the acc,
     //           with a list of category names and
-    //           a categories HashMap with key: category name
-    //                                     value: total sum of category (initially zero)
+    //           a table of category totals (initially zero)
     public CategoryInfo(Account acc) {
         this.acc = acc;
         createCategoryNames();
-        createCategoryHashMap();
+        totals = new long[categoryNames.size()];
     }
 
     // MODIFIES: this
-    // EFFECTS:  creates a categories list containing the following categories:
+    // EFFECTS:  creates a categories list containing the default categories, in id order:
     //           income, bills, necessities, shopping, dining out, recreation, and other
     private void createCategoryNames() {
-        categoryNames = new ArrayList<>(7);
+        categoryNames = new ArrayList<>(Categories.defaults());
+    }
 
-        categoryNames.add("income");
-        categoryNames.add("bills");
-        categoryNames.add("necessities");
-        categoryNames.add("shopping");
-        categoryNames.add("dining");
-        categoryNames.add("recreation");
-        categoryNames.add("other");
+    // MODIFIES: this
+    // EFFECTS:  calculates category's total sum (in cents) based on records in the log
+    //           and updates the total sum in the table;
+    //           if log is empty or no records in the log have this category,
+    //           category total is zero;
+    //           if category is not in categoryNames, do nothing
+    public void updateCategory(String category) {
+        int id = Categories.lookup(category);
+        if (isTracked(id)) {
+            long sum = 0;
+            if (! acc.isLogEmpty()) {
+                sum = acc.getStore().sumCategory(id);
+            }
+            totals[id] = sum;
+            categoryMap = null;
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS:  creates the categories HashMap with key: category name (based on the categoryNames list)
-    //                                               value: total sum of category (initially zero)
-    private void createCategoryHashMap() {
-        categoryMap = new HashMap<>();
-        for (String category : categoryNames) {
-            categoryMap.put(category, 0.00);
+    // EFFECTS:  adds the record's value to the total sum of the record's category;
+    //           if the record's category is not in categoryNames, do nothing
+    public void addToCategory(Record record) {
+        int id = record.getCategoryId();
+        if (isTracked(id)) {
+            totals[id] = record.addToCategory(totals[id]);
+            categoryMap = null;
         }
     }
 
     // MODIFIES: this
-    // EFFECTS:  calculates category's total sum (in dollars) based on records in the log
-    //           and updates the total sum in the categories HashMap;
-    //           if log is empty or no records in the log have this category,
-    //           category total is zero
-    public void updateCategory(String category) {
-        double sum = 0;
-        if (! acc.isLogEmpty()) {
-            for (Record record : acc.getLog()) {
-                if (record.getCategory().equals(category)) {
-                    sum = record.addToCategory(sum);
-                }
+    // EFFECTS:  subtracts the record's value from the total sum of the record's category;
+    //           if the record's category is not in categoryNames, do nothing
+    public void removeFromCategory(Record record) {
+        int id = record.getCategoryId();
+        if (isTracked(id)) {
+            totals[id] = record.removeFromCategory(totals[id]);
+            categoryMap = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  adds the change in each category's total sum gathered in delta
+    //           to the total sums in the table, in one pass;
+    //           categories not in categoryNames are left out
+    public void applyDelta(Aggregates delta) {
+        for (int id = 0; id < totals.length; id++) {
+            totals[id] += delta.getCategorySumCents(id);
+        }
+        categoryMap = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  replaces every category's total sum in the table with its total in aggregates
+    public void setTotals(Aggregates aggregates) {
+        for (int id = 0; id < totals.length; id++) {
+            totals[id] = aggregates.getCategorySumCents(id);
+        }
+        categoryMap = null;
+    }
+
+    // EFFECTS:  returns true if every category's total sum matches
+    //           a full recalculation (in one pass) from the records in the log, otherwise false
+    public boolean verifyCategories() {
+        return matches(acc.getStore().aggregate());
+    }
+
+    // EFFECTS:  returns true if every category's total sum matches its total in aggregates,
+    //           otherwise false
+    public boolean matches(Aggregates aggregates) {
+        for (int id = 0; id < totals.length; id++) {
+            if (aggregates.getCategorySumCents(id) != totals[id]) {
+                return false;
             }
         }
-        categoryMap.replace(category, sum);
+        return true;
+    }
+
+    // EFFECTS:  returns true if the category with id has a total in the table
+    private boolean isTracked(int id) {
+        return id >= 0 && id < totals.length;
     }
 
     // --------------------------------------------------------
@@ -83,16 +133,46 @@ public class CategoryInfo implements Iterable<String> {
     // REQUIRES: category exists in categoryNames
     // EFFECTS:  returns the category's total sum (in dollars)
     public double getCategorySum(String category) {
-        return categoryMap.get(category);
+        return Money.toDollars(getCategorySumCents(category));
+    }
+
+    // REQUIRES: category exists in categoryNames
+    // EFFECTS:  returns the category's total sum (in cents)
+    public long getCategorySumCents(String category) {
+        return totals[Categories.lookup(category)];
     }
 
-    // EFFECTS:  returns the category names list
+    // REQUIRES: 0 <= categoryId < size()
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId
+    public long getCategorySumCents(int categoryId) {
+        return totals[categoryId];
+    }
+
+    // EFFECTS:  returns a copy of the table of category totals (in cents), indexed by category id
+    long[] copyTotals() {
+        return totals.clone();
+    }
+
+    // EFFECTS:  returns the number of categories
+    public int size() {
+        return totals.length;
+    }
+
+    // EFFECTS:  returns the category names list, in category id order
     public ArrayList<String> getCategories() {
         return categoryNames;
     }
 
-    // EFFECTS:  returns the categories HashMap
-    public Map<String, Double> getCategoriesHashMap() {
+    // EFFECTS:  returns a read-only categories HashMap (values in cents),
+    //           building it from the table if a total has changed since it was last built
+    public Map<String, Long> getCategoriesHashMap() {
+        if (categoryMap == null) {
+            Map<String, Long> map = new HashMap<>();
+            for (int id = 0; id < totals.length; id++) {
+                map.put(categoryNames.get(id), totals[id]);
+            }
+            categoryMap = Collections.unmodifiableMap(map);
+        }
         return categoryMap;
     }
 
@@ -0,0 +1,244 @@
+package model;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Represents an account that many threads can add records to at the same time, for importing:
+// records are appended to one of several striped buffers (each with its own lock),
+// so that threads adding records rarely wait for each other,
+// and each stripe keeps the total sum (in cents) of each category of its own records, from which the balance is read.
+// Each stripe stamps its records from its own counter, never lower than the last stamp of the adding thread,
+// so stamps rise within each stripe and within each thread without a counter shared by every thread;
+// the log orders records by stamp (and by stripe among equal stamps), keeping each thread's records in order.
+// Each stripe also keeps a sequence number, odd while a record is being added to it (a sequence lock);
+// reading the totals takes no lock: it reads every stripe's sequence number, then every stripe's totals,
+// and keeps them only if no sequence number has changed since (retrying otherwise, and locking every stripe
+// if it keeps failing), so the totals are those of a single moment while records are being added
+public class ConcurrentAccount {
+    private static final int OPTIMISTIC_READS = 64;
+
+    private final Stripe[] stripes;
+    private final ThreadLocal<long[]> threadStamps;    // per thread: the lowest stamp its next record may get
+
+    // EFFECTS:  creates an empty concurrent account with one stripe per available processor
+    public ConcurrentAccount() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // REQUIRES: stripeCount >= 1
+    // EFFECTS:  creates an empty concurrent account with at least stripeCount stripes
+    //           (rounded up to a power of two)
+    public ConcurrentAccount(int stripeCount) {
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        threadStamps = ThreadLocal.withInitial(() -> new long[1]);
+    }
+
+    // --------------------------------------------------------
+
+    // Records log methods
+
+    // MODIFIES: this
+    // EFFECTS:  adds the record to the end of the records log and applies its value to the balance
+    //           and its category total sum; safe to call from many threads at once;
+    //           returns the record's stamp (a thread adding records alone gets 0, 1, 2, ...,
+    //           which are then also their ids in toAccount())
+    public long addRecord(Record record) {
+        long[] threadStamp = threadStamps.get();
+        Stripe stripe = lockStripe();
+        long stamp;
+        try {
+            stamp = Math.max(stripe.nextStamp, threadStamp[0]);
+            stripe.append(stamp, record);
+        } finally {
+            stripe.lock.unlock();
+        }
+        threadStamp[0] = stamp + 1;
+        return stamp;
+    }
+
+    // EFFECTS:  returns an account holding every record added so far, in stamp order,
+    //           with its totals calculated from the records; holds every stripe's lock while it merges them
+    public Account toAccount() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            return new Account(Arrays.asList(mergeStripes()));
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Getters
+
+    // EFFECTS:  returns the number of records added so far
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.count;
+        }
+        return size;
+    }
+
+    // EFFECTS:  returns the balance of the account (in cents) at a single moment (see getTotals)
+    public long getBalanceCents() {
+        return getTotals().getBalanceCents();
+    }
+
+    // EFFECTS:  returns the category's total sum (in cents);
+    //           zero if no record has this category
+    public long getCategorySumCents(String category) {
+        int id = Categories.lookup(category);
+        return id == Categories.NOT_FOUND ? 0 : getTotals().getCategorySumCents(id);
+    }
+
+    // EFFECTS:  returns the balance and every category's total sum (in cents) as they were at a single moment
+    //           while this ran: they count every record whose addRecord returned before this was called,
+    //           none half added, and, of the records added while this runs, only ones added before that moment;
+    //           reads the stripes without locking them, locking them all only if records keep being added
+    //           while they are read
+    public Aggregates getTotals() {
+        long[] sequences = new long[stripes.length];
+        for (int attempt = 0; attempt < OPTIMISTIC_READS; attempt++) {
+            Aggregates aggregates = readTotals(sequences);
+            if (aggregates != null && isUnchanged(sequences)) {
+                return aggregates;
+            }
+            Thread.onSpinWait();
+        }
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            return readTotals(sequences);
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // MODIFIES: sequences
+    // EFFECTS:  reads every stripe's sequence number into sequences, then adds up every stripe's totals
+    //           and returns them; returns null as soon as a stripe is found with a record half added
+    //           (the totals read are only those of a single moment if isUnchanged(sequences) is true afterwards)
+    private Aggregates readTotals(long[] sequences) {
+        for (int i = 0; i < stripes.length; i++) {
+            sequences[i] = stripes[i].sequence;
+            if ((sequences[i] & 1) != 0) {
+                return null;
+            }
+        }
+        Aggregates aggregates = new Aggregates();
+        for (Stripe stripe : stripes) {
+            long[] totals = stripe.totals;
+            for (int id = 0; id < totals.length; id++) {
+                if (totals[id] != 0) {
+                    aggregates.add(id, totals[id]);
+                }
+            }
+        }
+        return aggregates;
+    }
+
+    // EFFECTS:  returns true if every stripe's sequence number is still the one in sequences,
+    //           so that no record was added to any stripe since they were read, otherwise false
+    private boolean isUnchanged(long[] sequences) {
+        VarHandle.acquireFence();
+        for (int i = 0; i < stripes.length; i++) {
+            if (stripes[i].sequence != sequences[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // REQUIRES: the current thread holds every stripe's lock
+    // EFFECTS:  returns the records of every stripe merged in stamp order
+    //           (the lower stripe first among equal stamps)
+    private Record[] mergeStripes() {
+        Record[] merged = new Record[size()];
+        int[] next = new int[stripes.length];
+        for (int n = 0; n < merged.length; n++) {
+            int first = -1;
+            for (int i = 0; i < stripes.length; i++) {
+                if (next[i] < stripes[i].count
+                        && (first < 0 || stripes[i].stamps[next[i]] < stripes[first].stamps[next[first]])) {
+                    first = i;
+                }
+            }
+            merged[n] = stripes[first].records.get(next[first]++);
+        }
+        return merged;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  locks and returns a stripe for the current thread to append to,
+    //           starting at the thread's own stripe and moving on to the next stripe while it is busy;
+    //           waits for the thread's own stripe if every stripe is busy
+    private Stripe lockStripe() {
+        int mask = stripes.length - 1;
+        int home = (int) Thread.currentThread().getId() & mask;
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[(home + i) & mask];
+            if (stripe.lock.tryLock()) {
+                return stripe;
+            }
+        }
+        stripes[home].lock.lock();
+        return stripes[home];
+    }
+
+    // Represents one append buffer: the records added to it (stored column by column),
+    // the stamp of each and the total sum (in cents) of each category among them, guarded by the stripe's lock;
+    // count is also read without it (by size), and the totals are read without it under the sequence number,
+    // which is odd while a record is being added
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final RecordStore records = new RecordStore();
+        private long[] stamps = new long[16];
+        private long[] totals = new long[Categories.count()];  // indexed by category id
+        private long nextStamp;
+        private volatile int count;
+        private volatile long sequence;
+
+        // REQUIRES: the current thread holds lock and stamp >= nextStamp
+        // MODIFIES: this
+        // EFFECTS:  appends record with its stamp and adds it to the category totals,
+        //           making the sequence number odd while it does
+        private void append(long stamp, Record record) {
+            sequence++;
+            VarHandle.storeStoreFence();
+            if (count == stamps.length) {
+                stamps = Arrays.copyOf(stamps, count * 2);
+            }
+            int categoryId = record.getCategoryId();
+            if (categoryId >= totals.length) {
+                totals = Arrays.copyOf(totals, Math.max(categoryId + 1, Categories.count()));
+            }
+            totals[categoryId] += record.getCents();
+            stamps[count] = stamp;
+            nextStamp = stamp + 1;
+            records.add(record);
+            count++;
+            sequence++;
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+package model;
+
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+// Represents record columns kept off the heap, each in a direct buffer of native byte order
+// (so the garbage collector sees a handful of buffer objects however many records there are,
+// and the records do not count against the heap size); the memory of a buffer is freed
+// once the buffer is no longer reachable, so columns that were replaced cost nothing after their last snapshot.
+// A column holds at most 2^31 - 1 bytes, so the columns hold up to 2^28 slots and 2^30 characters of titles
+class DirectColumns extends RecordColumns {
+    private final LongBuffer ids;
+    private final LongBuffer amounts;
+    private final IntBuffer categoryIds;
+    private final IntBuffer titleStarts;
+    private final IntBuffer titleLengths;
+    private final CharBuffer titles;
+
+    // EFFECTS:  creates empty columns holding capacity slots and titleCapacity characters of titles
+    DirectColumns(int capacity, int titleCapacity) {
+        this(longs(capacity), longs(capacity), ints(capacity), ints(capacity), ints(capacity), chars(titleCapacity));
+    }
+
+    // EFFECTS:  creates columns over the given buffers
+    private DirectColumns(LongBuffer ids, LongBuffer amounts, IntBuffer categoryIds, IntBuffer titleStarts,
+                          IntBuffer titleLengths, CharBuffer titles) {
+        this.ids = ids;
+        this.amounts = amounts;
+        this.categoryIds = categoryIds;
+        this.titleStarts = titleStarts;
+        this.titleLengths = titleLengths;
+        this.titles = titles;
+    }
+
+    // EFFECTS:  returns the number of slots the columns can hold
+    @Override
+    int capacity() {
+        return amounts.capacity();
+    }
+
+    // EFFECTS:  returns the number of characters the title arena can hold
+    @Override
+    int titleCapacity() {
+        return titles.capacity();
+    }
+
+    // EFFECTS:  returns true, as the columns are kept off the heap
+    @Override
+    boolean isDirect() {
+        return true;
+    }
+
+    // EFFECTS:  returns columns holding capacity slots, the first capacity() of them copied from these
+    @Override
+    RecordColumns grow(int capacity) {
+        int count = capacity();
+        return new DirectColumns(longs(capacity).put(0, ids, 0, count), longs(capacity).put(0, amounts, 0, count),
+                ints(capacity).put(0, categoryIds, 0, count), ints(capacity).put(0, titleStarts, 0, count),
+                ints(capacity).put(0, titleLengths, 0, count), titles);
+    }
+
+    // EFFECTS:  returns columns sharing these slot columns with a title arena of capacity characters
+    @Override
+    RecordColumns growTitles(int capacity) {
+        CharBuffer grown = chars(capacity).put(0, titles, 0, titles.capacity());
+        return new DirectColumns(ids, amounts, categoryIds, titleStarts, titleLengths, grown);
+    }
+
+    // EFFECTS:  returns columns sharing these slot columns with a new, empty title arena
+    @Override
+    RecordColumns withNewTitles(int capacity) {
+        return new DirectColumns(ids, amounts, categoryIds, titleStarts, titleLengths, chars(capacity));
+    }
+
+    // EFFECTS:  returns columns holding copies of these slot columns and sharing this title arena
+    @Override
+    RecordColumns copy() {
+        return grow(capacity());
+    }
+
+    // EFFECTS:  returns new, empty columns kept off the heap
+    @Override
+    RecordColumns empty(int capacity, int titleCapacity) {
+        return new DirectColumns(capacity, titleCapacity);
+    }
+
+    // --------------------------------------------------------
+
+    // Slot methods
+
+    // EFFECTS:  returns the id in slot
+    @Override
+    long id(int slot) {
+        return ids.get(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the id in slot to id
+    @Override
+    void setId(int slot, long id) {
+        ids.put(slot, id);
+    }
+
+    // EFFECTS:  returns the amount (in cents) in slot
+    @Override
+    long cents(int slot) {
+        return amounts.get(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the amount (in cents) in slot to cents
+    @Override
+    void setCents(int slot, long cents) {
+        amounts.put(slot, cents);
+    }
+
+    // EFFECTS:  returns the interned category id in slot
+    @Override
+    int categoryId(int slot) {
+        return categoryIds.get(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the interned category id in slot to categoryId
+    @Override
+    void setCategoryId(int slot, int categoryId) {
+        categoryIds.put(slot, categoryId);
+    }
+
+    // EFFECTS:  returns where the title of the record in slot starts in the arena
+    @Override
+    int titleStart(int slot) {
+        return titleStarts.get(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets where the title of the record in slot starts in the arena to start
+    @Override
+    void setTitleStart(int slot, int start) {
+        titleStarts.put(slot, start);
+    }
+
+    // EFFECTS:  returns the length of the title of the record in slot
+    @Override
+    int titleLength(int slot) {
+        return titleLengths.get(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the length of the title of the record in slot to length
+    @Override
+    void setTitleLength(int slot, int length) {
+        titleLengths.put(slot, length);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  copies count slots of src starting at srcPos into these columns starting at destPos,
+    //           copying memory in bulk if src is also kept off the heap (overlapping ranges are moved safely)
+    @Override
+    void copySlots(RecordColumns src, int srcPos, int destPos, int count) {
+        if (!(src instanceof DirectColumns)) {
+            super.copySlots(src, srcPos, destPos, count);
+            return;
+        }
+        DirectColumns direct = (DirectColumns) src;
+        ids.put(destPos, direct.ids, srcPos, count);
+        amounts.put(destPos, direct.amounts, srcPos, count);
+        categoryIds.put(destPos, direct.categoryIds, srcPos, count);
+        titleStarts.put(destPos, direct.titleStarts, srcPos, count);
+        titleLengths.put(destPos, direct.titleLengths, srcPos, count);
+    }
+
+    // --------------------------------------------------------
+
+    // Title arena methods
+
+    // MODIFIES: this
+    // EFFECTS:  writes the characters of title into the arena starting at at
+    @Override
+    void putTitle(int at, String title) {
+        for (int i = 0; i < title.length(); i++) {
+            titles.put(at + i, title.charAt(i));
+        }
+    }
+
+    // EFFECTS:  returns the title of length characters starting at start, copied out of the arena
+    @Override
+    String titleAt(int start, int length) {
+        char[] title = new char[length];
+        titles.get(start, title);
+        return new String(title);
+    }
+
+    // MODIFIES: printWriter
+    // EFFECTS:  writes the title of length characters starting at start in the arena to printWriter
+    @Override
+    void writeTitleAt(int start, int length, PrintWriter printWriter) {
+        printWriter.print(titleAt(start, length));
+    }
+
+    // EFFECTS:  returns the character at at in the arena
+    @Override
+    char titleChar(int at) {
+        return titles.get(at);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the character at at in the arena to c
+    @Override
+    void setTitleChar(int at, char c) {
+        titles.put(at, c);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  copies length characters of src's arena starting at srcPos into this arena starting at destPos,
+    //           copying memory in bulk if src is also kept off the heap
+    @Override
+    void copyTitles(RecordColumns src, int srcPos, int destPos, int length) {
+        if (src instanceof DirectColumns) {
+            titles.put(destPos, ((DirectColumns) src).titles, srcPos, length);
+        } else {
+            super.copyTitles(src, srcPos, destPos, length);
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Scan methods
+
+    // EFFECTS:  returns the balance (in cents) of the slots from from (inclusive) to to (exclusive)
+    @Override
+    long sumBalance(int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            if (categoryIds.get(i) == Categories.INCOME) {
+                sum += amounts.get(i);
+            } else {
+                sum -= amounts.get(i);
+            }
+        }
+        return sum;
+    }
+
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId in the slots from from to to
+    @Override
+    long sumCategory(int categoryId, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            if (categoryIds.get(i) == categoryId) {
+                sum += amounts.get(i);
+            }
+        }
+        return sum;
+    }
+
+    // MODIFIES: aggregates
+    // EFFECTS:  adds every record in the slots from from (inclusive) to to (exclusive) to aggregates
+    @Override
+    void aggregate(int from, int to, Aggregates aggregates) {
+        for (int slot = from; slot < to; slot++) {
+            int categoryId = categoryIds.get(slot);
+            if (categoryId != RecordStore.TOMBSTONE) {
+                aggregates.add(categoryId, amounts.get(slot));
+            }
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // EFFECTS:  returns a new direct buffer of count longs
+    private static LongBuffer longs(int count) {
+        return ByteBuffer.allocateDirect(count * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    // EFFECTS:  returns a new direct buffer of count ints
+    private static IntBuffer ints(int count) {
+        return ByteBuffer.allocateDirect(count * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    // EFFECTS:  returns a new direct buffer of count chars
+    private static CharBuffer chars(int count) {
+        return ByteBuffer.allocateDirect(count * Character.BYTES).order(ByteOrder.nativeOrder()).asCharBuffer();
+    }
+
+}
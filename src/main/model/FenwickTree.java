@@ -0,0 +1,106 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a binary indexed (Fenwick) tree over a growing list of long values (indexed at 0),
+// answering prefix and range sums, point updates and appends in O(log n)
+public class FenwickTree {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] tree;    // indexed at 1: tree[i] holds the sum of values (i - lowestBit(i), i]
+    private int size;
+
+    // EFFECTS:  creates an empty tree
+    public FenwickTree() {
+        tree = new long[INITIAL_CAPACITY + 1];
+    }
+
+    // REQUIRES: 0 <= count <= values.length
+    // EFFECTS:  creates a tree over the first count values, in O(count)
+    public FenwickTree(long[] values, int count) {
+        tree = new long[Math.max(count, INITIAL_CAPACITY) + 1];
+        size = count;
+        for (int i = 1; i <= count; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + lowestBit(i);
+            if (parent <= count) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    // EFFECTS:  returns a copy of the tree, in O(n)
+    public FenwickTree copy() {
+        FenwickTree copy = new FenwickTree();
+        copy.tree = tree.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  adds value to the end of the list
+    public void append(long value) {
+        if (size + 1 >= tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+        }
+        size++;
+        long node = value;
+        int lower = size - lowestBit(size);
+        for (int i = size - 1; i > lower; i -= lowestBit(i)) {
+            node += tree[i];
+        }
+        tree[size] = node;
+    }
+
+    // REQUIRES: 0 <= index < size()
+    // MODIFIES: this
+    // EFFECTS:  adds delta to the value at index
+    public void add(int index, long delta) {
+        for (int i = index + 1; i <= size; i += lowestBit(i)) {
+            tree[i] += delta;
+        }
+    }
+
+    // REQUIRES: 0 <= count <= size()
+    // EFFECTS:  returns the sum of the first count values
+    public long prefixSum(int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= lowestBit(i)) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // REQUIRES: 0 <= from <= to <= size()
+    // EFFECTS:  returns the sum of the values from index from (inclusive) to index to (exclusive)
+    public long rangeSum(int from, int to) {
+        return prefixSum(to) - prefixSum(from);
+    }
+
+    // REQUIRES: every value >= 0 and 1 <= k <= prefixSum(size())
+    // EFFECTS:  returns the smallest index whose prefix sum (up to and including it) is at least k;
+    //           for a tree of 1s and 0s this is the index of the k-th 1
+    public int select(long k) {
+        int pos = 0;
+        long remaining = k;
+        for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= size && tree[next] < remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return pos;
+    }
+
+    // EFFECTS:  returns the number of values in the tree
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS:  returns the lowest set bit of i
+    private static int lowestBit(int i) {
+        return i & -i;
+    }
+
+}
@@ -0,0 +1,260 @@
+package model;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// Represents record columns kept on the heap: parallel primitive arrays for the slot columns
+// and a character array for the title arena
+class HeapColumns extends RecordColumns {
+    private final long[] ids;
+    private final long[] amounts;
+    private final int[] categoryIds;
+    private final int[] titleStarts;
+    private final int[] titleLengths;
+    private final char[] titles;
+
+    // EFFECTS:  creates empty columns holding capacity slots and titleCapacity characters of titles
+    HeapColumns(int capacity, int titleCapacity) {
+        this(new long[capacity], new long[capacity], new int[capacity], new int[capacity], new int[capacity],
+                new char[titleCapacity]);
+    }
+
+    // EFFECTS:  creates columns over the given arrays
+    private HeapColumns(long[] ids, long[] amounts, int[] categoryIds, int[] titleStarts, int[] titleLengths,
+                        char[] titles) {
+        this.ids = ids;
+        this.amounts = amounts;
+        this.categoryIds = categoryIds;
+        this.titleStarts = titleStarts;
+        this.titleLengths = titleLengths;
+        this.titles = titles;
+    }
+
+    // EFFECTS:  returns the number of slots the columns can hold
+    @Override
+    int capacity() {
+        return amounts.length;
+    }
+
+    // EFFECTS:  returns the number of characters the title arena can hold
+    @Override
+    int titleCapacity() {
+        return titles.length;
+    }
+
+    // EFFECTS:  returns false, as the columns are kept on the heap
+    @Override
+    boolean isDirect() {
+        return false;
+    }
+
+    // EFFECTS:  returns columns holding capacity slots, the first capacity() of them copied from these
+    @Override
+    RecordColumns grow(int capacity) {
+        return new HeapColumns(Arrays.copyOf(ids, capacity), Arrays.copyOf(amounts, capacity),
+                Arrays.copyOf(categoryIds, capacity), Arrays.copyOf(titleStarts, capacity),
+                Arrays.copyOf(titleLengths, capacity), titles);
+    }
+
+    // EFFECTS:  returns columns sharing these slot columns with a title arena of capacity characters
+    @Override
+    RecordColumns growTitles(int capacity) {
+        return new HeapColumns(ids, amounts, categoryIds, titleStarts, titleLengths, Arrays.copyOf(titles, capacity));
+    }
+
+    // EFFECTS:  returns columns sharing these slot columns with a new, empty title arena
+    @Override
+    RecordColumns withNewTitles(int capacity) {
+        return new HeapColumns(ids, amounts, categoryIds, titleStarts, titleLengths, new char[capacity]);
+    }
+
+    // EFFECTS:  returns columns holding copies of these slot columns and sharing this title arena
+    @Override
+    RecordColumns copy() {
+        return new HeapColumns(ids.clone(), amounts.clone(), categoryIds.clone(), titleStarts.clone(),
+                titleLengths.clone(), titles);
+    }
+
+    // EFFECTS:  returns new, empty columns kept on the heap
+    @Override
+    RecordColumns empty(int capacity, int titleCapacity) {
+        return new HeapColumns(capacity, titleCapacity);
+    }
+
+    // --------------------------------------------------------
+
+    // Slot methods
+
+    // EFFECTS:  returns the id in slot
+    @Override
+    long id(int slot) {
+        return ids[slot];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the id in slot to id
+    @Override
+    void setId(int slot, long id) {
+        ids[slot] = id;
+    }
+
+    // EFFECTS:  returns the amount (in cents) in slot
+    @Override
+    long cents(int slot) {
+        return amounts[slot];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the amount (in cents) in slot to cents
+    @Override
+    void setCents(int slot, long cents) {
+        amounts[slot] = cents;
+    }
+
+    // EFFECTS:  returns the interned category id in slot
+    @Override
+    int categoryId(int slot) {
+        return categoryIds[slot];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the interned category id in slot to categoryId
+    @Override
+    void setCategoryId(int slot, int categoryId) {
+        categoryIds[slot] = categoryId;
+    }
+
+    // EFFECTS:  returns where the title of the record in slot starts in the arena
+    @Override
+    int titleStart(int slot) {
+        return titleStarts[slot];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets where the title of the record in slot starts in the arena to start
+    @Override
+    void setTitleStart(int slot, int start) {
+        titleStarts[slot] = start;
+    }
+
+    // EFFECTS:  returns the length of the title of the record in slot
+    @Override
+    int titleLength(int slot) {
+        return titleLengths[slot];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the length of the title of the record in slot to length
+    @Override
+    void setTitleLength(int slot, int length) {
+        titleLengths[slot] = length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  copies count slots of src starting at srcPos into these columns starting at destPos,
+    //           with System.arraycopy if src is also kept on the heap
+    @Override
+    void copySlots(RecordColumns src, int srcPos, int destPos, int count) {
+        if (!(src instanceof HeapColumns)) {
+            super.copySlots(src, srcPos, destPos, count);
+            return;
+        }
+        HeapColumns heap = (HeapColumns) src;
+        System.arraycopy(heap.ids, srcPos, ids, destPos, count);
+        System.arraycopy(heap.amounts, srcPos, amounts, destPos, count);
+        System.arraycopy(heap.categoryIds, srcPos, categoryIds, destPos, count);
+        System.arraycopy(heap.titleStarts, srcPos, titleStarts, destPos, count);
+        System.arraycopy(heap.titleLengths, srcPos, titleLengths, destPos, count);
+    }
+
+    // --------------------------------------------------------
+
+    // Title arena methods
+
+    // MODIFIES: this
+    // EFFECTS:  writes the characters of title into the arena starting at at
+    @Override
+    void putTitle(int at, String title) {
+        title.getChars(0, title.length(), titles, at);
+    }
+
+    // EFFECTS:  returns the title of length characters starting at start in the arena
+    @Override
+    String titleAt(int start, int length) {
+        return new String(titles, start, length);
+    }
+
+    // MODIFIES: printWriter
+    // EFFECTS:  writes the title of length characters starting at start to printWriter, straight from the arena
+    @Override
+    void writeTitleAt(int start, int length, PrintWriter printWriter) {
+        printWriter.write(titles, start, length);
+    }
+
+    // EFFECTS:  returns the character at at in the arena
+    @Override
+    char titleChar(int at) {
+        return titles[at];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the character at at in the arena to c
+    @Override
+    void setTitleChar(int at, char c) {
+        titles[at] = c;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  copies length characters of src's arena starting at srcPos into this arena starting at destPos,
+    //           with System.arraycopy if src is also kept on the heap
+    @Override
+    void copyTitles(RecordColumns src, int srcPos, int destPos, int length) {
+        if (src instanceof HeapColumns) {
+            System.arraycopy(((HeapColumns) src).titles, srcPos, titles, destPos, length);
+        } else {
+            super.copyTitles(src, srcPos, destPos, length);
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Scan methods
+
+    // EFFECTS:  returns the balance (in cents) of the slots from from (inclusive) to to (exclusive)
+    @Override
+    long sumBalance(int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            if (categoryIds[i] == Categories.INCOME) {
+                sum += amounts[i];
+            } else {
+                sum -= amounts[i];
+            }
+        }
+        return sum;
+    }
+
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId in the slots from from to to
+    @Override
+    long sumCategory(int categoryId, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            if (categoryIds[i] == categoryId) {
+                sum += amounts[i];
+            }
+        }
+        return sum;
+    }
+
+    // MODIFIES: aggregates
+    // EFFECTS:  adds every record in the slots from from (inclusive) to to (exclusive) to aggregates
+    @Override
+    void aggregate(int from, int to, Aggregates aggregates) {
+        for (int slot = from; slot < to; slot++) {
+            if (categoryIds[slot] != RecordStore.TOMBSTONE) {
+                aggregates.add(categoryIds[slot], amounts[slot]);
+            }
+        }
+    }
+
+}
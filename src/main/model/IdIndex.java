@@ -0,0 +1,105 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents a hash table from record ids (>= 0) to slots in a record store,
+// using open addressing with linear probing in two primitive arrays,
+// so that lookups, insertions and deletions take O(1) time and allocate nothing
+public class IdIndex {
+    private static final long EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] slots;
+    private int size;
+
+    // EFFECTS:  creates an empty index
+    public IdIndex() {
+        keys = new long[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        slots = new int[INITIAL_CAPACITY];
+    }
+
+    // REQUIRES: id >= 0
+    // MODIFIES: this
+    // EFFECTS:  maps id to slot, replacing any slot id was mapped to before
+    public void put(long id, int slot) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int i = find(id);
+        if (keys[i] == EMPTY) {
+            keys[i] = id;
+            size++;
+        }
+        slots[i] = slot;
+    }
+
+    // EFFECTS:  returns the slot id is mapped to, or -1 if id is not in the index
+    public int get(long id) {
+        int i = find(id);
+        return keys[i] == EMPTY ? -1 : slots[i];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  removes id from the index, if it is there
+    public void remove(long id) {
+        int i = find(id);
+        if (keys[i] == EMPTY) {
+            return;
+        }
+        keys[i] = EMPTY;
+        size--;
+        int mask = keys.length - 1;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = home(keys[j]);
+            boolean canFillHole = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+            if (canFillHole) {
+                keys[i] = keys[j];
+                slots[i] = slots[j];
+                keys[j] = EMPTY;
+                i = j;
+            }
+        }
+    }
+
+    // EFFECTS:  returns the number of ids in the index
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS:  returns the array position holding id,
+    //           or the empty position where id would be inserted
+    private int find(long id) {
+        int mask = keys.length - 1;
+        int i = home(id);
+        while (keys[i] != EMPTY && keys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    // EFFECTS:  returns the array position id hashes to
+    private int home(long id) {
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & (keys.length - 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  moves every id into new arrays of the given capacity (a power of two)
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        slots = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = find(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                slots[j] = oldSlots[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents which slots of a record store hold live records and which hold tombstones:
+// a bitmap kept in pages of PagedColumns.PAGE_SIZE slots, and a binary indexed tree counting
+// the live slots of each page, so that the slot of the k-th live record and the number of live slots
+// before a slot are both found in O(log n).
+// A snapshot shares the pages and the tree (see share); afterwards the map copies a page,
+// or the tree of page counts, the first time it changes it
+class LiveSlots {
+    private static final int WORDS_PER_PAGE = PagedColumns.PAGE_SIZE / Long.SIZE;
+    private static final int INITIAL_PAGES = 4;
+
+    private long[][] pages;
+    private boolean[] owned;            // false for a page a snapshot may be reading
+    private FenwickTree pageCounts;
+    private boolean countsOwned;
+    private int size;
+
+    // EFFECTS:  creates an empty map
+    LiveSlots() {
+        pages = new long[INITIAL_PAGES][];
+        owned = new boolean[INITIAL_PAGES];
+        pageCounts = new FenwickTree();
+        countsOwned = true;
+    }
+
+    // EFFECTS:  creates a map sharing the pages and page counts of source, which it must only read
+    private LiveSlots(LiveSlots source) {
+        pages = source.pages.clone();
+        owned = new boolean[pages.length];
+        pageCounts = source.pageCounts;
+        size = source.size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns a map sharing the pages and page counts of this one, for a snapshot to read,
+    //           and marks them so that this map copies them before it next changes them
+    LiveSlots share() {
+        Arrays.fill(owned, false);
+        countsOwned = false;
+        return new LiveSlots(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  adds a slot after the last one, live if live is true and a tombstone otherwise
+    void append(boolean live) {
+        int page = size / PagedColumns.PAGE_SIZE;
+        if (size % PagedColumns.PAGE_SIZE == 0) {
+            if (page == pages.length) {
+                pages = Arrays.copyOf(pages, page * 2);
+                owned = Arrays.copyOf(owned, page * 2);
+            }
+            pages[page] = new long[WORDS_PER_PAGE];
+            owned[page] = true;
+            writableCounts().append(0);
+        }
+        size++;
+        set(size - 1, live);
+    }
+
+    // REQUIRES: 0 <= slot < size()
+    // MODIFIES: this
+    // EFFECTS:  marks slot live if live is true, otherwise marks it as a tombstone
+    void set(int slot, boolean live) {
+        if (isLive(slot) == live) {
+            return;
+        }
+        int page = slot / PagedColumns.PAGE_SIZE;
+        long[] words = writablePage(page);
+        int word = (slot % PagedColumns.PAGE_SIZE) / Long.SIZE;
+        words[word] ^= 1L << slot;
+        writableCounts().add(page, live ? 1 : -1);
+    }
+
+    // REQUIRES: 0 <= slot < size()
+    // EFFECTS:  returns true if slot is live, false if it holds a tombstone
+    boolean isLive(int slot) {
+        long word = pages[slot / PagedColumns.PAGE_SIZE][(slot % PagedColumns.PAGE_SIZE) / Long.SIZE];
+        return (word & (1L << slot)) != 0;
+    }
+
+    // REQUIRES: 1 <= k <= the number of live slots
+    // EFFECTS:  returns the slot of the k-th live slot
+    int select(int k) {
+        int page = pageCounts.select(k);
+        int remaining = k - (int) pageCounts.prefixSum(page);
+        long[] words = pages[page];
+        int word = 0;
+        while (Long.bitCount(words[word]) < remaining) {
+            remaining -= Long.bitCount(words[word]);
+            word++;
+        }
+        long bits = words[word];
+        for (int i = 1; i < remaining; i++) {
+            bits &= bits - 1;
+        }
+        return page * PagedColumns.PAGE_SIZE + word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    // REQUIRES: 0 <= slot <= size()
+    // EFFECTS:  returns the number of live slots before slot
+    int rank(int slot) {
+        int page = slot / PagedColumns.PAGE_SIZE;
+        long rank = pageCounts.prefixSum(page);
+        int word = (slot % PagedColumns.PAGE_SIZE) / Long.SIZE;
+        for (int i = 0; i < word; i++) {
+            rank += Long.bitCount(pages[page][i]);
+        }
+        if (slot % Long.SIZE != 0) {
+            rank += Long.bitCount(pages[page][word] & (-1L >>> (Long.SIZE - slot % Long.SIZE)));
+        }
+        return (int) rank;
+    }
+
+    // EFFECTS:  returns the number of slots in the map
+    int size() {
+        return size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the words of page, copying them first if a snapshot may be reading them
+    private long[] writablePage(int page) {
+        if (!owned[page]) {
+            pages[page] = pages[page].clone();
+            owned[page] = true;
+        }
+        return pages[page];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the tree of page counts, copying it first if a snapshot may be reading it
+    private FenwickTree writableCounts() {
+        if (!countsOwned) {
+            pageCounts = pageCounts.copy();
+            countsOwned = true;
+        }
+        return pageCounts;
+    }
+
+}
@@ -0,0 +1,209 @@
+package model;
+
+import java.util.Arrays;
+
+// Represents an index over the records of a log, answering running balance
+// and range sums by position in O(log n) with binary indexed trees:
+// one over the signed record values (income positive, all others negative),
+// one per category over that category's values, and one counting live slots.
+// The index has one entry for each slot of a record store, so a record is found by its slot;
+// a removed record's entry is zeroed instead of shifting later entries,
+// and the position of a record is found by counting live entries.
+// The index must be rebuilt whenever the store compacts its slots;
+// a batch of edits is collected in Edits and applied slot by slot, unless it changes most of the store
+public class LogIndex {
+    private FenwickTree live;
+    private FenwickTree net;
+    private FenwickTree[] categoryTrees;    // indexed by category id, null until a record has the category
+    private int liveCount;
+
+    // EFFECTS:  creates an index over the slots of store, in O(n)
+    public LogIndex(RecordStore store) {
+        int size = store.slotCount();
+        long[] ones = new long[size];
+        long[] signed = new long[size];
+        long[][] categoryValues = new long[Categories.count()][];
+        for (int i = 0; i < size; i++) {
+            int categoryId = store.categoryIdAtSlot(i);
+            if (categoryId == RecordStore.TOMBSTONE) {
+                continue;
+            }
+            long cents = store.centsAtSlot(i);
+            ones[i] = 1;
+            signed[i] = signed(categoryId, cents);
+            if (categoryValues[categoryId] == null) {
+                categoryValues[categoryId] = new long[size];
+            }
+            categoryValues[categoryId][i] = cents;
+        }
+        live = new FenwickTree(ones, size);
+        net = new FenwickTree(signed, size);
+        categoryTrees = new FenwickTree[categoryValues.length];
+        for (int id = 0; id < categoryValues.length; id++) {
+            if (categoryValues[id] != null) {
+                categoryTrees[id] = new FenwickTree(categoryValues[id], size);
+            }
+        }
+        liveCount = store.size();
+    }
+
+    // --------------------------------------------------------
+
+    // Update methods
+
+    // MODIFIES: this
+    // EFFECTS:  adds a record with categoryId and cents in a new slot after the last one
+    public void append(int categoryId, long cents) {
+        categoryTree(categoryId);
+        live.append(1);
+        net.append(signed(categoryId, cents));
+        for (int id = 0; id < categoryTrees.length; id++) {
+            if (categoryTrees[id] != null) {
+                categoryTrees[id].append(id == categoryId ? cents : 0);
+            }
+        }
+        liveCount++;
+    }
+
+    // REQUIRES: the record in slot was not removed and has oldCategoryId and oldCents
+    // MODIFIES: this
+    // EFFECTS:  changes the record in slot to have newCategoryId and newCents
+    public void edit(int slot, int oldCategoryId, long oldCents, int newCategoryId, long newCents) {
+        net.add(slot, signed(newCategoryId, newCents) - signed(oldCategoryId, oldCents));
+        categoryTree(oldCategoryId).add(slot, -oldCents);
+        categoryTree(newCategoryId).add(slot, newCents);
+    }
+
+    // REQUIRES: the record in slot was not removed and has categoryId and cents
+    // MODIFIES: this
+    // EFFECTS:  removes the record in slot; later records move down one position
+    public void remove(int slot, int categoryId, long cents) {
+        live.add(slot, -1);
+        net.add(slot, -signed(categoryId, cents));
+        categoryTree(categoryId).add(slot, -cents);
+        liveCount--;
+    }
+
+    // REQUIRES: the record in slot was removed
+    // MODIFIES: this
+    // EFFECTS:  puts a record with categoryId and cents back into slot
+    public void restore(int slot, int categoryId, long cents) {
+        live.add(slot, 1);
+        net.add(slot, signed(categoryId, cents));
+        categoryTree(categoryId).add(slot, cents);
+        liveCount++;
+    }
+
+    // --------------------------------------------------------
+
+    // Query methods
+
+    // REQUIRES: 0 <= count <= size()
+    // EFFECTS:  returns the balance (in cents) of the first count records
+    public long netBefore(int count) {
+        return count == 0 ? 0 : net.prefixSum(slotOf(count - 1) + 1);
+    }
+
+    // REQUIRES: 0 <= count <= size()
+    // EFFECTS:  returns the total sum (in cents) of the records in the category with categoryId
+    //           among the first count records
+    public long categoryBefore(int categoryId, int count) {
+        if (count == 0 || categoryId >= categoryTrees.length || categoryTrees[categoryId] == null) {
+            return 0;
+        }
+        return categoryTrees[categoryId].prefixSum(slotOf(count - 1) + 1);
+    }
+
+    // EFFECTS:  returns the number of records in the index
+    public int size() {
+        return liveCount;
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns the slot of the record in position pos
+    private int slotOf(int pos) {
+        return live.select(pos + 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the tree of the category with categoryId,
+    //           creating it (all zeros) if no record has had this category yet
+    private FenwickTree categoryTree(int categoryId) {
+        if (categoryId >= categoryTrees.length) {
+            categoryTrees = Arrays.copyOf(categoryTrees, Math.max(categoryId + 1, Categories.count()));
+        }
+        if (categoryTrees[categoryId] == null) {
+            categoryTrees[categoryId] = new FenwickTree(new long[live.size()], live.size());
+        }
+        return categoryTrees[categoryId];
+    }
+
+    // EFFECTS:  returns cents signed by how the category changes the balance:
+    //           positive for income, negative for every other category
+    private static long signed(int categoryId, long cents) {
+        return categoryId == Categories.INCOME ? cents : -cents;
+    }
+
+    // --------------------------------------------------------
+
+    // Represents the edits a batch made to the slots of a record store (see RecordStore.editWhere),
+    // kept in parallel arrays so that an index can be updated by them afterwards in O(k log n);
+    // once more than limit slots are edited it stops keeping them, as rebuilding the index is then cheaper
+    static class Edits {
+        private final int limit;
+        private int[] slots = new int[0];
+        private int[] oldCategoryIds = new int[0];
+        private long[] oldAmounts = new long[0];
+        private int[] newCategoryIds = new int[0];
+        private long[] newAmounts = new long[0];
+        private int count;
+
+        // EFFECTS:  creates an empty batch of edits that keeps at most limit of them
+        Edits(int limit) {
+            this.limit = limit;
+        }
+
+        // MODIFIES: this
+        // EFFECTS:  records that the record in slot changed from oldCategoryId and oldCents
+        //           to newCategoryId and newCents, unless more than limit edits have been recorded
+        void add(int slot, int oldCategoryId, long oldCents, int newCategoryId, long newCents) {
+            count++;
+            if (count > limit) {
+                return;
+            }
+            if (count > slots.length) {
+                int capacity = Math.min(limit, Math.max(16, slots.length * 2));
+                slots = Arrays.copyOf(slots, capacity);
+                oldCategoryIds = Arrays.copyOf(oldCategoryIds, capacity);
+                oldAmounts = Arrays.copyOf(oldAmounts, capacity);
+                newCategoryIds = Arrays.copyOf(newCategoryIds, capacity);
+                newAmounts = Arrays.copyOf(newAmounts, capacity);
+            }
+            int i = count - 1;
+            slots[i] = slot;
+            oldCategoryIds[i] = oldCategoryId;
+            oldAmounts[i] = oldCents;
+            newCategoryIds[i] = newCategoryId;
+            newAmounts[i] = newCents;
+        }
+
+        // EFFECTS:  returns true if more than limit edits were made, so that they were not all kept
+        boolean isOverflowed() {
+            return count > limit;
+        }
+
+        // REQUIRES: !isOverflowed() and index was in step with the store before the edits
+        // MODIFIES: index
+        // EFFECTS:  applies every kept edit to index, in order
+        void applyTo(LogIndex index) {
+            for (int i = 0; i < count; i++) {
+                index.edit(slots[i], oldCategoryIds[i], oldAmounts[i], newCategoryIds[i], newAmounts[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+// Represents conversions for amounts of money held as a whole number of cents,
+// so that balances and category totals are exact and never need rounding for display
+public final class Money {
+    public static final long CENTS_PER_DOLLAR = 100;
+
+    // EFFECTS:  dummy constructor, Money only has static methods
+    private Money() {
+
+    }
+
+    // EFFECTS:  returns dollars converted to the nearest whole number of cents
+    public static long toCents(double dollars) {
+        return Math.round(dollars * CENTS_PER_DOLLAR);
+    }
+
+    // EFFECTS:  returns cents converted to dollars
+    public static double toDollars(long cents) {
+        return cents / (double) CENTS_PER_DOLLAR;
+    }
+
+    // EFFECTS:  returns the amount (in dollars, e.g. "12", "12.5" or "-12.05") as cents,
+    //           rounding half up past the second decimal place and ignoring whitespace around it;
+    //           throws NumberFormatException if amount is not a number
+    public static long parseCents(String text) {
+        String amount = text.trim();
+        int length = amount.length();
+        int pos = 0;
+        boolean negative = length > 0 && amount.charAt(0) == '-';
+        if (negative || (length > 0 && amount.charAt(0) == '+')) {
+            pos++;
+        }
+        long whole = 0;
+        int wholeDigits = 0;
+        while (pos < length && isDigit(amount.charAt(pos)) && wholeDigits < 15) {
+            whole = whole * 10 + (amount.charAt(pos) - '0');
+            wholeDigits++;
+            pos++;
+        }
+        int fraction = 0;
+        int fractionDigits = 0;
+        if (pos < length && amount.charAt(pos) == '.') {
+            pos++;
+            while (pos < length && isDigit(amount.charAt(pos)) && fractionDigits < 2) {
+                fraction = fraction * 10 + (amount.charAt(pos) - '0');
+                fractionDigits++;
+                pos++;
+            }
+        }
+        if (pos != length || wholeDigits + fractionDigits == 0) {
+            return parseCentsSlow(amount);
+        }
+        long cents = whole * CENTS_PER_DOLLAR + (fractionDigits == 1 ? fraction * 10 : fraction);
+        return negative ? -cents : cents;
+    }
+
+    // REQUIRES: 0 <= from <= to <= bytes.length
+    // EFFECTS:  returns the amount written as text in bytes[from, to) as cents, like parseCents(String)
+    //           (ignoring ASCII whitespace around it), without creating a String for the forms handled directly;
+    //           throws NumberFormatException if the bytes are not a number
+    public static long parseCents(byte[] bytes, int start, int end) {
+        int from = start;
+        int to = end;
+        while (from < to && bytes[from] <= ' ' && bytes[from] >= 0) {
+            from++;
+        }
+        while (to > from && bytes[to - 1] <= ' ' && bytes[to - 1] >= 0) {
+            to--;
+        }
+        int pos = from;
+        boolean negative = to > from && bytes[from] == '-';
+        if (negative || (to > from && bytes[from] == '+')) {
+            pos++;
+        }
+        long whole = 0;
+        int wholeDigits = 0;
+        while (pos < to && isDigit(bytes[pos]) && wholeDigits < 15) {
+            whole = whole * 10 + (bytes[pos] - '0');
+            wholeDigits++;
+            pos++;
+        }
+        int fraction = 0;
+        int fractionDigits = 0;
+        if (pos < to && bytes[pos] == '.') {
+            pos++;
+            while (pos < to && isDigit(bytes[pos]) && fractionDigits < 2) {
+                fraction = fraction * 10 + (bytes[pos] - '0');
+                fractionDigits++;
+                pos++;
+            }
+        }
+        if (pos != to || wholeDigits + fractionDigits == 0) {
+            return parseCentsSlow(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+        }
+        long cents = whole * CENTS_PER_DOLLAR + (fractionDigits == 1 ? fraction * 10 : fraction);
+        return negative ? -cents : cents;
+    }
+
+    // EFFECTS:  returns the amount as cents for the forms parseCents does not handle directly
+    //           (more than two decimal places, exponents, very large amounts);
+    //           throws NumberFormatException if amount is not a number
+    private static long parseCentsSlow(String amount) {
+        try {
+            return new BigDecimal(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + amount);
+        }
+    }
+
+    // EFFECTS:  returns true if c is the character code of a decimal digit
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // EFFECTS:  returns cents written in dollars with exactly two decimal places (e.g. "-12.05")
+    public static String format(long cents) {
+        StringBuilder builder = new StringBuilder(24);
+        if (cents < 0) {
+            builder.append('-');
+        }
+        long absolute = Math.abs(cents);
+        long fraction = absolute % CENTS_PER_DOLLAR;
+        builder.append(absolute / CENTS_PER_DOLLAR);
+        builder.append(fraction < 10 ? ".0" : ".");
+        builder.append(fraction);
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,319 @@
+package model;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// Represents record columns split into pages of PAGE_SIZE slots, each page a HeapColumns or DirectColumns
+// of its own, with one title arena (held by columns of the same kind with no slots) for every page.
+// A snapshot shares the pages (see share); afterwards these columns copy a page the first time they change it,
+// so a change made after a snapshot copies the one page it touches instead of every column.
+// Growing adds pages without copying the ones already there
+class PagedColumns extends RecordColumns {
+    static final int PAGE_SHIFT = 12;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final RecordColumns[] pages;
+    private final boolean[] owned;      // false for a page a snapshot may be reading
+    private final RecordColumns titles;
+
+    // EFFECTS:  creates empty columns kept off the heap if direct is true (otherwise on the heap),
+    //           holding at least capacity slots and titleCapacity characters of titles
+    PagedColumns(boolean direct, int capacity, int titleCapacity) {
+        this(new RecordColumns[pageCount(capacity)], new boolean[pageCount(capacity)],
+                direct ? new DirectColumns(0, titleCapacity) : new HeapColumns(0, titleCapacity));
+        addPages(0, pages.length);
+    }
+
+    // EFFECTS:  creates columns over the given pages (each owned if owned says so) and title arena
+    private PagedColumns(RecordColumns[] pages, boolean[] owned, RecordColumns titles) {
+        this.pages = pages;
+        this.owned = owned;
+        this.titles = titles;
+    }
+
+    // EFFECTS:  returns columns over pageCount pages, those of these columns first, sharing their title arena
+    private PagedColumns withPages(int pageCount) {
+        PagedColumns grown = new PagedColumns(Arrays.copyOf(pages, pageCount), Arrays.copyOf(owned, pageCount),
+                titles);
+        grown.addPages(pages.length, pageCount);
+        return grown;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  fills the pages from from (inclusive) to to (exclusive) with new, empty, owned pages
+    private void addPages(int from, int to) {
+        for (int p = from; p < to; p++) {
+            pages[p] = titles.empty(PAGE_SIZE, 0);
+            owned[p] = true;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns columns sharing every page and the title arena with these, for a snapshot to read,
+    //           and marks every page so that these columns copy it before they next change it;
+    //           takes O(number of pages) and copies no slots
+    PagedColumns share() {
+        Arrays.fill(owned, false);
+        return new PagedColumns(pages.clone(), new boolean[pages.length], titles);
+    }
+
+    // EFFECTS:  returns the number of slots the columns can hold
+    @Override
+    int capacity() {
+        return pages.length << PAGE_SHIFT;
+    }
+
+    // EFFECTS:  returns the number of characters the title arena can hold
+    @Override
+    int titleCapacity() {
+        return titles.titleCapacity();
+    }
+
+    // EFFECTS:  returns true if the columns are kept off the heap
+    @Override
+    boolean isDirect() {
+        return titles.isDirect();
+    }
+
+    // EFFECTS:  returns columns holding at least capacity slots, sharing these pages and this title arena
+    @Override
+    PagedColumns grow(int capacity) {
+        return withPages(pageCount(capacity));
+    }
+
+    // EFFECTS:  returns columns sharing these pages with a title arena of capacity characters
+    @Override
+    PagedColumns growTitles(int capacity) {
+        return new PagedColumns(pages, owned, titles.growTitles(capacity));
+    }
+
+    // EFFECTS:  returns columns sharing these pages with a new, empty title arena of capacity characters
+    @Override
+    PagedColumns withNewTitles(int capacity) {
+        return new PagedColumns(pages, owned, titles.withNewTitles(capacity));
+    }
+
+    // EFFECTS:  returns columns holding copies of every page and sharing this title arena
+    @Override
+    PagedColumns copy() {
+        RecordColumns[] copies = new RecordColumns[pages.length];
+        for (int p = 0; p < pages.length; p++) {
+            copies[p] = pages[p].copy();
+        }
+        boolean[] allOwned = new boolean[pages.length];
+        Arrays.fill(allOwned, true);
+        return new PagedColumns(copies, allOwned, titles);
+    }
+
+    // EFFECTS:  returns new, empty columns of the same kind
+    @Override
+    PagedColumns empty(int capacity, int titleCapacity) {
+        return new PagedColumns(isDirect(), capacity, titleCapacity);
+    }
+
+    // --------------------------------------------------------
+
+    // Slot methods
+
+    // EFFECTS:  returns the id in slot
+    @Override
+    long id(int slot) {
+        return pages[slot >>> PAGE_SHIFT].id(slot & PAGE_MASK);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the id in slot to id
+    @Override
+    void setId(int slot, long id) {
+        writablePage(slot).setId(slot & PAGE_MASK, id);
+    }
+
+    // EFFECTS:  returns the amount (in cents) in slot
+    @Override
+    long cents(int slot) {
+        return pages[slot >>> PAGE_SHIFT].cents(slot & PAGE_MASK);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the amount (in cents) in slot to cents
+    @Override
+    void setCents(int slot, long cents) {
+        writablePage(slot).setCents(slot & PAGE_MASK, cents);
+    }
+
+    // EFFECTS:  returns the interned category id in slot
+    @Override
+    int categoryId(int slot) {
+        return pages[slot >>> PAGE_SHIFT].categoryId(slot & PAGE_MASK);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the interned category id in slot to categoryId
+    @Override
+    void setCategoryId(int slot, int categoryId) {
+        writablePage(slot).setCategoryId(slot & PAGE_MASK, categoryId);
+    }
+
+    // EFFECTS:  returns where the title of the record in slot starts in the arena
+    @Override
+    int titleStart(int slot) {
+        return pages[slot >>> PAGE_SHIFT].titleStart(slot & PAGE_MASK);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets where the title of the record in slot starts in the arena to start
+    @Override
+    void setTitleStart(int slot, int start) {
+        writablePage(slot).setTitleStart(slot & PAGE_MASK, start);
+    }
+
+    // EFFECTS:  returns the length of the title of the record in slot
+    @Override
+    int titleLength(int slot) {
+        return pages[slot >>> PAGE_SHIFT].titleLength(slot & PAGE_MASK);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the length of the title of the record in slot to length
+    @Override
+    void setTitleLength(int slot, int length) {
+        writablePage(slot).setTitleLength(slot & PAGE_MASK, length);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  copies count slots of src starting at srcPos into these columns starting at destPos,
+    //           page run by page run if src is also paged (from the last run back if the ranges overlap upwards)
+    @Override
+    void copySlots(RecordColumns src, int srcPos, int destPos, int count) {
+        if (!(src instanceof PagedColumns)) {
+            super.copySlots(src, srcPos, destPos, count);
+            return;
+        }
+        PagedColumns paged = (PagedColumns) src;
+        boolean backwards = src == this && destPos > srcPos;
+        int left = count;
+        while (left > 0) {
+            int offset = backwards ? left - 1 : count - left;
+            int from = srcPos + offset;
+            int to = destPos + offset;
+            int run = backwards ? Math.min((from & PAGE_MASK) + 1, (to & PAGE_MASK) + 1)
+                    : Math.min(PAGE_SIZE - (from & PAGE_MASK), PAGE_SIZE - (to & PAGE_MASK));
+            run = Math.min(run, left);
+            int start = backwards ? offset - run + 1 : offset;
+            RecordColumns destPage = writablePage(destPos + start);
+            destPage.copySlots(paged.pages[(srcPos + start) >>> PAGE_SHIFT], (srcPos + start) & PAGE_MASK,
+                    (destPos + start) & PAGE_MASK, run);
+            left -= run;
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Title arena methods
+
+    // MODIFIES: this
+    // EFFECTS:  writes the characters of title into the arena starting at at
+    @Override
+    void putTitle(int at, String title) {
+        titles.putTitle(at, title);
+    }
+
+    // EFFECTS:  returns the title of length characters starting at start in the arena
+    @Override
+    String titleAt(int start, int length) {
+        return titles.titleAt(start, length);
+    }
+
+    // MODIFIES: printWriter
+    // EFFECTS:  writes the title of length characters starting at start in the arena to printWriter
+    @Override
+    void writeTitleAt(int start, int length, PrintWriter printWriter) {
+        titles.writeTitleAt(start, length, printWriter);
+    }
+
+    // EFFECTS:  returns the character at at in the arena
+    @Override
+    char titleChar(int at) {
+        return titles.titleChar(at);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the character at at in the arena to c
+    @Override
+    void setTitleChar(int at, char c) {
+        titles.setTitleChar(at, c);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  copies length characters of src's arena starting at srcPos into this arena starting at destPos
+    @Override
+    void copyTitles(RecordColumns src, int srcPos, int destPos, int length) {
+        RecordColumns arena = src instanceof PagedColumns ? ((PagedColumns) src).titles : src;
+        titles.copyTitles(arena, srcPos, destPos, length);
+    }
+
+    // --------------------------------------------------------
+
+    // Scan methods
+
+    // EFFECTS:  returns the balance (in cents) of the slots from from (inclusive) to to (exclusive)
+    @Override
+    long sumBalance(int from, int to) {
+        long sum = 0;
+        for (int slot = from; slot < to; slot = pageEnd(slot, to)) {
+            sum += pages[slot >>> PAGE_SHIFT].sumBalance(slot & PAGE_MASK, offsetOfEnd(slot, to));
+        }
+        return sum;
+    }
+
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId in the slots from from to to
+    @Override
+    long sumCategory(int categoryId, int from, int to) {
+        long sum = 0;
+        for (int slot = from; slot < to; slot = pageEnd(slot, to)) {
+            sum += pages[slot >>> PAGE_SHIFT].sumCategory(categoryId, slot & PAGE_MASK, offsetOfEnd(slot, to));
+        }
+        return sum;
+    }
+
+    // MODIFIES: aggregates
+    // EFFECTS:  adds every record in the slots from from (inclusive) to to (exclusive) to aggregates
+    @Override
+    void aggregate(int from, int to, Aggregates aggregates) {
+        for (int slot = from; slot < to; slot = pageEnd(slot, to)) {
+            pages[slot >>> PAGE_SHIFT].aggregate(slot & PAGE_MASK, offsetOfEnd(slot, to), aggregates);
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // MODIFIES: this
+    // EFFECTS:  returns the page holding slot, copying it first if a snapshot may be reading it
+    private RecordColumns writablePage(int slot) {
+        int p = slot >>> PAGE_SHIFT;
+        if (!owned[p]) {
+            pages[p] = pages[p].copy();
+            owned[p] = true;
+        }
+        return pages[p];
+    }
+
+    // EFFECTS:  returns the first slot after slot that is on the next page, or to if that comes first
+    private static int pageEnd(int slot, int to) {
+        return Math.min(to, ((slot >>> PAGE_SHIFT) + 1) << PAGE_SHIFT);
+    }
+
+    // EFFECTS:  returns where the slots from slot up to to end on slot's page, as an offset into the page
+    private static int offsetOfEnd(int slot, int to) {
+        return pageEnd(slot, to) - ((slot >>> PAGE_SHIFT) << PAGE_SHIFT);
+    }
+
+    // EFFECTS:  returns the number of pages needed to hold capacity slots (at least one)
+    private static int pageCount(int capacity) {
+        return Math.max(1, (capacity + PAGE_MASK) >>> PAGE_SHIFT);
+    }
+
+}
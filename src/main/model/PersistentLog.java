@@ -0,0 +1,281 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.List;
+
+// Represents an immutable records log, ordered by record id, stored as a persistent AVL tree:
+// changing the log returns a new log that shares every node off the changed path with the old one,
+// so each version costs O(log n) new nodes and old versions stay readable forever.
+// Each node also holds the size and balance (in cents) of its subtree,
+// so the records can be read by position and running balances found in O(log n)
+public final class PersistentLog {
+    private static final PersistentLog EMPTY = new PersistentLog(null);
+
+    private final Node root;
+
+    // EFFECTS:  creates a log holding the tree at root
+    private PersistentLog(Node root) {
+        this.root = root;
+    }
+
+    // EFFECTS:  returns the empty log
+    public static PersistentLog empty() {
+        return EMPTY;
+    }
+
+    // REQUIRES: records are in increasing id order and every record has an id
+    // EFFECTS:  returns a log holding records, built as a balanced tree in O(n)
+    public static PersistentLog of(List<Record> records) {
+        return new PersistentLog(build(records, 0, records.size()));
+    }
+
+    // --------------------------------------------------------
+
+    // Update methods (each returns a new log)
+
+    // REQUIRES: id >= 0
+    // EFFECTS:  returns a log holding the records of this log and the values of record with id,
+    //           in place of any record with id in this log
+    public PersistentLog put(long id, Record record) {
+        return new PersistentLog(insert(root, id, record.getTitle(), record.getCategoryId(), record.getCents()));
+    }
+
+    // EFFECTS:  returns a log holding the records of this log except the record with id;
+    //           this log if no record has id
+    public PersistentLog remove(long id) {
+        return contains(id) ? new PersistentLog(delete(root, id)) : this;
+    }
+
+    // --------------------------------------------------------
+
+    // Query methods
+
+    // EFFECTS:  returns true if a record with id is in the log, otherwise false
+    public boolean contains(long id) {
+        return find(id) != null;
+    }
+
+    // EFFECTS:  returns a new record holding the values and id of the record with id,
+    //           or null if no record with id is in the log
+    public Record get(long id) {
+        Node node = find(id);
+        return node == null ? null : node.toRecord();
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns a new record holding the values and id in position number pos (indexed at 0)
+    public Record getAt(int pos) {
+        Node node = root;
+        int index = pos;
+        while (size(node.left) != index) {
+            if (index < size(node.left)) {
+                node = node.left;
+            } else {
+                index -= size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return node.toRecord();
+    }
+
+    // REQUIRES: 0 <= count <= size()
+    // EFFECTS:  returns the balance (in cents) of the first count records
+    public long getBalanceCentsBefore(int count) {
+        long sum = 0;
+        Node node = root;
+        int remaining = count;
+        while (node != null && remaining > 0) {
+            if (remaining <= size(node.left)) {
+                node = node.left;
+            } else {
+                sum += balance(node.left) + node.signedCents();
+                remaining -= size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return sum;
+    }
+
+    // EFFECTS:  returns the balance (in cents) of every record in the log
+    public long getBalanceCents() {
+        return balance(root);
+    }
+
+    // EFFECTS:  returns the number of records in the log
+    public int size() {
+        return size(root);
+    }
+
+    // EFFECTS:  returns a read-only list view of the log, in id order
+    public List<Record> asList() {
+        return new AbstractList<Record>() {
+            @Override
+            public Record get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return getAt(index);
+            }
+
+            @Override
+            public int size() {
+                return PersistentLog.this.size();
+            }
+        };
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // EFFECTS:  returns the node holding the record with id, or null if there is none
+    private Node find(long id) {
+        Node node = root;
+        while (node != null && node.id != id) {
+            node = id < node.id ? node.left : node.right;
+        }
+        return node;
+    }
+
+    // EFFECTS:  returns a balanced tree of records from position from (inclusive) to to (exclusive)
+    private static Node build(List<Record> records, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Record record = records.get(middle);
+        return new Node(record.getId(), record.getTitle(), record.getCategoryId(), record.getCents(),
+                build(records, from, middle), build(records, middle + 1, to));
+    }
+
+    // EFFECTS:  returns a copy of the tree at node with the record id put in it
+    private static Node insert(Node node, long id, String title, int categoryId, long cents) {
+        if (node == null) {
+            return new Node(id, title, categoryId, cents, null, null);
+        } else if (id < node.id) {
+            return rebalance(node.withChildren(insert(node.left, id, title, categoryId, cents), node.right));
+        } else if (id > node.id) {
+            return rebalance(node.withChildren(node.left, insert(node.right, id, title, categoryId, cents)));
+        }
+        return new Node(id, title, categoryId, cents, node.left, node.right);
+    }
+
+    // REQUIRES: the tree at node holds a record with id
+    // EFFECTS:  returns a copy of the tree at node without the record id
+    private static Node delete(Node node, long id) {
+        if (id < node.id) {
+            return rebalance(node.withChildren(delete(node.left, id), node.right));
+        } else if (id > node.id) {
+            return rebalance(node.withChildren(node.left, delete(node.right, id)));
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return rebalance(successor.withChildren(node.left, deleteMin(node.right)));
+    }
+
+    // REQUIRES: node != null
+    // EFFECTS:  returns a copy of the tree at node without its first record
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return rebalance(node.withChildren(deleteMin(node.left), node.right));
+    }
+
+    // REQUIRES: the subtrees of node are balanced and differ in height by at most 2
+    // EFFECTS:  returns a balanced tree holding the records of the tree at node
+    private static Node rebalance(Node node) {
+        int difference = height(node.left) - height(node.right);
+        if (difference > 1) {
+            Node left = node.left;
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return rotateRight(node.withChildren(left, node.right));
+        } else if (difference < -1) {
+            Node right = node.right;
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return rotateLeft(node.withChildren(node.left, right));
+        }
+        return node;
+    }
+
+    // EFFECTS:  returns the tree at node rotated right (its left child becomes the root)
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        return left.withChildren(left.left, node.withChildren(left.right, node.right));
+    }
+
+    // EFFECTS:  returns the tree at node rotated left (its right child becomes the root)
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        return right.withChildren(node.withChildren(node.left, right.left), right.right);
+    }
+
+    // EFFECTS:  returns the height of the tree at node (0 if empty)
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    // EFFECTS:  returns the number of records in the tree at node
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // EFFECTS:  returns the balance (in cents) of the records in the tree at node
+    private static long balance(Node node) {
+        return node == null ? 0 : node.balance;
+    }
+
+    // Represents an immutable tree node: one record and the size, height and balance of its subtree
+    private static final class Node {
+        private final long id;
+        private final String title;
+        private final int categoryId;
+        private final long cents;
+        private final Node left;
+        private final Node right;
+        private final int height;
+        private final int size;
+        private final long balance;
+
+        // EFFECTS:  creates a node holding a record with children left and right
+        private Node(long id, String title, int categoryId, long cents, Node left, Node right) {
+            this.id = id;
+            this.title = title;
+            this.categoryId = categoryId;
+            this.cents = cents;
+            this.left = left;
+            this.right = right;
+            height = Math.max(height(left), height(right)) + 1;
+            size = size(left) + size(right) + 1;
+            balance = balance(left) + balance(right) + signedCents();
+        }
+
+        // EFFECTS:  returns a node holding the same record with children left and right
+        private Node withChildren(Node left, Node right) {
+            return new Node(id, title, categoryId, cents, left, right);
+        }
+
+        // EFFECTS:  returns cents signed by how the record changes the balance
+        private long signedCents() {
+            return categoryId == Categories.INCOME ? cents : -cents;
+        }
+
+        // EFFECTS:  returns a new record holding the node's values and id
+        private Record toRecord() {
+            Record record = Record.ofCents(title, categoryId, cents);
+            record.setId(id);
+            return record;
+        }
+    }
+
+}
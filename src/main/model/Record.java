@@ -4,17 +4,23 @@ import persistence.Reader;
 import persistence.SaveableData;
 
 import java.io.PrintWriter;
+import java.util.Objects;
 
 // Represents a record (income or purchase)
 // having a title,
 // and a category (where "income" specifies a positive transaction (adding money to balance)
 //                and other categories (bills, necessities, shopping, dining out, recreation, and other)
 //                specify a negative transaction (removing money from balance))
-// and a value (in dollars)
+// and a value (held as a whole number of cents);
+// the category is held as its interned id (see Categories);
+// a record read from an account also carries the stable id the account gave it
 public class Record implements SaveableData {
+    public static final long NO_ID = -1;
+
+    private long id = NO_ID;
     private String title;
-    private String category;
-    private double value;    // REQUIRES: value >= 0.01
+    private int categoryId;
+    private long cents;    // REQUIRES: cents >= 1
 
     // REQUIRES: title cannot contain ","
     //           category cannot contain ","
@@ -23,9 +29,35 @@ public class Record implements SaveableData {
     //           with title set to title, category set to category, and
     //           value set to value (>= 0.01)
     public Record(String title, String category, double value) {
+        this(title, Categories.intern(category), Money.toCents(value));
+    }
+
+    // REQUIRES: title cannot contain ","
+    //           0 <= categoryId < Categories.count()
+    //           cents >= 1
+    // EFFECTS:  creates a record
+    //           with title set to title, category set to the category with categoryId, and
+    //           value set to cents
+    private Record(String title, int categoryId, long cents) {
         this.title = title;
-        this.category = category;
-        this.value = value;
+        this.categoryId = categoryId;
+        this.cents = cents;
+    }
+
+    // REQUIRES: title cannot contain ","
+    //           category cannot contain ","
+    //           cents >= 1
+    // EFFECTS:  returns a record with title, category and a value given in cents
+    public static Record ofCents(String title, String category, long cents) {
+        return new Record(title, Categories.intern(category), cents);
+    }
+
+    // REQUIRES: title cannot contain ","
+    //           0 <= categoryId < Categories.count()
+    //           cents >= 1
+    // EFFECTS:  returns a record with title, the category with categoryId and a value given in cents
+    public static Record ofCents(String title, int categoryId, long cents) {
+        return new Record(title, categoryId, cents);
     }
 
     // --------------------------------------------------------
@@ -40,34 +72,67 @@ public class Record implements SaveableData {
     //           a category of newCategory, and
     //           a value of newValue
     public void editThisRecord(String newTitle, String newCategory, double newValue) {
+        editThisRecordCents(newTitle, newCategory, Money.toCents(newValue));
+    }
+
+    // REQUIRES: newTitle cannot contain ","
+    //           newCategory cannot contain ","
+    //           newCents >= 1
+    // MODIFIES: this
+    // EFFECTS:  edits the record to have a title of newTitle,
+    //           a category of newCategory, and
+    //           a value of newCents
+    public void editThisRecordCents(String newTitle, String newCategory, long newCents) {
         setTitle(newTitle);
         setCategory(newCategory);
-        setValue(newValue);
+        setCents(newCents);
     }
 
     // --------------------------------------------------------
 
     // Balance and sum functions
 
-    // EFFECTS:  if category is "income", adds value to balance,
+    // EFFECTS:  if category is "income", adds value to balance (in cents),
     //           and return the new balance;
     //           otherwise, subtracts value from balance
     //           and return the new balance
-    public double addToBalance(double balance) {
-        double newBalance;
-        if (category.equals("income")) {
-            newBalance = balance + value;
+    public long addToBalance(long balance) {
+        long newBalance;
+        if (categoryId == Categories.INCOME) {
+            newBalance = balance + cents;
         } else {
-            newBalance = balance - value;
+            newBalance = balance - cents;
+        }
+        return newBalance;
+    }
+
+    // EFFECTS:  reverses addToBalance: if category is "income",
+    //           subtracts value from balance (in cents) and return the new balance;
+    //           otherwise, adds value to balance
+    //           and return the new balance
+    public long removeFromBalance(long balance) {
+        long newBalance;
+        if (categoryId == Categories.INCOME) {
+            newBalance = balance - cents;
+        } else {
+            newBalance = balance + cents;
         }
         return newBalance;
     }
 
     // REQUIRES: sum >= 0
-    // EFFECTS:  adds value to sum and
+    // EFFECTS:  adds value to sum (in cents) and
+    //           returns the new total sum of the category
+    public long addToCategory(long sum) {
+        long newTotalSum = sum + cents;
+        return newTotalSum;
+    }
+
+    // REQUIRES: sum >= value
+    // EFFECTS:  subtracts value from sum (in cents) and
     //           returns the new total sum of the category
-    public double addToCategory(double sum) {
-        double newTotalSum = sum + value;
+    public long removeFromCategory(long sum) {
+        long newTotalSum = sum - cents;
         return newTotalSum;
     }
 
@@ -81,15 +146,51 @@ public class Record implements SaveableData {
     public void save(PrintWriter printWriter) {
         printWriter.print(title);
         printWriter.print(Reader.DELIMITER);
-        printWriter.print(category);
+        printWriter.print(Categories.nameOf(categoryId));
         printWriter.print(Reader.DELIMITER);
-        printWriter.print(value);
+        printWriter.print(Money.format(cents));
+    }
+
+    // --------------------------------------------------------
+
+    // Equality methods
+
+    // EFFECTS:  returns true if o is a record with the same title, category and value
+    //           (the id an account gave a record does not take part in equality)
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Record record = (Record) o;
+        return cents == record.cents && categoryId == record.categoryId && title.equals(record.title);
+    }
+
+    // EFFECTS:  returns a hash code consistent with equals
+    @Override
+    public int hashCode() {
+        return Objects.hash(title, categoryId, cents);
     }
 
     // --------------------------------------------------------
 
     // Getters and Setters
 
+    // EFFECTS:  returns the id the account gave the record,
+    //           or NO_ID if the record was not read from an account
+    public long getId() {
+        return id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the id of the record to id
+    void setId(long id) {
+        this.id = id;
+    }
+
     // EFFECTS:  returns the title of the record
     public String getTitle() {
         return title;
@@ -97,12 +198,22 @@ public class Record implements SaveableData {
 
     // EFFECTS:  returns the category of the record
     public String getCategory() {
-        return category;
+        return Categories.nameOf(categoryId);
     }
 
-    // EFFECTS:  returns the value of the record
+    // EFFECTS:  returns the interned id of the record's category
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    // EFFECTS:  returns the value of the record (in dollars)
     public double getValue() {
-        return value;
+        return Money.toDollars(cents);
+    }
+
+    // EFFECTS:  returns the value of the record (in cents)
+    public long getCents() {
+        return cents;
     }
 
     // MODIFIES: this
@@ -114,14 +225,21 @@ public class Record implements SaveableData {
     // MODIFIES: this
     // EFFECTS:  sets the category of the record to newCategory
     public void setCategory(String newCategory) {
-        this.category = newCategory;
+        this.categoryId = Categories.intern(newCategory);
     }
 
     // REQUIRES: newValue >= 0.01
     // MODIFIES: this
     // EFFECTS:  sets the value of the record to newValue
     public void setValue(double newValue) {
-        this.value = newValue;
+        this.cents = Money.toCents(newValue);
+    }
+
+    // REQUIRES: newCents >= 1
+    // MODIFIES: this
+    // EFFECTS:  sets the value of the record to newCents
+    public void setCents(long newCents) {
+        this.cents = newCents;
     }
 
 }
@@ -0,0 +1,157 @@
+package model;
+
+import java.io.PrintWriter;
+
+// Represents the columns a record store keeps its records in, slot by slot:
+// ids, amounts (in cents), interned category ids, and the start and length of each title
+// in a character arena holding every title back to back.
+// The slot columns are changed in place; growing them, growing the arena or starting a new arena
+// gives new columns instead, sharing whatever was not replaced, so that a snapshot holding
+// the old columns keeps reading them (see PagedColumns).
+// HeapColumns keeps them in arrays on the heap and DirectColumns in direct buffers off the heap
+abstract class RecordColumns {
+
+    // EFFECTS:  returns the number of slots the columns can hold
+    abstract int capacity();
+
+    // EFFECTS:  returns the number of characters the title arena can hold
+    abstract int titleCapacity();
+
+    // EFFECTS:  returns true if the columns are kept off the heap
+    abstract boolean isDirect();
+
+    // REQUIRES: capacity >= capacity()
+    // EFFECTS:  returns columns of the same kind holding capacity slots, the first capacity() of them
+    //           copied from these, and sharing this title arena
+    abstract RecordColumns grow(int capacity);
+
+    // REQUIRES: capacity > titleCapacity()
+    // EFFECTS:  returns columns sharing these slot columns with a title arena of capacity characters,
+    //           the first titleCapacity() of them copied from this arena
+    abstract RecordColumns growTitles(int capacity);
+
+    // EFFECTS:  returns columns sharing these slot columns with a new, empty title arena of capacity characters
+    abstract RecordColumns withNewTitles(int capacity);
+
+    // EFFECTS:  returns columns holding copies of these slot columns and sharing this title arena
+    abstract RecordColumns copy();
+
+    // EFFECTS:  returns new, empty columns of the same kind holding capacity slots
+    //           and titleCapacity characters of titles
+    abstract RecordColumns empty(int capacity, int titleCapacity);
+
+    // --------------------------------------------------------
+
+    // Slot methods
+
+    // EFFECTS:  returns the id in slot
+    abstract long id(int slot);
+
+    // MODIFIES: this
+    // EFFECTS:  sets the id in slot to id
+    abstract void setId(int slot, long id);
+
+    // EFFECTS:  returns the amount (in cents) in slot
+    abstract long cents(int slot);
+
+    // MODIFIES: this
+    // EFFECTS:  sets the amount (in cents) in slot to cents
+    abstract void setCents(int slot, long cents);
+
+    // EFFECTS:  returns the interned category id in slot
+    abstract int categoryId(int slot);
+
+    // MODIFIES: this
+    // EFFECTS:  sets the interned category id in slot to categoryId
+    abstract void setCategoryId(int slot, int categoryId);
+
+    // EFFECTS:  returns where the title of the record in slot starts in the arena
+    abstract int titleStart(int slot);
+
+    // MODIFIES: this
+    // EFFECTS:  sets where the title of the record in slot starts in the arena to start
+    abstract void setTitleStart(int slot, int start);
+
+    // EFFECTS:  returns the length of the title of the record in slot
+    abstract int titleLength(int slot);
+
+    // MODIFIES: this
+    // EFFECTS:  sets the length of the title of the record in slot to length
+    abstract void setTitleLength(int slot, int length);
+
+    // REQUIRES: 0 <= srcPos, destPos and srcPos + count <= src.capacity(), destPos + count <= capacity()
+    // MODIFIES: this
+    // EFFECTS:  copies count slots of src starting at srcPos into these columns starting at destPos,
+    //           as if through a temporary copy (so src may be this and the ranges may overlap)
+    void copySlots(RecordColumns src, int srcPos, int destPos, int count) {
+        boolean backwards = src == this && destPos > srcPos;
+        for (int n = 0; n < count; n++) {
+            int i = backwards ? count - 1 - n : n;
+            setId(destPos + i, src.id(srcPos + i));
+            setCents(destPos + i, src.cents(srcPos + i));
+            setCategoryId(destPos + i, src.categoryId(srcPos + i));
+            setTitleStart(destPos + i, src.titleStart(srcPos + i));
+            setTitleLength(destPos + i, src.titleLength(srcPos + i));
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Title arena methods
+
+    // REQUIRES: at + title.length() <= titleCapacity()
+    // MODIFIES: this
+    // EFFECTS:  writes the characters of title into the arena starting at at
+    abstract void putTitle(int at, String title);
+
+    // EFFECTS:  returns the title of length characters starting at start in the arena
+    abstract String titleAt(int start, int length);
+
+    // MODIFIES: printWriter
+    // EFFECTS:  writes the title of length characters starting at start in the arena to printWriter
+    abstract void writeTitleAt(int start, int length, PrintWriter printWriter);
+
+    // EFFECTS:  returns the title of the record in slot
+    String title(int slot) {
+        return titleAt(titleStart(slot), titleLength(slot));
+    }
+
+    // MODIFIES: printWriter
+    // EFFECTS:  writes the title of the record in slot to printWriter
+    void writeTitle(int slot, PrintWriter printWriter) {
+        writeTitleAt(titleStart(slot), titleLength(slot), printWriter);
+    }
+
+    // EFFECTS:  returns the character at at in the arena
+    abstract char titleChar(int at);
+
+    // MODIFIES: this
+    // EFFECTS:  sets the character at at in the arena to c
+    abstract void setTitleChar(int at, char c);
+
+    // REQUIRES: src is not this, srcPos + length <= src.titleCapacity() and destPos + length <= titleCapacity()
+    // MODIFIES: this
+    // EFFECTS:  copies length characters of src's arena starting at srcPos into this arena starting at destPos
+    void copyTitles(RecordColumns src, int srcPos, int destPos, int length) {
+        for (int i = 0; i < length; i++) {
+            setTitleChar(destPos + i, src.titleChar(srcPos + i));
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Scan methods (tombstones hold zero and TOMBSTONE, so they add nothing)
+
+    // EFFECTS:  returns the balance (in cents) of the slots from from (inclusive) to to (exclusive),
+    //           adding "income" records and subtracting all others
+    abstract long sumBalance(int from, int to);
+
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId
+    //           in the slots from from (inclusive) to to (exclusive)
+    abstract long sumCategory(int categoryId, int from, int to);
+
+    // MODIFIES: aggregates
+    // EFFECTS:  adds every record in the slots from from (inclusive) to to (exclusive) to aggregates
+    abstract void aggregate(int from, int to, Aggregates aggregates);
+
+}
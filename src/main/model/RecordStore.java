@@ -0,0 +1,714 @@
+package model;
+
+import persistence.Reader;
+
+import java.io.PrintWriter;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Represents the records of a log stored column by column, in pages (see PagedColumns):
+// parallel columns of ids, amounts (in cents) and interned category ids (see Categories),
+// and a single character arena holding every title back to back,
+// so that a log of millions of records is a handful of arrays
+// instead of millions of Record objects; off the heap (see setOffHeap), the columns are direct buffers,
+// so the records take no heap at all.
+// Each record added is given the next id (starting at 0), which it keeps for as long as it is in the store.
+// While the ids in the slots run consecutively (until compaction drops a removed record's slot)
+// a record's slot is found from its id by subtraction; after that an id index finds it, both in O(1).
+// Removing a record leaves a tombstone in its slot instead of shifting the later slots down;
+// tombstones are compacted away once they outnumber the records.
+// While there are tombstones, a map of the live slots (see LiveSlots) maps a position to its slot
+// (and back) in O(log n), so reading or changing a record by position does not compact the store.
+// A snapshot of the store shares its column pages and live slot map; the store copies a page (copy-on-write)
+// the first time it changes it after the snapshot, so a change costs one page copy instead of every column
+public class RecordStore {
+    static final int TOMBSTONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private PagedColumns columns;   // category id TOMBSTONE in the slot of a removed record
+    private int titlesUsed;
+    private int titlesGarbage;
+    private int slots;
+    private int removed;
+    private int generation;
+    private long nextId;
+    private IdIndex idIndex;        // null while ids are dense, and in a snapshot (see findSlot)
+    private LiveSlots liveSlots;    // null while there are no tombstones
+
+    // EFFECTS:  creates an empty record store
+    public RecordStore() {
+        columns = new PagedColumns(false, INITIAL_CAPACITY, INITIAL_CAPACITY * 8);
+    }
+
+    // MODIFIES: source
+    // EFFECTS:  creates a read-only snapshot of source as it is now, sharing its column pages and live slot map
+    private RecordStore(RecordStore source) {
+        columns = source.columns.share();
+        liveSlots = source.liveSlots == null ? null : source.liveSlots.share();
+        titlesUsed = source.titlesUsed;
+        titlesGarbage = source.titlesGarbage;
+        slots = source.slots;
+        removed = source.removed;
+        nextId = source.nextId;
+        generation = source.generation;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns a snapshot of the records in the store as they are now, tombstones and all;
+    //           the snapshot shares the column pages and the live slot map, so taking it copies no records
+    //           (only the lists of pages), and the store copies a page before it next changes it;
+    //           the snapshot must only be read, never changed
+    RecordStore snapshot() {
+        return new RecordStore(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  if offHeap is true, moves the records into columns kept off the heap (see DirectColumns),
+    //           otherwise into columns kept on the heap, copying every slot and title once
+    //           if they are not there already; ids, slots and positions stay the same
+    public void setOffHeap(boolean offHeap) {
+        if (offHeap == columns.isDirect()) {
+            return;
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, slots);
+        int titleCapacity = Math.max(INITIAL_CAPACITY, titlesUsed);
+        PagedColumns moved = new PagedColumns(offHeap, capacity, titleCapacity);
+        moved.copySlots(columns, 0, 0, slots);
+        moved.copyTitles(columns, 0, 0, titlesUsed);
+        columns = moved;
+    }
+
+    // EFFECTS:  returns true if the records are kept off the heap, otherwise false
+    public boolean isOffHeap() {
+        return columns.isDirect();
+    }
+
+    // --------------------------------------------------------
+
+    // Record methods (by id)
+
+    // MODIFIES: this
+    // EFFECTS:  adds the record to the end of the store and returns the id given to it
+    public long add(Record record) {
+        ensureCapacity(slots + 1);
+        long id = nextId++;
+        columns.setId(slots, id);
+        write(slots, record);
+        slots++;
+        indexId(slots - 1);
+        if (liveSlots != null) {
+            liveSlots.append(true);
+        }
+        return id;
+    }
+
+    // MODIFIES: this, other
+    // EFFECTS:  adds every record of other to the end of the store, in order, giving each the next id,
+    //           by copying other's columns and title arena in bulk (compacting other first if needed);
+    //           if this store has never held a record, it takes other's columns instead of copying them
+    //           and other is left empty;
+    //           returns the id given to the first record, the others following consecutively
+    public long addAll(RecordStore other) {
+        other.compactIfRemoved();
+        if (nextId == 0 && other.idsStartAtZero()
+                && columns.isDirect() == other.columns.isDirect()) {
+            takeColumns(other);
+            return 0;
+        }
+        int count = other.slots;
+        ensureCapacity(slots + count);
+        ensureTitleCapacity(titlesUsed + other.titlesUsed);
+        columns.copySlots(other.columns, 0, slots, count);
+        columns.copyTitles(other.columns, 0, titlesUsed, other.titlesUsed);
+        long firstId = nextId;
+        for (int i = 0; i < count; i++) {
+            columns.setId(slots, nextId++);
+            columns.setTitleStart(slots, titlesUsed + other.columns.titleStart(i));
+            slots++;
+            indexId(slots - 1);
+            if (liveSlots != null) {
+                liveSlots.append(true);
+            }
+        }
+        titlesUsed += other.titlesUsed;
+        titlesGarbage += other.titlesGarbage;
+        return firstId;
+    }
+
+    // REQUIRES: this store has never held a record and other's ids run consecutively from 0,
+    //           and both stores keep their columns in the same place (on or off the heap)
+    // MODIFIES: this, other
+    // EFFECTS:  moves other's columns and title arena into this store and leaves other empty
+    private void takeColumns(RecordStore other) {
+        columns = other.columns;
+        titlesUsed = other.titlesUsed;
+        titlesGarbage = other.titlesGarbage;
+        slots = other.slots;
+        nextId = slots;
+        generation++;
+        other.columns = columns.empty(INITIAL_CAPACITY, INITIAL_CAPACITY * 8);
+        other.titlesUsed = 0;
+        other.titlesGarbage = 0;
+        other.slots = 0;
+        other.idIndex = null;
+    }
+
+    // EFFECTS:  returns true if the ids in the slots run consecutively from 0
+    private boolean idsStartAtZero() {
+        return slots == 0 || (columns.id(0) == 0 && idsAreDense());
+    }
+
+    // EFFECTS:  returns true if a record with id is in the store, otherwise false
+    public boolean contains(long id) {
+        return findSlot(id) >= 0;
+    }
+
+    // EFFECTS:  returns a new record holding the values of the record with id,
+    //           or null if no record with id is in the store
+    public Record getById(long id) {
+        int slot = findSlot(id);
+        return slot < 0 ? null : getAtSlot(slot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  replaces the values of the record with id by those of record (keeping the id)
+    //           and returns true; if no record with id is in the store, returns false
+    public boolean setById(long id, Record record) {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return false;
+        }
+        titlesGarbage += columns.titleLength(slot);
+        write(slot, record);
+        compactTitlesIfWasteful();
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  removes the record with id, leaving a tombstone in its slot, and returns true;
+    //           if no record with id is in the store, returns false;
+    //           compacts the store if tombstones now outnumber the records
+    public boolean removeById(long id) {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return false;
+        }
+        if (idIndex != null) {
+            idIndex.remove(id);
+        }
+        titlesGarbage += columns.titleLength(slot);
+        columns.setTitleLength(slot, 0);
+        columns.setCents(slot, 0);
+        columns.setCategoryId(slot, TOMBSTONE);
+        removed++;
+        if (removed > size()) {
+            compact();
+            return true;
+        }
+        if (liveSlots == null) {
+            countLiveSlots();
+        } else {
+            liveSlots.set(slot, false);
+        }
+        compactTitlesIfWasteful();
+        return true;
+    }
+
+    // REQUIRES: no record with id is in the store
+    // MODIFIES: this
+    // EFFECTS:  puts record back into the store with id, in the place its id gives it among the records,
+    //           and returns its slot; if the record's tombstone has not been compacted away yet
+    //           the record takes its old slot back in O(1), otherwise the later slots move up by one
+    //           (starting a new generation)
+    int restore(long id, Record record) {
+        int slot = searchIds(id);
+        if (slot >= 0) {
+            removed--;
+            write(slot, record);
+            if (removed == 0) {
+                liveSlots = null;
+            } else {
+                liveSlots.set(slot, true);
+            }
+        } else {
+            slot = -slot - 1;
+            ensureCapacity(slots + 1);
+            columns.copySlots(columns, slot, slot + 1, slots - slot);
+            slots++;
+            columns.setId(slot, id);
+            nextId = Math.max(nextId, id + 1);
+            generation++;
+            reindexIds();
+            write(slot, record);
+            countLiveSlots();
+        }
+        if (idIndex != null) {
+            idIndex.put(id, slot);
+        }
+        return slot;
+    }
+
+    // --------------------------------------------------------
+
+    // Batch methods
+
+    // MODIFIES: this, delta
+    // EFFECTS:  removes every record that filter accepts (given a copy of each record in order),
+    //           compacting the store in the same pass, takes each removed record out of delta
+    //           and returns the number of records removed
+    public int removeIf(Predicate<Record> filter, Aggregates delta) {
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (columns.categoryId(slot) == TOMBSTONE) {
+                continue;
+            }
+            if (filter.test(getAtSlot(slot))) {
+                titlesGarbage += columns.titleLength(slot);
+                delta.remove(columns.categoryId(slot), columns.cents(slot));
+            } else {
+                moveSlot(slot, live);
+                live++;
+            }
+        }
+        int count = slots - removed - live;
+        if (live < slots) {
+            slots = live;
+            removed = 0;
+            liveSlots = null;
+            generation++;
+            reindexIds();
+            compactTitlesIfWasteful();
+        }
+        return count;
+    }
+
+    // REQUIRES: 0 <= count <= size()
+    // MODIFIES: this, delta
+    // EFFECTS:  removes the records in the first count positions, moving the later slots down in one bulk copy
+    //           (dropping the tombstones among the removed records), takes each removed record out of delta
+    //           and starts a new generation
+    public void removeFirst(int count, Aggregates delta) {
+        if (count == 0) {
+            return;
+        }
+        int end = slotFrom(count);
+        for (int slot = 0; slot < end; slot++) {
+            titlesGarbage += columns.titleLength(slot);
+            if (columns.categoryId(slot) != TOMBSTONE) {
+                delta.remove(columns.categoryId(slot), columns.cents(slot));
+            }
+        }
+        columns.copySlots(columns, end, 0, slots - end);
+        slots -= end;
+        removed -= end - count;
+        generation++;
+        reindexIds();
+        countLiveSlots();
+        compactTitlesIfWasteful();
+    }
+
+    // REQUIRES: editor does not give a record a title containing ,
+    // MODIFIES: this, delta
+    // EFFECTS:  passes a copy of every record that filter accepts (in order) to editor,
+    //           writes the edited copy back in place of the record (keeping its id),
+    //           adds the difference between the old and new record to delta
+    //           and returns the number of records edited
+    public int editWhere(Predicate<Record> filter, Consumer<Record> editor, Aggregates delta) {
+        return editWhere(filter, editor, delta, null);
+    }
+
+    // REQUIRES: editor does not give a record a title containing ,
+    // MODIFIES: this, delta, edits
+    // EFFECTS:  edits the records as editWhere(filter, editor, delta) does and returns their number,
+    //           also recording each edit (its slot and old and new values) in edits unless edits is null
+    int editWhere(Predicate<Record> filter, Consumer<Record> editor, Aggregates delta, LogIndex.Edits edits) {
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int oldCategoryId = columns.categoryId(slot);
+            long oldCents = columns.cents(slot);
+            Record record = oldCategoryId == TOMBSTONE ? null : getAtSlot(slot);
+            if (record != null && filter.test(record)) {
+                editor.accept(record);
+                titlesGarbage += columns.titleLength(slot);
+                write(slot, record);
+                delta.remove(oldCategoryId, oldCents);
+                delta.add(record.getCategoryId(), record.getCents());
+                if (edits != null) {
+                    edits.add(slot, oldCategoryId, oldCents, record.getCategoryId(), record.getCents());
+                }
+                count++;
+            }
+        }
+        compactTitlesIfWasteful();
+        return count;
+    }
+
+    // --------------------------------------------------------
+
+    // Record methods (by position)
+
+    // REQUIRES: 0 <= pos < size()
+    // MODIFIES: this
+    // EFFECTS:  replaces the record in position number pos (indexed at 0) with record
+    public void set(int pos, Record record) {
+        setById(idAt(pos), record);
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // MODIFIES: this
+    // EFFECTS:  removes the record in position number pos (indexed at 0);
+    //           the later records each move down by one position
+    public void remove(int pos) {
+        removeById(idAt(pos));
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns a new record holding the values in position number pos (indexed at 0)
+    public Record get(int pos) {
+        return getAtSlot(slotAt(pos));
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns the id of the record in position number pos (indexed at 0)
+    public long idAt(int pos) {
+        return columns.id(slotAt(pos));
+    }
+
+    // EFFECTS:  returns the position (indexed at 0) of the record with id,
+    //           or -1 if no record with id is in the store
+    public int positionOf(long id) {
+        int slot = findSlot(id);
+        return slot < 0 || liveSlots == null ? slot : liveSlots.rank(slot);
+    }
+
+    // EFFECTS:  returns a read-only list view of the store;
+    //           each element is created from the columns when it is read
+    public List<Record> asList() {
+        return new AbstractList<Record>() {
+            @Override
+            public Record get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return RecordStore.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return RecordStore.this.size();
+            }
+        };
+    }
+
+    // EFFECTS:  returns the number of records in the store
+    public int size() {
+        return slots - removed;
+    }
+
+    // --------------------------------------------------------
+
+    // Scan methods
+
+    // EFFECTS:  returns the balance (in cents) of every record in the store,
+    //           adding "income" records and subtracting all others
+    public long sumBalance() {
+        return columns.sumBalance(0, slots);
+    }
+
+    // REQUIRES: 0 <= from <= to <= size()
+    // EFFECTS:  returns the balance (in cents) of the records from position from (inclusive)
+    //           to position to (exclusive), adding "income" records and subtracting all others
+    public long sumBalance(int from, int to) {
+        return columns.sumBalance(slotFrom(from), slotFrom(to));
+    }
+
+    // EFFECTS:  returns the total sum (in cents) of the records in the category with categoryId;
+    //           zero if no record has this category
+    public long sumCategory(int categoryId) {
+        return columns.sumCategory(categoryId, 0, slots);
+    }
+
+    // REQUIRES: 0 <= from <= to <= size()
+    // EFFECTS:  returns the total sum (in cents) of the records in the category with categoryId
+    //           from position from (inclusive) to position to (exclusive)
+    public long sumCategory(int categoryId, int from, int to) {
+        return columns.sumCategory(categoryId, slotFrom(from), slotFrom(to));
+    }
+
+    // EFFECTS:  returns the balance and every category's total sum (in cents) of the records in the store,
+    //           computed together in one pass; above AggregateTask.THRESHOLD slots,
+    //           the pass is split across cores with fork/join
+    public Aggregates aggregate() {
+        if (slots <= AggregateTask.THRESHOLD) {
+            Aggregates aggregates = new Aggregates();
+            aggregateSlots(0, slots, aggregates);
+            return aggregates;
+        }
+        return ForkJoinPool.commonPool().invoke(new AggregateTask(this, 0, slots));
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns the interned category id of the record in position number pos
+    public int getCategoryId(int pos) {
+        return columns.categoryId(slotAt(pos));
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns the value (in cents) of the record in position number pos
+    public long getCents(int pos) {
+        return columns.cents(slotAt(pos));
+    }
+
+    // --------------------------------------------------------
+
+    // Slot methods, for indexes kept in step with the slots of the store
+
+    // EFFECTS:  returns the number of slots in use, counting tombstones
+    int slotCount() {
+        return slots;
+    }
+
+    // EFFECTS:  returns the slot holding the record with id, or -1 if no record with id is in the store
+    int slotOf(long id) {
+        return findSlot(id);
+    }
+
+    // REQUIRES: 0 <= slot < slotCount()
+    // EFFECTS:  returns the interned category id in slot, or TOMBSTONE if its record was removed
+    int categoryIdAtSlot(int slot) {
+        return columns.categoryId(slot);
+    }
+
+    // REQUIRES: 0 <= slot < slotCount()
+    // EFFECTS:  returns the value (in cents) in slot, or zero if its record was removed
+    long centsAtSlot(int slot) {
+        return columns.cents(slot);
+    }
+
+    // REQUIRES: 0 <= from <= to <= slotCount()
+    // MODIFIES: aggregates
+    // EFFECTS:  adds every record in the slots from from (inclusive) to to (exclusive) to aggregates
+    void aggregateSlots(int from, int to, Aggregates aggregates) {
+        columns.aggregate(from, to, aggregates);
+    }
+
+    // EFFECTS:  returns a number that changes every time the store compacts its slots
+    int getGeneration() {
+        return generation;
+    }
+
+    // --------------------------------------------------------
+
+    // Persistence methods
+
+    // REQUIRES: 0 <= pos < size()
+    // MODIFIES: printWriter
+    // EFFECTS:  writes the record in position number pos to printWriter (one line),
+    //           in the same form as Record.save, straight from the columns
+    public void save(int pos, PrintWriter printWriter) {
+        int slot = slotAt(pos);
+        columns.writeTitle(slot, printWriter);
+        printWriter.print(Reader.DELIMITER);
+        printWriter.print(Categories.nameOf(columns.categoryId(slot)));
+        printWriter.print(Reader.DELIMITER);
+        printWriter.print(Money.format(columns.cents(slot)));
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // EFFECTS:  returns the slot holding the record with id, or -1 if no record with id is in the store;
+    //           ids only ever increase from slot to slot, so while they are dense the slot is id minus
+    //           the first id, and a snapshot of a store whose ids are not (which has no id index)
+    //           finds the slot by binary search
+    private int findSlot(long id) {
+        if (idIndex != null) {
+            return idIndex.get(id);
+        }
+        int slot;
+        if (idsAreDense()) {
+            long first = slots == 0 ? 0 : columns.id(0);
+            slot = slots == 0 || id < first || id - first >= slots ? -1 : (int) (id - first);
+        } else {
+            slot = searchIds(id);
+        }
+        return slot >= 0 && columns.categoryId(slot) != TOMBSTONE ? slot : -1;
+    }
+
+    // EFFECTS:  returns the slot holding id (removed or not) found by binary search over the ids,
+    //           or -(the slot it would be put in) - 1 if no slot holds it
+    private int searchIds(long id) {
+        int low = 0;
+        int high = slots - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = columns.id(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns the slot holding the record in position number pos
+    private int slotAt(int pos) {
+        return liveSlots == null ? pos : liveSlots.select(pos + 1);
+    }
+
+    // REQUIRES: 0 <= pos <= size()
+    // EFFECTS:  returns the first slot of the records from position number pos on
+    //           (the slot count if pos is size()), so that a range of positions maps to a range of slots
+    private int slotFrom(int pos) {
+        return pos == size() ? slots : slotAt(pos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  drops the live slot map if there are no tombstones, otherwise builds it over every slot
+    private void countLiveSlots() {
+        if (removed == 0) {
+            liveSlots = null;
+            return;
+        }
+        liveSlots = new LiveSlots();
+        for (int slot = 0; slot < slots; slot++) {
+            liveSlots.append(columns.categoryId(slot) != TOMBSTONE);
+        }
+    }
+
+    // EFFECTS:  returns true if the ids in the slots run consecutively, with no id missing between
+    //           the first and the last (tombstones keep their ids, so only compaction breaks this)
+    private boolean idsAreDense() {
+        return slots == 0 || columns.id(slots - 1) - columns.id(0) == slots - 1;
+    }
+
+    // REQUIRES: slot is the last slot
+    // MODIFIES: this
+    // EFFECTS:  makes the record in slot findable by its id: puts it in the id index if the store has one,
+    //           or builds the index if the new id leaves a gap after the previous one
+    private void indexId(int slot) {
+        if (idIndex != null) {
+            idIndex.put(columns.id(slot), slot);
+        } else if (!idsAreDense()) {
+            reindexIds();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  drops the id index if the ids are dense, otherwise builds it over every live slot
+    private void reindexIds() {
+        if (idsAreDense()) {
+            idIndex = null;
+            return;
+        }
+        idIndex = new IdIndex();
+        for (int slot = 0; slot < slots; slot++) {
+            if (columns.categoryId(slot) != TOMBSTONE) {
+                idIndex.put(columns.id(slot), slot);
+            }
+        }
+    }
+
+    // REQUIRES: slot holds a record that was not removed
+    // EFFECTS:  returns a new record holding the values and id in slot
+    private Record getAtSlot(int slot) {
+        Record record = Record.ofCents(columns.title(slot), columns.categoryId(slot), columns.cents(slot));
+        record.setId(columns.id(slot));
+        return record;
+    }
+
+    // REQUIRES: 0 <= slot < capacity
+    // MODIFIES: this
+    // EFFECTS:  writes the record's columns into slot,
+    //           appending its title to the end of the title arena
+    private void write(int slot, Record record) {
+        columns.setCents(slot, record.getCents());
+        columns.setCategoryId(slot, record.getCategoryId());
+        String title = record.getTitle();
+        int length = title.length();
+        ensureTitleCapacity(titlesUsed + length);
+        columns.putTitle(titlesUsed, title);
+        columns.setTitleStart(slot, titlesUsed);
+        columns.setTitleLength(slot, length);
+        titlesUsed += length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  if any slot holds a tombstone, compacts the store so that slots match positions
+    private void compactIfRemoved() {
+        if (removed > 0) {
+            compact();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  moves every record down over the tombstones in one pass, keeping their order,
+    //           reindexes their ids and starts a new generation
+    private void compact() {
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (columns.categoryId(slot) != TOMBSTONE) {
+                moveSlot(slot, live);
+                live++;
+            }
+        }
+        slots = live;
+        removed = 0;
+        liveSlots = null;
+        generation++;
+        reindexIds();
+        compactTitlesIfWasteful();
+    }
+
+    // REQUIRES: to <= from
+    // MODIFIES: this
+    // EFFECTS:  moves the record in slot from down to slot to (the caller reindexes the ids afterwards)
+    private void moveSlot(int from, int to) {
+        if (from != to) {
+            columns.copySlots(columns, from, to, 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  grows the columns so that they can hold at least capacity slots
+    private void ensureCapacity(int capacity) {
+        if (capacity > columns.capacity()) {
+            columns = columns.grow(Math.max(capacity, columns.capacity() * 2));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  grows the title arena so that it can hold at least capacity characters
+    private void ensureTitleCapacity(int capacity) {
+        if (capacity > columns.titleCapacity()) {
+            columns = columns.growTitles(Math.max(capacity, columns.titleCapacity() * 2));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  if more than half of the title arena holds titles of edited or removed records,
+    //           copies the live titles to a new arena in order and drops the rest
+    private void compactTitlesIfWasteful() {
+        if (titlesGarbage > titlesUsed / 2) {
+            PagedColumns compacted = columns.withNewTitles(Math.max(INITIAL_CAPACITY, titlesUsed - titlesGarbage));
+            int used = 0;
+            for (int i = 0; i < slots; i++) {
+                compacted.copyTitles(columns, columns.titleStart(i), used, columns.titleLength(i));
+                compacted.setTitleStart(i, used);
+                used += columns.titleLength(i);
+            }
+            columns = compacted;
+            titlesUsed = used;
+            titlesGarbage = 0;
+        }
+    }
+
+}
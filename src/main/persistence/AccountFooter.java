@@ -0,0 +1,231 @@
+package persistence;
+
+import model.AccountSnapshot;
+import model.AccountTotals;
+import model.Categories;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+// Represents the footer written at the end of an account file (in either format, see Writer):
+// the number of records and the balance and category totals of the account the file holds,
+// so that a summary of the account can be shown without reading its records,
+// and a generation: a random number drawn anew for every file written, which a journal records
+// to tell which file it is bound to without reading the file in full (see Journal).
+// The footer is the last line of the file (after a newline ending the records, which a binary file
+// adds for it), made of the MARKER byte followed by the UTF-8 text
+//     F,VERSION,<generation>,<record count>,<balance>,<category count>,<name>,<total>,...,<CRC-32>
+// with every value in cents and the CRC-32 taken over the text before it;
+// readers of the records stop at a line starting with MARKER only if it is the last line and its CRC-32 matches
+// (a record title may itself start with MARKER), and binary readers never reach it
+public class AccountFooter implements AccountTotals {
+    static final byte MARKER = 1;
+    static final int VERSION = 2;
+    private static final String TAG = "F";
+    private static final int MAX_BYTES = 1 << 16;
+    private static final int FIXED_FIELDS = 7;
+
+    private final long generation;
+    private final int recordCount;
+    private final long balance;
+    private final long[] categoryTotals;    // indexed by category id
+    private final List<String> categoryNames;
+
+    // EFFECTS:  creates a footer of generation for an account with recordCount records, balance (in cents),
+    //           and category totals (in cents, indexed by category id)
+    private AccountFooter(long generation, int recordCount, long balance, long[] categoryTotals) {
+        this.generation = generation;
+        this.recordCount = recordCount;
+        this.balance = balance;
+        this.categoryTotals = categoryTotals;
+        List<String> names = new ArrayList<>();
+        for (int id = 0; id < categoryTotals.length; id++) {
+            names.add(Categories.nameOf(id));
+        }
+        this.categoryNames = Collections.unmodifiableList(names);
+    }
+
+    // EFFECTS:  returns the footer of the account as it was in snapshot, of a new generation
+    static AccountFooter of(AccountSnapshot snapshot) {
+        long[] totals = new long[snapshot.getCategories().size()];
+        for (int id = 0; id < totals.length; id++) {
+            totals[id] = snapshot.getCategorySumCents(id);
+        }
+        return new AccountFooter(ThreadLocalRandom.current().nextLong(), snapshot.getLog().size(),
+                snapshot.getBalanceCents(), totals);
+    }
+
+    // EFFECTS:  returns the footer at the end of file, reading only the end of the file;
+    //           returns null if the file cannot be read or has no valid footer (it was written without one,
+    //           or the footer was cut off or damaged), or if the file has a journal with changes
+    //           the footer does not include (see Journal)
+    public static AccountFooter read(File file) {
+        try {
+            AccountFooter footer = readWritten(file);
+            return footer == null || Journal.hasEntries(file) ? null : footer;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // EFFECTS:  returns the footer at the end of file as it was written, reading only the end of the file,
+    //           or null if file has no valid footer (whether or not a journal has changed the account since);
+    //           throws IOException if file cannot be read
+    static AccountFooter readWritten(File file) throws IOException {
+        String text = lastLineText(file);
+        return text == null ? null : parse(text);
+    }
+
+    // EFFECTS:  returns the position in file of the MARKER starting its footer, or the length of file
+    //           if it has no valid footer, reading only the end of the file;
+    //           throws IOException if file cannot be read
+    static long offsetIn(File file) throws IOException {
+        String text = lastLineText(file);
+        if (text == null || !hasValidChecksum(text)) {
+            return file.length();
+        }
+        return file.length() - text.getBytes(StandardCharsets.UTF_8).length - 2;
+    }
+
+    // EFFECTS:  returns true if text (a line without MARKER and newline) is a footer whose CRC-32 matches,
+    //           so that a line starting with MARKER is not taken for the footer unless it is one
+    static boolean hasValidChecksum(String text) {
+        int crcStart = text.lastIndexOf(Reader.DELIMITER);
+        try {
+            return text.startsWith(TAG + Reader.DELIMITER) && crcStart >= 0
+                    && Long.parseLong(text.substring(crcStart + 1)) == checksumOf(text.substring(0, crcStart));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Getters
+
+    // EFFECTS:  returns the generation of the file the footer ends
+    long getGeneration() {
+        return generation;
+    }
+
+    // EFFECTS:  returns the number of records in the account
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    // EFFECTS:  returns true if the account has no records, otherwise false
+    @Override
+    public boolean isLogEmpty() {
+        return recordCount == 0;
+    }
+
+    // EFFECTS:  returns the balance (in cents)
+    @Override
+    public long getBalanceCents() {
+        return balance;
+    }
+
+    // EFFECTS:  returns the category names, in category id order
+    @Override
+    public List<String> getCategories() {
+        return categoryNames;
+    }
+
+    // REQUIRES: 0 <= categoryId < getCategories().size()
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId
+    @Override
+    public long getCategorySumCents(int categoryId) {
+        return categoryTotals[categoryId];
+    }
+
+    // EFFECTS:  returns the footer as the line written at the end of an account file (MARKER included)
+    byte[] toBytes() {
+        StringBuilder text = new StringBuilder();
+        text.append(TAG).append(Reader.DELIMITER).append(VERSION).append(Reader.DELIMITER).append(generation)
+                .append(Reader.DELIMITER).append(recordCount)
+                .append(Reader.DELIMITER).append(balance).append(Reader.DELIMITER).append(categoryTotals.length);
+        for (int id = 0; id < categoryTotals.length; id++) {
+            text.append(Reader.DELIMITER).append(categoryNames.get(id))
+                    .append(Reader.DELIMITER).append(categoryTotals[id]);
+        }
+        String line = (char) MARKER + text.toString() + Reader.DELIMITER + checksumOf(text.toString()) + "\n";
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // EFFECTS:  returns the text of the last line of file (without MARKER and newline) if it starts with MARKER
+    //           and ends with a newline, otherwise null; throws IOException if file cannot be read
+    private static String lastLineText(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            int length = (int) Math.min(in.length(), MAX_BYTES);
+            byte[] tail = new byte[length];
+            in.seek(in.length() - length);
+            in.readFully(tail);
+            int lineStart = lastLineStart(tail, length == in.length());
+            if (lineStart < 0) {
+                return null;
+            }
+            return new String(tail, lineStart + 1, length - lineStart - 2, StandardCharsets.UTF_8);
+        }
+    }
+
+    // EFFECTS:  returns the position in tail of the MARKER starting its last line, or -1 if tail does not end
+    //           with a newline or its last line does not start with MARKER; fromStart is true if tail starts
+    //           at the start of the file
+    private static int lastLineStart(byte[] tail, boolean fromStart) {
+        if (tail.length < 2 || tail[tail.length - 1] != '\n') {
+            return -1;
+        }
+        int pos = tail.length - 2;
+        while (pos >= 0 && tail[pos] != '\n') {
+            pos--;
+        }
+        if (pos < 0 && !fromStart) {
+            return -1;
+        }
+        return tail[pos + 1] == MARKER ? pos + 1 : -1;
+    }
+
+    // EFFECTS:  returns the footer written as text (without MARKER and newline), or null if it is not valid
+    private static AccountFooter parse(String text) {
+        String[] fields = text.split(Reader.DELIMITER, -1);
+        try {
+            if (!hasValidChecksum(text) || Integer.parseInt(fields[1]) != VERSION
+                    || fields.length != FIXED_FIELDS + 2 * Integer.parseInt(fields[5])) {
+                return null;
+            }
+            int[] ids = new int[Integer.parseInt(fields[5])];
+            int size = 0;
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Categories.intern(fields[FIXED_FIELDS - 1 + 2 * i]);
+                size = Math.max(size, ids[i] + 1);
+            }
+            long[] totals = new long[size];
+            for (int i = 0; i < ids.length; i++) {
+                totals[ids[i]] = Long.parseLong(fields[FIXED_FIELDS + 2 * i]);
+            }
+            return new AccountFooter(Long.parseLong(fields[2]), Integer.parseInt(fields[3]),
+                    Long.parseLong(fields[4]), totals);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    // EFFECTS:  returns the CRC-32 of the UTF-8 bytes of text
+    private static long checksumOf(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+}
@@ -0,0 +1,32 @@
+package persistence;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Represents the formats an account file can be written in:
+// TEXT is one line per record (title,category,value in dollars),
+// and BINARY is the compact versioned format written by BinaryAccountWriter:
+// a header, a dictionary of the category names used, and then each record as
+// a category number from the dictionary, varint-encoded cents and a length-prefixed UTF-8 title
+public enum AccountFormat {
+    TEXT,
+    BINARY;
+
+    // the first bytes of a binary account file; 0x89 never starts UTF-8 text, so no text file begins with them
+    static final byte[] MAGIC = {(byte) 0x89, 'B', 'P', 'A'};
+    static final int VERSION = 1;
+
+    // EFFECTS:  returns the format file is written in, detected from its first bytes;
+    //           throws IOException if file cannot be opened or read
+    public static AccountFormat detect(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] start = new byte[MAGIC.length];
+            int read = in.readNBytes(start, 0, start.length);
+            return read == MAGIC.length && Arrays.equals(start, MAGIC) ? BINARY : TEXT;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package persistence;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Represents a file that is only ever replaced as a whole, so that a crash while it is written
+// leaves either all of its old contents or all of its new contents, never a mix or a truncated file:
+// the new contents are written to a temporary file next to it (with TEMP_SUFFIX added to its name),
+// forced to the disk, and then renamed over the file in one atomic step
+class AtomicFile {
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final File file;
+    private final File temp;
+
+    // EFFECTS:  creates an atomically replaced file at file
+    AtomicFile(File file) {
+        this.file = file;
+        this.temp = new File(file.getPath() + TEMP_SUFFIX);
+    }
+
+    // Represents the new contents of a file, written to a stream
+    interface Contents {
+
+        // MODIFIES: out
+        // EFFECTS:  writes the contents to out and flushes it; throws IOException if out cannot be written to
+        void writeTo(OutputStream out) throws IOException;
+
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  replaces the file with contents, which are on the disk once this returns;
+    //           throws IOException (leaving the file as it was) if contents cannot be written
+    void write(Contents contents) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            contents.writeTo(out);
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    // EFFECTS:  forces the directory holding the file to the disk, so that the rename survives a crash;
+    //           does nothing where directories cannot be opened (as on Windows, which needs no such step)
+    private void syncDirectory() {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // the rename is still atomic, only perhaps not yet on the disk
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+package persistence;
+
+import model.Account;
+import model.AccountListener;
+import model.IdIndex;
+import model.Record;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Represents an account kept in a BTreeStore instead of a file written in full: the backend listens to the
+// account and commits each change to the store as it happens, so adding, editing or removing a record writes
+// O(log n) pages of the store, whatever the number of records.
+// Each record is stored under a key that keeps the order of the records log: the records of an empty store are
+// stored under their ids, and the records read from a store keep their keys while getting new ids in the account,
+// so the backend maps each id of the account to its key; a record added later is stored after every other one.
+// A change that cannot be committed is kept as the failure returned by flush, and later changes are dropped
+public class BTreeBackend implements AccountListener {
+    private final BTreeStore store;
+    private final Account account;
+    private final IdIndex keys;
+    private long nextKey;
+    private IOException failure;
+
+    // REQUIRES: account is empty if store is not, and the keys of store are < 2^31;
+    //           no record removed from account before this call is restored later
+    // MODIFIES: store, account
+    // EFFECTS:  binds account to store: if store is empty, stores the records of account in it,
+    //           otherwise adds the records of store to account in key order;
+    //           then starts committing every change of account to store;
+    //           throws IOException if store cannot be read or written
+    public BTreeBackend(BTreeStore store, Account account) throws IOException {
+        this.store = store;
+        this.account = account;
+        this.keys = new IdIndex();
+        synchronized (account) {
+            if (store.size() == 0) {
+                storeAll();
+            } else {
+                loadAll();
+            }
+            account.addListener(this);
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Listener methods
+
+    // MODIFIES: this
+    // EFFECTS:  stores record under a new key after every other one
+    @Override
+    public void recordAdded(long id, Record record) {
+        keys.put(id, (int) nextKey);
+        put(nextKey++, record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stores record under the key of the record with id
+    @Override
+    public void recordEdited(long id, Record record) {
+        put(keys.get(id), record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  removes the record with id from the store, keeping its key in case it is restored
+    @Override
+    public void recordRemoved(long id) {
+        if (failure == null) {
+            try {
+                store.remove(keys.get(id));
+                store.commit();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stores record again under the key the record with id had
+    @Override
+    public void recordRestored(long id, Record record) {
+        put(keys.get(id), record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  brings the store in line with account, as a batch change is not told record by record:
+    //           stores every record that differs from the stored one and removes the records no longer in account
+    @Override
+    public void recordsChanged(Account account) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            removeAllBut(putChanged(account));
+            store.commit();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Backend methods
+
+    // EFFECTS:  throws the IOException a change failed to commit with, if any did
+    public void flush() throws IOException {
+        synchronized (account) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stops committing changes of account to the store (the store itself is left open)
+    public void close() {
+        account.removeListener(this);
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // MODIFIES: this
+    // EFFECTS:  stores record under key and commits it, unless a change failed before
+    private void put(long key, Record record) {
+        if (failure == null) {
+            try {
+                store.put(key, record);
+                store.commit();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    // MODIFIES: store
+    // EFFECTS:  stores every record of account that differs from the one stored under its key
+    //           and returns the keys of the records of account
+    private BitSet putChanged(Account account) throws IOException {
+        BitSet live = new BitSet();
+        for (Record record : account.getLog()) {
+            int key = keys.get(record.getId());
+            live.set(key);
+            if (!record.equals(store.get(key))) {
+                store.put(key, record);
+            }
+        }
+        return live;
+    }
+
+    // MODIFIES: store
+    // EFFECTS:  removes every record stored under a key not in live
+    private void removeAllBut(BitSet live) throws IOException {
+        List<Long> gone = new ArrayList<>();
+        store.forEach((key, record) -> {
+            if (!live.get((int) key)) {
+                gone.add(key);
+            }
+        });
+        for (long key : gone) {
+            store.remove(key);
+        }
+    }
+
+    // MODIFIES: this, store
+    // EFFECTS:  stores every record of account under its id and commits them at once
+    private void storeAll() throws IOException {
+        for (Record record : account.getLog()) {
+            keys.put(record.getId(), (int) record.getId());
+            store.put(record.getId(), record);
+            nextKey = record.getId() + 1;
+        }
+        store.commit();
+    }
+
+    // MODIFIES: this, account
+    // EFFECTS:  adds every record of the store to account, in key order, mapping each new id to its key
+    private void loadAll() throws IOException {
+        List<Long> storedKeys = new ArrayList<>();
+        List<Record> records = new ArrayList<>();
+        store.forEach((key, record) -> {
+            storedKeys.add(key);
+            records.add(record);
+        });
+        long[] ids = account.addRecords(records);
+        for (int i = 0; i < ids.length; i++) {
+            keys.put(ids[i], storedKeys.get(i).intValue());
+        }
+        nextKey = storedKeys.get(storedKeys.size() - 1) + 1;
+    }
+
+}
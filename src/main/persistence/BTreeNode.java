@@ -0,0 +1,168 @@
+package persistence;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a node of a BTreeStore, held in one page of its file:
+//  - a leaf holds keys in increasing order, each with its value (an encoded record);
+//  - an inner node holds keys in increasing order and one more child than keys, where key i is
+//    the smallest key under child i + 1.
+// A node read from the file (page >= 0) is never changed: it is copied first (see copy),
+// and the copy is written to a new page when the store commits, so the pages of the last commit
+// are never overwritten. A page is laid out as
+//     <type: 0 leaf, 1 inner> <key count: int>
+//     leaf:  (<key: long> <value length: short> <value bytes>) per key
+//     inner: <child 0 page: long> (<key: long> <child page: long>) per key
+class BTreeNode {
+    static final long NO_PAGE = -1;
+    private static final byte LEAF = 0;
+    private static final byte INNER = 1;
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+
+    final boolean leaf;
+    final List<Long> keys;
+    final List<byte[]> values;          // leaf only
+    final List<Long> childPages;        // inner only; NO_PAGE for a child not yet written
+    final List<BTreeNode> childNodes;   // inner only; the changed child nodes not yet written, otherwise null
+    long page;                          // the page the node was read from or written to, or NO_PAGE if changed
+
+    // EFFECTS:  creates an empty, changed node (a leaf if leaf is true, otherwise an inner node)
+    BTreeNode(boolean leaf) {
+        this.leaf = leaf;
+        this.keys = new ArrayList<>();
+        this.values = leaf ? new ArrayList<>() : null;
+        this.childPages = leaf ? null : new ArrayList<>();
+        this.childNodes = leaf ? null : new ArrayList<>();
+        this.page = NO_PAGE;
+    }
+
+    // EFFECTS:  returns a changed copy of this node, sharing its values (which are never changed)
+    BTreeNode copy() {
+        BTreeNode copy = new BTreeNode(leaf);
+        copy.keys.addAll(keys);
+        if (leaf) {
+            copy.values.addAll(values);
+        } else {
+            copy.childPages.addAll(childPages);
+            copy.childNodes.addAll(childNodes);
+        }
+        return copy;
+    }
+
+    // EFFECTS:  returns the position of key among the keys of this leaf, or -(insertion point) - 1 if absent
+    int find(long key) {
+        int low = 0;
+        int high = keys.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = keys.get(mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // EFFECTS:  returns the child of this inner node under which key belongs
+    int childFor(long key) {
+        int pos = find(key);
+        return pos >= 0 ? pos + 1 : -(pos + 1);
+    }
+
+    // EFFECTS:  returns the number of bytes the node takes up in a page
+    int byteSize() {
+        if (!leaf) {
+            return HEADER_BYTES + Long.BYTES + keys.size() * 2 * Long.BYTES;
+        }
+        int size = HEADER_BYTES;
+        for (byte[] value : values) {
+            size += Long.BYTES + Short.BYTES + value.length;
+        }
+        return size;
+    }
+
+    // REQUIRES: the node has at least two keys
+    // EFFECTS:  returns the position of the key at which to split the node: the middle key of an inner node,
+    //           or the first key of a leaf past half of its bytes, so that both halves fit in a page
+    int splitPoint() {
+        if (!leaf) {
+            return keys.size() / 2;
+        }
+        int half = (byteSize() - HEADER_BYTES) / 2;
+        int mid = 0;
+        for (int bytes = 0; bytes < half; mid++) {
+            bytes += Long.BYTES + Short.BYTES + values.get(mid).length;
+        }
+        return Math.max(1, Math.min(mid, keys.size() - 1));
+    }
+
+    // REQUIRES: mid is splitPoint()
+    // MODIFIES: this
+    // EFFECTS:  moves the keys from position mid on into a new changed node and returns it;
+    //           for an inner node, key mid is dropped instead, as it moves up to the parent to separate the two
+    BTreeNode splitOff(int mid) {
+        BTreeNode right = new BTreeNode(leaf);
+        right.keys.addAll(keys.subList(leaf ? mid : mid + 1, keys.size()));
+        if (leaf) {
+            right.values.addAll(values.subList(mid, values.size()));
+            values.subList(mid, values.size()).clear();
+        } else {
+            right.childPages.addAll(childPages.subList(mid + 1, childPages.size()));
+            right.childNodes.addAll(childNodes.subList(mid + 1, childNodes.size()));
+            childPages.subList(mid + 1, childPages.size()).clear();
+            childNodes.subList(mid + 1, childNodes.size()).clear();
+        }
+        keys.subList(mid, keys.size()).clear();
+        return right;
+    }
+
+    // MODIFIES: page
+    // EFFECTS:  writes the node into page, from its start
+    void writeTo(ByteBuffer page) {
+        page.clear();
+        page.put(leaf ? LEAF : INNER);
+        page.putInt(keys.size());
+        if (!leaf) {
+            page.putLong(childPages.get(0));
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            page.putLong(keys.get(i));
+            if (leaf) {
+                page.putShort((short) values.get(i).length);
+                page.put(values.get(i));
+            } else {
+                page.putLong(childPages.get(i + 1));
+            }
+        }
+        page.clear();
+    }
+
+    // EFFECTS:  returns the node held in page, read from pageNumber
+    static BTreeNode readFrom(ByteBuffer page, long pageNumber) {
+        BTreeNode node = new BTreeNode(page.get() == LEAF);
+        int count = page.getInt();
+        if (!node.leaf) {
+            node.childPages.add(page.getLong());
+            node.childNodes.add(null);
+        }
+        for (int i = 0; i < count; i++) {
+            node.keys.add(page.getLong());
+            if (node.leaf) {
+                byte[] value = new byte[page.getShort() & 0xffff];
+                page.get(value);
+                node.values.add(value);
+            } else {
+                node.childPages.add(page.getLong());
+                node.childNodes.add(null);
+            }
+        }
+        node.page = pageNumber;
+        return node;
+    }
+
+}
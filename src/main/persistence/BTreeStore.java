@@ -0,0 +1,430 @@
+package persistence;
+
+import model.Record;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Represents a file of records keyed by a long, kept as a B+tree of PAGE_SIZE pages (see BTreeNode),
+// so that a record is found, added, changed or removed by reading and writing O(log n) pages
+// instead of rewriting the file. Pages are read through a buffer pool holding at most cachedPages
+// of the nodes read, dropping the least recently used one when full.
+// Changes are made copy-on-write: a changed node is written to a new page when commit is called,
+// and only then is one of the two header pages (the older one) overwritten to point at the new root,
+// so a crash before the header is on the disk leaves the tree of the last commit whole.
+// The pages of replaced nodes are reused once the commit that replaced them is on the disk.
+// A header page holds MAGIC, VERSION, <commit sequence>, <root page>, <tree height>, <record count>,
+// <page count> and the CRC-32 of those; the valid header with the highest sequence is the current one.
+// Nodes left with no keys by removals are kept, so the tree never shrinks in height
+public class BTreeStore implements SaveableData, Closeable {
+    static final int PAGE_SIZE = 4096;
+    static final int MAGIC = 0x42505442;    // "BPTB"
+    static final int VERSION = 1;
+    static final int MAX_VALUE_BYTES = PAGE_SIZE / 4;
+    private static final int HEADER_PAGES = 2;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 5 * Long.BYTES;
+
+    private final FileChannel channel;
+    private final Map<Long, BTreeNode> pool;
+    private final ByteBuffer pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+    private final Deque<Long> freePages = new ArrayDeque<>();
+    private final List<Long> pendingFree = new ArrayList<>();
+    private BTreeNode root;
+    private int height;
+    private long size;
+    private long sequence;
+    private long pageCount;
+    private boolean changed;
+
+    // Represents a node split in two: the new node to the right of it and the key separating them
+    private static class Split {
+        private final long separator;
+        private final BTreeNode right;
+
+        // EFFECTS:  creates a split into right, whose keys start at (or, for an inner node, follow) separator
+        Split(long separator, BTreeNode right) {
+            this.separator = separator;
+            this.right = right;
+        }
+    }
+
+    // Represents an action taken on each record of the store, in key order
+    public interface Visitor {
+
+        // EFFECTS:  called with the key and a copy of the record stored under it
+        void visit(long key, Record record) throws IOException;
+
+    }
+
+    // REQUIRES: cachedPages > 0
+    // EFFECTS:  opens the store in file, creating an empty one if file does not exist or is empty;
+    //           throws IOException if file cannot be read or written, or is not a store
+    public BTreeStore(File file, int cachedPages) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        pool = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BTreeNode> eldest) {
+                return size() > cachedPages;
+            }
+        };
+        if (channel.size() == 0) {
+            root = new BTreeNode(true);
+            height = 1;
+            pageCount = HEADER_PAGES;
+            changed = true;
+            commit();
+        } else {
+            root = load(readHeader());
+            findFreePages();
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Record methods
+
+    // EFFECTS:  returns a copy of the record stored under key, or null if there is none;
+    //           throws IOException if a page cannot be read
+    public synchronized Record get(long key) throws IOException {
+        BTreeNode node = root;
+        while (!node.leaf) {
+            node = child(node, node.childFor(key));
+        }
+        int pos = node.find(key);
+        return pos < 0 ? null : decode(node.values.get(pos));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stores record under key, replacing any record stored under it (kept once commit is called);
+    //           throws IOException if a page cannot be read or the record takes more than MAX_VALUE_BYTES
+    public synchronized void put(long key, Record record) throws IOException {
+        byte[] value = encode(record);
+        root = writable(root);
+        Split split = insert(root, key, value);
+        if (split != null) {
+            BTreeNode newRoot = new BTreeNode(false);
+            newRoot.childPages.add(BTreeNode.NO_PAGE);
+            newRoot.childNodes.add(root);
+            newRoot.keys.add(split.separator);
+            newRoot.childPages.add(BTreeNode.NO_PAGE);
+            newRoot.childNodes.add(split.right);
+            root = newRoot;
+            height++;
+        }
+        changed = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  removes the record stored under key (kept once commit is called) and returns true,
+    //           or returns false if there is none; throws IOException if a page cannot be read
+    public synchronized boolean remove(long key) throws IOException {
+        if (get(key) == null) {
+            return false;
+        }
+        root = writable(root);
+        BTreeNode node = root;
+        while (!node.leaf) {
+            node = writableChild(node, node.childFor(key));
+        }
+        int pos = node.find(key);
+        node.keys.remove(pos);
+        node.values.remove(pos);
+        size--;
+        changed = true;
+        return true;
+    }
+
+    // EFFECTS:  returns the number of records stored
+    public synchronized long size() {
+        return size;
+    }
+
+    // EFFECTS:  calls visitor with every record stored, in key order;
+    //           throws IOException if a page cannot be read (or visitor throws it)
+    public synchronized void forEach(Visitor visitor) throws IOException {
+        visit(root, visitor);
+    }
+
+    // MODIFIES: printWriter
+    // EFFECTS:  writes every record stored to printWriter in key order, one per line, as Account.save does;
+    //           throws UncheckedIOException if a page cannot be read
+    @Override
+    public void save(PrintWriter printWriter) {
+        try {
+            forEach((key, record) -> {
+                record.save(printWriter);
+                printWriter.print("\n");
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Commit methods
+
+    // MODIFIES: this
+    // EFFECTS:  writes every changed node to a new page, forces them to the disk, then writes and forces
+    //           the header pointing at the new root, making every change since the last commit durable;
+    //           throws IOException if the file cannot be written
+    public synchronized void commit() throws IOException {
+        if (!changed) {
+            return;
+        }
+        long rootPage = writeNode(root);
+        channel.force(false);
+        sequence++;
+        writeHeader(rootPage);
+        channel.force(false);
+        freePages.addAll(pendingFree);
+        pendingFree.clear();
+        changed = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  closes the file, dropping any changes not committed
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // EFFECTS:  returns the number of pages in the file (headers included)
+    synchronized long getPageCount() {
+        return pageCount;
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // MODIFIES: this
+    // EFFECTS:  inserts key with value under node (which is changed) and returns the split of node
+    //           if it no longer fits in a page, otherwise null
+    private Split insert(BTreeNode node, long key, byte[] value) throws IOException {
+        if (node.leaf) {
+            int pos = node.find(key);
+            if (pos >= 0) {
+                node.values.set(pos, value);
+            } else {
+                node.keys.add(-pos - 1, key);
+                node.values.add(-pos - 1, value);
+                size++;
+            }
+        } else {
+            int child = node.childFor(key);
+            Split split = insert(writableChild(node, child), key, value);
+            if (split != null) {
+                node.keys.add(child, split.separator);
+                node.childPages.add(child + 1, BTreeNode.NO_PAGE);
+                node.childNodes.add(child + 1, split.right);
+            }
+        }
+        if (node.byteSize() <= PAGE_SIZE) {
+            return null;
+        }
+        int mid = node.splitPoint();
+        long separator = node.keys.get(mid);
+        return new Split(separator, node.splitOff(mid));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns node if it is changed already, otherwise a changed copy of it,
+    //           marking its page to be freed once the copy is committed
+    private BTreeNode writable(BTreeNode node) {
+        if (node.page == BTreeNode.NO_PAGE) {
+            return node;
+        }
+        pendingFree.add(node.page);
+        pool.remove(node.page);
+        return node.copy();
+    }
+
+    // MODIFIES: this, parent
+    // EFFECTS:  returns child i of parent (which is changed), made writable and held by parent until committed
+    private BTreeNode writableChild(BTreeNode parent, int i) throws IOException {
+        BTreeNode node = writable(child(parent, i));
+        parent.childNodes.set(i, node);
+        parent.childPages.set(i, BTreeNode.NO_PAGE);
+        return node;
+    }
+
+    // EFFECTS:  returns child i of the inner node parent, reading it if it is not held in memory
+    private BTreeNode child(BTreeNode parent, int i) throws IOException {
+        BTreeNode node = parent.childNodes.get(i);
+        return node != null ? node : load(parent.childPages.get(i));
+    }
+
+    // EFFECTS:  calls visitor with every record under node, in key order
+    private void visit(BTreeNode node, Visitor visitor) throws IOException {
+        if (node.leaf) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                visitor.visit(node.keys.get(i), decode(node.values.get(i)));
+            }
+            return;
+        }
+        for (int i = 0; i < node.childPages.size(); i++) {
+            visit(child(node, i), visitor);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes node and every changed node under it to new pages (children first),
+    //           and returns the page of node
+    private long writeNode(BTreeNode node) throws IOException {
+        if (node.page != BTreeNode.NO_PAGE) {
+            return node.page;
+        }
+        if (!node.leaf) {
+            for (int i = 0; i < node.childNodes.size(); i++) {
+                if (node.childNodes.get(i) != null) {
+                    node.childPages.set(i, writeNode(node.childNodes.get(i)));
+                    node.childNodes.set(i, null);
+                }
+            }
+        }
+        node.page = freePages.isEmpty() ? pageCount++ : freePages.poll();
+        node.writeTo(pageBuffer);
+        writePage(node.page);
+        pool.put(node.page, node);
+        return node.page;
+    }
+
+    // EFFECTS:  returns the node in page, from the buffer pool or read from the file
+    private BTreeNode load(long page) throws IOException {
+        BTreeNode node = pool.get(page);
+        if (node == null) {
+            readPage(page);
+            node = BTreeNode.readFrom(pageBuffer, page);
+            pool.put(page, node);
+        }
+        return node;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes the header of the commit numbered sequence, with root at rootPage,
+    //           over the older of the two header pages
+    private void writeHeader(long rootPage) throws IOException {
+        pageBuffer.clear();
+        pageBuffer.putInt(MAGIC).putInt(VERSION).putLong(sequence).putLong(rootPage).putLong(height)
+                .putLong(size).putLong(pageCount);
+        CRC32 crc = new CRC32();
+        crc.update(pageBuffer.array(), 0, HEADER_BYTES);
+        pageBuffer.putLong(crc.getValue());
+        writePage(sequence % HEADER_PAGES);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  reads the current header and returns its root page;
+    //           throws IOException if neither header page is valid
+    private long readHeader() throws IOException {
+        long rootPage = -1;
+        for (int page = 0; page < HEADER_PAGES; page++) {
+            readPage(page);
+            CRC32 crc = new CRC32();
+            crc.update(pageBuffer.array(), 0, HEADER_BYTES);
+            if (pageBuffer.getInt() != MAGIC || pageBuffer.getInt() != VERSION
+                    || pageBuffer.getLong(HEADER_BYTES) != crc.getValue()) {
+                continue;
+            }
+            long headerSequence = pageBuffer.getLong();
+            if (rootPage < 0 || headerSequence > sequence) {
+                sequence = headerSequence;
+                rootPage = pageBuffer.getLong();
+                height = (int) pageBuffer.getLong();
+                size = pageBuffer.getLong();
+                pageCount = pageBuffer.getLong();
+            }
+        }
+        if (rootPage < 0) {
+            throw new IOException("Not a B+tree store");
+        }
+        return rootPage;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  adds every page of the file that the current tree does not use to the free pages,
+    //           reading only the inner nodes (the pages of leaves are known from their parents)
+    private void findFreePages() throws IOException {
+        BitSet used = new BitSet();
+        used.set(0, HEADER_PAGES);
+        used.set((int) root.page);
+        List<BTreeNode> level = List.of(root);
+        for (int depth = 1; depth < height; depth++) {
+            List<BTreeNode> next = new ArrayList<>();
+            for (BTreeNode node : level) {
+                for (long page : node.childPages) {
+                    used.set((int) page);
+                    if (depth < height - 1) {
+                        next.add(load(page));
+                    }
+                }
+            }
+            level = next;
+        }
+        for (int page = used.nextClearBit(0); page < pageCount; page = used.nextClearBit(page + 1)) {
+            freePages.add((long) page);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  reads page into pageBuffer (positioned at its start)
+    private void readPage(long page) throws IOException {
+        pageBuffer.clear();
+        while (pageBuffer.hasRemaining()) {
+            if (channel.read(pageBuffer, page * PAGE_SIZE + pageBuffer.position()) < 0) {
+                throw new IOException("Page " + page + " is past the end of the store");
+            }
+        }
+        pageBuffer.clear();
+    }
+
+    // EFFECTS:  writes the whole of pageBuffer to page
+    private void writePage(long page) throws IOException {
+        pageBuffer.clear();
+        while (pageBuffer.hasRemaining()) {
+            channel.write(pageBuffer, page * PAGE_SIZE + pageBuffer.position());
+        }
+    }
+
+    // EFFECTS:  returns record encoded as a value; throws IOException if it takes more than MAX_VALUE_BYTES
+    private static byte[] encode(Record record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(record.getCents());
+        out.writeUTF(record.getCategory());
+        out.writeUTF(record.getTitle());
+        if (bytes.size() > MAX_VALUE_BYTES) {
+            throw new IOException("Record too large to store: " + record.getTitle());
+        }
+        return bytes.toByteArray();
+    }
+
+    // EFFECTS:  returns the record encoded in value
+    private static Record decode(byte[] value) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        long cents = in.readLong();
+        String category = in.readUTF();
+        return Record.ofCents(in.readUTF(), category, cents);
+    }
+
+}
@@ -0,0 +1,173 @@
+package persistence;
+
+import model.Account;
+import model.Aggregates;
+import model.Categories;
+import model.Record;
+import model.RecordStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Represents a reader of accounts in the binary account format (see BinaryAccountWriter);
+// bytes are read into a buffer and decoded where they lie, the dictionary maps each category number
+// straight to an interned category id, and the records are gathered into a record store
+// with their totals so that they are added to the account in bulk
+class BinaryAccountReader {
+    private static final int MAX_VARINT_BYTES = 10;
+    static final int MAX_TEXT_BYTES = 1 << 20;
+    static final int MAX_CATEGORIES = 1 << 16;
+
+    private final InputStream in;
+    private final CharsetDecoder decoder;
+    private byte[] buffer;
+    private int pos;            // position in buffer of the next byte to decode
+    private int end;            // position in buffer after the last byte read
+
+    // REQUIRES: bufferSize > 0
+    // EFFECTS:  creates a reader from in, reading bufferSize bytes at a time
+    BinaryAccountReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.buffer = new byte[bufferSize];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the account read from the stream;
+    //           throws IOException if the stream cannot be read or is not a binary account file
+    //           of a version this reader knows
+    Account read() throws IOException {
+        int[] categoryIds = readHeader();
+        long count = readVarint();
+        if (count < 0) {
+            throw new IOException("Malformed record count: " + count);
+        }
+        RecordStore records = new RecordStore();
+        Aggregates totals = new Aggregates();
+        for (long i = 0; i < count; i++) {
+            long number = readVarint();
+            if (number < 0 || number >= categoryIds.length) {
+                throw new IOException("Record " + i + " has an unknown category number: " + number);
+            }
+            int categoryId = categoryIds[(int) number];
+            long cents = unzigzag(readVarint());
+            records.add(Record.ofCents(readText(), categoryId, cents));
+            totals.add(categoryId, cents);
+        }
+        Account account = new Account();
+        account.addRecords(records, totals);
+        return account;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  checks the header and returns the category ids of the dictionary, by category number
+    private int[] readHeader() throws IOException {
+        require(AccountFormat.MAGIC.length);
+        if (!Arrays.equals(buffer, pos, pos + AccountFormat.MAGIC.length,
+                AccountFormat.MAGIC, 0, AccountFormat.MAGIC.length)) {
+            throw new IOException("Not a binary account file");
+        }
+        pos += AccountFormat.MAGIC.length;
+        long version = readVarint();
+        if (version != AccountFormat.VERSION) {
+            throw new IOException("Unsupported binary account file version: " + version);
+        }
+        int[] categoryIds = new int[readLength("Category count", MAX_CATEGORIES)];
+        for (int number = 0; number < categoryIds.length; number++) {
+            categoryIds[number] = Categories.intern(readText());
+        }
+        return categoryIds;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the next text (varint length and UTF-8 bytes);
+    //           throws IOException if its length is out of range or its bytes are not UTF-8 text
+    private String readText() throws IOException {
+        int length = readLength("Text length", MAX_TEXT_BYTES);
+        require(length);
+        int from = pos;
+        pos += length;
+        for (int i = from; i < pos; i++) {
+            if (buffer[i] < 0) {
+                return decoder.decode(ByteBuffer.wrap(buffer, from, pos - from)).toString();
+            }
+        }
+        return new String(buffer, from, pos - from, StandardCharsets.ISO_8859_1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the next varint as a length (or count) of what;
+    //           throws IOException if it is negative (a varint of 2^63 or more) or more than max
+    private int readLength(String what, int max) throws IOException {
+        long length = readVarint();
+        if (length < 0 || length > max) {
+            throw new IOException(what + " out of range: " + Long.toUnsignedString(length));
+        }
+        return (int) length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the next varint (see BinaryAccountWriter);
+    //           throws IOException if the stream ends within it or it is longer than MAX_VARINT_BYTES
+    private long readVarint() throws IOException {
+        if (end - pos < MAX_VARINT_BYTES) {
+            fill(MAX_VARINT_BYTES);
+        }
+        long value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+            if (pos == end) {
+                throw new IOException("Unexpected end of binary account file");
+            }
+            byte next = buffer[pos++];
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in binary account file");
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  makes sure at least count bytes are in buffer from pos;
+    //           throws IOException if the stream ends first
+    private void require(int count) throws IOException {
+        if (end - pos < count) {
+            fill(count);
+            if (end - pos < count) {
+                throw new IOException("Unexpected end of binary account file");
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  moves the undecoded bytes to the front of buffer (growing it to hold count bytes if needed)
+    //           and reads until count bytes are in buffer or the stream ends
+    private void fill(int count) throws IOException {
+        System.arraycopy(buffer, pos, buffer, 0, end - pos);
+        end -= pos;
+        pos = 0;
+        if (count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, count);
+        }
+        while (end < count) {
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                return;
+            }
+            end += read;
+        }
+    }
+
+    // EFFECTS:  returns the value BinaryAccountWriter.zigzag encoded as encoded
+    static long unzigzag(long encoded) {
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+}
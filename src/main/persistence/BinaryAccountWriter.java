@@ -0,0 +1,134 @@
+package persistence;
+
+import model.AccountSnapshot;
+import model.Categories;
+import model.Record;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// Represents a writer of accounts in the binary account format (see AccountFormat):
+//  - header:     the MAGIC bytes and a VERSION byte
+//  - dictionary: the number of categories used, then each category name (varint length and UTF-8 bytes)
+//  - records:    the number of records, then for each record its category's number in the dictionary,
+//                its cents (zigzag varint, so negative amounts stay short) and its title (varint length
+//                and UTF-8 bytes)
+// Every number is an unsigned LEB128 varint, so small numbers take a single byte.
+// Bytes are gathered in a buffer of BUFFER_SIZE and written to the stream a buffer at a time
+class BinaryAccountWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int used;
+
+    // EFFECTS:  creates a writer to out
+    BinaryAccountWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes the records log of account to the stream and flushes it;
+    //           throws IOException if the stream cannot be written to
+    void write(AccountSnapshot account) throws IOException {
+        List<Record> log = account.getLog();
+        int[] dictionary = dictionaryOf(log);
+        writeHeader(dictionary);
+        writeVarint(log.size());
+        for (Record record : log) {
+            writeVarint(dictionary[record.getCategoryId()]);
+            writeVarint(zigzag(record.getCents()));
+            writeText(record.getTitle());
+        }
+        flush();
+        out.flush();
+    }
+
+    // EFFECTS:  returns a table from category id to the category's number in the dictionary,
+    //           numbering the categories used in log by first use (-1 for categories not used)
+    private static int[] dictionaryOf(List<Record> log) {
+        int[] dictionary = new int[Categories.count()];
+        Arrays.fill(dictionary, -1);
+        int used = 0;
+        for (Record record : log) {
+            if (dictionary[record.getCategoryId()] < 0) {
+                dictionary[record.getCategoryId()] = used++;
+            }
+        }
+        return dictionary;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes the header and the names of the categories numbered in dictionary, in number order
+    private void writeHeader(int[] dictionary) throws IOException {
+        writeBytes(AccountFormat.MAGIC, 0, AccountFormat.MAGIC.length);
+        writeVarint(AccountFormat.VERSION);
+        String[] names = new String[dictionary.length];
+        int used = 0;
+        for (int id = 0; id < dictionary.length; id++) {
+            if (dictionary[id] >= 0) {
+                names[dictionary[id]] = Categories.nameOf(id);
+                used++;
+            }
+        }
+        writeVarint(used);
+        for (int number = 0; number < used; number++) {
+            writeText(names[number]);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes text as its UTF-8 length in bytes followed by its UTF-8 bytes
+    private void writeText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    // REQUIRES: value >= 0 (or a zigzag-encoded value, read as unsigned)
+    // MODIFIES: this
+    // EFFECTS:  writes value seven bits at a time, lowest first, setting the top bit of every byte but the last
+    private void writeVarint(long value) throws IOException {
+        if (used + MAX_VARINT_BYTES > buffer.length) {
+            flush();
+        }
+        long rest = value;
+        while ((rest & ~0x7FL) != 0) {
+            buffer[used++] = (byte) ((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        buffer[used++] = (byte) rest;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes bytes[from, from + length)
+    private void writeBytes(byte[] bytes, int from, int length) throws IOException {
+        if (used + length > buffer.length) {
+            flush();
+            if (length > buffer.length) {
+                out.write(bytes, from, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, from, buffer, used, length);
+        used += length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes the buffered bytes to the stream and empties the buffer
+    private void flush() throws IOException {
+        out.write(buffer, 0, used);
+        used = 0;
+    }
+
+    // EFFECTS:  returns value with its sign moved to the lowest bit (0, -1, 1, -2, ... become 0, 1, 2, 3, ...)
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
@@ -0,0 +1,37 @@
+package persistence;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// Represents an input stream reading the remaining bytes of a byte buffer (such as a mapped region of a file),
+// so that a RecordScanner can read from memory the same way it reads from a file
+class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer bytes;
+
+    // EFFECTS:  creates a stream over the bytes from bytes' position to its limit
+    ByteBufferInputStream(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the next byte (0 to 255), or -1 if there are no bytes left
+    @Override
+    public int read() {
+        return bytes.hasRemaining() ? bytes.get() & 0xff : -1;
+    }
+
+    // REQUIRES: 0 <= offset, 0 <= length, and offset + length <= buffer.length
+    // MODIFIES: this, buffer
+    // EFFECTS:  copies up to length of the next bytes into buffer from offset
+    //           and returns the number copied, or -1 if there are no bytes left
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (!bytes.hasRemaining()) {
+            return length == 0 ? 0 : -1;
+        }
+        int count = Math.min(length, bytes.remaining());
+        bytes.get(buffer, offset, count);
+        return count;
+    }
+
+}
@@ -0,0 +1,76 @@
+package persistence;
+
+import model.Aggregates;
+import model.Record;
+import model.RecordStore;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.RecursiveAction;
+
+// Represents a fork/join task parsing one chunk of an account file (a run of whole lines):
+// the chunk is mapped into memory, its records are parsed into a record store of their own
+// and their aggregates (balance and category totals) are added up along the way,
+// so that the chunk can be appended to an account in bulk without visiting the records again.
+// A chunk that cannot be parsed keeps the exception instead of throwing it
+class ChunkTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+    private final RecordStore records;
+    private final Aggregates totals;
+    private IOException failure;
+
+    // REQUIRES: 0 <= start <= end <= channel.size(), start and end are at the start of a line
+    //           (or the end of the file) and end - start <= Integer.MAX_VALUE
+    // EFFECTS:  creates a task for the bytes of channel from start (inclusive) to end (exclusive)
+    ChunkTask(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.start = start;
+        this.end = end;
+        this.records = new RecordStore();
+        this.totals = new Aggregates();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  parses the records of the chunk into getRecords() and their totals into getTotals(),
+    //           or keeps the IOException raised when mapping or parsing the chunk in getFailure()
+    @Override
+    protected void compute() {
+        try {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            RecordScanner scanner = new RecordScanner(new ByteBufferInputStream(bytes), BUFFER_SIZE);
+            for (Record record = scanner.next(); record != null; record = scanner.next()) {
+                records.add(record);
+                totals.add(record.getCategoryId(), record.getCents());
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // EFFECTS:  returns the position in the file of the first byte of the chunk
+    long getStart() {
+        return start;
+    }
+
+    // EFFECTS:  returns the records parsed from the chunk, in order
+    RecordStore getRecords() {
+        return records;
+    }
+
+    // EFFECTS:  returns the balance and category total sums of the records parsed from the chunk
+    Aggregates getTotals() {
+        return totals;
+    }
+
+    // EFFECTS:  returns the exception raised when mapping or parsing the chunk, or null if there was none
+    IOException getFailure() {
+        return failure;
+    }
+
+}
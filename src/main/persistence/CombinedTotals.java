@@ -0,0 +1,66 @@
+package persistence;
+
+import model.AccountTotals;
+import model.Categories;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Represents the totals of a group of accounts (or parts of one account), summed over each of their totals
+class CombinedTotals implements AccountTotals {
+    private final boolean empty;
+    private final long balance;
+    private final long[] categoryTotals;
+    private final List<String> categoryNames;
+
+    // EFFECTS:  creates the totals of every part in parts
+    CombinedTotals(List<AccountTotals> parts) {
+        int size = 0;
+        for (AccountTotals part : parts) {
+            size = Math.max(size, part.getCategories().size());
+        }
+        boolean isEmpty = true;
+        long sum = 0;
+        categoryTotals = new long[size];
+        for (AccountTotals part : parts) {
+            isEmpty = isEmpty && part.isLogEmpty();
+            sum += part.getBalanceCents();
+            for (int id = 0; id < part.getCategories().size(); id++) {
+                categoryTotals[id] += part.getCategorySumCents(id);
+            }
+        }
+        empty = isEmpty;
+        balance = sum;
+        List<String> names = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            names.add(Categories.nameOf(id));
+        }
+        categoryNames = Collections.unmodifiableList(names);
+    }
+
+    // EFFECTS:  returns true if no part has records, otherwise false
+    @Override
+    public boolean isLogEmpty() {
+        return empty;
+    }
+
+    // EFFECTS:  returns the balance (in cents) of every part together
+    @Override
+    public long getBalanceCents() {
+        return balance;
+    }
+
+    // EFFECTS:  returns the category names, in category id order
+    @Override
+    public List<String> getCategories() {
+        return categoryNames;
+    }
+
+    // REQUIRES: 0 <= categoryId < getCategories().size()
+    // EFFECTS:  returns the total sum (in cents) of the category with categoryId in every part together
+    @Override
+    public long getCategorySumCents(int categoryId) {
+        return categoryTotals[categoryId];
+    }
+}
@@ -0,0 +1,667 @@
+package persistence;
+
+import model.Account;
+import model.AccountListener;
+import model.AccountSnapshot;
+import model.Categories;
+import model.IdIndex;
+import model.Money;
+import model.Record;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Represents a write-ahead journal of the changes made to an account since its last checkpoint
+// (the account file, written in full): the journal listens to the account and appends one line per change,
+// so saving a change costs one short write instead of rewriting every record.
+// Reader.readAccount replays the journal on top of the checkpoint it is bound to.
+// The journal file sits next to the checkpoint (with SUFFIX added to its name) and holds:
+//  - a header line:   J,VERSION,<generation of the checkpoint file, from its footer (see AccountFooter)>
+//  - one line per change, each ending with a newline:
+//      A,<id>,<record>   the record was added with id
+//      E,<id>,<record>   the record with id was edited to hold record
+//      R,<id>            the record with id was removed
+//      U,<id>,<record>   the record was put back with id (undo or redo)
+//    where <record> is written as in the account file (title,category,value)
+//    and <id> is the id the record has when the checkpoint is read and the journal replayed.
+// A journal whose header does not match the checkpoint's footer is ignored (so binding the journal only reads
+// the end of the checkpoint), and a last line without a newline
+// (cut off by a crash) is dropped. Once the journal holds more entries than the account has records
+// (and at least MIN_ENTRIES_BEFORE_CHECKPOINT), it is folded into a new checkpoint and started again,
+// as it is after a change it cannot hold (a batch change, see AccountListener.recordsChanged).
+// The checkpoint is written from a snapshot on the checkpointer executor, so the thread changing the account
+// does not wait for it; meanwhile entries go on to the old journal (as long as it can hold them) and are kept
+// to start the new journal with, which replaces the old one only once the new checkpoint is on the disk.
+// The checkpoint is replaced atomically (see AtomicFile), so a crash leaves the old checkpoint and journal or
+// the new checkpoint, whose generation no longer matches the old journal.
+// Each entry is written to the file as it is appended, so it survives the program crashing, but it is only
+// forced to the disk (to survive the system crashing) by flush, with group commit: the callers of flush
+// share one force covering every entry appended until it starts, instead of one force per entry
+public class Journal implements AccountListener {
+    public static final String SUFFIX = ".journal";
+    static final int VERSION = 2;
+    private static final int MIN_ENTRIES_BEFORE_CHECKPOINT = 1024;
+    private static final String HEADER = "J";
+    private static final String ADD = "A";
+    private static final String EDIT = "E";
+    private static final String REMOVE = "R";
+    private static final String RESTORE = "U";
+
+    private final File checkpoint;
+    private final File journalFile;
+    private final Account account;
+    private final Object syncLock = new Object();
+    private final Executor checkpointer;
+    private FileOutputStream stream;
+    private PrintWriter out;
+    private ReplayIds replayIds;
+    private boolean journaling;     // false after a change the journal cannot hold, until the next checkpoint
+    private Rotation rotation;      // the checkpoint being written, or null
+    private int entries;
+    private long appended;          // number of changes made since the journal was created
+    private IOException failure;
+    private long synced;            // number of those entries known to be on the disk, guarded by syncLock
+    private boolean syncing;        // true while a caller of flush forces the file, guarded by syncLock
+    private int syncs;              // number of forces, guarded by syncLock
+
+    // REQUIRES: account was read from checkpoint with Reader.readAccount (replaying its journal),
+    //           or checkpoint does not exist yet
+    // MODIFIES: this, account
+    // EFFECTS:  creates a journal of account's changes on top of checkpoint, writing its checkpoints
+    //           on the thread changing the account (see the constructor with a checkpointer)
+    public Journal(File checkpoint, Account account) throws IOException {
+        this(checkpoint, account, Runnable::run);
+    }
+
+    // REQUIRES: account was read from checkpoint with Reader.readAccount (replaying its journal),
+    //           or checkpoint does not exist yet
+    // MODIFIES: this, account
+    // EFFECTS:  creates a journal of account's changes on top of checkpoint and starts listening to account,
+    //           writing new checkpoints by running them on checkpointer;
+    //           continues the journal of checkpoint if there is one bound to it,
+    //           otherwise writes account to a new checkpoint first (on this thread);
+    //           throws IOException if the journal or checkpoint cannot be read or written
+    public Journal(File checkpoint, Account account, Executor checkpointer) throws IOException {
+        this.checkpoint = checkpoint;
+        this.journalFile = journalFileOf(checkpoint);
+        this.account = account;
+        this.checkpointer = checkpointer;
+        synchronized (account) {
+            List<String> lines = boundLines(checkpoint);
+            if (lines == null) {
+                checkpoint();
+            } else {
+                dropTornTail();
+                openJournal(true);
+                entries = lines.size() - 1;
+                replayIds = new ReplayIds(null);
+                journaling = true;
+            }
+            account.addListener(this);
+        }
+    }
+
+    // EFFECTS:  returns the journal file of checkpoint
+    public static File journalFileOf(File checkpoint) {
+        return new File(checkpoint.getPath() + SUFFIX);
+    }
+
+    // --------------------------------------------------------
+
+    // Listener methods
+
+    // MODIFIES: this
+    // EFFECTS:  appends an add entry for the record with id
+    @Override
+    public void recordAdded(long id, Record record) {
+        append(ADD, id, record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  appends an edit entry for the record with id
+    @Override
+    public void recordEdited(long id, Record record) {
+        append(EDIT, id, record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  appends a remove entry for the record with id
+    @Override
+    public void recordRemoved(long id) {
+        append(REMOVE, id, null);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  appends a restore entry for the record with id; if the record was removed before
+    //           the checkpoint, so that a replay has no place for it, starts a new checkpoint instead
+    @Override
+    public void recordRestored(long id, Record record) {
+        append(RESTORE, id, record);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  starts a new checkpoint, as a batch change is not journaled record by record
+    @Override
+    public void recordsChanged(Account account) {
+        if (failure == null) {
+            appended++;
+            stopJournaling();
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Checkpoint and replay methods
+
+    // MODIFIES: this
+    // EFFECTS:  writes the account to the checkpoint file in full (in the checkpoint's format) on this thread,
+    //           once the checkpoint being written (if any) is finished, and starts a new, empty journal bound
+    //           to it; throws IOException if either file cannot be written
+    public void checkpoint() throws IOException {
+        synchronized (account) {
+            finishCheckpoints();
+            Rotation now = new Rotation(account.snapshot(), appended);
+            now.claimed = true;
+            rotation = now;
+            try {
+                finishRotation(now, writeCheckpoint(now.snapshot));
+                failure = null;
+            } catch (IOException e) {
+                endRotation(null);
+                throw e;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  makes sure every change made so far is on the disk: waits for the checkpoint being written
+    //           (if any), writing it on this thread if the checkpointer has not started it yet,
+    //           then forces the journal file to the disk unless another caller's force already covers
+    //           the entries (in which case it waits for that force);
+    //           throws the IOException raised by the first entry or checkpoint that could not be written,
+    //           if any, or by the force
+    public void flush() throws IOException {
+        long target = -1;
+        while (target < 0) {
+            finishCheckpoints();
+            synchronized (account) {
+                if (failure != null) {
+                    throw failure;
+                }
+                target = rotation == null ? appended : -1;
+            }
+        }
+        while (startSync(target)) {
+            forceAppended();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stops listening to the account, waits for the checkpoint being written (if any)
+    //           and closes the journal file
+    public void close() {
+        synchronized (account) {
+            account.removeListener(this);
+        }
+        try {
+            finishCheckpoints();
+        } catch (InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (account) {
+            out.close();
+        }
+    }
+
+    // MODIFIES: account
+    // EFFECTS:  if checkpoint has a journal bound to it, applies its complete entries to account in order;
+    //           account must hold exactly the records read from checkpoint;
+    //           throws IOException if the journal cannot be read or does not fit the account
+    static void replay(File checkpoint, Account account) throws IOException {
+        List<String> lines = boundLines(checkpoint);
+        if (lines == null) {
+            return;
+        }
+        for (int i = 1; i < lines.size(); i++) {
+            replayEntry(lines.get(i), i + 1, account);
+        }
+    }
+
+    // EFFECTS:  returns true if checkpoint has a journal bound to it holding any complete entries,
+    //           reading only the end of checkpoint and the journal up to the end of its first entry;
+    //           throws IOException if either file cannot be read
+    static boolean hasEntries(File checkpoint) throws IOException {
+        String header = boundHeader(checkpoint);
+        if (header == null) {
+            return false;
+        }
+        byte[] expected = (header + "\n").getBytes(StandardCharsets.UTF_8);
+        try (InputStream in = new BufferedInputStream(new FileInputStream(journalFileOf(checkpoint)))) {
+            if (!Arrays.equals(in.readNBytes(expected.length), expected)) {
+                return false;
+            }
+            for (int b = in.read(); b >= 0; b = in.read()) {
+                if (b == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // EFFECTS:  returns the complete lines of checkpoint's journal (header first)
+    //           if it exists and its header matches checkpoint, otherwise null
+    private static List<String> boundLines(File checkpoint) throws IOException {
+        String header = boundHeader(checkpoint);
+        if (header == null) {
+            return null;
+        }
+        String content = new String(Files.readAllBytes(journalFileOf(checkpoint).toPath()), StandardCharsets.UTF_8);
+        List<String> lines = List.of(content.substring(0, content.lastIndexOf('\n') + 1).split("\n"));
+        return lines.get(0).equals(header) ? lines : null;
+    }
+
+    // EFFECTS:  returns the header a journal bound to checkpoint starts with, or null if checkpoint has
+    //           no journal or no valid footer to bind one to; reads only the end of checkpoint
+    private static String boundHeader(File checkpoint) throws IOException {
+        if (!journalFileOf(checkpoint).exists() || !checkpoint.exists()) {
+            return null;
+        }
+        AccountFooter footer = AccountFooter.readWritten(checkpoint);
+        return footer == null ? null : headerOf(footer);
+    }
+
+    // EFFECTS:  returns the header of a journal bound to the checkpoint ending with footer
+    private static String headerOf(AccountFooter footer) {
+        return HEADER + Reader.DELIMITER + VERSION + Reader.DELIMITER + footer.getGeneration();
+    }
+
+    // MODIFIES: account
+    // EFFECTS:  applies the journal entry on line (line number lineNumber of the journal) to account;
+    //           throws IOException if line is not an entry or does not fit the account
+    private static void replayEntry(String line, int lineNumber, Account account) throws IOException {
+        String[] fields = line.split(Reader.DELIMITER, 5);
+        try {
+            long id = Long.parseLong(fields[1]);
+            Record record = fields.length == 5
+                    ? Record.ofCents(fields[2], Categories.intern(fields[3]), Money.parseCents(fields[4])) : null;
+            boolean applied;
+            if (fields[0].equals(ADD) && record != null) {
+                applied = account.addRecord(record) == id;
+            } else if (fields[0].equals(EDIT) && record != null) {
+                applied = account.editRecordCentsById(id, record.getTitle(), record.getCategory(), record.getCents());
+            } else if (fields[0].equals(REMOVE)) {
+                applied = account.removeRecordById(id);
+            } else {
+                applied = fields[0].equals(RESTORE) && record != null && account.restoreRecord(id, record);
+            }
+            if (!applied) {
+                throw new IOException("Journal line " + lineNumber + " does not fit the account: " + line);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Journal line " + lineNumber + " is not an entry: " + line, e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  appends the entry op for the record with id (and its values, unless record is null)
+    //           to the journal, unless it has stopped journaling, and keeps it for the journal
+    //           of the checkpoint being written, if any
+    private void append(String op, long id, Record record) {
+        if (failure != null) {
+            return;
+        }
+        appended++;
+        if (rotation != null && rotation.keeping) {
+            rotation.keeping = rotation.keep(op, id, record);
+        }
+        if (journaling) {
+            journal(op, id, record);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  appends the entry op for the record with id to the journal and writes it to the file;
+    //           starts a new checkpoint if the journal cannot hold the entry or has grown past the account;
+    //           keeps the first IOException raised instead of throwing it (see flush)
+    private void journal(String op, long id, Record record) {
+        long replayId = op.equals(ADD) ? replayIds.add(id) : replayIds.of(id);
+        if (replayId < 0) {
+            stopJournaling();
+            return;
+        }
+        out.print(entryOf(op, replayId, record));
+        try {
+            flushOrThrow();
+        } catch (IOException e) {
+            failure = e;
+            return;
+        }
+        entries++;
+        if (rotation == null && entries >= Math.max(MIN_ENTRIES_BEFORE_CHECKPOINT, account.getLog().size())) {
+            startRotation();
+        }
+    }
+
+    // EFFECTS:  returns the journal line of the entry op for the record with replayId
+    //           (and its values, unless record is null)
+    private static String entryOf(String op, long replayId, Record record) {
+        StringWriter line = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(line);
+        printWriter.print(op + Reader.DELIMITER + replayId);
+        if (record != null) {
+            printWriter.print(Reader.DELIMITER);
+            record.save(printWriter);
+        }
+        printWriter.print("\n");
+        printWriter.flush();
+        return line.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stops appending entries after a change the journal cannot hold, until a new checkpoint
+    //           holding the change is on the disk: starts one, or has the one being written (which does not
+    //           hold the change) followed by another
+    private void stopJournaling() {
+        journaling = false;
+        if (rotation == null) {
+            startRotation();
+        } else {
+            rotation.keeping = false;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  takes a snapshot of the account and has the checkpointer write it as the new checkpoint
+    private void startRotation() {
+        Rotation started = new Rotation(account.snapshot(), appended);
+        rotation = started;
+        checkpointer.execute(() -> runRotation(started));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  unless another thread has started it, writes the checkpoint of started
+    //           and then starts the journal bound to it; keeps the IOException raised instead of throwing it
+    private void runRotation(Rotation started) {
+        synchronized (account) {
+            if (started.claimed) {
+                return;
+            }
+            started.claimed = true;
+        }
+        try {
+            AccountFooter footer = writeCheckpoint(started.snapshot);
+            synchronized (account) {
+                finishRotation(started, footer);
+            }
+        } catch (IOException e) {
+            synchronized (account) {
+                endRotation(e);
+            }
+        }
+    }
+
+    // REQUIRES: the checkpoint of finished is on the disk, ending with footer
+    // MODIFIES: this
+    // EFFECTS:  replaces the journal with a new one bound to the checkpoint, holding the entries kept since
+    //           its snapshot, and goes on journaling unless a change it cannot hold was made meanwhile
+    //           (in which case it starts another checkpoint); throws IOException if the journal cannot be written
+    private void finishRotation(Rotation finished, AccountFooter footer) throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        openJournal(false);
+        out.print(headerOf(footer) + "\n");
+        for (String entry : finished.entries) {
+            out.print(entry);
+        }
+        flushOrThrow();
+        replayIds = finished.replayIds;
+        entries = finished.entries.size();
+        journaling = finished.keeping;
+        markSynced(finished.coveredUpTo);
+        endRotation(null);
+        if (!journaling) {
+            startRotation();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  ends the checkpoint being written, keeping failure (unless it is null or one is kept already),
+    //           and wakes the threads waiting for it
+    private void endRotation(IOException failure) {
+        if (this.failure == null) {
+            this.failure = failure;
+        }
+        rotation = null;
+        account.notifyAll();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  waits until no checkpoint is being written, writing one on this thread if the checkpointer
+    //           has not started it yet; throws InterruptedIOException if interrupted while waiting
+    private void finishCheckpoints() throws InterruptedIOException {
+        while (true) {
+            Rotation pending;
+            synchronized (account) {
+                pending = rotation;
+                if (pending == null) {
+                    return;
+                }
+                if (pending.claimed) {
+                    try {
+                        account.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for the checkpoint to be written");
+                    }
+                    continue;
+                }
+            }
+            runRotation(pending);
+        }
+    }
+
+    // EFFECTS:  replaces the checkpoint file atomically with the account as it was in snapshot, in the format
+    //           the file is already in (text if it does not exist yet), and returns the footer written;
+    //           throws IOException if it cannot be written
+    private AccountFooter writeCheckpoint(AccountSnapshot snapshot) throws IOException {
+        AccountFormat format = checkpoint.exists() ? AccountFormat.detect(checkpoint) : AccountFormat.TEXT;
+        return Writer.writeAtomically(checkpoint, format, snapshot);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  opens the journal file for writing UTF-8 text, appending if append is true
+    private void openJournal(boolean append) throws IOException {
+        stream = new FileOutputStream(journalFile, append);
+        out = new PrintWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns false once the first target entries are on the disk; otherwise, if no force is
+    //           running, starts one (the caller must force the file, then call finishSync) and returns true,
+    //           else waits for the running force to finish and checks again
+    private boolean startSync(long target) throws IOException {
+        synchronized (syncLock) {
+            while (syncing && synced < target) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the journal to be forced");
+                }
+            }
+            if (synced >= target) {
+                return false;
+            }
+            syncing = true;
+            syncs++;
+            return true;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  forces the journal file to the disk, putting every entry appended so far on it,
+    //           and ends the running force; throws IOException if the file cannot be forced
+    private void forceAppended() throws IOException {
+        long upTo;
+        FileChannel channel;
+        synchronized (account) {
+            upTo = appended;
+            channel = stream.getChannel();
+        }
+        try {
+            channel.force(false);
+            finishSync(upTo);
+        } catch (ClosedChannelException e) {
+            finishSync(0);      // a checkpoint closed the file, and marked the entries synced
+        } catch (IOException e) {
+            finishSync(0);
+            throw e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  ends the running force, which put the first upTo entries on the disk
+    private void finishSync(long upTo) {
+        synchronized (syncLock) {
+            syncing = false;
+            markSynced(upTo);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  records that the first upTo entries are on the disk
+    private void markSynced(long upTo) {
+        synchronized (syncLock) {
+            synced = Math.max(synced, upTo);
+            syncLock.notifyAll();
+        }
+    }
+
+    // EFFECTS:  returns the number of times the journal file has been forced to the disk
+    int getSyncCount() {
+        synchronized (syncLock) {
+            return syncs;
+        }
+    }
+
+    // EFFECTS:  returns true if a checkpoint is being written, otherwise false
+    boolean isCheckpointing() {
+        synchronized (account) {
+            return rotation != null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes the buffered entries to the journal file; throws IOException if they cannot be written
+    private void flushOrThrow() throws IOException {
+        out.flush();
+        if (out.checkError()) {
+            throw new IOException("Unable to write journal " + journalFile);
+        }
+    }
+
+    // EFFECTS:  cuts a last line without a newline (left by a crash) off the journal file
+    private void dropTornTail() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            long end = file.length();
+            while (end > 0) {
+                file.seek(end - 1);
+                if (file.read() == '\n') {
+                    break;
+                }
+                end--;
+            }
+            file.setLength(end);
+        }
+    }
+
+    // Represents the ids records have when a checkpoint is read and its journal replayed:
+    // a record of the checkpoint has its position in it, and a record added later the next id in turn
+    private static class ReplayIds {
+        private final AccountSnapshot base;     // null if the replay ids are the ids in the account,
+                                                // as they are for an account read by replaying the journal
+        private final IdIndex added = new IdIndex();
+        private long nextId;
+
+        // EFFECTS:  creates the replay ids of a checkpoint written from base
+        //           (or of the checkpoint the account was read from, if base is null)
+        ReplayIds(AccountSnapshot base) {
+            this.base = base;
+            this.nextId = base == null ? 0 : base.getLog().size();
+        }
+
+        // EFFECTS:  returns the id the record with id has when replayed, or -1 if the checkpoint does not know it
+        long of(long id) {
+            if (base == null) {
+                return id;
+            }
+            int pos = base.positionOf(id);
+            return pos >= 0 ? pos : added.get(id);
+        }
+
+        // MODIFIES: this
+        // EFFECTS:  returns the id the record added with id has when replayed
+        long add(long id) {
+            if (base == null) {
+                return id;
+            }
+            added.put(id, (int) nextId);
+            return nextId++;
+        }
+    }
+
+    // Represents a new checkpoint being written: the snapshot written, the number of changes it holds,
+    // and the entries appended since, kept (with the replay ids of the new checkpoint) to start its journal
+    // with once it is on the disk, until a change the new journal could not hold is made
+    private static class Rotation {
+        private final AccountSnapshot snapshot;
+        private final long coveredUpTo;
+        private final ReplayIds replayIds;
+        private final List<String> entries = new ArrayList<>();
+        private boolean keeping = true;
+        private boolean claimed;        // true once a thread has started writing the checkpoint
+
+        // EFFECTS:  creates a checkpoint of snapshot, which holds the first coveredUpTo changes
+        Rotation(AccountSnapshot snapshot, long coveredUpTo) {
+            this.snapshot = snapshot;
+            this.coveredUpTo = coveredUpTo;
+            this.replayIds = new ReplayIds(snapshot);
+        }
+
+        // MODIFIES: this
+        // EFFECTS:  keeps the entry op for the record with id (and its values, unless record is null);
+        //           returns false if the new checkpoint does not know the record
+        boolean keep(String op, long id, Record record) {
+            long replayId = op.equals(ADD) ? replayIds.add(id) : replayIds.of(id);
+            if (replayId < 0) {
+                return false;
+            }
+            entries.add(entryOf(op, replayId, record));
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+package persistence;
+
+import model.Record;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents a read-only account over a text account file that may be much larger than the heap:
+// the records are split into pages of recordsPerPage records, and only the byte offset of each page
+// is held in memory. A page is read from the file and parsed when one of its records is first asked for,
+// and kept in a cache of at most maxCachedPages pages, dropping the least recently used page when full.
+// The page offsets are saved in a sidecar index next to the file (with INDEX_SUFFIX added to its name):
+//     INDEX_MAGIC, INDEX_VERSION, <file length>, <file last modified>, <records per page>,
+//     <page count>, <record count>, then the offset of each page and the offset where the records end;
+// an index that does not match the file (the file changed, or the pages have another size) is built again.
+// The account is read as the file holds it: a journal bound to the file is not replayed
+public class PagedAccount implements Closeable {
+    public static final String INDEX_SUFFIX = ".offsets";
+    static final int INDEX_MAGIC = 0x42504958;      // "BPIX"
+    static final int INDEX_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final int recordsPerPage;
+    private final int recordCount;
+    private final long[] pageOffsets;       // offset of each page, then the offset where the records end
+    private final Map<Integer, Page> pages;
+
+    // REQUIRES: recordsPerPage > 0 and maxCachedPages > 0
+    // EFFECTS:  opens file (a text account file) for paged access, reading its index
+    //           or building (and saving) a new one if there is none that matches the file;
+    //           throws IOException if file cannot be read or is not a text account file
+    public PagedAccount(File file, int recordsPerPage, int maxCachedPages) throws IOException {
+        if (AccountFormat.detect(file) != AccountFormat.TEXT) {
+            throw new IOException("Paged access needs a text account file: " + file);
+        }
+        this.recordsPerPage = recordsPerPage;
+        long[] index = readIndex(file, recordsPerPage);
+        if (index == null) {
+            index = buildIndex(file, recordsPerPage);
+            writeIndex(file, recordsPerPage, index);
+        }
+        this.recordCount = (int) index[0];
+        this.pageOffsets = Arrays.copyOfRange(index, 1, index.length);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    // EFFECTS:  returns the index file of file
+    public static File indexFileOf(File file) {
+        return new File(file.getPath() + INDEX_SUFFIX);
+    }
+
+    // --------------------------------------------------------
+
+    // Records log methods
+
+    // EFFECTS:  returns the number of records
+    public int size() {
+        return recordCount;
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns a copy of the record in position number pos (indexed at 0),
+    //           reading its page from the file if it is not cached;
+    //           throws UncheckedIOException if the page cannot be read or holds a line that is not a record
+    public synchronized Record getRecord(int pos) {
+        Page page = pages.get(pos / recordsPerPage);
+        if (page == null) {
+            page = readPage(pos / recordsPerPage);
+            pages.put(pos / recordsPerPage, page);
+        }
+        return page.get(pos % recordsPerPage);
+    }
+
+    // EFFECTS:  returns a read-only view of the records log, reading pages as their records are asked for
+    public List<Record> getLog() {
+        return new AbstractList<>() {
+            @Override
+            public Record get(int pos) {
+                return getRecord(pos);
+            }
+
+            @Override
+            public int size() {
+                return recordCount;
+            }
+        };
+    }
+
+    // EFFECTS:  returns the number of pages in the cache
+    synchronized int cachedPageCount() {
+        return pages.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  closes the file
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // EFFECTS:  returns the page with number page, read from the file and parsed
+    private Page readPage(int page) {
+        long from = pageOffsets[page];
+        ByteBuffer bytes = ByteBuffer.allocate((int) (pageOffsets[page + 1] - from));
+        try {
+            while (bytes.hasRemaining() && channel.read(bytes, from + bytes.position()) >= 0) {
+                // keep reading until the page is whole
+            }
+            bytes.flip();
+            int count = Math.min(recordsPerPage, recordCount - page * recordsPerPage);
+            Page result = new Page(count);
+            RecordScanner scanner = new RecordScanner(new ByteBufferInputStream(bytes), BUFFER_SIZE);
+            for (int i = 0; i < count; i++) {
+                Record record = scanner.next();
+                if (record == null) {
+                    throw new IOException("Page " + page + " ends before its records");
+                }
+                result.set(i, record);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read page " + page, e);
+        }
+    }
+
+    // EFFECTS:  returns the record count followed by the page offsets of file, found by scanning it for
+    //           the start of every recordsPerPage-th line (stopping at the footer, see AccountFooter);
+    //           throws IOException if file cannot be read
+    private static long[] buildIndex(File file, int recordsPerPage) throws IOException {
+        long[] index = new long[16];
+        long count = 0;
+        long offset = 0;
+        long footer = AccountFooter.offsetIn(file);
+        boolean lineStart = true;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                for (int i = 0; i < read; i++, offset++) {
+                    if (offset == footer) {
+                        return finishIndex(index, count, recordsPerPage, offset);
+                    }
+                    if (lineStart && count % recordsPerPage == 0) {
+                        index = addOffset(index, (int) (count / recordsPerPage), offset);
+                    }
+                    count += lineStart ? 1 : 0;
+                    lineStart = buffer[i] == '\n';
+                }
+            }
+        }
+        return finishIndex(index, count, recordsPerPage, offset);
+    }
+
+    // MODIFIES: index
+    // EFFECTS:  returns index with offset set as the offset of page, growing it if needed
+    private static long[] addOffset(long[] index, int page, long offset) {
+        long[] result = page + 2 < index.length ? index : Arrays.copyOf(index, index.length * 2 + page);
+        result[page + 1] = offset;
+        return result;
+    }
+
+    // EFFECTS:  returns the index of count records in pages of recordsPerPage records,
+    //           with the page offsets taken from index and the records ending at end
+    private static long[] finishIndex(long[] index, long count, int recordsPerPage, long end) {
+        int pageCount = (int) ((count + recordsPerPage - 1) / recordsPerPage);
+        long[] result = Arrays.copyOf(index, pageCount + 2);
+        result[0] = count;
+        result[pageCount + 1] = end;
+        return result;
+    }
+
+    // EFFECTS:  returns the index saved for file, or null if there is none or it does not match file
+    private static long[] readIndex(File file, int recordsPerPage) {
+        File indexFile = indexFileOf(file);
+        try (DataInputStream in = new DataInputStream(new FileInputStream(indexFile))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION || in.readLong() != file.length()
+                    || in.readLong() != file.lastModified() || in.readInt() != recordsPerPage) {
+                return null;
+            }
+            long[] index = new long[2 + in.readInt()];
+            index[0] = in.readLong();
+            for (int i = 1; i < index.length; i++) {
+                index[i] = in.readLong();
+            }
+            return index;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // EFFECTS:  saves index as the index of file, replacing any old one atomically;
+    //           if it cannot be saved, the index is built again the next time file is opened
+    private static void writeIndex(File file, int recordsPerPage, long[] index) {
+        try {
+            new AtomicFile(indexFileOf(file)).write(stream -> {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeLong(file.length());
+                out.writeLong(file.lastModified());
+                out.writeInt(recordsPerPage);
+                out.writeInt(index.length - 2);
+                for (long value : index) {
+                    out.writeLong(value);
+                }
+                out.flush();
+            });
+        } catch (IOException e) {
+            // the index is only a cache of what the file holds
+        }
+    }
+
+    // Represents a page of records parsed from the file, held as columns
+    private static class Page {
+        private final String[] titles;
+        private final int[] categoryIds;
+        private final long[] cents;
+
+        // EFFECTS:  creates a page with room for count records
+        Page(int count) {
+            titles = new String[count];
+            categoryIds = new int[count];
+            cents = new long[count];
+        }
+
+        // MODIFIES: this
+        // EFFECTS:  sets the record in position pos of the page to record
+        void set(int pos, Record record) {
+            titles[pos] = record.getTitle();
+            categoryIds[pos] = record.getCategoryId();
+            cents[pos] = record.getCents();
+        }
+
+        // EFFECTS:  returns a new record holding the record in position pos of the page
+        Record get(int pos) {
+            return Record.ofCents(titles[pos], categoryIds[pos], cents[pos]);
+        }
+    }
+
+}
@@ -4,74 +4,180 @@ import model.Account;
 import model.Record;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 // NOTICE:
 // Structure of this persistence function is made with the guidance of, and therefore based around,
 // the "Teller" application from CPSC 210, which can be found and downloaded at:
 // https://github.students.cs.ubc.ca/CPSC210/TellerApp
 
-// Represent a reader that can read account data from file
+// Represent a reader that can read account data from file;
+// the file is streamed through a fixed-size buffer and each record is parsed in place as its line arrives
+// (see RecordScanner) and added straight to the account (in batches of BATCH_SIZE records),
+// so the file is never held in memory as a whole.
+// Files larger than PARALLEL_THRESHOLD bytes are instead split at line ends into chunks of about
+// CHUNK_SIZE bytes, which are mapped into memory and parsed in parallel (see ChunkTask),
+// each appended to the account (and then let go) once it and the chunks before it are parsed;
+// this is done only when the common fork/join pool has more than one thread,
+// as on a single one the streaming read is faster.
+// Files in the binary format (see AccountFormat) are detected from their first bytes
+// and read by BinaryAccountReader.
+// If the file has a journal bound to it (see Journal), the changes in the journal
+// are replayed on top of the records read from the file
 public class Reader {
     public static final String DELIMITER = ",";
+    static final long PARALLEL_THRESHOLD = 1 << 24;
+    private static final int CHUNK_SIZE = 1 << 22;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BATCH_SIZE = 4096;
+    private static final int RECORDS_PER_PAGE = 1024;
+    private static final int MAX_CACHED_PAGES = 64;
 
     // EFFECTS:  dummy constructor for purposes of code coverage
     public Reader() {
 
     }
 
-    // EFFECTS:  returns an account parsed from file;
+    // EFFECTS:  returns an account parsed from file, with the changes in its journal replayed;
     //           throws IOException if an exception is raised
-    //           when opening/reading from file
+    //           when opening/reading from file, if file is not UTF-8 text,
+    //           or if a line of file is not a record (or if a binary file or the journal is malformed)
     public static Account readAccount(File file) throws IOException {
-        List<String> fileContent = readFile(file);
-        Account account = parseContent(fileContent);
+        Account account = readCheckpoint(file);
+        Journal.replay(file, account);
         return account;
     }
 
-    // EFFECTS:  returns content of file as a list of strings,
-    //           with each string containing the content of
-    //           one row of the file
-    private static List<String> readFile(File file) throws IOException {
-        return Files.readAllLines(file.toPath());
+    // EFFECTS:  returns a read-only account over file that reads its records a page at a time as they are
+    //           asked for, holding at most MAX_CACHED_PAGES pages of RECORDS_PER_PAGE records in memory,
+    //           for files too large to read whole (see PagedAccount); the caller must close it;
+    //           throws IOException if file cannot be read or is not a text account file
+    public static PagedAccount readAccountPaged(File file) throws IOException {
+        return new PagedAccount(file, RECORDS_PER_PAGE, MAX_CACHED_PAGES);
     }
 
-    // EFFECTS:  returns an account parsed from list of strings;
-    //           where each string contains data for one record and
-    //           the records are made into a records log for the account
-    private static Account parseContent(List<String> fileContent) {
-        ArrayList<Record> log = new ArrayList<>();
+    // EFFECTS:  returns an account parsed from file alone, in the way its format and size call for;
+    //           throws IOException in the same cases as readAccount
+    private static Account readCheckpoint(File file) throws IOException {
+        if (AccountFormat.detect(file) == AccountFormat.BINARY) {
+            try (InputStream in = new FileInputStream(file)) {
+                return new BinaryAccountReader(in, BUFFER_SIZE).read();
+            }
+        }
+        if (file.length() > PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return readAccountParallel(file, CHUNK_SIZE);
+        }
+        return readAccountStreaming(file);
+    }
+
+    // EFFECTS:  returns an account parsed from file like readAccount, streaming it on this thread;
+    //           throws IOException in the same cases as readAccount
+    static Account readAccountStreaming(File file) throws IOException {
+        try (RecordScanner records = new RecordScanner(new FileInputStream(file), BUFFER_SIZE)) {
+            return parseContent(records);
+        }
+    }
+
+    // REQUIRES: chunkSize > 0
+    // EFFECTS:  returns an account parsed from file like readAccount, by splitting file at line ends
+    //           into chunks of about chunkSize bytes, mapping and parsing the chunks in parallel
+    //           on the common fork/join pool, and appending each chunk's records and totals
+    //           to the account in the order of the file as soon as the chunk is parsed,
+    //           letting go of the chunk once it is appended;
+    //           throws IOException in the same cases as readAccount
+    static Account readAccountParallel(File file, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<ChunkTask> chunks = splitIntoChunks(channel, chunkSize);
+            for (ChunkTask chunk : chunks) {
+                chunk.fork();
+            }
+            Account account = new Account();
+            for (int i = 0; i < chunks.size(); i++) {
+                ChunkTask chunk = chunks.set(i, null);
+                chunk.join();
+                if (chunk.getFailure() != null) {
+                    cancelAll(chunks);
+                    IOException failure = chunk.getFailure();
+                    throw new IOException("In the chunk at byte " + chunk.getStart() + ": "
+                            + failure.getMessage(), failure);
+                }
+                account.addRecords(chunk.getRecords(), chunk.getTotals());
+            }
+            return account;
+        }
+    }
 
-        for (String line : fileContent) {
-            ArrayList<String> lineComponents = splitString(line);
-            log.add(parseRecord(lineComponents));
+    // MODIFIES: chunks
+    // EFFECTS:  cancels every chunk in chunks (skipping those already let go) that has not started yet
+    private static void cancelAll(List<ChunkTask> chunks) {
+        for (ChunkTask chunk : chunks) {
+            if (chunk != null) {
+                chunk.cancel(false);
+            }
         }
+    }
 
-        return new Account(log);
+    // MODIFIES: records
+    // EFFECTS:  returns an account parsed from records as they are read,
+    //           where each line contains data for one record and
+    //           the records are added to the account's records log in order
+    private static Account parseContent(RecordScanner records) throws IOException {
+        Account account = new Account();
+        List<Record> batch = new ArrayList<>(BATCH_SIZE);
+        for (Record record = records.next(); record != null; record = records.next()) {
+            batch.add(record);
+            if (batch.size() == BATCH_SIZE) {
+                account.addRecords(batch);
+                batch.clear();
+            }
+        }
+        account.addRecords(batch);
+        return account;
     }
 
-    // EFFECTS:  returns a list of strings obtained by
-    //           splitting a line at each DELIMITER
-    private static ArrayList<String> splitString(String line) {
-        String[] splits = line.split(DELIMITER);
-        return new ArrayList<>(Arrays.asList(splits));
+    // REQUIRES: chunkSize > 0
+    // EFFECTS:  returns tasks for the chunks of channel's file, in order, each ending just after the first
+    //           newline at or past chunkSize bytes from its start (or at the end of the file)
+    private static List<ChunkTask> splitIntoChunks(FileChannel channel, int chunkSize) throws IOException {
+        List<ChunkTask> chunks = new ArrayList<>();
+        long size = channel.size();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : lineEndAfter(channel, start + chunkSize - 1, size);
+            chunks.add(new ChunkTask(channel, start, end));
+            start = end;
+        }
+        return chunks;
     }
 
-    // REQUIRES:  components has size 3 where
-    //            - element 0 represents the title (String)
-    //            - element 1 represents the category (String), and
-    //            - element 2 represents the value (double)
-    //            of the record to be constructed
-    // EFFECTS:  returns a record constructed from components of a line
-    private static Record parseRecord(List<String> components) {
-        String title = components.get(0);
-        String category = components.get(1);
-        double value = Double.parseDouble(components.get(2));
-        return new Record(title, category, value);
+    // REQUIRES: 0 <= pos < size
+    // EFFECTS:  returns the position just after the first newline in channel's file at or after pos,
+    //           or size if there is none
+    private static long lineEndAfter(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(BUFFER_SIZE);
+        long windowStart = pos;
+        while (windowStart < size) {
+            window.clear();
+            int read = channel.read(window, windowStart);
+            if (read < 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i + 1;
+                }
+            }
+            windowStart += read;
+        }
+        return size;
     }
 
 }
@@ -0,0 +1,209 @@
+package persistence;
+
+import model.Categories;
+import model.Money;
+import model.Record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Represents a scanner reading records, one per line, from a stream of UTF-8 account data;
+// bytes are read into a buffer and each line is parsed where it lies in the buffer:
+// delimiters are found in place, the value is parsed straight from its bytes,
+// the category is looked up from its bytes, and only the title becomes a String.
+// Lines made only of ASCII bytes (the common case) are never decoded as a whole.
+// The records end at the end of the stream or at the account's footer line (see AccountFooter),
+// which is only taken for the footer if it is the last line and its checksum matches
+class RecordScanner implements Closeable {
+    private static final byte NEWLINE = '\n';
+    private static final byte RETURN = '\r';
+    private static final byte DELIMITER = (byte) Reader.DELIMITER.charAt(0);
+
+    private final InputStream in;
+    private final CharsetDecoder decoder;
+    private byte[] buffer;
+    private int start;          // position in buffer of the first byte of the next line
+    private int end;            // position in buffer after the last byte read
+    private boolean endOfStream;
+    private int lineNumber;
+
+    // REQUIRES: bufferSize > 0
+    // EFFECTS:  creates a scanner over in, reading bufferSize bytes at a time
+    //           (a line longer than the buffer grows it)
+    RecordScanner(InputStream in, int bufferSize) {
+        this.in = in;
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.buffer = new byte[bufferSize];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the record on the next line, or null if there are no more lines
+    //           (or the next line is the footer, which ends the records);
+    //           throws IOException if the stream cannot be read, if the line is not UTF-8 text,
+    //           or if the line is not a record
+    Record next() throws IOException {
+        int lineEnd = findLineEnd();
+        if (lineEnd < 0) {
+            return null;
+        }
+        int length = lineEnd - start;
+        if (buffer[start] == AccountFooter.MARKER && isFooter(length)) {
+            start = end;
+            return null;
+        }
+        lineNumber++;
+        int from = start;
+        int to = start + length;
+        start = to < end ? to + 1 : end;
+        if (to > from && buffer[to - 1] == RETURN) {
+            to--;
+        }
+        return parseLine(from, to);
+    }
+
+    // EFFECTS:  returns the number of lines read so far
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  closes the underlying stream
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // MODIFIES: this
+    // EFFECTS:  returns the position in buffer of the newline ending the next line,
+    //           end if the last line has no newline, or -1 if there are no more lines;
+    //           reads more of the stream until the whole line is in buffer
+    private int findLineEnd() throws IOException {
+        int pos = start;
+        while (true) {
+            for (; pos < end; pos++) {
+                if (buffer[pos] == NEWLINE) {
+                    return pos;
+                }
+            }
+            if (endOfStream) {
+                return start < end ? end : -1;
+            }
+            pos -= start;
+            fill();
+        }
+    }
+
+    // REQUIRES: the next line starts with MARKER and is length bytes long (without its newline)
+    // MODIFIES: this
+    // EFFECTS:  returns true if the next line is the last in the stream and is a valid footer;
+    //           reads more of the stream until it is known whether anything follows the line
+    private boolean isFooter(int length) throws IOException {
+        while (end - start <= length + 1 && !endOfStream) {
+            fill();
+        }
+        return end - start <= length + 1
+                && AccountFooter.hasValidChecksum(lineText(start + 1, start + length));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  moves the unread bytes to the front of buffer (growing it if it is full)
+    //           and reads as many more bytes as fit, or marks the end of the stream
+    private void fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            end += read;
+        }
+    }
+
+    // EFFECTS:  returns the record on the line in buffer[from, to), where
+    //           - the text up to the first DELIMITER is the title,
+    //           - the text up to the second DELIMITER is the category, and
+    //           - the text up to the third DELIMITER (or the end of the line) is the value in dollars;
+    //           throws IOException if the line is not UTF-8 text or not a record
+    private Record parseLine(int from, int to) throws IOException {
+        boolean ascii = isAscii(from, to);
+        if (!ascii) {
+            decode(from, to);
+        }
+        int titleEnd = indexOfDelimiter(from, to);
+        int categoryEnd = titleEnd < 0 ? -1 : indexOfDelimiter(titleEnd + 1, to);
+        if (categoryEnd < 0) {
+            throw new IOException("Line " + lineNumber + " is not a record: " + lineText(from, to));
+        }
+        int valueEnd = indexOfDelimiter(categoryEnd + 1, to);
+        try {
+            long cents = Money.parseCents(buffer, categoryEnd + 1, valueEnd < 0 ? to : valueEnd);
+            String title = ascii ? asciiText(from, titleEnd) : decode(from, titleEnd);
+            return Record.ofCents(title, category(titleEnd + 1, categoryEnd), cents);
+        } catch (NumberFormatException e) {
+            throw new IOException("Line " + lineNumber + " has an invalid value: " + lineText(from, to), e);
+        }
+    }
+
+    // EFFECTS:  returns the id of the category named in buffer[from, to),
+    //           interning the name only if it has never been seen before
+    private int category(int from, int to) throws IOException {
+        int id = Categories.lookup(buffer, from, to);
+        return id == Categories.NOT_FOUND ? Categories.intern(decode(from, to)) : id;
+    }
+
+    // EFFECTS:  returns the position of the first DELIMITER in buffer[from, to), or -1 if there is none
+    private int indexOfDelimiter(int from, int to) {
+        for (int pos = from; pos < to; pos++) {
+            if (buffer[pos] == DELIMITER) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS:  returns true if every byte in buffer[from, to) is an ASCII character
+    private boolean isAscii(int from, int to) {
+        for (int pos = from; pos < to; pos++) {
+            if (buffer[pos] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // REQUIRES: every byte in buffer[from, to) is an ASCII character
+    // EFFECTS:  returns the text in buffer[from, to), copying each byte as one character
+    private String asciiText(int from, int to) {
+        return new String(buffer, from, to - from, StandardCharsets.ISO_8859_1);
+    }
+
+    // EFFECTS:  returns the UTF-8 text in buffer[from, to);
+    //           throws IOException (a CharacterCodingException) if the bytes are not UTF-8 text
+    private String decode(int from, int to) throws IOException {
+        return decoder.decode(ByteBuffer.wrap(buffer, from, to - from)).toString();
+    }
+
+    // EFFECTS:  returns the text in buffer[from, to) for an error message, replacing bytes that are not UTF-8
+    private String lineText(int from, int to) {
+        return new String(buffer, from, to - from, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,17 @@
+package persistence;
+
+import java.io.IOException;
+
+// Represents a listener told how each save of a SaveService went
+public interface SaveListener {
+
+    // EFFECTS:  called once the account as it was at version has been written in full;
+    //           requests is the number of save requests the write answered,
+    //           and latencyMillis the time from the first of them until the write finished
+    void saveSucceeded(long version, int requests, long latencyMillis);
+
+    // EFFECTS:  called if the account as it was at version could not be written, with the IOException raised;
+    //           requests and latencyMillis are as for saveSucceeded
+    void saveFailed(long version, int requests, long latencyMillis, IOException e);
+
+}
@@ -0,0 +1,158 @@
+package persistence;
+
+import model.Account;
+import model.AccountSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Represents a service saving an account to a file in the background:
+// a save request only notes the account's version and returns at once,
+// and a single saver thread takes a snapshot of the account (see Account.snapshot)
+// and writes it to the file in full (replacing it atomically).
+// Requests made while a write is waiting to start are coalesced into it: the write takes its snapshot
+// when it starts, so a burst of requests costs one write (plus the one already running, if any).
+// With a journal (see useJournal), a save flushes the journal on the saver thread instead of rewriting the file,
+// taking no snapshot, and the journal writes its checkpoints on the saver thread too (the service is its
+// checkpointer), so neither a save nor a checkpoint does any work on the thread changing the account
+// beyond noting its version;
+// if the journal cannot be flushed, it is closed and the file is rewritten in full from then on.
+// The listener is told how each write went on the callback executor (for example, the event dispatch thread)
+public class SaveService implements Executor {
+    private final Account account;
+    private final File file;
+    private final AccountFormat format;
+    private final SaveListener listener;
+    private final Executor callbacks;
+    private final ExecutorService saver;
+    private final AtomicReference<PendingSave> pending = new AtomicReference<>();
+    private volatile Journal journal;
+
+    // EFFECTS:  creates a service saving account to file in format,
+    //           telling listener about each write by running it on callbacks
+    public SaveService(Account account, File file, AccountFormat format, SaveListener listener, Executor callbacks) {
+        this.account = account;
+        this.file = file;
+        this.format = format;
+        this.listener = listener;
+        this.callbacks = callbacks;
+        this.saver = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // REQUIRES: close has not been called
+    // MODIFIES: this
+    // EFFECTS:  has the account as it is now (or later) saved in the background;
+    //           if a write is already waiting to start, that write answers this request too
+    public void requestSave() {
+        long version = account.getVersion();
+        long requested = System.nanoTime();
+        PendingSave previous = pending.getAndUpdate(save -> save == null
+                ? new PendingSave(version, requested, 1) : save.coalesce(version));
+        if (previous == null) {
+            saver.execute(this::writePending);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  makes saves flush journal (a journal of the account on top of the file, writing its checkpoints
+    //           with this service) instead of rewriting the file
+    public void useJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    // REQUIRES: close has not been called
+    // EFFECTS:  runs task on the saver thread, after the writes requested before it
+    @Override
+    public void execute(Runnable task) {
+        saver.execute(task);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  stops taking requests and waits up to timeoutMillis for the requested writes to finish;
+    //           returns true if they all finished
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        saver.shutdown();
+        return saver.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // MODIFIES: this
+    // EFFECTS:  saves the account at least as it was at the latest requested version, by flushing the journal
+    //           or else by writing a snapshot of it taken now to the file, and tells the listener how it went
+    private void writePending() {
+        PendingSave save = pending.getAndSet(null);
+        long version = save.version;
+        try {
+            if (!flushJournal()) {
+                AccountSnapshot snapshot = account.snapshot();
+                version = snapshot.getVersion();
+                Writer.writeAtomically(file, format, snapshot);
+            }
+            long saved = version;
+            long latency = save.millisSinceRequested();
+            callbacks.execute(() -> listener.saveSucceeded(saved, save.requests, latency));
+        } catch (IOException e) {
+            long failed = version;
+            long latency = save.millisSinceRequested();
+            callbacks.execute(() -> listener.saveFailed(failed, save.requests, latency, e));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  flushes the journal, putting every change made so far on the disk, and returns true;
+    //           returns false if there is no journal, or if it could not be flushed (closing it, as the file
+    //           is rewritten in full instead, which unbinds it)
+    private boolean flushJournal() {
+        Journal flushed = journal;
+        if (flushed == null) {
+            return false;
+        }
+        try {
+            flushed.flush();
+            return true;
+        } catch (IOException e) {
+            flushed.close();
+            journal = null;
+            return false;
+        }
+    }
+
+    // Represents a write waiting to start: the latest account version requested, when it was first requested,
+    // and how many requests it answers
+    private static class PendingSave {
+        private final long version;
+        private final long requested;
+        private final int requests;
+
+        // EFFECTS:  creates a write of the account at version (or later), first requested at requested
+        //           (in System.nanoTime) and answering requests requests
+        PendingSave(long version, long requested, int requests) {
+            this.version = version;
+            this.requested = requested;
+            this.requests = requests;
+        }
+
+        // EFFECTS:  returns this write answering one more request, for the later of its version and newer
+        PendingSave coalesce(long newer) {
+            return new PendingSave(Math.max(version, newer), requested, requests + 1);
+        }
+
+        // EFFECTS:  returns the milliseconds since the write was first requested
+        long millisSinceRequested() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requested);
+        }
+    }
+
+}
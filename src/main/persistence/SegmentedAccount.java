@@ -0,0 +1,175 @@
+package persistence;
+
+import model.Account;
+import model.AccountTotals;
+import model.Record;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents an account kept in a directory of segment files instead of one file:
+// the oldest records are sealed, segmentSize at a time and in the order they were added, into closed segments
+//     segment-000000.txt, segment-000001.txt, ...
+// which are never appended to, and the newest records are kept in the active segment
+//     active-<number of closed segments>.txt
+// Every segment is written with its footer (see AccountFooter), so opening the account reads only the active
+// segment in full and the footers of the closed ones (a closed segment without a valid footer is read in full
+// to total it); a closed segment's records are read only when it is loaded.
+// Sealing writes the new closed segments and then the next active segment before deleting the old one,
+// so a crash leaves either the old active segment (and stray closed segments, which are ignored)
+// or the new one: the active segment with the highest number says how many closed segments there are
+public class SegmentedAccount {
+    private static final String SEGMENT_NAME = "segment-%06d.txt";
+    private static final String ACTIVE_PREFIX = "active-";
+    private static final String ACTIVE_NAME = ACTIVE_PREFIX + "%06d.txt";
+
+    private final File directory;
+    private final int segmentSize;
+    private final List<AccountTotals> closedTotals;
+    private Account active;
+
+    // REQUIRES: segmentSize > 0
+    // EFFECTS:  opens the segmented account in directory (creating it if it does not exist),
+    //           reading the active segment and the totals of the closed segments;
+    //           throws IOException if a segment cannot be read
+    public SegmentedAccount(File directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        int closed = findClosedCount();
+        File activeFile = activeFile(closed);
+        active = activeFile.exists() ? Reader.readAccount(activeFile) : new Account();
+        closedTotals = new ArrayList<>();
+        for (int n = 0; n < closed; n++) {
+            closedTotals.add(readTotals(segmentFile(n)));
+        }
+        removeStrayFiles(closed);
+    }
+
+    // --------------------------------------------------------
+
+    // Segment methods
+
+    // EFFECTS:  returns the account holding the records of the active segment (the newest records);
+    //           changes made to it are kept by save
+    public Account getActive() {
+        return active;
+    }
+
+    // EFFECTS:  returns the number of closed segments
+    public int getClosedCount() {
+        return closedTotals.size();
+    }
+
+    // REQUIRES: 0 <= n < getClosedCount()
+    // EFFECTS:  returns the totals of closed segment n, without reading its records
+    public AccountTotals getClosedTotals(int n) {
+        return closedTotals.get(n);
+    }
+
+    // REQUIRES: 0 <= n < getClosedCount()
+    // EFFECTS:  returns an account holding the records of closed segment n, read from its file;
+    //           throws IOException if the segment cannot be read
+    public Account loadClosed(int n) throws IOException {
+        return Reader.readAccount(segmentFile(n));
+    }
+
+    // EFFECTS:  returns the totals of every record of the account: those of the closed segments
+    //           and those of the active segment as it is now
+    public AccountTotals getTotals() {
+        List<AccountTotals> all = new ArrayList<>(closedTotals);
+        all.add(active.snapshot());
+        return new CombinedTotals(all);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  seals the oldest records of the active segment into new closed segments, segmentSize at a time,
+    //           for as long as it has that many, then writes the active segment to its file;
+    //           throws IOException if a segment cannot be written
+    public void save() throws IOException {
+        int count = active.getLog().size() / segmentSize;
+        if (count > 0) {
+            sealOldest(count);
+        } else {
+            Writer.writeAtomically(activeFile(closedTotals.size()), AccountFormat.TEXT, active.snapshot());
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // REQUIRES: the active segment holds at least count * segmentSize records
+    // MODIFIES: this
+    // EFFECTS:  writes the oldest count * segmentSize records of the active segment to count new closed segments,
+    //           then drops them from the active segment at once, writes the rest to the next active segment
+    //           and deletes the old one
+    private void sealOldest(int count) throws IOException {
+        int n = closedTotals.size();
+        List<Record> log = active.getLog();
+        List<AccountTotals> sealed = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Account segment = new Account();
+            segment.addRecords(new ArrayList<>(log.subList(i * segmentSize, (i + 1) * segmentSize)));
+            Writer.writeAtomically(segmentFile(n + i), AccountFormat.TEXT, segment.snapshot());
+            sealed.add(segment.snapshot());
+        }
+        active.removeFirst(count * segmentSize);
+        Writer.writeAtomically(activeFile(n + count), AccountFormat.TEXT, active.snapshot());
+        closedTotals.addAll(sealed);
+        activeFile(n).delete();
+    }
+
+    // EFFECTS:  returns the number of closed segments, given by the active segment with the highest number
+    //           (0 if there is none)
+    private int findClosedCount() {
+        int closed = 0;
+        String[] names = directory.list();
+        for (String name : names == null ? new String[0] : names) {
+            if (name.startsWith(ACTIVE_PREFIX) && name.endsWith(".txt")) {
+                try {
+                    int number = Integer.parseInt(name.substring(ACTIVE_PREFIX.length(), name.length() - 4));
+                    closed = Math.max(closed, number);
+                } catch (NumberFormatException e) {
+                    // not a segment
+                }
+            }
+        }
+        return closed;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  deletes the active segments older than the current one and the closed segments past the
+    //           closed count (written in order, so they follow one another), left by a crash while sealing
+    private void removeStrayFiles(int closed) {
+        for (int n = 0; n < closed; n++) {
+            activeFile(n).delete();
+        }
+        int stray = closed;
+        while (segmentFile(stray).delete()) {
+            stray++;
+        }
+    }
+
+    // EFFECTS:  returns the totals of the segment in file, from its footer if it has a valid one,
+    //           otherwise by reading it in full; throws IOException if it cannot be read
+    private static AccountTotals readTotals(File file) throws IOException {
+        AccountFooter footer = AccountFooter.read(file);
+        return footer != null ? footer : Reader.readAccount(file).snapshot();
+    }
+
+    // EFFECTS:  returns the file of closed segment n
+    private File segmentFile(int n) {
+        return new File(directory, String.format(SEGMENT_NAME, n));
+    }
+
+    // EFFECTS:  returns the file of the active segment that follows n closed segments
+    private File activeFile(int n) {
+        return new File(directory, String.format(ACTIVE_NAME, n));
+    }
+
+}
@@ -0,0 +1,182 @@
+package persistence;
+
+import model.Account;
+import model.AccountTotals;
+import model.Record;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Represents an account split into two tiers: the newest records (at least horizon of them) are hot,
+// kept as live records in an account that can be changed as usual, and older records are cold,
+// moved by archive into blocks of blockSize records that are written in the binary account format
+// (see BinaryAccountWriter), compressed with a Deflater and kept off the heap in direct buffers.
+// Each cold block keeps its totals (see AccountFooter), so the totals of the account stay exact
+// without decompressing anything; a cold record is read by decompressing its block
+// (the last block decompressed is kept, so reading cold records in order decompresses each block once).
+// Cold records cannot be changed; positions count the cold records first, oldest first, then the hot ones
+public class TieredAccount {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Account hot;
+    private final int horizon;
+    private final int blockSize;
+    private final List<ByteBuffer> coldBlocks;
+    private final List<AccountTotals> coldTotals;
+    private int coldCount;
+    private int cachedBlock = -1;
+    private Account cachedRecords;
+
+    // REQUIRES: horizon >= 0 and blockSize > 0, and hot is not journaled (see Journal):
+    //           archiving removes records from hot, and the cold tier is only kept in memory
+    // EFFECTS:  creates a tiered account whose hot tier is hot, keeping at least horizon records hot
+    //           and archiving older records blockSize at a time; nothing is cold until archive is called
+    public TieredAccount(Account hot, int horizon, int blockSize) {
+        this.hot = hot;
+        this.horizon = horizon;
+        this.blockSize = blockSize;
+        this.coldBlocks = new ArrayList<>();
+        this.coldTotals = new ArrayList<>();
+    }
+
+    // --------------------------------------------------------
+
+    // Tier methods
+
+    // MODIFIES: this
+    // EFFECTS:  moves the oldest hot records into cold blocks, a whole block at a time,
+    //           for as long as more than horizon records would stay hot, then drops them all from the hot tier
+    //           in one pass; returns the number of records moved
+    public synchronized int archive() {
+        int count = Math.max(0, hot.getLog().size() - horizon) / blockSize;
+        List<Record> log = hot.getLog();
+        for (int i = 0; i < count; i++) {
+            archiveBlock(log.subList(i * blockSize, (i + 1) * blockSize));
+        }
+        hot.removeFirst(count * blockSize);
+        return count * blockSize;
+    }
+
+    // EFFECTS:  returns the account holding the hot records, which can be changed as usual
+    public Account getHot() {
+        return hot;
+    }
+
+    // EFFECTS:  returns the number of cold records
+    public synchronized int getColdCount() {
+        return coldCount;
+    }
+
+    // EFFECTS:  returns the number of bytes the cold blocks take up, compressed
+    public synchronized long getColdBytes() {
+        long bytes = 0;
+        for (ByteBuffer block : coldBlocks) {
+            bytes += block.capacity();
+        }
+        return bytes;
+    }
+
+    // --------------------------------------------------------
+
+    // Records log methods
+
+    // EFFECTS:  returns the number of records in both tiers
+    public synchronized int size() {
+        return coldCount + hot.getLog().size();
+    }
+
+    // REQUIRES: 0 <= pos < size()
+    // EFFECTS:  returns a copy of the record in position number pos (indexed at 0),
+    //           decompressing its block if it is cold and not the last block decompressed
+    public synchronized Record getRecord(int pos) {
+        if (pos >= coldCount) {
+            return hot.getRecord(pos - coldCount);
+        }
+        int block = pos / blockSize;
+        if (block != cachedBlock) {
+            cachedRecords = decompress(coldBlocks.get(block));
+            cachedBlock = block;
+        }
+        return cachedRecords.getRecord(pos % blockSize);
+    }
+
+    // EFFECTS:  returns a read-only view of the records log of both tiers
+    public List<Record> getLog() {
+        return new AbstractList<>() {
+            @Override
+            public Record get(int pos) {
+                return getRecord(pos);
+            }
+
+            @Override
+            public int size() {
+                return TieredAccount.this.size();
+            }
+        };
+    }
+
+    // EFFECTS:  returns the totals of both tiers: those kept for each cold block and those of the hot records
+    public synchronized AccountTotals getTotals() {
+        List<AccountTotals> parts = new ArrayList<>(coldTotals);
+        parts.add(hot.snapshot());
+        return new CombinedTotals(parts);
+    }
+
+    // --------------------------------------------------------
+
+    // Private helpers
+
+    // REQUIRES: records holds blockSize records, the oldest hot records not yet archived
+    // MODIFIES: this
+    // EFFECTS:  compresses records into a new cold block (the caller removes them from the hot tier)
+    private void archiveBlock(List<Record> records) {
+        Account block = new Account();
+        block.addRecords(new ArrayList<>(records));
+        coldBlocks.add(compress(block));
+        coldTotals.add(AccountFooter.of(block.snapshot()));
+        coldCount += blockSize;
+    }
+
+    // EFFECTS:  returns the records of block written in the binary account format and compressed,
+    //           in a direct buffer
+    private static ByteBuffer compress(Account block) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE);
+            new BinaryAccountWriter(out).write(block.snapshot());
+            out.finish();
+            ByteBuffer compressed = ByteBuffer.allocateDirect(bytes.size());
+            compressed.put(bytes.toByteArray());
+            return compressed.flip();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to compress a cold block", e);   // not raised in memory
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // EFFECTS:  returns an account holding the records of the compressed block
+    private static Account decompress(ByteBuffer block) {
+        Inflater inflater = new Inflater();
+        try {
+            InflaterInputStream in = new InflaterInputStream(new ByteBufferInputStream(block.duplicate()),
+                    inflater, BUFFER_SIZE);
+            return new BinaryAccountReader(in, BUFFER_SIZE).read();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decompress a cold block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
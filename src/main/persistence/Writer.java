@@ -1,35 +1,135 @@
 package persistence;
 
+import model.Account;
+import model.AccountSnapshot;
+
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 
 // NOTICE:
 // Structure of this persistence function is made with the guidance of, and therefore based around,
 // the "Teller" application from CPSC 210, which can be found and downloaded at:
 // https://github.students.cs.ubc.ca/CPSC210/TellerApp
 
-// Represents a writer that can write data to file
+// Represents a writer that can write data to file,
+// as text or (for accounts) in the binary account format (see AccountFormat)
 public class Writer {
     private PrintWriter printWriter;
+    private OutputStream binaryOutput;
+    private boolean failed;
 
-    // EFFECTS: constructs a writer that writes data to file
+    // EFFECTS: constructs a writer that writes data to file as text
     public Writer(File file) throws FileNotFoundException, UnsupportedEncodingException {
-        printWriter = new PrintWriter(file, "UTF-8");
+        this(file, AccountFormat.TEXT);
+    }
+
+    // EFFECTS: constructs a writer that writes data to file in format
+    public Writer(File file, AccountFormat format) throws FileNotFoundException, UnsupportedEncodingException {
+        if (format == AccountFormat.BINARY) {
+            binaryOutput = new BufferedOutputStream(new FileOutputStream(file));
+        } else {
+            printWriter = new PrintWriter(file, "UTF-8");
+        }
+    }
+
+    // EFFECTS: constructs a writer that writes data to out in format
+    Writer(OutputStream out, AccountFormat format) {
+        if (format == AccountFormat.BINARY) {
+            binaryOutput = out;
+        } else {
+            printWriter = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+    }
+
+    // EFFECTS: writes the account as it was in snapshot to file in format, replacing the file atomically:
+    //          a crash while it is written leaves the old file whole, and once this returns
+    //          the new file is on the disk (see AtomicFile); returns the footer written at its end;
+    //          throws IOException if file cannot be written
+    public static AccountFooter writeAtomically(File file, AccountFormat format, AccountSnapshot snapshot)
+            throws IOException {
+        AccountFooter footer = AccountFooter.of(snapshot);
+        new AtomicFile(file).write(out -> new Writer(out, format).write(snapshot, footer));
+        return footer;
     }
 
     // MODIFIES: this
-    // EFFECTS:  writes data to file
+    // EFFECTS:  writes data to file; a failure to write is not thrown but recorded (see checkError);
+    //           if the writer writes the binary format, data must be an account or an account snapshot,
+    //           otherwise throws IllegalStateException
     public void write(SaveableData data) {
-        data.save(printWriter);
+        if (binaryOutput == null) {
+            data.save(printWriter);
+            return;
+        }
+        AccountSnapshot snapshot;
+        if (data instanceof Account) {
+            snapshot = ((Account) data).snapshot();
+        } else if (data instanceof AccountSnapshot) {
+            snapshot = (AccountSnapshot) data;
+        } else {
+            throw new IllegalStateException("Only accounts can be written in the binary format");
+        }
+        try {
+            write(snapshot);
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    // EFFECTS:  returns true if writing data (see write(SaveableData)) has failed, otherwise false
+    public boolean checkError() {
+        return failed || (printWriter != null && printWriter.checkError());
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes the account as it was in snapshot to file in the writer's format,
+    //           followed by its footer (see AccountFooter);
+    //           throws IOException if the file cannot be written to
+    public void write(AccountSnapshot snapshot) throws IOException {
+        write(snapshot, AccountFooter.of(snapshot));
+    }
+
+    // REQUIRES: footer is the footer of snapshot
+    // MODIFIES: this
+    // EFFECTS:  writes the account as it was in snapshot to file in the writer's format, followed by footer;
+    //           throws IOException if the file cannot be written to
+    void write(AccountSnapshot snapshot, AccountFooter accountFooter) throws IOException {
+        byte[] footer = accountFooter.toBytes();
+        if (binaryOutput != null) {
+            new BinaryAccountWriter(binaryOutput).write(snapshot);
+            binaryOutput.write('\n');
+            binaryOutput.write(footer);
+            binaryOutput.flush();
+            return;
+        }
+        write((SaveableData) snapshot);
+        printWriter.print(new String(footer, StandardCharsets.UTF_8));
+        if (printWriter.checkError()) {
+            throw new IOException("Unable to write account");
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS:  closes print writer
+    // EFFECTS:  closes print writer (or binary output)
     //           NOTE: MUST call this method after writing data
     public void close() {
-        printWriter.close();
+        if (binaryOutput == null) {
+            printWriter.close();
+            return;
+        }
+        try {
+            binaryOutput.close();
+        } catch (IOException e) {
+            // like PrintWriter, ignore: everything written was already flushed by write
+        }
     }
 
 }
@@ -1,9 +1,13 @@
 package ui;
 
 import model.Account;
+import model.AccountTotals;
+import model.Categories;
+import model.Money;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 // Represents a display with the total balance of the account and
 // a graph bar that visually summarizes the category totals to the user
@@ -13,7 +17,7 @@ public class BarGraph extends JPanel {
     static final Color POSITIVE = new Color(37, 114, 47);
     static final Color NEGATIVE = new Color(167, 0, 2);
 
-    Account acc;
+    AccountTotals acc;
     JPanel container;
     JPanel labels;
     JPanel graph;
@@ -21,9 +25,16 @@ public class BarGraph extends JPanel {
 
 
     // EFFECTS:  creates a display that prints the balance of the account
-    //           and draws a bar graph that summarizes the category totals
+    //           and draws a bar graph that summarizes the category totals,
+    //           both from a copy of the account's totals taken now
     public BarGraph(Account acc) {
-        this.acc = acc;
+        this(acc.getTotals());
+    }
+
+    // EFFECTS:  creates a display that prints the balance of totals
+    //           and draws a bar graph that summarizes their category totals
+    public BarGraph(AccountTotals totals) {
+        this.acc = totals;
 
         this.setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
         this.add(Box.createRigidArea(new Dimension(0, 20)));
@@ -40,8 +51,8 @@ public class BarGraph extends JPanel {
     //           when balance is negative, the text is red,
     //           when balance is zero, the text is black
     void drawBalance() {
-        double balance = acc.getBalance();
-        String balanceString = "Current balance: $" + String.format("%.2f", balance);
+        long balance = acc.getBalanceCents();
+        String balanceString = "Current balance: $" + Money.format(balance);
         JLabel balancePanel = new JLabel(balanceString);
         balancePanel.setAlignmentX(Component.CENTER_ALIGNMENT);
         balancePanel.setFont(FONT);
@@ -84,7 +95,7 @@ public class BarGraph extends JPanel {
         if (acc.isLogEmpty()) {
             createNoBars();
         } else {
-            int income = doubleToInt(acc.getCategorySum("income"));
+            int income = centsToDollars(acc.getCategorySumCents(Categories.INCOME));
             int maxCategory = findMax();
             if (income == 0) {
                 createBarsNoIncome(maxCategory);
@@ -97,9 +108,9 @@ public class BarGraph extends JPanel {
 
     }
 
-    // EFFECTS:  turns an double value into an integer
-    int doubleToInt(double value) {
-        return (int) value;
+    // EFFECTS:  turns a value in cents into whole dollars
+    int centsToDollars(long cents) {
+        return (int) (cents / Money.CENTS_PER_DOLLAR);
     }
 
     // MODIFIES: this
@@ -107,8 +118,8 @@ public class BarGraph extends JPanel {
     int findMax() {
         int max = 0;
 
-        for (String category : acc.getCategories()) {
-            int value = doubleToInt(acc.getCategorySum(category));
+        for (int id = 0; id < acc.getCategories().size(); id++) {
+            int value = centsToDollars(acc.getCategorySumCents(id));
 
             if (value > max) {
                 max = value;
@@ -121,8 +132,8 @@ public class BarGraph extends JPanel {
     // EFFECTS:  returns the appropriate bar width,
     //           calculated using a ratio over the income
     //           when income is the highest category total
-    int getBarWidth(String category, int income) {
-        int value = doubleToInt(acc.getCategorySum(category));
+    int getBarWidth(int categoryId, int income) {
+        int value = centsToDollars(acc.getCategorySumCents(categoryId));
         int ratioValue = (value * MAX_BAR) / income;
         return ratioValue;
     }
@@ -130,8 +141,8 @@ public class BarGraph extends JPanel {
     // EFFECTS:  returns the appropriate bar width,
     //           calculated using a ratio over the highest category total
     //           when income is not the highest category total
-    int getBarWidthLowIncome(String category, int maxCategory) {
-        int value = doubleToInt(acc.getCategorySum(category));
+    int getBarWidthLowIncome(int categoryId, int maxCategory) {
+        int value = centsToDollars(acc.getCategorySumCents(categoryId));
         int ratioValue = (value * MAX_BAR) / maxCategory;
         return ratioValue;
     }
@@ -139,7 +150,9 @@ public class BarGraph extends JPanel {
     // MODIFIES: this
     // EFFECTS:  creates the bar graph display when log is empty
     void createNoBars() {
-        for (String category : acc.getCategories()) {
+        List<String> categories = acc.getCategories();
+        for (int id = 0; id < categories.size(); id++) {
+            String category = categories.get(id);
             labels.add(Box.createRigidArea(new Dimension(0, 30)));
             JLabel categoryLabel = new JLabel(category);
             categoryLabel.setFont(FONT);
@@ -159,7 +172,9 @@ public class BarGraph extends JPanel {
     // MODIFIES: this
     // EFFECTS:  creates the bar graph display when income is zero
     void createBarsNoIncome(int maxCategory) {
-        for (String category : acc.getCategories()) {
+        List<String> categories = acc.getCategories();
+        for (int id = 0; id < categories.size(); id++) {
+            String category = categories.get(id);
             labels.add(Box.createRigidArea(new Dimension(0, 30)));
             JLabel categoryLabel = new JLabel(category);
             categoryLabel.setFont(FONT);
@@ -168,12 +183,12 @@ public class BarGraph extends JPanel {
             labels.add(categoryLabel);
             labels.add(Box.createRigidArea(new Dimension(0, 30)));
 
-            if (category.equals("income"))  {
+            if (id == Categories.INCOME) {
                 JPanel incomeBar = new Bar(0, POSITIVE);
                 incomeBar.setAlignmentX(Component.LEFT_ALIGNMENT);
                 graph.add(incomeBar);
             } else {
-                JPanel categoryBar = new Bar(getBarWidthLowIncome(category, maxCategory), NEGATIVE);
+                JPanel categoryBar = new Bar(getBarWidthLowIncome(id, maxCategory), NEGATIVE);
                 categoryBar.setAlignmentX(Component.LEFT_ALIGNMENT);
                 graph.add(categoryBar);
             }
@@ -185,7 +200,9 @@ public class BarGraph extends JPanel {
     // MODIFIES: this
     // EFFECTS:  creates the bar graph display when income is the highest category total
     void createBarsWithIncome(int income) {
-        for (String category : acc.getCategories()) {
+        List<String> categories = acc.getCategories();
+        for (int id = 0; id < categories.size(); id++) {
+            String category = categories.get(id);
             labels.add(Box.createRigidArea(new Dimension(0, 30)));
             JLabel categoryLabel = new JLabel(category);
             categoryLabel.setFont(FONT);
@@ -194,12 +211,12 @@ public class BarGraph extends JPanel {
             labels.add(categoryLabel);
             labels.add(Box.createRigidArea(new Dimension(0, 30)));
 
-            if (category.equals("income")) {
+            if (id == Categories.INCOME) {
                 JPanel incomeBar = new Bar(MAX_BAR, POSITIVE);
                 incomeBar.setAlignmentX(Component.LEFT_ALIGNMENT);
                 graph.add(incomeBar);
             } else {
-                JPanel categoryBar = new Bar(getBarWidth(category, income), NEGATIVE);
+                JPanel categoryBar = new Bar(getBarWidth(id, income), NEGATIVE);
                 categoryBar.setAlignmentX(Component.LEFT_ALIGNMENT);
                 graph.add(categoryBar);
             }
@@ -211,7 +228,9 @@ public class BarGraph extends JPanel {
     // MODIFIES: this
     // EFFECTS:  creates the bar graph display when income is not the highest category total
     void createBarsWithLowIncome(int maxCategory) {
-        for (String category : acc.getCategories()) {
+        List<String> categories = acc.getCategories();
+        for (int id = 0; id < categories.size(); id++) {
+            String category = categories.get(id);
             labels.add(Box.createRigidArea(new Dimension(0, 30)));
             JLabel categoryLabel = new JLabel(category);
             categoryLabel.setFont(FONT);
@@ -220,12 +239,12 @@ public class BarGraph extends JPanel {
             labels.add(categoryLabel);
             labels.add(Box.createRigidArea(new Dimension(0, 30)));
 
-            if (category.equals("income")) {
-                JPanel incomeBar = new Bar(getBarWidthLowIncome(category, maxCategory), POSITIVE);
+            if (id == Categories.INCOME) {
+                JPanel incomeBar = new Bar(getBarWidthLowIncome(id, maxCategory), POSITIVE);
                 incomeBar.setAlignmentX(Component.LEFT_ALIGNMENT);
                 graph.add(incomeBar);
             } else {
-                JPanel categoryBar = new Bar(getBarWidthLowIncome(category, maxCategory), NEGATIVE);
+                JPanel categoryBar = new Bar(getBarWidthLowIncome(id, maxCategory), NEGATIVE);
                 categoryBar.setAlignmentX(Component.LEFT_ALIGNMENT);
                 graph.add(categoryBar);
             }
@@ -1,21 +1,29 @@
 package ui;
 
 import model.Account;
+import model.AccountHistory;
+import model.AccountTotals;
 import model.CategoryInfo;
+import model.Money;
 import model.Record;
+import persistence.AccountFooter;
+import persistence.AccountFormat;
+import persistence.Journal;
 import persistence.Reader;
-import persistence.Writer;
+import persistence.SaveListener;
+import persistence.SaveService;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
 
 // NOTICE:
 // 1) Application's ICON attributed to Freepik (https://www.flaticon.com/authors/freepik), and taken from
@@ -24,13 +32,15 @@ import java.util.ArrayList;
 //    http://soundbible.com/419-Tiny-Button-Push.html
 
 // Budget Planner application with a graphical user interface
-public class BudgetPlannerApp {
+public class BudgetPlannerApp implements SaveListener {
     private static final String FILE = "./data/account.txt";
+    private static final long SAVE_TIMEOUT_MILLIS = 10000;
     private static final String SOUND = "./data/addButtonClick.wav";
     static final String ICON = "./data/piggy-bank.png";
 
     JFrame frame;
     JPanel mainMenu;
+    JPanel options;
     BarGraph barGraph;
     JPanel recordMenu;
     JPanel addRecord;
@@ -38,6 +48,8 @@ public class BudgetPlannerApp {
     JPanel removeRecord;
 
     Account acc;
+    AccountHistory history;
+    SaveService saver;
 
     // EFFECTS:  run Budget Planner application
     public BudgetPlannerApp() {
@@ -48,24 +60,103 @@ public class BudgetPlannerApp {
         Image image = tk.getImage(ICON);
         frame.setIconImage(image);
 
-        initializeAccount();
-        displayMainMenu();
+        AccountFooter footer = AccountFooter.read(new File(FILE));
+        if (footer == null) {
+            initializeAccount();
+            displayMainMenu(acc.getTotals());
+        } else {
+            displayMainMenu(footer);
+            loadAccountInBackground();
+        }
 
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                finishSaving();
+            }
+        });
         frame.setLocationRelativeTo(null);      // sets window to middle of screen
         frame.setVisible(true);
     }
 
-    // MODIFIES: this, account
-    // EFFECTS:  loads the account from FILE, if the file exists;
-    //           otherwise, if previous account doesn't exist,
-    //           initializes a new empty account
+    // MODIFIES: this
+    // EFFECTS:  makes the account loaded from FILE (and its journal) the account of the application,
+    //           if the file exists; otherwise, if previous account doesn't exist,
+    //           a new empty account (see loadAccount)
     private void initializeAccount() {
+        useAccount(loadAccount());
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  disables the options while the account is loaded from FILE and started on a background thread
+    //           (see loadAccount); once it is, makes it the account of the application, enables the options
+    //           again and redraws the graph of the main menu from the loaded records
+    //           (replacing the totals it was drawn from, in case they no longer match)
+    private void loadAccountInBackground() {
+        setOptionsEnabled(false);
+        new SwingWorker<StartedAccount, Void>() {
+            @Override
+            protected StartedAccount doInBackground() {
+                return loadAccount();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    useAccount(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    useAccount(startAccount(new Account(), false));
+                }
+                setOptionsEnabled(true);
+                refreshBarGraph();
+            }
+        }.execute();
+    }
+
+    // EFFECTS:  loads the account from FILE (replaying its journal), if the file exists;
+    //           otherwise, if previous account doesn't exist, creates a new empty account;
+    //           then starts it (see startAccount)
+    private StartedAccount loadAccount() {
+        File file = new File(FILE);
+        try {
+            return startAccount(Reader.readAccount(file), true);
+        } catch (IOException e) {
+            return startAccount(new Account(), !file.exists());
+        }
+    }
+
+    // MODIFIES: account
+    // EFFECTS:  starts the background saver of account, which does all the file work of saving,
+    //           and journals every change to the account on top of FILE through it
+    //           (unless safeToJournal is false, as when FILE exists but could not be read,
+    //           so that it is not overwritten, in which case saves rewrite FILE in full),
+    //           and starts the account's history of changes for undo and redo
+    private StartedAccount startAccount(Account account, boolean safeToJournal) {
+        File file = new File(FILE);
+        AccountFormat format = AccountFormat.TEXT;
         try {
-            acc = Reader.readAccount(new File(FILE));
+            format = file.exists() ? AccountFormat.detect(file) : AccountFormat.TEXT;
         } catch (IOException e) {
-            acc = new Account();
+            // keep the text format
+        }
+        SaveService accountSaver = new SaveService(account, file, format, this, SwingUtilities::invokeLater);
+        if (safeToJournal) {
+            try {
+                accountSaver.useJournal(new Journal(file, account, accountSaver));
+            } catch (IOException e) {
+                System.out.println("Unable to journal changes to " + FILE + "\n");
+            }
         }
+        return new StartedAccount(account, accountSaver, new AccountHistory(account));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  makes the started account the account of the application
+    private void useAccount(StartedAccount started) {
+        acc = started.account;
+        saver = started.saver;
+        history = started.history;
     }
 
     // --------------------------------------------------------
@@ -74,13 +165,13 @@ public class BudgetPlannerApp {
 
     // MODIFIES: this
     // EFFECTS:  displays the main menu to the user;
-    //           includes an options menu and display panel
-    void displayMainMenu() {
+    //           includes an options menu and display panel (drawn from totals)
+    void displayMainMenu(AccountTotals totals) {
         setUpMainMenu();
 
         //---------------------------OPTIONS MENU---------------------------//
 
-        JPanel options = new JPanel();
+        options = new JPanel();
         mainMenu.add(options);
 
         JButton recordsButton = createRecordMenuButton();
@@ -92,14 +183,28 @@ public class BudgetPlannerApp {
         JButton saveButton = createSaveButton();
         options.add(saveButton);
 
+        JButton undoButton = createUndoButton();
+        options.add(undoButton);
+
+        JButton redoButton = createRedoButton();
+        options.add(redoButton);
+
         //---------------------------DISPLAY PANEL---------------------------//
 
         mainMenu.add(Box.createRigidArea(new Dimension(0, 5)));
 
-        barGraph = new BarGraph(acc);
+        barGraph = new BarGraph(totals);
         mainMenu.add(barGraph);
     }
 
+    // MODIFIES: this
+    // EFFECTS:  enables (or disables) every button of the options menu
+    void setOptionsEnabled(boolean enabled) {
+        for (Component option : options.getComponents()) {
+            option.setEnabled(enabled);
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS:  sets up the framework for the main menu
     void setUpMainMenu() {
@@ -121,17 +226,11 @@ public class BudgetPlannerApp {
         return recordsButton;
     }
 
-    // MODIFIES: acc
     // EFFECTS:  creates a log button;
     //           when pressed, displays the log and summary in a new window
     JButton createLogButton() {
         JButton logButton = new JButton("Display Log and Summary");
-        logButton.addActionListener(e -> {
-            for (String category : acc.getCategories()) {
-                acc.updateCategory(category);
-            }
-            new DisplayLog(acc);
-        }
+        logButton.addActionListener(e -> new DisplayLog(acc)
         );
         return logButton;
     }
@@ -140,22 +239,72 @@ public class BudgetPlannerApp {
     //           when pressed, saves the current log to FILE
     JButton createSaveButton() {
         JButton saveButton = new JButton("Save Log");
-        saveButton.addActionListener(e -> {
-            try {
-                Writer writer = new Writer(new File(FILE));
-                writer.write(acc);
-                writer.close();
-                System.out.println("Saved to " + FILE + "\n");
-            } catch (FileNotFoundException except1) {
-                System.out.println("Unable to save account to " + FILE + "\n");
-            } catch (UnsupportedEncodingException except2) {
-                except2.printStackTrace();    // due to programming error
+        saveButton.addActionListener(e -> saveAccount());
+        return saveButton;
+    }
+
+    // EFFECTS:  has the background saver make sure every change to the log is saved in FILE: with a journal,
+    //           changes are appended to it as they are made, so it only has to be flushed to the disk;
+    //           without a journal (or once one could not be flushed), FILE is rewritten in full;
+    //           the saver reports back through saveSucceeded or saveFailed
+    private void saveAccount() {
+        saver.requestSave();
+    }
+
+    // EFFECTS:  reports that the log was saved in full to FILE
+    @Override
+    public void saveSucceeded(long version, int requests, long latencyMillis) {
+        System.out.println("Saved to " + FILE + " (" + requests + " request(s), " + latencyMillis + " ms)\n");
+    }
+
+    // EFFECTS:  reports that the log could not be saved to FILE
+    @Override
+    public void saveFailed(long version, int requests, long latencyMillis, IOException e) {
+        System.out.println("Unable to save account to " + FILE + "\n");
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  waits for the background saver (once the account is loaded) to finish the saves requested so far
+    private void finishSaving() {
+        if (saver == null) {
+            return;
+        }
+        try {
+            saver.close(SAVE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // MODIFIES: this, acc
+    // EFFECTS:  creates an undo button;
+    //           when pressed, undoes the last change to the log (if any)
+    //           and refreshes the graph of the main menu
+    JButton createUndoButton() {
+        JButton undoButton = new JButton("Undo");
+        undoButton.addActionListener(e -> {
+            if (history.undo()) {
+                refreshBarGraph();
             }
         }
         );
-        return saveButton;
+        return undoButton;
     }
 
+    // MODIFIES: this, acc
+    // EFFECTS:  creates a redo button;
+    //           when pressed, makes the last undone change to the log again (if any)
+    //           and refreshes the graph of the main menu
+    JButton createRedoButton() {
+        JButton redoButton = new JButton("Redo");
+        redoButton.addActionListener(e -> {
+            if (history.redo()) {
+                refreshBarGraph();
+            }
+        }
+        );
+        return redoButton;
+    }
 
     // --------------------------------------------------------
 
@@ -333,10 +482,10 @@ public class BudgetPlannerApp {
     private void addRecord(String title, String category, String stringValue) {
         if (!title.contains(",")) {
             try {
-                double value = Double.parseDouble(stringValue);
-                if (value >= 0.01) {
-                    Record record = new Record(title, category, value);
-                    acc.addRecord(record);
+                long cents = Money.parseCents(stringValue);
+                if (cents >= 1) {
+                    Record record = Record.ofCents(title, category, cents);
+                    history.addRecord(record);
                     playSound();
                     closeMenu(recordMenu);
                 }
@@ -398,16 +547,16 @@ public class BudgetPlannerApp {
     }
 
     // MODIFIES: this, acc, record
-    // EFFECTS:  edits the record in acc's log at location
+    // EFFECTS:  edits the record in acc's log with the id given in location
     //           with title, category and stringValue as new parameters
     private void editRecord(String location, String title, String category, String stringValue) {
         if (!title.contains(",")) {
             try {
-                int pos = Integer.parseInt(location);
-                if (pos >= 0 && pos < acc.getLog().size()) {
-                    double value = Double.parseDouble(stringValue);
-                    if (value > 0.00) {
-                        acc.editRecord(pos, title, category, value);
+                long id = Long.parseLong(location);
+                if (acc.hasRecord(id)) {
+                    long cents = Money.parseCents(stringValue);
+                    if (cents >= 1) {
+                        history.editRecordCentsById(id, title, category, cents);
                         closeMenu(recordMenu);
                     }
                 }
@@ -452,12 +601,11 @@ public class BudgetPlannerApp {
     }
 
     // MODIFIES: this, acc, record
-    // EFFECTS:  removes the record in acc's log at location
+    // EFFECTS:  removes the record in acc's log with the id given in location
     private void removeRecord(String location) {
         try {
-            int pos = Integer.parseInt(location);
-            if (pos >= 0 && pos < acc.getLog().size()) {
-                acc.removeRecord(pos);
+            long id = Long.parseLong(location);
+            if (history.removeRecordById(id)) {
                 closeMenu(recordMenu);
             }
         } catch (Exception except) {
@@ -510,9 +658,9 @@ public class BudgetPlannerApp {
     }
 
     // EFFECTS:  creates a text field to input
-    //           the index of the record to be chosen
+    //           the id of the record to be chosen
     JTextField createChooseRecordField(JPanel form) {
-        JLabel instruction = new JLabel("Index of record:");
+        JLabel instruction = new JLabel("ID of record:");
         form.add(instruction);
         JTextField recordChosen = new JTextField();
         recordChosen.setPreferredSize(new Dimension(100, 20));
@@ -529,15 +677,32 @@ public class BudgetPlannerApp {
         frame.setTitle("Budget Planner");
         mainMenu.setVisible(true);
         frame.remove(menu);
+        refreshBarGraph();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  replaces the graph of the main menu with one of acc as it is now
+    void refreshBarGraph() {
         mainMenu.remove(barGraph);
-        for (String category : acc.getCategories()) {
-            acc.updateCategory(category);
-        }
         barGraph = new BarGraph(acc);
         mainMenu.add(barGraph);
+        mainMenu.revalidate();
         mainMenu.repaint();
     }
 
+    // Represents an account started for the application: the account, its saver and its history
+    private static class StartedAccount {
+        private final Account account;
+        private final SaveService saver;
+        private final AccountHistory history;
+
+        // EFFECTS:  creates a started account of account, with saver and history
+        StartedAccount(Account account, SaveService saver, AccountHistory history) {
+            this.account = account;
+            this.saver = saver;
+            this.history = history;
+        }
+    }
 
 }
 
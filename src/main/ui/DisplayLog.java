@@ -1,10 +1,13 @@
 package ui;
 
 import model.Account;
+import model.AccountSnapshot;
+import model.Money;
 import model.Record;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 // Represents a new window that displays
 // a summary of the balance and category totals and
@@ -13,11 +16,12 @@ public class DisplayLog extends JFrame {
     static final Color TEXTBOX_COLOR = new Color(228, 218, 172);
 
     JFrame logWindow;
-    Account acc;
+    AccountSnapshot acc;
 
     // EFFECTS:  creates a new window that displays
     //           a summary of the balance and category totals,
-    //           as well as the complete log of the account
+    //           as well as the complete log of the account,
+    //           all from a snapshot of the account taken now
     public DisplayLog(Account acc) {
         logWindow = new JFrame("Log");
         logWindow.setSize(1000, 700);
@@ -26,7 +30,7 @@ public class DisplayLog extends JFrame {
         Image image = tk.getImage(BudgetPlannerApp.ICON);
         logWindow.setIconImage(image);
 
-        this.acc = acc;
+        this.acc = acc.snapshot();
 
         JPanel container = new JPanel();
         container.setLayout(new BoxLayout(container, BoxLayout.PAGE_AXIS));
@@ -53,7 +57,7 @@ public class DisplayLog extends JFrame {
         summary.setBackground(TEXTBOX_COLOR);
         summaryDisplay.add(summary);
 
-        summary.append("\nTotal account balance is: $" + String.format("%.2f", acc.getBalance()) + "\n\n");
+        summary.append("\nTotal account balance is: $" + Money.format(acc.getBalanceCents()) + "\n\n");
         summary.append("Category summary:\n");
 
         if (acc.isLogEmpty()) {
@@ -61,9 +65,10 @@ public class DisplayLog extends JFrame {
                 summary.append(category + ": $0.00\n");
             }
         } else {
-            for (String category : acc.getCategories()) {
-                double value = acc.getCategorySum(category);
-                summary.append(category + ": $" + String.format("%.2f", value) + "\n");
+            List<String> categories = acc.getCategories();
+            for (int id = 0; id < categories.size(); id++) {
+                long value = acc.getCategorySumCents(id);
+                summary.append(categories.get(id) + ": $" + Money.format(value) + "\n");
             }
         }
         return summaryDisplay;
@@ -80,16 +85,14 @@ public class DisplayLog extends JFrame {
         JScrollPane scroll = new JScrollPane(log);
         setUpScroll(scroll, logDisplay);
 
-        int num = 0;
         if (acc.getLog().isEmpty()) {
             log.append("The log is empty.");
         } else {
             log.append("Current recorded purchases:\n");
             for (Record r : acc.getLog()) {
-                double val = r.getValue();
-                log.append("[" + num + "] ");
-                log.append(r.getTitle() + " (" + r.getCategory() + ") = $" + String.format("%.2f", val) + "\n");
-                num = num + 1;
+                long val = r.getCents();
+                log.append("[" + r.getId() + "] ");
+                log.append(r.getTitle() + " (" + r.getCategory() + ") = $" + Money.format(val) + "\n");
             }
             log.append("End of log.");
         }
@@ -0,0 +1,186 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountHistoryTest {
+    Account acc;
+    AccountHistory history;
+    Record recordPurchase;
+    Record recordIncome;
+    Record recordLowerLimit;
+
+    @BeforeEach
+    void runBefore() {
+        List<Record> log = new ArrayList<>();
+        log.add(new Record("pay", "income", 100));
+        acc = new Account(log);
+        history = new AccountHistory(acc);
+        recordPurchase = new Record("sub", "other", 75);
+        recordIncome = new Record("add", "income", 120);
+        recordLowerLimit = new Record("3", "bills", 0.01);
+    }
+
+    @Test
+    void testConstructor() {
+        assertSame(acc, history.getAccount());
+        assertEquals(0, history.getCurrentVersion());
+        assertEquals(1, history.getVersionCount());
+        assertFalse(history.canUndo());
+        assertFalse(history.canRedo());
+        assertFalse(history.undo());
+        assertFalse(history.redo());
+        assertEquals(10000, history.getBalanceCentsAt(0));
+        assertEquals(1, history.getLogAt(0).size());
+    }
+
+    @Test
+    void testChangesMakeVersions() {
+        long id = history.addRecord(recordPurchase);
+        assertTrue(history.editRecordCentsById(id, "sub", "dining", 500));
+        assertFalse(history.editRecordCentsById(10, "sub", "dining", 500));
+        assertTrue(history.removeRecordById(0));
+        assertFalse(history.removeRecordById(0));
+
+        assertEquals(3, history.getCurrentVersion());
+        assertEquals(2500, history.getBalanceCentsAt(1));
+        assertEquals(7500, history.getCategorySumCentsAt(1, Categories.lookup("other")));
+        assertEquals(9500, history.getBalanceCentsAt(2));
+        assertEquals(500, history.getCategorySumCentsAt(2, Categories.lookup("dining")));
+        assertEquals(-500, history.getBalanceCentsAt(3));
+        assertEquals(0, history.getCategorySumCentsAt(3, Categories.NOT_FOUND));
+        assertEquals(acc.getLog(), history.getLogAt(3).asList());
+    }
+
+    @Test
+    void testUndoAndRedo() {
+        long id = history.addRecord(recordPurchase);
+        history.editRecordCentsById(id, "sub", "dining", 500);
+        history.removeRecordById(0);
+        history.addRecord(recordLowerLimit);
+
+        for (int version = 4; version > 0; version--) {
+            assertTrue(history.undo());
+            checkAccountMatchesVersion(version - 1);
+        }
+        assertEquals(1, acc.getLog().size());
+        assertEquals(10000, acc.getBalanceCents());
+
+        for (int version = 1; version <= 4; version++) {
+            assertTrue(history.redo());
+            checkAccountMatchesVersion(version);
+        }
+        assertEquals(2, acc.getLog().size());
+        assertEquals(id, acc.getRecord(0).getId());
+    }
+
+    @Test
+    void testChangeAfterUndoDropsRedo() {
+        history.addRecord(recordPurchase);
+        history.undo();
+        assertTrue(history.canRedo());
+
+        long id = history.addRecord(recordIncome);
+        assertFalse(history.canRedo());
+        assertEquals(2, history.getVersionCount());
+        assertEquals(22000, acc.getBalanceCents());
+        assertTrue(history.undo());
+        assertFalse(acc.hasRecord(id));
+        checkAccountMatchesVersion(0);
+    }
+
+    @Test
+    void testUndoRemoveAfterCompaction() {
+        history.addRecord(recordPurchase);
+        history.addRecord(recordIncome);
+        acc.setIndexed(true);
+        history.removeRecordById(1);
+        acc.getRecord(0);
+
+        assertTrue(history.undo());
+        assertEquals(recordPurchase, acc.getRecord(1));
+        assertEquals(recordIncome, acc.getRecord(2));
+        assertEquals(acc.getBalanceCents(), acc.getRangeSumCents(0, 3));
+        checkAccountMatchesVersion(2);
+    }
+
+    @Test
+    void testOldestVersionsDropped() {
+        history = new AccountHistory(acc, 3);
+        for (int i = 0; i < 4; i++) {
+            history.addRecord(new Record("r" + i, "bills", 1));
+        }
+        assertEquals(4, history.getCurrentVersion());
+        assertEquals(5, history.getVersionCount());
+        assertEquals(2, history.getOldestVersion());
+        assertEquals(9800, history.getBalanceCentsAt(2));
+
+        assertTrue(history.undo());
+        assertTrue(history.undo());
+        assertFalse(history.undo());
+        checkAccountMatchesVersion(2);
+        assertTrue(history.redo());
+        checkAccountMatchesVersion(3);
+    }
+
+    @Test
+    void testEarlierLogsBuiltWhenRead() {
+        long id = history.addRecord(recordPurchase);
+        history.editRecordCentsById(id, "sub", "dining", 500);
+        history.removeRecordById(0);
+
+        assertEquals(List.of(new Record("pay", "income", 100)), history.getLogAt(0).asList());
+        assertEquals(List.of(new Record("pay", "income", 100), recordPurchase), history.getLogAt(1).asList());
+        assertEquals(acc.getLog(), history.getLogAt(3).asList());
+        history.addRecord(recordIncome);
+        checkAccountMatchesVersion(4);
+    }
+
+    @Test
+    void testVersionsWrapAround() {
+        history = new AccountHistory(acc, 3);
+        for (int i = 0; i < 10; i++) {
+            history.addRecord(Record.ofCents("r" + i, "bills", i + 1));
+        }
+        assertTrue(history.undo());
+        assertTrue(history.undo());
+        history.addRecord(recordIncome);
+        assertFalse(history.canRedo());
+        assertEquals(9, history.getCurrentVersion());
+        assertEquals(10, history.getVersionCount());
+        assertEquals(8, history.getOldestVersion());
+        checkAccountMatchesVersion(9);
+
+        assertTrue(history.undo());
+        checkAccountMatchesVersion(8);
+        assertFalse(history.undo());
+        history.addRecord(recordPurchase);
+        history.addRecord(recordLowerLimit);
+        history.addRecord(recordIncome);
+        assertEquals(9, history.getOldestVersion());
+        checkAccountMatchesVersion(11);
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private void checkAccountMatchesVersion(int version) {
+        assertEquals(version, history.getCurrentVersion());
+        assertEquals(history.getLogAt(version).asList(), acc.getLog());
+        assertEquals(history.getBalanceCentsAt(version), acc.getBalanceCents());
+        for (int id = 0; id < acc.getCategories().size(); id++) {
+            assertEquals(history.getCategorySumCentsAt(version, id), acc.getCategorySumCents(id));
+        }
+        assertTrue(acc.verifyTotals());
+    }
+
+}
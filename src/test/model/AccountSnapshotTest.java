@@ -0,0 +1,95 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountSnapshotTest {
+    Account acc;
+    Record recordPurchase;
+    Record recordIncome;
+    Record recordLowerLimit;
+
+    @BeforeEach
+    void runBefore() {
+        acc = new Account();
+        recordPurchase = new Record("sub", "other", 75);
+        recordIncome = new Record("add", "income", 120);
+        recordLowerLimit = new Record("3", "bills", 0.01);
+    }
+
+    @Test
+    void testEmptySnapshot() {
+        AccountSnapshot snapshot = acc.snapshot();
+        assertTrue(snapshot.isLogEmpty());
+        assertEquals(0, snapshot.getBalanceCents());
+        assertEquals(0, snapshot.getVersion());
+        assertEquals(acc.getCategories().getCategories(), snapshot.getCategories());
+    }
+
+    @Test
+    void testSnapshotMatchesAccount() {
+        acc.addRecord(recordPurchase);
+        acc.addRecord(recordIncome);
+        AccountSnapshot snapshot = acc.snapshot();
+
+        assertFalse(snapshot.isLogEmpty());
+        assertEquals(2, snapshot.getVersion());
+        assertEquals(45, snapshot.getBalance());
+        assertEquals(4500, snapshot.getBalanceCents());
+        assertEquals(120, snapshot.getCategorySum("income"));
+        assertEquals(7500, snapshot.getCategorySumCents("other"));
+        assertEquals(7500, snapshot.getCategorySumCents(Categories.lookup("other")));
+        assertEquals(recordIncome, snapshot.getRecord(1));
+        assertEquals(recordPurchase, snapshot.getRecordById(0));
+        assertNull(snapshot.getRecordById(2));
+    }
+
+    @Test
+    void testSnapshotDoesNotChange() {
+        acc.addRecord(recordPurchase);
+        acc.addRecord(recordIncome);
+        AccountSnapshot snapshot = acc.snapshot();
+
+        acc.addRecord(recordLowerLimit);
+        acc.editRecord(0, "edited", "dining", 5);
+        acc.removeRecord(1);
+        acc.removeIf(r -> true);
+        acc.addRecord(recordIncome);
+
+        List<Record> log = snapshot.getLog();
+        assertEquals(2, log.size());
+        assertEquals(recordPurchase, log.get(0));
+        assertEquals(recordIncome, log.get(1));
+        assertEquals(4500, snapshot.getBalanceCents());
+        assertEquals(7500, snapshot.getCategorySumCents("other"));
+        assertEquals(0, snapshot.getCategorySumCents("dining"));
+        assertEquals(recordIncome, snapshot.getRecordById(1));
+
+        assertEquals(12000, acc.getBalanceCents());
+        assertEquals(1, acc.getLog().size());
+        assertTrue(acc.verifyTotals());
+        assertTrue(acc.snapshot().getVersion() > snapshot.getVersion());
+    }
+
+    @Test
+    void testSnapshotAfterRemove() {
+        acc.addRecord(recordPurchase);
+        acc.addRecord(recordIncome);
+        acc.addRecord(recordLowerLimit);
+        acc.removeRecordById(1);
+        AccountSnapshot snapshot = acc.snapshot();
+
+        assertEquals(2, snapshot.getLog().size());
+        assertEquals(recordLowerLimit, snapshot.getRecord(1));
+        assertEquals(recordLowerLimit, snapshot.getRecordById(2));
+        assertNull(snapshot.getRecordById(1));
+    }
+
+}
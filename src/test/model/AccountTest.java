@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -208,6 +210,402 @@ class AccountTest {
         checkCategorySumsMatch(acc,  150, 0, 0, 0, 0, 0, 75);
     }
 
+    @Test
+    void testVerifyTotals() {
+        assertTrue(acc.verifyTotals());
+
+        setUpAccount3Records();
+        acc.editRecord(1, "change", "shopping", 12.34);
+        acc.removeRecord(0);
+        assertTrue(acc.verifyTotals());
+
+        acc.getCategories().addToCategory(recordPurchase);
+        assertFalse(acc.verifyTotals());
+    }
+
+    @Test
+    void testRepairTotals() {
+        setUpAccount3Records();
+        acc.getCategories().addToCategory(new Record("stray", "dining", 20));
+        acc.getCategories().removeFromCategory(recordIncome);
+        assertFalse(acc.verifyTotals());
+
+        acc.repairTotals();
+        assertTrue(acc.verifyTotals());
+        assertEquals(44.99, acc.getBalance());
+        checkCategorySumsMatch(acc, 120, 0.01, 0, 0, 0, 0, 75);
+    }
+
+    @Test
+    void testGetRecordReturnsCopy() {
+        setUpAccount3Records();
+        Record copy = acc.getRecord(0);
+        copy.setValue(50);
+        copy.setTitle("changed");
+
+        checkRecordMatches(acc.getRecord(0), "sub", "other", 75);
+        assertEquals(44.99, acc.getBalance());
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testGetLogView() {
+        setUpAccount3Records();
+        List<Record> log = acc.getLog();
+        assertEquals(3, log.size());
+        assertEquals(recordIncome, log.get(1));
+
+        acc.removeRecord(1);
+        assertEquals(2, log.size());
+        assertEquals(recordLowerLimit, log.get(1));
+
+        try {
+            log.add(recordPurchase);
+            fail("UnsupportedOperationException should have been thrown");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testManyMutationsNoDrift() {
+        for (int i = 0; i < 1000; i++) {
+            acc.addRecord(new Record("coffee", "dining", 0.1));
+            acc.addRecord(new Record("tip", "income", 0.2));
+        }
+        for (int i = 0; i < 500; i++) {
+            acc.editRecord(i, "coffee", "dining", 0.3);
+            acc.removeRecord(acc.getLog().size() - 1);
+        }
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testCentsAreExact() {
+        for (int i = 0; i < 10; i++) {
+            acc.addRecord(new Record("dime", "income", 0.1));
+        }
+        assertEquals(100, acc.getBalanceCents());
+        assertEquals(1, acc.getBalance());
+        assertEquals(100, acc.getCategorySumCents("income"));
+
+        acc.editRecordCents(0, "quarter", "income", 25);
+        checkRecordMatches(acc.getRecord(0), "quarter", "income", 0.25);
+        assertEquals(115, acc.getBalanceCents());
+
+        acc.addRecord(Record.ofCents("gum", "shopping", 115));
+        assertEquals(0, acc.getBalanceCents());
+        assertEquals(115, acc.getCategorySumCents("shopping"));
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testRunningBalanceAndRangeSums() {
+        setUpAccount3Records();
+        assertFalse(acc.isIndexed());
+        checkRangeSums(acc);
+
+        acc.setIndexed(true);
+        assertTrue(acc.isIndexed());
+        checkRangeSums(acc);
+
+        acc.setIndexed(false);
+        assertFalse(acc.isIndexed());
+    }
+
+    @Test
+    void testOffHeapMatchesHeapAfterMutations() {
+        Account offHeap = new Account();
+        offHeap.setOffHeap(true);
+        offHeap.setIndexed(true);
+        assertTrue(offHeap.isOffHeap());
+        assertFalse(acc.isOffHeap());
+        Random random = new Random(210);
+        for (int i = 0; i < 2000; i++) {
+            String category = acc.getCategories().getCategories().get(random.nextInt(7));
+            long cents = random.nextInt(10000) + 1;
+            int operation = random.nextInt(4);
+            if (operation == 0 && !acc.isLogEmpty()) {
+                int pos = random.nextInt(acc.getLog().size());
+                acc.removeRecord(pos);
+                offHeap.removeRecord(pos);
+            } else if (operation == 1 && !acc.isLogEmpty()) {
+                int pos = random.nextInt(acc.getLog().size());
+                acc.editRecordCents(pos, "edit", category, cents);
+                offHeap.editRecordCents(pos, "edit", category, cents);
+            } else {
+                acc.addRecord(Record.ofCents("add " + i, category, cents));
+                offHeap.addRecord(Record.ofCents("add " + i, category, cents));
+            }
+        }
+        assertEquals(acc.getLog(), offHeap.getLog());
+        assertEquals(acc.getBalanceCents(), offHeap.getBalanceCents());
+        assertTrue(offHeap.verifyTotals());
+        assertEquals(acc.getRangeSumCents(0, acc.getLog().size() / 2),
+                offHeap.getRangeSumCents(0, offHeap.getLog().size() / 2));
+
+        offHeap.setOffHeap(false);
+        assertFalse(offHeap.isOffHeap());
+        assertEquals(acc.getLog(), offHeap.getLog());
+    }
+
+    @Test
+    void testIndexedMatchesScanAfterMutations() {
+        Account indexed = new Account();
+        indexed.setIndexed(true);
+        Random random = new Random(210);
+        for (int i = 0; i < 2000; i++) {
+            String category = acc.getCategories().getCategories().get(random.nextInt(7));
+            long cents = random.nextInt(10000) + 1;
+            int operation = random.nextInt(4);
+            if (operation == 0 && !acc.isLogEmpty()) {
+                int pos = random.nextInt(acc.getLog().size());
+                acc.removeRecord(pos);
+                indexed.removeRecord(pos);
+            } else if (operation == 1 && !acc.isLogEmpty()) {
+                int pos = random.nextInt(acc.getLog().size());
+                acc.editRecordCents(pos, "edit", category, cents);
+                indexed.editRecordCents(pos, "edit", category, cents);
+            } else {
+                acc.addRecord(Record.ofCents("add", category, cents));
+                indexed.addRecord(Record.ofCents("add", category, cents));
+            }
+        }
+        int size = acc.getLog().size();
+        for (int pos = 0; pos < size; pos += 7) {
+            assertEquals(acc.getBalanceCentsAfter(pos), indexed.getBalanceCentsAfter(pos));
+            assertEquals(acc.getRangeSumCents(pos / 2, pos), indexed.getRangeSumCents(pos / 2, pos));
+            assertEquals(acc.getSpendingCents(pos / 3, pos), indexed.getSpendingCents(pos / 3, pos));
+            assertEquals(acc.getCategoryRangeSumCents(3, pos / 2, size),
+                    indexed.getCategoryRangeSumCents(3, pos / 2, size));
+        }
+        assertEquals(acc.getBalanceCents(), indexed.getRangeSumCents(0, size));
+    }
+
+    @Test
+    void testRecordIds() {
+        assertEquals(0, acc.addRecord(recordIncome));
+        assertEquals(1, acc.addRecord(recordPurchase));
+        assertEquals(2, acc.addRecord(recordLowerLimit));
+
+        assertTrue(acc.removeRecordById(0));
+        assertFalse(acc.removeRecordById(0));
+        assertFalse(acc.hasRecord(0));
+        assertTrue(acc.hasRecord(2));
+        assertEquals(recordLowerLimit, acc.getRecordById(2));
+        assertNull(acc.getRecordById(0));
+        assertEquals(2, acc.getRecord(1).getId());
+
+        assertTrue(acc.editRecordById(2, "bill", "bills", 5));
+        assertFalse(acc.editRecordById(0, "bill", "bills", 5));
+        assertEquals(-8000, acc.getBalanceCents());
+        assertEquals(500, acc.getCategorySumCents("bills"));
+        assertEquals(0, acc.getCategorySumCents("income"));
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testAddRecordsBatch() {
+        acc.addRecord(recordLowerLimit);
+        long[] ids = acc.addRecords(List.of(recordIncome, recordPurchase));
+        assertArrayEquals(new long[] {1, 2}, ids);
+        assertEquals(3, acc.getLog().size());
+        assertEquals(recordPurchase, acc.getRecord(2));
+        assertEquals(4499, acc.getBalanceCents());
+        assertEquals(12000, acc.getCategorySumCents("income"));
+        assertEquals(7500, acc.getCategorySumCents("other"));
+        assertTrue(acc.verifyTotals());
+
+        assertEquals(0, acc.addRecords(new ArrayList<>()).length);
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testAddRecordsFromStore() {
+        acc.setIndexed(true);
+        acc.addRecord(recordLowerLimit);
+        RecordStore records = new RecordStore();
+        records.add(recordIncome);
+        records.add(recordPurchase);
+
+        assertEquals(1, acc.addRecords(records, records.aggregate()));
+        assertEquals(3, acc.getLog().size());
+        assertEquals(recordPurchase, acc.getRecordById(2));
+        assertEquals(4499, acc.getBalanceCents());
+        assertEquals(12000, acc.getCategorySumCents("income"));
+        assertEquals(12000 - 1, acc.getBalanceCentsAfter(1));
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testListeners() {
+        List<String> events = new ArrayList<>();
+        AccountListener listener = new AccountListener() {
+            public void recordAdded(long id, Record record) {
+                events.add("added " + id + " " + record.getTitle());
+            }
+
+            public void recordEdited(long id, Record record) {
+                events.add("edited " + id + " " + record.getCents());
+            }
+
+            public void recordRemoved(long id) {
+                events.add("removed " + id);
+            }
+
+            public void recordRestored(long id, Record record) {
+                events.add("restored " + id + " " + record.getTitle());
+            }
+
+            public void recordsChanged(Account account) {
+                events.add("changed " + account.getLog().size());
+            }
+        };
+        acc.addListener(listener);
+        acc.addRecord(recordIncome);
+        acc.addRecords(List.of(recordPurchase, recordLowerLimit));
+        acc.editRecordCentsById(0, "add", "income", 500);
+        acc.removeRecordById(1);
+        acc.restoreRecord(1, recordPurchase);
+        acc.removeIf(r -> r.getCategory().equals("bills"));
+        acc.removeIf(r -> false);
+        RecordStore records = new RecordStore();
+        records.add(recordLowerLimit);
+        acc.addRecords(records, records.aggregate());
+        acc.removeListener(listener);
+        acc.addRecord(recordIncome);
+
+        assertEquals(List.of("added 0 add", "added 1 sub", "added 2 3", "edited 0 500", "removed 1",
+                "restored 1 sub", "changed 2", "added 3 3"), events);
+    }
+
+    @Test
+    void testRemoveIf() {
+        acc.setIndexed(true);
+        setUpAccount3Records();
+        acc.addRecord(new Record("sub", "other", 10));
+
+        assertEquals(2, acc.removeIf(r -> r.getCategory().equals("other")));
+        assertEquals(2, acc.getLog().size());
+        assertEquals(recordIncome, acc.getRecord(0));
+        assertEquals(11999, acc.getBalanceCents());
+        assertEquals(0, acc.getCategorySumCents("other"));
+        assertEquals(11999, acc.getRangeSumCents(0, 2));
+        assertTrue(acc.verifyTotals());
+
+        assertEquals(0, acc.removeIf(r -> false));
+        assertEquals(2, acc.getLog().size());
+    }
+
+    @Test
+    void testRemoveFirst() {
+        acc.setIndexed(true);
+        setUpAccount3Records();
+        acc.addRecord(new Record("sub", "other", 10));
+        acc.removeRecord(1);
+
+        acc.removeFirst(2);
+        assertEquals(1, acc.getLog().size());
+        assertEquals(new Record("sub", "other", 10), acc.getRecord(0));
+        assertEquals(-1000, acc.getBalanceCents());
+        assertEquals(0, acc.getCategorySumCents("income"));
+        assertEquals(-1000, acc.getRangeSumCents(0, 1));
+        assertTrue(acc.verifyTotals());
+
+        acc.removeFirst(0);
+        assertEquals(1, acc.getLog().size());
+    }
+
+    @Test
+    void testEditWhere() {
+        acc.setIndexed(true);
+        setUpAccount3Records();
+
+        int edited = acc.editWhere(r -> !r.getCategory().equals("income"), r -> r.setCents(r.getCents() * 2));
+        assertEquals(2, edited);
+        assertEquals(12000 - 15002, acc.getBalanceCents());
+        assertEquals(15000, acc.getCategorySumCents("other"));
+        assertEquals(2, acc.getCategorySumCents("bills"));
+        assertEquals(acc.getBalanceCents(), acc.getRangeSumCents(0, 3));
+        assertEquals(15000, acc.getCategoryRangeSumCents(Categories.lookup("other"), 0, 3));
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testIndexUpdatedByBatches() {
+        Account indexed = new Account();
+        indexed.setIndexed(true);
+        for (int i = 0; i < 100; i++) {
+            Record record = Record.ofCents("r" + i, i % 3 == 0 ? "income" : "bills", i + 1);
+            acc.addRecord(record);
+            indexed.addRecord(record);
+        }
+        acc.removeRecord(10);
+        indexed.removeRecord(10);
+        assertEquals(10, acc.editWhere(r -> r.getCents() % 10 == 0, r -> r.setCategory("dining")));
+        assertEquals(10, indexed.editWhere(r -> r.getCents() % 10 == 0, r -> r.setCategory("dining")));
+        checkIndexedMatches(acc, indexed);
+
+        RecordStore records = new RecordStore();
+        for (int i = 0; i < 20; i++) {
+            records.add(Record.ofCents("s" + i, i % 2 == 0 ? "income" : "dining", 100 + i));
+        }
+        acc.addRecords(records.asList());
+        indexed.addRecords(records, records.aggregate());
+        checkIndexedMatches(acc, indexed);
+
+        assertEquals(99, acc.editWhere(r -> !r.getCategory().equals("dining"), r -> r.setCents(1)));
+        assertEquals(99, indexed.editWhere(r -> !r.getCategory().equals("dining"), r -> r.setCents(1)));
+        checkIndexedMatches(acc, indexed);
+    }
+
+    @Test
+    void testGetTotals() {
+        assertTrue(acc.getTotals().isLogEmpty());
+        acc.addRecord(recordPurchase);
+        acc.addRecord(recordIncome);
+        AccountTotals totals = acc.getTotals();
+
+        acc.addRecord(recordLowerLimit);
+        acc.removeRecord(1);
+        assertFalse(totals.isLogEmpty());
+        assertEquals(4500, totals.getBalanceCents());
+        assertEquals(12000, totals.getCategorySumCents(Categories.INCOME));
+        assertEquals(7500, totals.getCategorySumCents(Categories.lookup("other")));
+        assertEquals(0, totals.getCategorySumCents(Categories.lookup("bills")));
+        assertEquals(acc.getCategories().getCategories(), totals.getCategories());
+    }
+
+    @Test
+    void testIndexedMatchesScanAfterMutationsById() {
+        Account indexed = new Account();
+        indexed.setIndexed(true);
+        List<Long> ids = new ArrayList<>();
+        Random random = new Random(210);
+        for (int i = 0; i < 2000; i++) {
+            String category = acc.getCategories().getCategories().get(random.nextInt(7));
+            long cents = random.nextInt(10000) + 1;
+            int operation = random.nextInt(3);
+            if (operation == 0 && !ids.isEmpty()) {
+                long id = ids.remove(random.nextInt(ids.size()));
+                assertTrue(acc.removeRecordById(id));
+                assertTrue(indexed.removeRecordById(id));
+            } else if (operation == 1 && !ids.isEmpty()) {
+                long id = ids.get(random.nextInt(ids.size()));
+                assertTrue(acc.editRecordCentsById(id, "edit", category, cents));
+                assertTrue(indexed.editRecordCentsById(id, "edit", category, cents));
+            } else {
+                ids.add(acc.addRecord(Record.ofCents("add", category, cents)));
+                indexed.addRecord(Record.ofCents("add", category, cents));
+            }
+            assertEquals(acc.getBalanceCents(), indexed.getRangeSumCents(0, ids.size()));
+        }
+        assertTrue(acc.verifyTotals());
+        for (int pos = 0; pos < ids.size(); pos += 7) {
+            assertEquals(acc.getBalanceCentsAfter(pos), indexed.getBalanceCentsAfter(pos));
+        }
+    }
+
     @Test
     void testGetCategorySum() {
         setUpAccount3Records();
@@ -237,6 +635,30 @@ class AccountTest {
         checkCategorySumsMatch(acc, 120, 0.01, 0, 0, 0, 0, 75);
     }
 
+    private void checkRangeSums(Account acc) {
+        assertEquals(-7500, acc.getBalanceCentsAfter(0));
+        assertEquals(4500, acc.getBalanceCentsAfter(1));
+        assertEquals(4499, acc.getBalanceCentsAfter(2));
+        assertEquals(11999, acc.getRangeSumCents(1, 3));
+        assertEquals(0, acc.getRangeSumCents(1, 1));
+        assertEquals(7501, acc.getSpendingCents(0, 3));
+        assertEquals(1, acc.getSpendingCents(1, 3));
+        assertEquals(12000, acc.getCategoryRangeSumCents(Categories.INCOME, 0, 2));
+        assertEquals(0, acc.getCategoryRangeSumCents(Categories.INCOME, 2, 3));
+    }
+
+    private void checkIndexedMatches(Account scanned, Account indexed) {
+        int size = scanned.getLog().size();
+        assertEquals(size, indexed.getLog().size());
+        for (int pos = 0; pos < size; pos += 3) {
+            assertEquals(scanned.getBalanceCentsAfter(pos), indexed.getBalanceCentsAfter(pos));
+            assertEquals(scanned.getRangeSumCents(pos / 2, pos), indexed.getRangeSumCents(pos / 2, pos));
+            assertEquals(scanned.getCategoryRangeSumCents(Categories.lookup("dining"), pos / 3, size),
+                    indexed.getCategoryRangeSumCents(Categories.lookup("dining"), pos / 3, size));
+        }
+        assertTrue(indexed.verifyTotals());
+    }
+
     private void checkRecordMatches(Record rec, String expectedTitle, String expectedCategory, double expectedValue) {
         assertEquals(expectedTitle, rec.getTitle());
         assertEquals(expectedCategory, rec.getCategory());
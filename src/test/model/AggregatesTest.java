@@ -0,0 +1,66 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AggregatesTest {
+    static final int BILLS = Categories.lookup("bills");
+
+    Aggregates aggregates;
+
+    @BeforeEach
+    void runBefore() {
+        aggregates = new Aggregates();
+    }
+
+    @Test
+    void testConstructor() {
+        assertTrue(aggregates.isZero());
+        assertEquals(0, aggregates.getBalanceCents());
+        assertEquals(0, aggregates.getCategorySumCents(Categories.INCOME));
+        assertEquals(0, aggregates.getCategorySumCents(Categories.count() + 5));
+    }
+
+    @Test
+    void testAddAndRemove() {
+        aggregates.add(Categories.INCOME, 10000);
+        aggregates.add(BILLS, 2500);
+        assertFalse(aggregates.isZero());
+        assertEquals(7500, aggregates.getBalanceCents());
+        assertEquals(10000, aggregates.getCategorySumCents(Categories.INCOME));
+        assertEquals(2500, aggregates.getCategorySumCents(BILLS));
+
+        aggregates.remove(BILLS, 2500);
+        aggregates.remove(Categories.INCOME, 10000);
+        assertTrue(aggregates.isZero());
+    }
+
+    @Test
+    void testMerge() {
+        int id = Categories.intern("aggregates merge category");
+        Aggregates other = new Aggregates();
+        other.add(id, 200);
+        other.add(Categories.INCOME, 1000);
+        aggregates.add(BILLS, 300);
+
+        aggregates.merge(other);
+        assertEquals(500, aggregates.getBalanceCents());
+        assertEquals(200, aggregates.getCategorySumCents(id));
+        assertEquals(1000, aggregates.getCategorySumCents(Categories.INCOME));
+        assertEquals(300, aggregates.getCategorySumCents(BILLS));
+        assertEquals(200, other.getCategorySumCents(id));
+    }
+
+    @Test
+    void testNewCategory() {
+        int id = Categories.intern("aggregates test category");
+        aggregates.add(id, 300);
+        assertEquals(-300, aggregates.getBalanceCents());
+        assertEquals(300, aggregates.getCategorySumCents(id));
+    }
+
+}
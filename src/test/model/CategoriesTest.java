@@ -0,0 +1,48 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CategoriesTest {
+
+    @Test
+    void testDefaults() {
+        assertEquals(7, Categories.DEFAULT_COUNT);
+        assertTrue(Categories.count() >= Categories.DEFAULT_COUNT);
+        assertEquals(Categories.INCOME, Categories.lookup("income"));
+        for (int id = 0; id < Categories.DEFAULT_COUNT; id++) {
+            String category = Categories.defaults().get(id);
+            assertEquals(category, Categories.nameOf(id));
+            assertEquals(id, Categories.lookup(category));
+            assertEquals(id, Categories.intern(category));
+        }
+    }
+
+    @Test
+    void testInternNewCategory() {
+        assertEquals(Categories.NOT_FOUND, Categories.lookup("categories test"));
+
+        int id = Categories.intern("categories test");
+        assertTrue(id >= Categories.DEFAULT_COUNT);
+        assertEquals(id, Categories.intern(new String("categories test")));
+        assertEquals(id, Categories.lookup("categories test"));
+        assertEquals("categories test", Categories.nameOf(id));
+        assertTrue(Categories.count() > id);
+    }
+
+    @Test
+    void testLookupBytes() {
+        byte[] bytes = "title,dining,10,caf\u00e9 test".getBytes(StandardCharsets.UTF_8);
+        assertEquals(Categories.lookup("dining"), Categories.lookup(bytes, 6, 12));
+        assertEquals(Categories.NOT_FOUND, Categories.lookup(bytes, 0, 5));
+        assertEquals(Categories.NOT_FOUND, Categories.lookup(bytes, 6, 11));
+
+        int id = Categories.intern("caf\u00e9 test");
+        assertEquals(id, Categories.lookup(bytes, 16, bytes.length));
+    }
+
+}
@@ -4,9 +4,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 public class CategoryInfoTest {
     CategoryInfo cat;
@@ -53,6 +57,99 @@ public class CategoryInfoTest {
         checkCategorySumsMatch(120, 0.01, 0, 0, 0, 0, 75);
     }
 
+    @Test
+    void testAddAndRemoveFromCategory() {
+        cat.addToCategory(recordPurchase);
+        cat.addToCategory(recordIncome);
+        cat.addToCategory(recordLowerLimit);
+        checkCategorySumsMatch(120, 0.01, 0, 0, 0, 0, 75);
+
+        cat.removeFromCategory(recordIncome);
+        checkCategorySumsMatch(0, 0.01, 0, 0, 0, 0, 75);
+
+        cat.addToCategory(new Record("unknown", "not a category", 10));
+        assertEquals(7, cat.getCategoriesHashMap().size());
+        checkCategorySumsMatch(0, 0.01, 0, 0, 0, 0, 75);
+    }
+
+    @Test
+    void testVerifyCategories() {
+        assertTrue(cat.verifyCategories());
+
+        acc.addRecord(recordPurchase);
+        assertFalse(cat.verifyCategories());
+
+        cat.addToCategory(recordPurchase);
+        assertTrue(cat.verifyCategories());
+    }
+
+    @Test
+    void testApplyDelta() {
+        Aggregates delta = new Aggregates();
+        delta.add(Categories.INCOME, 12000);
+        delta.add(Categories.lookup("other"), 7500);
+        delta.add(Categories.intern("not tracked by category info"), 100);
+        Map<String, Long> before = cat.getCategoriesHashMap();
+        cat.applyDelta(delta);
+        checkCategorySumsMatch(120, 0, 0, 0, 0, 0, 75);
+        assertEquals(7, cat.getCategoriesHashMap().size());
+        assertEquals(0, before.get("income"));
+
+        delta.remove(Categories.INCOME, 24000);
+        cat.applyDelta(delta);
+        checkCategorySumsMatch(0, 0, 0, 0, 0, 0, 150);
+    }
+
+    @Test
+    void testSetTotalsAndMatches() {
+        Aggregates aggregates = new Aggregates();
+        aggregates.add(Categories.INCOME, 12000);
+        aggregates.add(Categories.lookup("bills"), 1);
+        assertFalse(cat.matches(aggregates));
+
+        cat.setTotals(aggregates);
+        checkCategorySumsMatch(120, 0.01, 0, 0, 0, 0, 0);
+        assertTrue(cat.matches(aggregates));
+    }
+
+    @Test
+    void testGetCategorySumCentsById() {
+        assertEquals(7, cat.size());
+        cat.addToCategory(recordIncome);
+        cat.addToCategory(recordLowerLimit);
+        assertEquals(12000, cat.getCategorySumCents(Categories.INCOME));
+        assertEquals(1, cat.getCategorySumCents(Categories.lookup("bills")));
+        assertEquals(0, cat.getCategorySumCents(Categories.lookup("other")));
+    }
+
+    @Test
+    void testCategoriesHashMapView() {
+        Map<String, Long> before = cat.getCategoriesHashMap();
+        assertEquals(0L, before.get("other"));
+        assertSame(before, cat.getCategoriesHashMap());
+
+        cat.addToCategory(recordPurchase);
+        Map<String, Long> after = cat.getCategoriesHashMap();
+        assertEquals(7, after.size());
+        assertEquals(7500L, after.get("other"));
+        assertEquals(0L, after.get("income"));
+
+        try {
+            after.put("other", 0L);
+            fail("UnsupportedOperationException should have been thrown");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testUpdateCategoryNotTracked() {
+        acc.addRecord(new Record("unknown", "not tracked", 10));
+        cat.updateCategory("not tracked");
+        cat.updateCategory("never seen");
+        checkCategorySumsMatch(0, 0, 0, 0, 0, 0, 0);
+    }
+
     @Test
     void testIterator() {
         int total = 0;
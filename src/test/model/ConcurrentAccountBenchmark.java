@@ -0,0 +1,59 @@
+package model;
+
+import java.util.function.Consumer;
+
+// Measures how adding records to a ConcurrentAccount scales with the number of threads:
+// for 1, 2, 4, ... up to the number of available processors (or the first argument),
+// each thread adds RECORDS / threads records and the throughput is printed;
+// a synchronized plain Account is measured the same way for comparison.
+// Only a run on a machine with several processors says anything about scaling: on a single processor
+// the threads take turns, and the numbers measure locking overhead alone
+public class ConcurrentAccountBenchmark {
+    private static final int RECORDS = 4_000_000;
+    private static final int ROUNDS = 3;
+
+    // EFFECTS:  runs the benchmark and prints records added per second for each thread count
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        System.out.println("threads, concurrent (records/s), synchronized (records/s)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long concurrent = 0;
+            long locked = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                ConcurrentAccount concurrentAccount = new ConcurrentAccount();
+                concurrent = Math.max(concurrent, run(threads, concurrentAccount::addRecord));
+                Account account = new Account();
+                locked = Math.max(locked, run(threads, record -> {
+                    synchronized (account) {
+                        account.addRecord(record);
+                    }
+                }));
+            }
+            System.out.println(threads + ", " + concurrent + ", " + locked);
+        }
+    }
+
+    // EFFECTS:  adds RECORDS records with adder, split evenly across threads,
+    //           and returns the number of records added per second
+    private static long run(int threads, Consumer<Record> adder) throws InterruptedException {
+        int perThread = RECORDS / threads;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    adder.accept(Record.ofCents("record", i % Categories.DEFAULT_COUNT, i % 10000 + 1));
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        return perThread * (long) threads * 1_000_000_000L / elapsed;
+    }
+
+}
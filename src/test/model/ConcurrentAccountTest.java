@@ -0,0 +1,151 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class ConcurrentAccountTest {
+    static final int THREADS = 8;
+    static final int RECORDS_PER_THREAD = 5000;
+
+    ConcurrentAccount acc;
+
+    @BeforeEach
+    void runBefore() {
+        acc = new ConcurrentAccount(4);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, acc.size());
+        assertEquals(0, acc.getBalanceCents());
+        assertEquals(0, acc.getCategorySumCents("income"));
+        assertEquals(0, acc.toAccount().getLog().size());
+    }
+
+    @Test
+    void testAddRecord() {
+        assertEquals(0, acc.addRecord(new Record("pay", "income", 120)));
+        assertEquals(1, acc.addRecord(new Record("sub", "other", 75)));
+        assertEquals(2, acc.size());
+        assertEquals(4500, acc.getBalanceCents());
+        assertEquals(7500, acc.getCategorySumCents("other"));
+        assertEquals(0, acc.getCategorySumCents("no such category in concurrent test"));
+
+        Account account = acc.toAccount();
+        assertEquals(new Record("pay", "income", 120), account.getRecord(0));
+        assertEquals(1, account.getRecord(1).getId());
+        assertEquals(4500, account.getBalanceCents());
+    }
+
+    @Test
+    void testNewCategory() {
+        acc.addRecord(Record.ofCents("gym", "concurrent test category", 300));
+        assertEquals(-300, acc.getBalanceCents());
+        assertEquals(300, acc.getCategorySumCents("concurrent test category"));
+    }
+
+    @Test
+    void testManyThreads() throws InterruptedException {
+        AtomicBoolean done = new AtomicBoolean();
+        List<String> inconsistencies = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            long lastIncome = 0;
+            while (!done.get()) {
+                long income = acc.getCategorySumCents("income");
+                if (income < lastIncome) {
+                    inconsistencies.add(income + " read after " + lastIncome);
+                }
+                lastIncome = income;
+            }
+        });
+        reader.start();
+        runWriters();
+        done.set(true);
+        reader.join();
+
+        assertTrue(inconsistencies.isEmpty(), inconsistencies.toString());
+        assertEquals(THREADS * RECORDS_PER_THREAD, acc.size());
+        Account account = acc.toAccount();
+        assertTrue(account.verifyTotals());
+        assertEquals(account.getBalanceCents(), acc.getBalanceCents());
+        checkEachThreadInOrder(account);
+    }
+
+    @Test
+    void testTotalsReadAtSingleMoment() throws InterruptedException {
+        AtomicBoolean done = new AtomicBoolean();
+        List<String> inconsistencies = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                Aggregates totals = acc.getTotals();
+                long balance = totals.getBalanceCents();
+                if (balance < 0 || balance > THREADS * 100) {
+                    inconsistencies.add("balance " + balance);
+                }
+            }
+        });
+        reader.start();
+        Thread[] writers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    acc.addRecord(Record.ofCents("pay", "income", 100));
+                    acc.addRecord(Record.ofCents("rent", "bills", 100));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        done.set(true);
+        reader.join();
+
+        assertTrue(inconsistencies.isEmpty(), inconsistencies.toString());
+        assertEquals(0, acc.getBalanceCents());
+        assertEquals(THREADS * RECORDS_PER_THREAD * 100L, acc.getCategorySumCents("bills"));
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    // MODIFIES: this
+    // EFFECTS:  adds RECORDS_PER_THREAD records from each of THREADS threads at once;
+    //           each thread alternates between income and bills, with values 1, 2, 3, ... cents
+    private void runWriters() throws InterruptedException {
+        Thread[] writers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            String title = "thread " + t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    acc.addRecord(Record.ofCents(title, i % 2 == 0 ? "income" : "bills", i + 1));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+    }
+
+    private void checkEachThreadInOrder(Account account) {
+        long[] lastValue = new long[THREADS];
+        for (Record record : account.getLog()) {
+            int thread = Integer.parseInt(record.getTitle().substring("thread ".length()));
+            if (record.getCents() != lastValue[thread] + 1) {
+                fail("records of " + record.getTitle() + " out of order");
+            }
+            lastValue[thread] = record.getCents();
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FenwickTreeTest {
+    FenwickTree tree;
+
+    @BeforeEach
+    void runBefore() {
+        tree = new FenwickTree();
+    }
+
+    @Test
+    void testEmpty() {
+        assertEquals(0, tree.size());
+        assertEquals(0, tree.prefixSum(0));
+    }
+
+    @Test
+    void testAppendAndPrefixSum() {
+        tree.append(5);
+        tree.append(-2);
+        tree.append(10);
+        assertEquals(3, tree.size());
+        assertEquals(0, tree.prefixSum(0));
+        assertEquals(5, tree.prefixSum(1));
+        assertEquals(3, tree.prefixSum(2));
+        assertEquals(13, tree.prefixSum(3));
+        assertEquals(8, tree.rangeSum(1, 3));
+    }
+
+    @Test
+    void testAdd() {
+        tree.append(5);
+        tree.append(-2);
+        tree.append(10);
+        tree.add(1, 4);
+        assertEquals(7, tree.prefixSum(2));
+        assertEquals(12, tree.rangeSum(1, 3));
+    }
+
+    @Test
+    void testBuildMatchesAppend() {
+        Random random = new Random(210);
+        long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(2001) - 1000;
+            tree.append(values[i]);
+        }
+        FenwickTree built = new FenwickTree(values, values.length);
+        long sum = 0;
+        for (int i = 0; i <= values.length; i++) {
+            assertEquals(sum, tree.prefixSum(i));
+            assertEquals(sum, built.prefixSum(i));
+            if (i < values.length) {
+                sum += values[i];
+            }
+        }
+    }
+
+    @Test
+    void testSelect() {
+        long[] ones = {1, 0, 1, 1, 0, 0, 1};
+        FenwickTree live = new FenwickTree(ones, ones.length);
+        assertEquals(0, live.select(1));
+        assertEquals(2, live.select(2));
+        assertEquals(3, live.select(3));
+        assertEquals(6, live.select(4));
+
+        live.add(2, -1);
+        assertEquals(3, live.select(2));
+    }
+
+}
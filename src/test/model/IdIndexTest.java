@@ -0,0 +1,71 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IdIndexTest {
+    IdIndex index;
+
+    @BeforeEach
+    void runBefore() {
+        index = new IdIndex();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, index.size());
+        assertEquals(-1, index.get(0));
+    }
+
+    @Test
+    void testPutAndGet() {
+        index.put(0, 5);
+        index.put(7, 2);
+        assertEquals(2, index.size());
+        assertEquals(5, index.get(0));
+        assertEquals(2, index.get(7));
+        assertEquals(-1, index.get(1));
+
+        index.put(7, 9);
+        assertEquals(2, index.size());
+        assertEquals(9, index.get(7));
+    }
+
+    @Test
+    void testRemove() {
+        index.put(3, 0);
+        index.put(4, 1);
+        index.remove(3);
+        index.remove(10);
+        assertEquals(1, index.size());
+        assertEquals(-1, index.get(3));
+        assertEquals(1, index.get(4));
+    }
+
+    @Test
+    void testManyMatchesHashMap() {
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(210);
+        for (int i = 0; i < 20000; i++) {
+            long id = random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                index.put(id, i);
+                expected.put(id, i);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (long id = 0; id < 3000; id++) {
+            assertEquals(expected.getOrDefault(id, -1).intValue(), index.get(id));
+        }
+    }
+
+}
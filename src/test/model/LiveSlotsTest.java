@@ -0,0 +1,81 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LiveSlotsTest {
+    LiveSlots liveSlots;
+
+    @BeforeEach
+    void runBefore() {
+        liveSlots = new LiveSlots();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, liveSlots.size());
+        assertEquals(0, liveSlots.rank(0));
+    }
+
+    @Test
+    void testAppendAndSet() {
+        liveSlots.append(true);
+        liveSlots.append(false);
+        liveSlots.append(true);
+        assertEquals(3, liveSlots.size());
+        assertTrue(liveSlots.isLive(0));
+        assertFalse(liveSlots.isLive(1));
+        assertEquals(2, liveSlots.select(2));
+
+        liveSlots.set(1, true);
+        liveSlots.set(1, true);
+        liveSlots.set(0, false);
+        assertTrue(liveSlots.isLive(1));
+        assertFalse(liveSlots.isLive(0));
+        assertEquals(1, liveSlots.select(1));
+        assertEquals(2, liveSlots.rank(3));
+    }
+
+    @Test
+    void testSelectAndRankAcrossPages() {
+        int count = PagedColumns.PAGE_SIZE * 5 + 70;
+        for (int slot = 0; slot < count; slot++) {
+            liveSlots.append(slot % 3 != 0);
+        }
+        int live = 0;
+        for (int slot = 0; slot < count; slot++) {
+            assertEquals(live, liveSlots.rank(slot));
+            if (slot % 3 != 0) {
+                live++;
+                assertEquals(slot, liveSlots.select(live));
+            }
+        }
+        assertEquals(live, liveSlots.rank(count));
+    }
+
+    @Test
+    void testShareCopiesOnWrite() {
+        int count = PagedColumns.PAGE_SIZE * 2 + 1;
+        for (int slot = 0; slot < count; slot++) {
+            liveSlots.append(true);
+        }
+        LiveSlots shared = liveSlots.share();
+
+        liveSlots.set(5, false);
+        liveSlots.set(PagedColumns.PAGE_SIZE + 5, false);
+        liveSlots.append(false);
+        assertEquals(count - 2, liveSlots.rank(count + 1));
+        assertFalse(liveSlots.isLive(PagedColumns.PAGE_SIZE + 5));
+
+        assertEquals(count, shared.size());
+        assertEquals(count, shared.rank(count));
+        assertTrue(shared.isLive(5));
+        assertTrue(shared.isLive(PagedColumns.PAGE_SIZE + 5));
+        assertEquals(PagedColumns.PAGE_SIZE + 5, shared.select(PagedColumns.PAGE_SIZE + 6));
+    }
+
+}
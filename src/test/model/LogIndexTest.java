@@ -0,0 +1,90 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LogIndexTest {
+    static final int BILLS = Categories.lookup("bills");
+    static final int OTHER = Categories.lookup("other");
+
+    RecordStore store;
+    LogIndex index;
+
+    @BeforeEach
+    void runBefore() {
+        store = new RecordStore();
+        store.add(Record.ofCents("pay", Categories.INCOME, 10000));
+        store.add(Record.ofCents("rent", BILLS, 4000));
+        store.add(Record.ofCents("gift", OTHER, 1500));
+        index = new LogIndex(store);
+    }
+
+    @Test
+    void testBuild() {
+        assertEquals(3, index.size());
+        assertEquals(0, index.netBefore(0));
+        assertEquals(10000, index.netBefore(1));
+        assertEquals(6000, index.netBefore(2));
+        assertEquals(4500, index.netBefore(3));
+        assertEquals(4000, index.categoryBefore(BILLS, 3));
+        assertEquals(0, index.categoryBefore(Categories.lookup("dining"), 3));
+    }
+
+    @Test
+    void testAppend() {
+        index.append(Categories.lookup("dining"), 500);
+        assertEquals(4, index.size());
+        assertEquals(4000, index.netBefore(4));
+        assertEquals(500, index.categoryBefore(Categories.lookup("dining"), 4));
+        assertEquals(0, index.categoryBefore(Categories.lookup("dining"), 3));
+    }
+
+    @Test
+    void testEdit() {
+        index.edit(1, BILLS, 4000, Categories.INCOME, 100);
+        assertEquals(10100, index.netBefore(2));
+        assertEquals(0, index.categoryBefore(BILLS, 3));
+        assertEquals(10100, index.categoryBefore(Categories.INCOME, 3));
+    }
+
+    @Test
+    void testRemove() {
+        index.remove(1, BILLS, 4000);
+        assertEquals(2, index.size());
+        assertEquals(10000, index.netBefore(1));
+        assertEquals(8500, index.netBefore(2));
+        assertEquals(0, index.categoryBefore(BILLS, 2));
+
+        index.remove(0, Categories.INCOME, 10000);
+        assertEquals(1, index.size());
+        assertEquals(-1500, index.netBefore(1));
+    }
+
+    @Test
+    void testRestore() {
+        index.remove(1, BILLS, 4000);
+        index.restore(1, BILLS, 2000);
+        assertEquals(3, index.size());
+        assertEquals(8000, index.netBefore(2));
+        assertEquals(2000, index.categoryBefore(BILLS, 3));
+    }
+
+    @Test
+    void testBuildSkipsTombstones() {
+        store.add(Record.ofCents("snack", OTHER, 200));
+        store.removeById(1);
+        assertEquals(4, store.slotCount());
+        index = new LogIndex(store);
+        assertEquals(3, index.size());
+        assertEquals(10000, index.netBefore(1));
+        assertEquals(8500, index.netBefore(2));
+        assertEquals(8300, index.netBefore(3));
+        assertEquals(0, index.categoryBefore(BILLS, 3));
+
+        index.remove(store.slotOf(2), OTHER, 1500);
+        assertEquals(9800, index.netBefore(2));
+    }
+
+}
@@ -0,0 +1,108 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class MoneyTest {
+
+    @Test
+    void testToCents() {
+        assertEquals(1, Money.toCents(0.01));
+        assertEquals(15534, Money.toCents(155.34));
+        assertEquals(-7500, Money.toCents(-75));
+        assertEquals(30, Money.toCents(0.1 + 0.2));
+    }
+
+    @Test
+    void testToDollars() {
+        assertEquals(0.01, Money.toDollars(1));
+        assertEquals(44.99, Money.toDollars(4499));
+        assertEquals(-75, Money.toDollars(-7500));
+    }
+
+    @Test
+    void testParseCents() {
+        assertEquals(10000, Money.parseCents("100"));
+        assertEquals(10000, Money.parseCents("100.00"));
+        assertEquals(2350, Money.parseCents("23.5"));
+        assertEquals(2300, Money.parseCents("23.0"));
+        assertEquals(1, Money.parseCents("0.01"));
+        assertEquals(50, Money.parseCents(".5"));
+        assertEquals(-1205, Money.parseCents("-12.05"));
+        assertEquals(1205, Money.parseCents("+12.05"));
+        assertEquals(1250, Money.parseCents(" 12.50\t"));
+    }
+
+    @Test
+    void testParseCentsSlowPath() {
+        assertEquals(101, Money.parseCents("1.005"));
+        assertEquals(100, Money.parseCents("1.004"));
+        assertEquals(1000000000, Money.parseCents("1.0E7"));
+        assertEquals(123456789012345678L, Money.parseCents("1234567890123456.78"));
+    }
+
+    @Test
+    void testParseCentsNotANumber() {
+        checkNotANumber("");
+        checkNotANumber("-");
+        checkNotANumber("12.0a");
+        checkNotANumber("twelve");
+    }
+
+    @Test
+    void testParseCentsFromBytes() {
+        byte[] bytes = "x,-12.05,100,1.005,12.0a".getBytes(StandardCharsets.UTF_8);
+        assertEquals(-1205, Money.parseCents(bytes, 2, 8));
+        assertEquals(10000, Money.parseCents(bytes, 9, 12));
+        assertEquals(101, Money.parseCents(bytes, 13, 18));
+        byte[] padded = "12.50 , 12.50,\t-3\r".getBytes(StandardCharsets.UTF_8);
+        assertEquals(1250, Money.parseCents(padded, 0, 6));
+        assertEquals(1250, Money.parseCents(padded, 7, 13));
+        assertEquals(-300, Money.parseCents(padded, 14, 18));
+        try {
+            Money.parseCents(bytes, 19, 24);
+            fail("NumberFormatException should have been thrown");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+        try {
+            Money.parseCents(padded, 5, 7);
+            fail("NumberFormatException should have been thrown");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+        try {
+            Money.parseCents(bytes, 2, 2);
+            fail("NumberFormatException should have been thrown");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.01", Money.format(1));
+        assertEquals("12.05", Money.format(1205));
+        assertEquals("-12.50", Money.format(-1250));
+        assertEquals("100.00", Money.format(10000));
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private void checkNotANumber(String amount) {
+        try {
+            Money.parseCents(amount);
+            fail("NumberFormatException should have been thrown");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+}
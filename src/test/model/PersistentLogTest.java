@@ -0,0 +1,120 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class PersistentLogTest {
+    PersistentLog log;
+
+    @BeforeEach
+    void runBefore() {
+        log = PersistentLog.empty()
+                .put(0, new Record("pay", "income", 100))
+                .put(1, new Record("lunch", "dining", 12.05))
+                .put(2, new Record("rent", "bills", 50));
+    }
+
+    @Test
+    void testEmpty() {
+        PersistentLog empty = PersistentLog.empty();
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.getBalanceCents());
+        assertEquals(0, empty.asList().size());
+        assertNull(empty.get(0));
+    }
+
+    @Test
+    void testPutAndGet() {
+        assertEquals(3, log.size());
+        assertEquals(3795, log.getBalanceCents());
+        assertEquals(new Record("lunch", "dining", 12.05), log.get(1));
+        assertEquals(1, log.get(1).getId());
+        assertEquals(new Record("rent", "bills", 50), log.getAt(2));
+        assertTrue(log.contains(2));
+        assertFalse(log.contains(3));
+
+        PersistentLog edited = log.put(1, new Record("dinner", "dining", 30));
+        assertEquals(3, edited.size());
+        assertEquals(new Record("dinner", "dining", 30), edited.get(1));
+        assertEquals(new Record("lunch", "dining", 12.05), log.get(1));
+    }
+
+    @Test
+    void testRemoveKeepsOldVersion() {
+        PersistentLog removed = log.remove(1);
+        assertEquals(2, removed.size());
+        assertEquals(5000, removed.getBalanceCents());
+        assertEquals(new Record("rent", "bills", 50), removed.getAt(1));
+        assertEquals(3, log.size());
+        assertEquals(3795, log.getBalanceCents());
+        assertSame(removed, removed.remove(1));
+    }
+
+    @Test
+    void testBalanceBefore() {
+        assertEquals(0, log.getBalanceCentsBefore(0));
+        assertEquals(10000, log.getBalanceCentsBefore(1));
+        assertEquals(8795, log.getBalanceCentsBefore(2));
+        assertEquals(3795, log.getBalanceCentsBefore(3));
+    }
+
+    @Test
+    void testOfAndAsList() {
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Record record = Record.ofCents("record " + i, "income", i + 1);
+            record.setId(i * 2);
+            records.add(record);
+        }
+        PersistentLog built = PersistentLog.of(records);
+        assertEquals(records, built.asList());
+        assertEquals(5050, built.getBalanceCents());
+        assertEquals(Record.ofCents("record 7", "income", 8), built.get(14));
+        try {
+            built.asList().get(100);
+            fail("IndexOutOfBoundsException should have been thrown");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testManyChangesMatchTreeMap() {
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random random = new Random(210);
+        PersistentLog changed = PersistentLog.empty();
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                changed = changed.remove(id);
+                expected.remove(id);
+            } else {
+                long cents = random.nextInt(10000) + 1;
+                changed = changed.put(id, Record.ofCents("r", Categories.INCOME, cents));
+                expected.put(id, cents);
+            }
+        }
+        assertEquals(expected.size(), changed.size());
+        int pos = 0;
+        long sum = 0;
+        for (long id : expected.keySet()) {
+            assertEquals(id, changed.getAt(pos).getId());
+            sum += expected.get(id);
+            pos++;
+            assertEquals(sum, changed.getBalanceCentsBefore(pos));
+        }
+    }
+
+}
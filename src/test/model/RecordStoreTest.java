@@ -0,0 +1,564 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class RecordStoreTest {
+    RecordStore store;
+
+    @BeforeEach
+    void runBefore() {
+        store = new RecordStore();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, store.size());
+        assertEquals(0, store.asList().size());
+        assertEquals(0, store.sumBalance());
+        assertEquals(0, store.sumCategory(Categories.INCOME));
+    }
+
+    @Test
+    void testAddAndGet() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        assertEquals(2, store.size());
+        assertEquals(new Record("pay", "income", 100), store.get(0));
+        assertEquals(new Record("lunch", "dining", 12.05), store.get(1));
+    }
+
+    @Test
+    void testAddManyGrows() {
+        for (int i = 0; i < 1000; i++) {
+            store.add(Record.ofCents("record " + i, i % 2 == 0 ? "income" : "bills", i + 1));
+        }
+        assertEquals(1000, store.size());
+        assertEquals(Record.ofCents("record 999", "bills", 1000), store.get(999));
+        assertEquals(-500, store.sumBalance());
+        assertEquals(250000, store.sumCategory(Categories.INCOME));
+        assertEquals(250500, store.sumCategory(Categories.lookup("bills")));
+    }
+
+    @Test
+    void testSet() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        store.set(0, new Record("bonus", "income", 50));
+        store.set(1, new Record("dinner", "other", 30));
+
+        assertEquals(new Record("bonus", "income", 50), store.get(0));
+        assertEquals(new Record("dinner", "other", 30), store.get(1));
+        assertEquals(0, store.sumCategory(Categories.lookup("dining")));
+        assertEquals(2000, store.sumBalance());
+    }
+
+    @Test
+    void testRepeatedEditsCompactTitles() {
+        store.add(new Record("first", "income", 1));
+        store.add(new Record("second", "bills", 2));
+        for (int i = 0; i < 500; i++) {
+            store.set(0, new Record("title number " + i, "income", 1));
+        }
+        assertEquals("title number 499", store.get(0).getTitle());
+        assertEquals("second", store.get(1).getTitle());
+    }
+
+    @Test
+    void testRemove() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        store.add(new Record("rent", "bills", 50));
+
+        store.remove(1);
+        assertEquals(2, store.size());
+        assertEquals(new Record("pay", "income", 100), store.get(0));
+        assertEquals(new Record("rent", "bills", 50), store.get(1));
+
+        store.remove(1);
+        store.remove(0);
+        assertEquals(0, store.size());
+        assertEquals(0, store.sumBalance());
+    }
+
+    @Test
+    void testIds() {
+        assertEquals(0, store.add(new Record("pay", "income", 100)));
+        assertEquals(1, store.add(new Record("lunch", "dining", 12.05)));
+        assertEquals(1, store.get(1).getId());
+        assertEquals(1, store.idAt(1));
+        assertTrue(store.contains(0));
+        assertFalse(store.contains(2));
+        assertEquals(new Record("lunch", "dining", 12.05), store.getById(1));
+        assertNull(store.getById(2));
+
+        assertTrue(store.setById(0, new Record("bonus", "income", 50)));
+        assertFalse(store.setById(2, new Record("bonus", "income", 50)));
+        assertEquals(0, store.getById(0).getId());
+        assertEquals("bonus", store.get(0).getTitle());
+    }
+
+    @Test
+    void testRemoveByIdLeavesTombstone() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        store.add(new Record("rent", "bills", 50));
+        int generation = store.getGeneration();
+
+        assertTrue(store.removeById(1));
+        assertFalse(store.removeById(1));
+        assertEquals(2, store.size());
+        assertEquals(3, store.slotCount());
+        assertEquals(RecordStore.TOMBSTONE, store.categoryIdAtSlot(1));
+        assertEquals(5000, store.sumBalance());
+        assertEquals(0, store.sumCategory(Categories.lookup("dining")));
+        assertEquals(2, store.slotOf(2));
+        assertEquals(generation, store.getGeneration());
+
+        assertEquals(new Record("rent", "bills", 50), store.get(1));
+        assertEquals(2, store.idAt(1));
+        assertEquals(3, store.slotCount());
+        assertEquals(generation, store.getGeneration());
+
+        compact(store);
+        assertEquals(2, store.slotCount());
+        assertEquals(1, store.slotOf(2));
+        assertEquals(2, store.idAt(1));
+        assertEquals(generation + 1, store.getGeneration());
+    }
+
+    @Test
+    void testPositionsAfterRemovals() {
+        for (int i = 0; i < 10; i++) {
+            store.add(Record.ofCents("record " + i, i % 2 == 0 ? "income" : "dining", i + 1));
+        }
+        int generation = store.getGeneration();
+        store.removeById(2);
+        store.remove(0);
+        store.removeById(7);
+        store.add(Record.ofCents("record 10", "income", 11));
+
+        assertEquals(8, store.size());
+        assertEquals(11, store.slotCount());
+        long[] ids = {1, 3, 4, 5, 6, 8, 9, 10};
+        for (int pos = 0; pos < ids.length; pos++) {
+            assertEquals(ids[pos], store.idAt(pos));
+            assertEquals(pos, store.positionOf(ids[pos]));
+            assertEquals(ids[pos] + 1, store.getCents(pos));
+            assertEquals("record " + ids[pos], store.get(pos).getTitle());
+        }
+        assertEquals(-1, store.positionOf(2));
+        assertEquals(-4 + 5 - 6 + 7 + 9, store.sumBalance(1, 6));
+        assertEquals(5 + 7, store.sumCategory(Categories.INCOME, 2, 5));
+        assertEquals(11, store.sumCategory(Categories.INCOME, 7, 8));
+
+        store.set(2, Record.ofCents("edited", "bills", 50));
+        store.remove(2);
+        assertEquals(5, store.idAt(2));
+        assertEquals(2, store.positionOf(5));
+        store.restore(4, Record.ofCents("record 4", "income", 5));
+        assertEquals(4, store.idAt(2));
+        assertEquals(3, store.positionOf(5));
+        assertEquals(generation, store.getGeneration());
+    }
+
+    @Test
+    void testCompactsWhenTombstonesOutnumberRecords() {
+        for (int i = 0; i < 10; i++) {
+            store.add(Record.ofCents("record " + i, "income", i + 1));
+        }
+        for (long id = 0; id < 5; id++) {
+            store.removeById(id);
+        }
+        assertEquals(10, store.slotCount());
+        store.removeById(5);
+        assertEquals(4, store.size());
+        assertEquals(4, store.slotCount());
+        for (long id = 6; id < 10; id++) {
+            assertEquals(Record.ofCents("record " + id, "income", id + 1), store.getById(id));
+        }
+        assertEquals(10, store.add(Record.ofCents("new", "income", 1)));
+    }
+
+    @Test
+    void testRemoveIf() {
+        for (int i = 0; i < 10; i++) {
+            store.add(Record.ofCents("record " + i, i % 2 == 0 ? "income" : "bills", 100));
+        }
+        store.removeById(0);
+        int generation = store.getGeneration();
+        Aggregates delta = new Aggregates();
+
+        assertEquals(5, store.removeIf(r -> r.getCategory().equals("bills"), delta));
+        assertEquals(4, store.size());
+        assertEquals(4, store.slotCount());
+        assertEquals(generation + 1, store.getGeneration());
+        assertEquals(500, delta.getBalanceCents());
+        assertEquals(-500, delta.getCategorySumCents(Categories.lookup("bills")));
+        assertEquals(2, store.idAt(0));
+        assertEquals(3, store.slotOf(8));
+        assertFalse(store.contains(1));
+
+        assertEquals(0, store.removeIf(r -> false, delta));
+        assertEquals(generation + 1, store.getGeneration());
+    }
+
+    @Test
+    void testRemoveFirst() {
+        for (int i = 0; i < 10; i++) {
+            store.add(Record.ofCents("record " + i, i % 2 == 0 ? "income" : "bills", 100));
+        }
+        store.removeById(1);
+        store.removeById(4);
+        store.removeById(7);
+        int generation = store.getGeneration();
+        Aggregates delta = new Aggregates();
+
+        store.removeFirst(3, delta);
+        assertEquals(4, store.size());
+        assertEquals(5, store.slotCount());
+        assertEquals(generation + 1, store.getGeneration());
+        assertEquals(-100, delta.getBalanceCents());
+        assertEquals(-100, delta.getCategorySumCents(Categories.lookup("bills")));
+        assertEquals(5, store.idAt(0));
+        assertEquals(8, store.idAt(2));
+        assertEquals(2, store.positionOf(8));
+        assertEquals(4, store.slotOf(9));
+        assertFalse(store.contains(3));
+        assertEquals(new Record("record 9", "bills", 1), store.get(3));
+
+        store.removeFirst(0, delta);
+        assertEquals(generation + 1, store.getGeneration());
+        store.removeFirst(4, delta);
+        assertEquals(0, store.size());
+        assertEquals(0, store.slotCount());
+        assertEquals(10, store.add(new Record("pay", "income", 100)));
+    }
+
+    @Test
+    void testEditWhere() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        store.add(new Record("dinner", "dining", 30));
+        Aggregates delta = new Aggregates();
+
+        int edited = store.editWhere(r -> r.getCategory().equals("dining"), r -> {
+            r.setCategory("other");
+            r.setTitle(r.getTitle() + "!");
+        }, delta);
+        assertEquals(2, edited);
+        assertEquals(0, delta.getBalanceCents());
+        assertEquals(-4205, delta.getCategorySumCents(Categories.lookup("dining")));
+        assertEquals(4205, delta.getCategorySumCents(Categories.lookup("other")));
+        assertEquals(new Record("lunch!", "other", 12.05), store.getById(1));
+        assertEquals(2, store.getById(2).getId());
+    }
+
+    @Test
+    void testAggregate() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        store.add(new Record("rent", "bills", 50));
+        store.removeById(2);
+
+        Aggregates aggregates = store.aggregate();
+        assertEquals(8795, aggregates.getBalanceCents());
+        assertEquals(10000, aggregates.getCategorySumCents(Categories.INCOME));
+        assertEquals(1205, aggregates.getCategorySumCents(Categories.lookup("dining")));
+        assertEquals(0, aggregates.getCategorySumCents(Categories.lookup("bills")));
+    }
+
+    @Test
+    void testAggregateInParallelMatchesScans() {
+        int count = AggregateTask.THRESHOLD * 4 + 3;
+        for (int i = 0; i < count; i++) {
+            store.add(Record.ofCents("r", i % Categories.DEFAULT_COUNT, i % 1000 + 1));
+        }
+        store.removeById(5);
+
+        Aggregates aggregates = store.aggregate();
+        assertEquals(store.sumBalance(), aggregates.getBalanceCents());
+        for (int id = 0; id < Categories.DEFAULT_COUNT; id++) {
+            assertEquals(store.sumCategory(id), aggregates.getCategorySumCents(id));
+        }
+    }
+
+    @Test
+    void testSnapshotCopyOnWrite() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        RecordStore snapshot = store.snapshot();
+
+        store.add(new Record("rent", "bills", 50));
+        assertEquals(2, snapshot.size());
+        store.setById(0, new Record("bonus", "income", 1));
+        store.removeById(1);
+        assertEquals(new Record("pay", "income", 100), snapshot.get(0));
+        assertEquals(new Record("lunch", "dining", 12.05), snapshot.getById(1));
+        assertEquals(8795, snapshot.sumBalance());
+        assertFalse(snapshot.contains(2));
+
+        assertEquals(2, store.size());
+        assertEquals(new Record("bonus", "income", 1), store.get(0));
+        assertEquals(-4900, store.sumBalance());
+    }
+
+    @Test
+    void testSnapshotWithTombstonesAcrossPages() {
+        int count = PagedColumns.PAGE_SIZE * 3;
+        for (int i = 0; i < count; i++) {
+            store.add(Record.ofCents("r" + i, "other", i + 1));
+        }
+        store.removeById(1);
+        store.removeById(PagedColumns.PAGE_SIZE + 1);
+        List<Record> before = List.copyOf(store.asList());
+        int generation = store.getGeneration();
+        RecordStore snapshot = store.snapshot();
+        assertEquals(count, snapshot.slotCount());
+        assertEquals(generation, store.getGeneration());
+
+        store.setById(PagedColumns.PAGE_SIZE * 2, Record.ofCents("edited", "income", 1));
+        store.removeById(2);
+        store.restore(1, Record.ofCents("r1", "other", 2));
+        store.add(Record.ofCents("added", "bills", 5));
+        assertEquals(before, snapshot.asList());
+        assertNull(snapshot.getById(1));
+        assertEquals(Record.ofCents("r2", "other", 3), snapshot.getById(2));
+        assertEquals(PagedColumns.PAGE_SIZE + 1, snapshot.positionOf(PagedColumns.PAGE_SIZE + 3));
+
+        assertEquals(count - 1, store.size());
+        assertEquals(Record.ofCents("r1", "other", 2), store.get(1));
+        assertEquals(Record.ofCents("edited", "income", 1), store.getById(PagedColumns.PAGE_SIZE * 2));
+        assertNull(store.getById(2));
+    }
+
+    @Test
+    void testRestore() {
+        store.add(new Record("pay", "income", 100));
+        store.add(new Record("lunch", "dining", 12.05));
+        store.add(new Record("rent", "bills", 50));
+        store.removeById(1);
+        int generation = store.getGeneration();
+
+        assertEquals(1, store.restore(1, new Record("lunch", "dining", 12.05)));
+        assertEquals(generation, store.getGeneration());
+        assertEquals(3, store.size());
+
+        store.removeById(0);
+        compact(store);
+        assertEquals(0, store.restore(0, new Record("pay", "income", 100)));
+        assertEquals(generation + 2, store.getGeneration());
+        assertEquals(new Record("lunch", "dining", 12.05), store.get(1));
+        assertEquals(2, store.slotOf(2));
+        assertEquals(0, store.idAt(0));
+        assertEquals(3795, store.sumBalance());
+    }
+
+    @Test
+    void testFindIdsBeforeAndAfterCompaction() {
+        for (int i = 0; i < 5; i++) {
+            store.add(new Record("r" + i, "other", i + 1));
+        }
+        store.removeById(4);
+        assertNull(store.getById(4));
+        assertNull(store.getById(5));
+        assertNull(store.getById(-1));
+        assertEquals(new Record("r3", "other", 4), store.getById(3));
+
+        compact(store);
+        assertEquals(5, store.add(new Record("r5", "other", 6)));
+        store.removeById(1);
+        compact(store);
+        assertFalse(store.contains(1));
+        assertFalse(store.contains(4));
+        assertEquals(new Record("r5", "other", 6), store.getById(5));
+        assertEquals(3, store.slotOf(5));
+        assertEquals(6, store.add(new Record("r6", "other", 7)));
+        assertEquals(4, store.slotOf(6));
+    }
+
+    @Test
+    void testAddAll() {
+        store.add(new Record("pay", "income", 100));
+        RecordStore other = new RecordStore();
+        other.add(new Record("lunch", "dining", 12.05));
+        other.add(new Record("gone", "other", 1));
+        other.add(new Record("rent", "bills", 50));
+        other.removeById(1);
+
+        assertEquals(1, store.addAll(other));
+        assertEquals(3, store.size());
+        assertEquals(new Record("lunch", "dining", 12.05), store.getById(1));
+        assertEquals(new Record("rent", "bills", 50), store.getById(2));
+        assertEquals(new Record("rent", "bills", 50), store.get(2));
+        assertEquals(3795, store.sumBalance());
+        assertEquals(3, store.add(new Record("bonus", "income", 1)));
+        assertEquals(new Record("lunch", "dining", 12.05), store.get(1));
+    }
+
+    @Test
+    void testAddAllIntoEmptyStore() {
+        RecordStore other = new RecordStore();
+        other.add(new Record("pay", "income", 100));
+        other.add(new Record("lunch", "dining", 12.05));
+
+        assertEquals(0, store.addAll(other));
+        assertEquals(0, other.size());
+        assertFalse(other.contains(0));
+        assertEquals(2, store.size());
+        assertEquals(new Record("lunch", "dining", 12.05), store.getById(1));
+        assertEquals(2, store.add(new Record("rent", "bills", 50)));
+        assertEquals(2, other.add(new Record("gift", "other", 5)));
+        assertEquals(new Record("gift", "other", 5), other.get(0));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void testAsList() {
+        store.add(new Record("pay", "income", 100));
+        List<Record> list = store.asList();
+        assertEquals(new Record("pay", "income", 100), list.get(0));
+        try {
+            list.get(1);
+            fail("IndexOutOfBoundsException should have been thrown");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testSave() {
+        store.add(new Record("lunch", "dining", 12.5));
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+        store.save(0, printWriter);
+        printWriter.close();
+        assertEquals("lunch,dining,12.50", stringWriter.toString());
+    }
+
+    @Test
+    void testOffHeapMatchesHeap() {
+        RecordStore offHeap = new RecordStore();
+        offHeap.setOffHeap(true);
+        assertTrue(offHeap.isOffHeap());
+        assertFalse(store.isOffHeap());
+        makeChanges(store);
+        makeChanges(offHeap);
+
+        assertEquals(store.asList(), offHeap.asList());
+        assertEquals(store.sumBalance(), offHeap.sumBalance());
+        assertEquals(store.sumBalance(10, 500), offHeap.sumBalance(10, 500));
+        assertEquals(store.sumCategory(Categories.INCOME), offHeap.sumCategory(Categories.INCOME));
+        assertEquals(store.aggregate().getBalanceCents(), offHeap.aggregate().getBalanceCents());
+        for (int pos = 0; pos < store.size(); pos++) {
+            assertEquals(store.idAt(pos), offHeap.idAt(pos));
+        }
+        assertEquals(saved(store), saved(offHeap));
+    }
+
+    @Test
+    void testSetOffHeapKeepsRecords() {
+        makeChanges(store);
+        List<Record> before = List.copyOf(store.asList());
+        RecordStore snapshot = store.snapshot();
+
+        store.setOffHeap(true);
+        assertTrue(store.isOffHeap());
+        assertEquals(before, store.asList());
+        store.setById(store.idAt(0), new Record("moved", "income", 1));
+        assertEquals(before, snapshot.asList());
+        assertEquals(new Record("moved", "income", 1), store.get(0));
+
+        store.setOffHeap(false);
+        assertFalse(store.isOffHeap());
+        assertEquals(new Record("moved", "income", 1), store.get(0));
+        assertEquals(before.subList(1, before.size()), store.asList().subList(1, store.size()));
+    }
+
+    @Test
+    void testOffHeapRestoreAfterCompaction() {
+        store.setOffHeap(true);
+        for (int i = 0; i < 100; i++) {
+            store.add(Record.ofCents("r" + i, "other", i + 1));
+        }
+        store.removeById(10);
+        store.get(0);
+        assertEquals(10, store.restore(10, Record.ofCents("r10", "other", 11)));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Record.ofCents("r" + i, "other", i + 1), store.get(i));
+            assertEquals(i, store.idAt(i));
+        }
+    }
+
+    @Test
+    void testAddAllAcrossHeaps() {
+        RecordStore offHeap = new RecordStore();
+        offHeap.setOffHeap(true);
+        offHeap.add(new Record("pay", "income", 100));
+        offHeap.add(new Record("lunch", "dining", 12.05));
+
+        assertEquals(0, store.addAll(offHeap));
+        assertFalse(store.isOffHeap());
+        assertEquals(offHeap.asList(), store.asList());
+
+        RecordStore empty = new RecordStore();
+        empty.setOffHeap(true);
+        assertEquals(0, empty.addAll(store));
+        assertTrue(empty.isOffHeap());
+        assertEquals(store.asList(), empty.asList());
+        assertEquals(8795, empty.sumBalance());
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    // MODIFIES: store
+    // EFFECTS:  adds, edits, removes and restores records of store, enough to grow and compact its columns
+    private void makeChanges(RecordStore store) {
+        for (int i = 0; i < 2000; i++) {
+            store.add(Record.ofCents("record " + i, i % 3 == 0 ? "income" : "dining", i + 1));
+        }
+        for (int i = 0; i < 2000; i += 7) {
+            store.setById(i, Record.ofCents("edited " + i, "bills", i + 2));
+        }
+        for (int i = 0; i < 2000; i += 5) {
+            store.removeById(i);
+        }
+        store.restore(5, Record.ofCents("restored", "other", 3));
+        compact(store);
+        store.restore(10, Record.ofCents("restored", "other", 4));
+        store.removeIf(record -> record.getCents() % 11 == 0, new Aggregates());
+        store.editWhere(record -> record.getCents() % 13 == 0, record -> record.setTitle("thirteen"),
+                new Aggregates());
+    }
+
+    // MODIFIES: store
+    // EFFECTS:  drops every tombstone of store by removing no records
+    private void compact(RecordStore store) {
+        store.removeIf(record -> false, new Aggregates());
+    }
+
+    // EFFECTS:  returns every record of store as saved, one per line
+    private String saved(RecordStore store) {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+        for (int pos = 0; pos < store.size(); pos++) {
+            store.save(pos, printWriter);
+            printWriter.print("\n");
+        }
+        printWriter.close();
+        return stringWriter.toString();
+    }
+
+}
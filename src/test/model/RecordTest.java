@@ -3,7 +3,11 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 public class RecordTest {
     Record record;
@@ -34,24 +38,91 @@ public class RecordTest {
 
     @Test
     void testAddToBalance() {
-        double balance = 0;
+        long balance = 0;
 
-        double newBalance = record.addToBalance(balance);
-        assertEquals(-100, newBalance);
+        long newBalance = record.addToBalance(balance);
+        assertEquals(-10000, newBalance);
 
         Record income = new Record("add", "income", 155.34);
         newBalance = income.addToBalance(newBalance);
-        assertEquals(55.34, newBalance);
+        assertEquals(5534, newBalance);
+    }
+
+    @Test
+    void testRemoveFromBalance() {
+        long newBalance = record.removeFromBalance(-10000);
+        assertEquals(0, newBalance);
+
+        Record income = new Record("add", "income", 155.34);
+        newBalance = income.removeFromBalance(15534);
+        assertEquals(0, newBalance);
     }
 
     @Test
     void testAddToCategory() {
-        double newSum = record.addToCategory(0);
-        assertEquals(100, newSum);
+        long newSum = record.addToCategory(0);
+        assertEquals(10000, newSum);
 
         Record income = new Record("add", "income", 155.34);
         newSum = income.addToCategory(newSum);
-        assertEquals(255.34, newSum);
+        assertEquals(25534, newSum);
+    }
+
+    @Test
+    void testRemoveFromCategory() {
+        long newSum = record.removeFromCategory(10000);
+        assertEquals(0, newSum);
+
+        Record income = new Record("add", "income", 155.34);
+        newSum = income.removeFromCategory(25534);
+        assertEquals(10000, newSum);
+    }
+
+    @Test
+    void testCategoryId() {
+        assertEquals(Categories.lookup("other"), record.getCategoryId());
+
+        Record income = Record.ofCents("pay", Categories.INCOME, 100);
+        assertEquals("income", income.getCategory());
+        assertEquals(100, income.addToBalance(0));
+
+        record.setCategory("brand new category");
+        assertEquals("brand new category", record.getCategory());
+        assertEquals(Categories.lookup("brand new category"), record.getCategoryId());
+        assertEquals(-10000, record.addToBalance(0));
+    }
+
+    @Test
+    void testOfCents() {
+        Record cents = Record.ofCents("cents", "dining", 1099);
+        checkRecordMatches(cents, "cents", "dining", 10.99);
+        assertEquals(1099, cents.getCents());
+
+        cents.editThisRecordCents("change", "bills", 1);
+        checkRecordMatches(cents, "change", "bills", 0.01);
+    }
+
+    @Test
+    void testSave() {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+        Record.ofCents("lunch", "dining", 1205).save(printWriter);
+        printWriter.close();
+        assertEquals("lunch,dining,12.05", stringWriter.toString());
+    }
+
+    @Test
+    void testEquals() {
+        Record same = new Record("test", "other", 100);
+        assertEquals(record, same);
+        assertEquals(record.hashCode(), same.hashCode());
+        assertEquals(record, record);
+
+        assertNotEquals(record, new Record("test", "other", 100.01));
+        assertNotEquals(record, new Record("test", "income", 100));
+        assertNotEquals(record, new Record("other test", "other", 100));
+        assertNotEquals(record, null);
+        assertNotEquals(record, "test");
     }
 
     @Test
@@ -79,6 +150,9 @@ public class RecordTest {
 
         record.setValue(0.01);
         checkRecordMatches(record, "test", "other", 0.01);
+
+        record.setCents(4999);
+        checkRecordMatches(record, "test", "other", 49.99);
     }
 
     // --------------------------------------------------------
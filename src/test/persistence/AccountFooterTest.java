@@ -0,0 +1,109 @@
+package persistence;
+
+import model.Account;
+import model.Categories;
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountFooterTest {
+    private File file;
+    private Account acc;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        file = File.createTempFile("footerAccount", ".txt");
+        file.deleteOnExit();
+        Journal.journalFileOf(file).deleteOnExit();
+        acc = new Account();
+        acc.addRecord(new Record("pay", "income", 100));
+        acc.addRecord(new Record("lunch", "dining", 12.05));
+        acc.addRecord(new Record("trip", "recreation", 30));
+    }
+
+    @Test
+    void testReadFooterText() throws IOException {
+        Writer.writeAtomically(file, AccountFormat.TEXT, acc.snapshot());
+        checkFooterMatches(AccountFooter.read(file));
+        assertEquals(acc.getLog(), Reader.readAccount(file).getLog());
+        assertEquals(acc.getLog(), Reader.readAccountParallel(file, 8).getLog());
+    }
+
+    @Test
+    void testReadFooterBinary() throws IOException {
+        Writer.writeAtomically(file, AccountFormat.BINARY, acc.snapshot());
+        checkFooterMatches(AccountFooter.read(file));
+        assertEquals(acc.getLog(), Reader.readAccount(file).getLog());
+    }
+
+    @Test
+    void testReadFooterEmptyAccount() throws IOException {
+        Writer.writeAtomically(file, AccountFormat.TEXT, new Account().snapshot());
+        AccountFooter footer = AccountFooter.read(file);
+        assertTrue(footer.isLogEmpty());
+        assertEquals(0, footer.getBalanceCents());
+        assertTrue(Reader.readAccount(file).isLogEmpty());
+    }
+
+    @Test
+    void testNoFooter() throws IOException {
+        assertNull(AccountFooter.read(file));
+        Writer writer = new Writer(file);
+        writer.write((SaveableData) acc);
+        writer.close();
+        assertNull(AccountFooter.read(file));
+        assertNull(AccountFooter.read(new File(file.getPath() + ".missing")));
+    }
+
+    @Test
+    void testDamagedFooter() throws IOException {
+        Writer.writeAtomically(file, AccountFormat.TEXT, acc.snapshot());
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(out.length() - 4);
+            out.write('x');
+        }
+        assertNull(AccountFooter.read(file));
+
+        Writer.writeAtomically(file, AccountFormat.TEXT, acc.snapshot());
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(out.length() - 1);
+        }
+        assertNull(AccountFooter.read(file));
+    }
+
+    @Test
+    void testFooterOutdatedByJournal() throws IOException {
+        Journal journal = new Journal(file, acc);
+        checkFooterMatches(AccountFooter.read(file));
+        acc.addRecord(new Record("rent", "bills", 50));
+        assertNull(AccountFooter.read(file));
+        journal.checkpoint();
+        checkFooterMatches(AccountFooter.read(file));
+        journal.close();
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private void checkFooterMatches(AccountFooter footer) {
+        assertEquals(acc.getLog().size(), footer.getRecordCount());
+        assertFalse(footer.isLogEmpty());
+        assertEquals(acc.getBalanceCents(), footer.getBalanceCents());
+        assertEquals(acc.getCategories().size(), footer.getCategories().size());
+        for (int id = 0; id < footer.getCategories().size(); id++) {
+            assertEquals(Categories.nameOf(id), footer.getCategories().get(id));
+            assertEquals(acc.getCategorySumCents(id), footer.getCategorySumCents(id));
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class AccountFormatTest {
+
+    @Test
+    void testDetectText() throws IOException {
+        assertEquals(AccountFormat.TEXT, AccountFormat.detect(new File("./data/testAccount2.txt")));
+        assertEquals(AccountFormat.TEXT, AccountFormat.detect(writeTempFile(new byte[0])));
+        assertEquals(AccountFormat.TEXT, AccountFormat.detect(writeTempFile(new byte[] {(byte) 0x89, 'B'})));
+    }
+
+    @Test
+    void testDetectBinary() throws IOException {
+        File file = writeTempFile(new byte[] {(byte) 0x89, 'B', 'P', 'A', 1});
+        assertEquals(AccountFormat.BINARY, AccountFormat.detect(file));
+    }
+
+    @Test
+    void testDetectNoFile() {
+        try {
+            AccountFormat.detect(new File("./data/noFile.txt"));
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private File writeTempFile(byte[] bytes) throws IOException {
+        File file = File.createTempFile("accountFormat", ".bin");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+
+}
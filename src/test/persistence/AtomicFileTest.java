@@ -0,0 +1,62 @@
+package persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class AtomicFileTest {
+    private File file;
+    private File temp;
+    private AtomicFile atomicFile;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        file = File.createTempFile("atomicFile", ".txt");
+        file.deleteOnExit();
+        temp = new File(file.getPath() + AtomicFile.TEMP_SUFFIX);
+        atomicFile = new AtomicFile(file);
+    }
+
+    @Test
+    void testWriteReplacesFile() throws IOException {
+        atomicFile.write(out -> out.write("old contents".getBytes(StandardCharsets.UTF_8)));
+        atomicFile.write(out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("new", read(file));
+        assertFalse(temp.exists());
+    }
+
+    @Test
+    void testFailedWriteKeepsFile() throws IOException {
+        atomicFile.write(out -> out.write("old contents".getBytes(StandardCharsets.UTF_8)));
+        try {
+            atomicFile.write(out -> {
+                out.write("half of the new".getBytes(StandardCharsets.UTF_8));
+                throw new IOException("disk full");
+            });
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+
+        assertEquals("old contents", read(file));
+        assertFalse(temp.exists());
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,114 @@
+package persistence;
+
+import model.Account;
+import model.AccountHistory;
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class BTreeBackendTest {
+    private File file;
+    private BTreeStore store;
+    private Account acc;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        file = File.createTempFile("btreeBackend", ".db");
+        file.deleteOnExit();
+        store = new BTreeStore(file, 16);
+        acc = new Account();
+        for (int i = 0; i < 500; i++) {
+            acc.addRecord(new Record("record " + i, i % 4 == 0 ? "income" : "groceries", i + 1));
+        }
+    }
+
+    @Test
+    void testStoreAndLoad() throws IOException {
+        new BTreeBackend(store, acc).flush();
+        assertEquals(500, store.size());
+        Account loaded = reopen();
+        assertEquals(acc.getLog(), loaded.getLog());
+        assertEquals(acc.getBalanceCents(), loaded.getBalanceCents());
+    }
+
+    @Test
+    void testChangesCommitted() throws IOException {
+        BTreeBackend backend = new BTreeBackend(store, acc);
+        AccountHistory history = new AccountHistory(acc);
+        long pay = history.addRecord(new Record("pay", "income", 2500));
+        history.editRecordCentsById(3, "edited", "dining", 4200);
+        history.removeRecordById(10);
+        history.removeRecordById(pay);
+        history.undo();
+        history.addRecord(new Record("gift", "other", 5));
+        backend.flush();
+
+        Account loaded = reopen();
+        assertEquals(acc.getLog(), loaded.getLog());
+        assertEquals(acc.getBalanceCents(), loaded.getBalanceCents());
+    }
+
+    @Test
+    void testChangesAfterLoad() throws IOException {
+        new BTreeBackend(store, acc).close();
+        store.close();
+        store = new BTreeStore(file, 16);
+        acc = new Account();
+        BTreeBackend backend = new BTreeBackend(store, acc);
+        long last = acc.getLog().get(acc.getLog().size() - 1).getId();
+        acc.removeRecordById(0);
+        acc.editRecordCentsById(last, "last", "income", 7);
+        acc.addRecord(new Record("new", "other", 1));
+        backend.flush();
+
+        Account loaded = reopen();
+        assertEquals(500, loaded.getLog().size());
+        assertEquals(acc.getLog(), loaded.getLog());
+    }
+
+    @Test
+    void testBatchChanges() throws IOException {
+        BTreeBackend backend = new BTreeBackend(store, acc);
+        acc.removeIf(record -> record.getCents() % 3 == 0);
+        acc.editWhere(record -> record.getCents() % 5 == 0, record -> record.setTitle("fifth"));
+        backend.flush();
+
+        Account loaded = reopen();
+        assertEquals(acc.getLog(), loaded.getLog());
+        assertEquals(acc.getBalanceCents(), loaded.getBalanceCents());
+    }
+
+    @Test
+    void testFailureKept() throws IOException {
+        BTreeBackend backend = new BTreeBackend(store, acc);
+        store.close();
+        acc.addRecord(new Record("lost", "other", 1));
+        try {
+            backend.flush();
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    // MODIFIES: this
+    // EFFECTS:  closes the store, opens it again and returns a new account loaded from it
+    private Account reopen() throws IOException {
+        store.close();
+        store = new BTreeStore(file, 16);
+        Account loaded = new Account();
+        new BTreeBackend(store, loaded).close();
+        return loaded;
+    }
+
+}
@@ -0,0 +1,197 @@
+package persistence;
+
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class BTreeStoreTest {
+    private File file;
+    private BTreeStore store;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        file = File.createTempFile("btreeStore", ".db");
+        file.deleteOnExit();
+        store = new BTreeStore(file, 8);
+    }
+
+    @Test
+    void testPutGetRemove() throws IOException {
+        putRecords(0, 5000);
+        assertEquals(5000, store.size());
+        assertEquals(recordOf(0), store.get(0));
+        assertEquals(recordOf(4999), store.get(4999));
+        assertEquals(recordOf(2345), store.get(2345));
+        assertNull(store.get(5000));
+
+        store.put(2345, Record.ofCents("edited", "income", 99));
+        assertEquals(Record.ofCents("edited", "income", 99), store.get(2345));
+        assertEquals(5000, store.size());
+
+        assertTrue(store.remove(17));
+        assertFalse(store.remove(17));
+        assertNull(store.get(17));
+        assertEquals(4999, store.size());
+        store.close();
+    }
+
+    @Test
+    void testKeyOrder() throws IOException {
+        for (int i = 0; i < 3000; i++) {
+            long key = (i * 7919L) % 3000;
+            store.put(key, recordOf(key));
+        }
+        List<Long> keys = new ArrayList<>();
+        store.forEach((key, record) -> {
+            assertEquals(recordOf(key), record);
+            keys.add(key);
+        });
+        assertEquals(3000, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, (long) keys.get(i));
+        }
+        store.close();
+    }
+
+    @Test
+    void testReopen() throws IOException {
+        putRecords(0, 40000);
+        store.remove(100);
+        store.commit();
+        store.close();
+
+        store = new BTreeStore(file, 8);
+        assertEquals(39999, store.size());
+        assertNull(store.get(100));
+        assertEquals(recordOf(4321), store.get(4321));
+        assertEquals(recordOf(39999), store.get(39999));
+        long[] count = new long[1];
+        store.forEach((key, record) -> count[0]++);
+        assertEquals(39999, count[0]);
+        store.close();
+    }
+
+    @Test
+    void testUncommittedDropped() throws IOException {
+        putRecords(0, 2000);
+        store.put(5, Record.ofCents("not committed", "dining", 1));
+        store.remove(6);
+        for (long key = 2000; key < 4000; key++) {
+            store.put(key, recordOf(key));
+        }
+        store.close();
+
+        store = new BTreeStore(file, 8);
+        assertEquals(2000, store.size());
+        assertEquals(recordOf(5), store.get(5));
+        assertEquals(recordOf(6), store.get(6));
+        assertNull(store.get(2000));
+        store.close();
+    }
+
+    @Test
+    void testTornHeaderIgnored() throws IOException {
+        putRecords(0, 100);
+        store.put(100, recordOf(100));
+        store.commit();
+        store.close();
+        corruptPage(1);
+        store = new BTreeStore(file, 8);
+        assertEquals(100, store.size());
+        assertNull(store.get(100));
+        assertEquals(recordOf(99), store.get(99));
+        store.close();
+
+        corruptPage(0);
+        try {
+            new BTreeStore(file, 8);
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testPagesReused() throws IOException {
+        putRecords(0, 2000);
+        long pages = store.getPageCount();
+        for (int i = 0; i < 500; i++) {
+            store.put(i % 2000, Record.ofCents("edit " + i, "dining", i + 1));
+            store.commit();
+        }
+        assertTrue(store.getPageCount() < pages + 20);
+        pages = store.getPageCount();
+        store.close();
+
+        store = new BTreeStore(file, 8);
+        store.put(1, recordOf(1));
+        store.commit();
+        assertEquals(pages, store.getPageCount());
+        store.close();
+    }
+
+    @Test
+    void testRecordTooLarge() throws IOException {
+        try {
+            store.put(0, Record.ofCents("x".repeat(BTreeStore.MAX_VALUE_BYTES), "dining", 1));
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(0, store.size());
+        store.close();
+    }
+
+    @Test
+    void testSave() throws IOException {
+        putRecords(0, 3);
+        StringWriter text = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(text);
+        store.save(printWriter);
+        printWriter.flush();
+        assertEquals("record 0,dining,0.01\nrecord 1,income,0.02\nrecord 2,dining,0.03\n", text.toString());
+        store.close();
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    // MODIFIES: this
+    // EFFECTS:  stores recordOf(key) under every key from from to to (exclusive) and commits them
+    private void putRecords(long from, long to) throws IOException {
+        for (long key = from; key < to; key++) {
+            store.put(key, recordOf(key));
+        }
+        store.commit();
+    }
+
+    // MODIFIES: file
+    // EFFECTS:  overwrites a few bytes in the middle of page of the store's file
+    private void corruptPage(long page) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(page * BTreeStore.PAGE_SIZE + 20);
+            raf.writeLong(-1);
+        }
+    }
+
+    // EFFECTS:  returns the record stored under key in these tests
+    private Record recordOf(long key) {
+        return Record.ofCents("record " + key, key % 2 == 1 ? "income" : "dining", key + 1);
+    }
+
+}
@@ -0,0 +1,100 @@
+package persistence;
+
+import model.Account;
+import model.Record;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class BinaryAccountReaderTest {
+
+    @Test
+    void testRoundTripTextFile() throws IOException {
+        Account text = Reader.readAccount(new File("./data/testAccount2.txt"));
+        Account binary = roundTrip(text, 4);
+        assertEquals(text.getLog(), binary.getLog());
+        assertEquals(text.getBalanceCents(), binary.getBalanceCents());
+        assertEquals(text.getCategorySumCents("bills"), binary.getCategorySumCents("bills"));
+        assertTrue(binary.verifyTotals());
+    }
+
+    @Test
+    void testRoundTripUnusualRecords() throws IOException {
+        Account acc = new Account();
+        acc.addRecord(new Record("caf\u00e9 \u2615", "binary test category", 4.75));
+        acc.addRecord(Record.ofCents("", "income", Long.MAX_VALUE / 4));
+        acc.addRecord(Record.ofCents(longTitle(100000), "other", -250));
+
+        Account read = roundTrip(acc, 16);
+        assertEquals(acc.getLog(), read.getLog());
+        assertEquals("binary test category", read.getRecord(0).getCategory());
+        assertEquals(acc.getBalanceCents(), read.getBalanceCents());
+        assertEquals(0, roundTrip(new Account(), 1).getLog().size());
+    }
+
+    @Test
+    void testMalformed() {
+        checkThrows(new byte[] {'B', 'P', 'A', 'C', 1, 0, 0});
+        checkThrows(new byte[] {(byte) 0x89, 'B', 'P', 'A', 2, 0, 0});
+        checkThrows(new byte[] {(byte) 0x89, 'B', 'P', 'A', 1, 0, 1, 0, 2, 1, 'x'});
+        checkThrows(new byte[] {(byte) 0x89, 'B', 'P', 'A', 1, 1, 5, 'o', 't', 'h', 'e', 'r', 2, 0, 2, 1, 'x'});
+        checkThrows(new byte[] {(byte) 0x89, 'B', 'P', 'A', 1, 1, 2, 'a', (byte) 0xff, 0});
+        checkThrows(new byte[] {(byte) 0x89, 'B', 'P', 'A', 1, 0, (byte) 0x80});
+    }
+
+    @Test
+    void testLengthsOutOfRange() {
+        byte[] header = {(byte) 0x89, 'B', 'P', 'A', 1};
+        byte[] negative = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        byte[] huge = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 4};
+        checkThrows(concat(header, negative));
+        checkThrows(concat(header, new byte[] {1}, negative, new byte[] {'x'}));
+        checkThrows(concat(header, new byte[] {1}, huge, new byte[] {'x'}));
+        checkThrows(concat(header, new byte[] {0}, negative));
+        checkThrows(concat(header, new byte[] {0, 1}, negative, new byte[] {2, 1, 'x'}));
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private Account roundTrip(Account acc, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryAccountWriter(out).write(acc.snapshot());
+        return new BinaryAccountReader(new ByteArrayInputStream(out.toByteArray()), bufferSize).read();
+    }
+
+    private String longTitle(int length) {
+        StringBuilder title = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            title.append((char) ('a' + i % 26));
+        }
+        return title.toString();
+    }
+
+    private byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private void checkThrows(byte[] bytes) {
+        try {
+            new BinaryAccountReader(new ByteArrayInputStream(bytes), 8).read();
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package persistence;
+
+import model.Account;
+import model.Record;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinaryAccountWriterTest {
+
+    @Test
+    void testWriteLayout() throws IOException {
+        Account acc = new Account();
+        acc.addRecord(new Record("pay", "income", 1.5));
+        acc.addRecord(Record.ofCents("ab", "other", -1));
+        acc.addRecord(new Record("x", "income", 1.28));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryAccountWriter(out).write(acc.snapshot());
+        byte[] expected = {
+                (byte) 0x89, 'B', 'P', 'A', 1,
+                2, 6, 'i', 'n', 'c', 'o', 'm', 'e', 5, 'o', 't', 'h', 'e', 'r',
+                3,
+                0, (byte) 0xAC, 2, 3, 'p', 'a', 'y',
+                1, 1, 2, 'a', 'b',
+                0, (byte) 0x80, 2, 1, 'x'};
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    void testZigzag() {
+        assertEquals(0, BinaryAccountWriter.zigzag(0));
+        assertEquals(1, BinaryAccountWriter.zigzag(-1));
+        assertEquals(2, BinaryAccountWriter.zigzag(1));
+        assertEquals(-1, BinaryAccountWriter.zigzag(Long.MIN_VALUE));
+        assertEquals(Long.MIN_VALUE, BinaryAccountReader.unzigzag(BinaryAccountWriter.zigzag(Long.MIN_VALUE)));
+        assertEquals(Long.MAX_VALUE, BinaryAccountReader.unzigzag(BinaryAccountWriter.zigzag(Long.MAX_VALUE)));
+        assertEquals(-12345, BinaryAccountReader.unzigzag(BinaryAccountWriter.zigzag(-12345)));
+    }
+
+}
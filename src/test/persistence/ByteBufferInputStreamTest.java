@@ -0,0 +1,28 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ByteBufferInputStreamTest {
+
+    @Test
+    void testRead() {
+        ByteBufferInputStream in = new ByteBufferInputStream(ByteBuffer.wrap(new byte[] {1, (byte) 0xff, 3, 4, 5}));
+        assertEquals(1, in.read());
+        assertEquals(255, in.read());
+
+        byte[] buffer = new byte[4];
+        assertEquals(2, in.read(buffer, 1, 2));
+        assertEquals(3, buffer[1]);
+        assertEquals(4, buffer[2]);
+        assertEquals(1, in.read(buffer, 0, 4));
+        assertEquals(5, buffer[0]);
+        assertEquals(-1, in.read(buffer, 0, 4));
+        assertEquals(0, in.read(buffer, 0, 0));
+        assertEquals(-1, in.read());
+    }
+
+}
@@ -0,0 +1,348 @@
+package persistence;
+
+import model.Account;
+import model.AccountHistory;
+import model.AccountSnapshot;
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class JournalTest {
+    private File checkpoint;
+    private File journalFile;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        checkpoint = File.createTempFile("journalAccount", ".txt");
+        checkpoint.delete();
+        checkpoint.deleteOnExit();
+        journalFile = Journal.journalFileOf(checkpoint);
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void testJournalChangesWithoutRewritingCheckpoint() throws IOException {
+        Account acc = new Account();
+        acc.addRecord(new Record("pay", "income", 100));
+        Journal journal = new Journal(checkpoint, acc);
+        long checkpointLength = checkpoint.length();
+
+        long lunch = acc.addRecord(new Record("lunch", "dining", 12.05));
+        acc.addRecord(new Record("rent", "bills", 50));
+        acc.editRecordCentsById(lunch, "big lunch", "dining", 2000);
+        acc.removeRecordById(0);
+        journal.flush();
+
+        assertEquals(checkpointLength, checkpoint.length());
+        assertEquals(5, readLines(journalFile).length);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        journal.close();
+    }
+
+    @Test
+    void testContinueJournalAfterReading() throws IOException {
+        Account acc = new Account();
+        Journal journal = new Journal(checkpoint, acc);
+        acc.addRecord(new Record("pay", "income", 100));
+        acc.addRecord(new Record("gift", "other", 5));
+        acc.removeRecordById(1);
+        journal.close();
+
+        Account read = Reader.readAccount(checkpoint);
+        Journal continued = new Journal(checkpoint, read);
+        assertEquals(2, read.addRecord(new Record("rent", "bills", 50)));
+        read.removeRecordById(0);
+        continued.close();
+
+        assertEquals(6, readLines(journalFile).length);
+        Account reread = Reader.readAccount(checkpoint);
+        checkSameAccount(read, reread);
+        assertEquals(2, reread.getLog().get(0).getId());
+    }
+
+    @Test
+    void testJournalUndoAndRedo() throws IOException {
+        Account acc = new Account();
+        AccountHistory history = new AccountHistory(acc);
+        Journal journal = new Journal(checkpoint, acc);
+        long pay = history.addRecord(new Record("pay", "income", 100));
+        history.addRecord(new Record("gift", "other", 5));
+        history.removeRecordById(pay);
+        history.undo();
+        history.undo();
+        history.redo();
+        history.editRecordCentsById(pay, "pay", "income", 20000);
+        journal.close();
+
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+    }
+
+    @Test
+    void testCheckpointRenumbersIds() throws IOException {
+        Account acc = new Account();
+        AccountHistory history = new AccountHistory(acc);
+        for (int i = 0; i < 5; i++) {
+            history.addRecord(new Record("r" + i, "other", i + 1));
+        }
+        history.removeRecordById(1);
+        history.removeRecordById(2);
+        history.undo();
+        Journal journal = new Journal(checkpoint, acc);
+        long checkpointLength = checkpoint.length();
+
+        history.removeRecordById(3);
+        long added = history.addRecord(new Record("r5", "income", 10));
+        history.editRecordCentsById(added, "r5", "income", 2000);
+        history.undo();
+        history.undo();
+        history.undo();
+        assertEquals(checkpointLength, checkpoint.length());
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+
+        history.undo();
+        assertTrue(acc.hasRecord(1));
+        assertFalse(checkpointLength == checkpoint.length());
+        assertEquals(1, readLines(journalFile).length);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        journal.close();
+    }
+
+    @Test
+    void testFoldIntoCheckpoint() throws IOException {
+        Account acc = new Account();
+        Journal journal = new Journal(checkpoint, acc);
+        for (int i = 0; i < 1100; i++) {
+            acc.addRecord(new Record("r" + i, i % 2 == 0 ? "income" : "bills", 1));
+        }
+        assertEquals(1100 - 1024 + 1, readLines(journalFile).length);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+
+        assertEquals(550, acc.removeIf(r -> r.getCategory().equals("bills")));
+        assertEquals(1, readLines(journalFile).length);
+        acc.addRecord(new Record("after", "other", 2));
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        journal.close();
+    }
+
+    @Test
+    void testFoldInBackground() throws IOException {
+        Account acc = new Account();
+        List<Runnable> checkpointer = new ArrayList<>();
+        Journal journal = new Journal(checkpoint, acc, checkpointer::add);
+        for (int i = 0; i < 1030; i++) {
+            acc.addRecord(new Record("r" + i, "bills", 1));
+        }
+        acc.removeRecordById(3);
+        assertTrue(journal.isCheckpointing());
+        assertEquals(1, checkpointer.size());
+        assertEquals(1 + 1031, readLines(journalFile).length);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+
+        checkpointer.get(0).run();
+        assertFalse(journal.isCheckpointing());
+        assertEquals(1 + 7, readLines(journalFile).length);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        acc.addRecord(new Record("after", "other", 2));
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        journal.close();
+    }
+
+    @Test
+    void testBatchChangeDuringFold() throws IOException {
+        Account acc = new Account();
+        List<Runnable> checkpointer = new ArrayList<>();
+        Journal journal = new Journal(checkpoint, acc, checkpointer::add);
+        for (int i = 0; i < 1025; i++) {
+            acc.addRecord(new Record("r" + i, "bills", 1));
+        }
+        Account beforeBatch = Reader.readAccount(checkpoint);
+        assertEquals(1, acc.removeIf(r -> r.getTitle().equals("r5")));
+        acc.addRecord(new Record("after", "other", 2));
+
+        checkpointer.get(0).run();
+        assertEquals(2, readLines(journalFile).length);
+        checkSameAccount(beforeBatch, Reader.readAccount(checkpoint));
+        assertTrue(journal.isCheckpointing());
+        checkpointer.get(1).run();
+        assertEquals(1, readLines(journalFile).length);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        journal.close();
+    }
+
+    @Test
+    void testBatchChangeInBackground() throws IOException {
+        Account acc = new Account();
+        List<Runnable> checkpointer = new ArrayList<>();
+        Journal journal = new Journal(checkpoint, acc, checkpointer::add);
+        for (int i = 0; i < 10; i++) {
+            acc.addRecord(new Record("r" + i, i % 2 == 0 ? "income" : "bills", 1));
+        }
+        Account before = Reader.readAccount(checkpoint);
+        assertEquals(5, acc.removeIf(r -> r.getCategory().equals("bills")));
+        acc.addRecord(new Record("after", "other", 2));
+        assertEquals(1, checkpointer.size());
+        checkSameAccount(before, Reader.readAccount(checkpoint));
+
+        journal.flush();
+        assertFalse(journal.isCheckpointing());
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        checkpointer.get(0).run();
+        assertEquals(2, readLines(journalFile).length);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        journal.close();
+    }
+
+    @Test
+    void testGroupCommit() throws IOException {
+        Account acc = new Account();
+        Journal journal = new Journal(checkpoint, acc);
+        for (int i = 0; i < 100; i++) {
+            acc.addRecord(new Record("r" + i, "bills", 1));
+        }
+        journal.flush();
+        journal.flush();
+        assertEquals(1, journal.getSyncCount());
+
+        acc.addRecord(new Record("pay", "income", 100));
+        journal.checkpoint();
+        journal.flush();
+        assertEquals(1, journal.getSyncCount());
+        assertFalse(new File(checkpoint.getPath() + AtomicFile.TEMP_SUFFIX).exists());
+        journal.close();
+    }
+
+    @Test
+    void testConcurrentFlushes() throws IOException, InterruptedException {
+        Account acc = new Account();
+        Journal journal = new Journal(checkpoint, acc);
+        Thread[] threads = new Thread[4];
+        List<IOException> failures = new ArrayList<>();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> addAndFlush(acc, journal, 50, failures));
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty());
+        assertTrue(journal.getSyncCount() <= 200);
+        checkSameAccount(acc, Reader.readAccount(checkpoint));
+        journal.close();
+    }
+
+    @Test
+    void testStaleJournalIgnored() throws IOException {
+        Account acc = new Account();
+        Journal journal = new Journal(checkpoint, acc);
+        acc.addRecord(new Record("pay", "income", 100));
+        journal.close();
+
+        Account rewritten = new Account();
+        rewritten.addRecord(new Record("gift", "other", 5));
+        Writer writer = new Writer(checkpoint);
+        writer.write(rewritten);
+        writer.close();
+        checkSameAccount(rewritten, Reader.readAccount(checkpoint));
+    }
+
+    @Test
+    void testBoundByGeneration() throws IOException {
+        Account acc = new Account();
+        Journal journal = new Journal(checkpoint, acc);
+        AccountSnapshot before = acc.snapshot();
+        acc.addRecord(new Record("pay", "income", 100));
+        journal.close();
+        assertEquals("J," + Journal.VERSION + "," + AccountFooter.readWritten(checkpoint).getGeneration(),
+                readLines(journalFile)[0]);
+        assertTrue(Journal.hasEntries(checkpoint));
+
+        Writer.writeAtomically(checkpoint, AccountFormat.TEXT, before);
+        assertFalse(Journal.hasEntries(checkpoint));
+        assertTrue(Reader.readAccount(checkpoint).isLogEmpty());
+    }
+
+    @Test
+    void testTornEntryDropped() throws IOException {
+        Account acc = new Account();
+        Journal journal = new Journal(checkpoint, acc);
+        acc.addRecord(new Record("pay", "income", 100));
+        journal.close();
+        try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+            out.write("A,1,lun".getBytes(StandardCharsets.UTF_8));
+        }
+
+        Account read = Reader.readAccount(checkpoint);
+        checkSameAccount(acc, read);
+        Journal continued = new Journal(checkpoint, read);
+        read.addRecord(new Record("lunch", "dining", 12.05));
+        continued.close();
+        assertEquals(3, readLines(journalFile).length);
+        checkSameAccount(read, Reader.readAccount(checkpoint));
+    }
+
+    @Test
+    void testMalformedJournal() throws IOException {
+        Account acc = new Account();
+        new Journal(checkpoint, acc).close();
+        String header = readLines(journalFile)[0];
+        checkReplayThrows(header + "\nX,0\n");
+        checkReplayThrows(header + "\nR,zero\n");
+        checkReplayThrows(header + "\nR,0\n");
+        checkReplayThrows(header + "\nA,5,pay,income,100\n");
+        checkReplayThrows(header + "\nA\n");
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private String[] readLines(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).split("\n");
+    }
+
+    private void addAndFlush(Account acc, Journal journal, int count, List<IOException> failures) {
+        for (int i = 0; i < count; i++) {
+            acc.addRecord(new Record(Thread.currentThread().getName() + i, "other", 1));
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            }
+        }
+    }
+
+    private void checkSameAccount(Account expected, Account actual) {
+        assertEquals(expected.getLog(), actual.getLog());
+        assertEquals(expected.getBalanceCents(), actual.getBalanceCents());
+        assertTrue(actual.verifyTotals());
+    }
+
+    private void checkReplayThrows(String journal) throws IOException {
+        try (PrintWriter printWriter = new PrintWriter(journalFile, "UTF-8")) {
+            printWriter.print(journal);
+        }
+        try {
+            Reader.readAccount(checkpoint);
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package persistence;
+
+import model.Account;
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class PagedAccountTest {
+    private File file;
+    private File indexFile;
+    private Account acc;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        file = File.createTempFile("pagedAccount", ".txt");
+        file.deleteOnExit();
+        indexFile = PagedAccount.indexFileOf(file);
+        indexFile.deleteOnExit();
+        acc = new Account();
+        for (int i = 0; i < 2500; i++) {
+            acc.addRecord(new Record("record " + i, i % 3 == 0 ? "income" : "dining", i + 1));
+        }
+        Writer.writeAtomically(file, AccountFormat.TEXT, acc.snapshot());
+    }
+
+    @Test
+    void testGetRecord() throws IOException {
+        PagedAccount paged = new PagedAccount(file, 100, 3);
+        assertEquals(2500, paged.size());
+        assertEquals(acc.getRecord(0), paged.getRecord(0));
+        assertEquals(acc.getRecord(2499), paged.getRecord(2499));
+        assertEquals(acc.getRecord(1234), paged.getRecord(1234));
+        assertEquals(3, paged.cachedPageCount());
+        assertEquals(acc.getRecord(5), paged.getRecord(5));
+        assertEquals(3, paged.cachedPageCount());
+        paged.close();
+    }
+
+    @Test
+    void testLogView() throws IOException {
+        PagedAccount paged = new PagedAccount(file, 64, 2);
+        assertEquals(acc.getLog(), paged.getLog());
+        assertTrue(paged.cachedPageCount() <= 2);
+        paged.close();
+    }
+
+    @Test
+    void testIndexSavedAndReused() throws IOException {
+        new PagedAccount(file, 100, 3).close();
+        assertTrue(indexFile.exists());
+        byte[] index = Files.readAllBytes(indexFile.toPath());
+
+        PagedAccount paged = new PagedAccount(file, 100, 3);
+        assertEquals(2500, paged.size());
+        assertTrue(Arrays.equals(index, Files.readAllBytes(indexFile.toPath())));
+        paged.close();
+
+        new PagedAccount(file, 50, 3).close();
+        assertFalse(Arrays.equals(index, Files.readAllBytes(indexFile.toPath())));
+    }
+
+    @Test
+    void testStaleIndexRebuilt() throws IOException {
+        new PagedAccount(file, 100, 3).close();
+        acc.removeRecordById(0);
+        acc.addRecord(new Record("last", "bills", 7));
+        Writer.writeAtomically(file, AccountFormat.TEXT, acc.snapshot());
+        file.setLastModified(file.lastModified() + 1000);
+
+        PagedAccount paged = Reader.readAccountPaged(file);
+        assertEquals(acc.getLog(), paged.getLog());
+        paged.close();
+    }
+
+    @Test
+    void testFileWithoutFooter() throws IOException {
+        Files.write(file.toPath(), "pay,income,100\nlunch,dining,12.05".getBytes(StandardCharsets.UTF_8));
+        PagedAccount paged = new PagedAccount(file, 1, 1);
+        assertEquals(2, paged.size());
+        assertEquals(1205, paged.getRecord(1).getCents());
+        assertEquals(10000, paged.getRecord(0).getCents());
+        paged.close();
+    }
+
+    @Test
+    void testTitlesStartingWithMarker() throws IOException {
+        acc.editRecord(0, "\u0001F", "income", 1);
+        acc.addRecord(new Record("\u0001last", "dining", 2));
+        Writer.writeAtomically(file, AccountFormat.TEXT, acc.snapshot());
+
+        PagedAccount paged = new PagedAccount(file, 100, 3);
+        assertEquals(2501, paged.size());
+        assertEquals(acc.getLog(), paged.getLog());
+        paged.close();
+    }
+
+    @Test
+    void testMalformedPage() throws IOException {
+        Files.write(file.toPath(), "pay,income,100\nnot a record\n".getBytes(StandardCharsets.UTF_8));
+        PagedAccount paged = new PagedAccount(file, 1, 1);
+        assertEquals(10000, paged.getRecord(0).getCents());
+        try {
+            paged.getRecord(1);
+            fail("UncheckedIOException should have been thrown");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        paged.close();
+    }
+
+    @Test
+    void testBinaryFileRejected() throws IOException {
+        Writer.writeAtomically(file, AccountFormat.BINARY, acc.snapshot());
+        try {
+            new PagedAccount(file, 100, 3);
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package persistence;
+
+import model.Account;
+import model.Categories;
+import model.Money;
+import model.Record;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Measures how fast Reader loads an account file, in MB/s:
+// a file of RECORDS records (or the first argument) is written to a temporary file
+// and loaded with Reader's streaming scanner, with its parallel mapped chunks and, for comparison,
+// with the line reader that split each line with String.split and parsed its fields as Strings;
+// the same account is then written in the binary format and loaded from that, to compare size and load time
+public class ReaderBenchmark {
+    private static final int RECORDS = 2_000_000;
+    private static final int ROUNDS = 5;
+    private static final int BATCH_SIZE = 4096;
+
+    // EFFECTS:  runs the benchmark and prints the best load throughput of each reader
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : RECORDS;
+        File file = File.createTempFile("readerBenchmark", ".txt");
+        file.deleteOnExit();
+        writeFile(file, records);
+        double megabytes = file.length() / (1024.0 * 1024.0);
+        long scanner = Long.MAX_VALUE;
+        long parallel = Long.MAX_VALUE;
+        long split = Long.MAX_VALUE;
+        long binary = Long.MAX_VALUE;
+        File binaryFile = writeBinaryFile(Reader.readAccount(file));
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            Reader.readAccountStreaming(file);
+            scanner = Math.min(scanner, System.nanoTime() - start);
+            start = System.nanoTime();
+            Reader.readAccountParallel(file, 1 << 22);
+            parallel = Math.min(parallel, System.nanoTime() - start);
+            start = System.nanoTime();
+            readWithSplit(file);
+            split = Math.min(split, System.nanoTime() - start);
+            start = System.nanoTime();
+            Reader.readAccount(binaryFile);
+            binary = Math.min(binary, System.nanoTime() - start);
+        }
+        System.out.printf("file: %.1f MB, %d records%n", megabytes, records);
+        System.out.printf("scanner:  %.1f MB/s, %d ms%n", megabytes * 1e9 / scanner, scanner / 1_000_000);
+        System.out.printf("parallel: %.1f MB/s, %d ms (%d cores)%n", megabytes * 1e9 / parallel,
+                parallel / 1_000_000, Runtime.getRuntime().availableProcessors());
+        System.out.printf("split:    %.1f MB/s, %d ms%n", megabytes * 1e9 / split, split / 1_000_000);
+        System.out.printf("binary:   %.1f MB file, %d ms%n", binaryFile.length() / (1024.0 * 1024.0),
+                binary / 1_000_000);
+    }
+
+    // EFFECTS:  writes records records to file, cycling through the default categories
+    private static void writeFile(File file, int records) throws IOException {
+        try (PrintWriter printWriter = new PrintWriter(file, "UTF-8")) {
+            for (int i = 0; i < records; i++) {
+                printWriter.print("record number " + i + Reader.DELIMITER);
+                printWriter.print(Categories.nameOf(i % Categories.DEFAULT_COUNT) + Reader.DELIMITER);
+                printWriter.print(Money.format(i % 100000 + 1) + "\n");
+            }
+        }
+    }
+
+    // EFFECTS:  writes account to a temporary file in the binary format and returns the file
+    private static File writeBinaryFile(Account account) throws IOException {
+        File file = File.createTempFile("readerBenchmark", ".bin");
+        file.deleteOnExit();
+        Writer writer = new Writer(file, AccountFormat.BINARY);
+        writer.write(account);
+        writer.close();
+        return file;
+    }
+
+    // EFFECTS:  returns the account in file, read the way Reader did before it scanned lines in place
+    private static Account readWithSplit(File file) throws IOException {
+        Account account = new Account();
+        List<Record> batch = new ArrayList<>(BATCH_SIZE);
+        try (BufferedReader lines = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                List<String> components = new ArrayList<>(Arrays.asList(line.split(Reader.DELIMITER)));
+                batch.add(Record.ofCents(components.get(0), Categories.intern(components.get(1)),
+                        Money.parseCents(components.get(2))));
+                if (batch.size() == BATCH_SIZE) {
+                    account.addRecords(batch);
+                    batch.clear();
+                }
+            }
+        }
+        account.addRecords(batch);
+        return account;
+    }
+
+}
@@ -6,8 +6,10 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class ReaderTest {
@@ -78,6 +80,72 @@ public class ReaderTest {
         }
     }
 
+    @Test
+    void testIOExceptionMalformedLine() {
+        try {
+            Reader.readAccount(new File("./data/testAccountMalformed.txt"));
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testParseLargeFileInBatches() throws IOException {
+        File file = File.createTempFile("largeAccount", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter printWriter = new PrintWriter(file, "UTF-8")) {
+            for (int i = 0; i < 10000; i++) {
+                printWriter.print("record " + i + (i % 2 == 0 ? ",income," : ",bills,") + "1.25\n");
+            }
+        }
+
+        Account acc = Reader.readAccount(file);
+        assertEquals(10000, acc.getLog().size());
+        checkRecordMatches(acc.getRecord(9999), "record 9999", "bills", 1.25);
+        assertEquals(6250, acc.getCategorySum("income"));
+        assertEquals(0, acc.getBalance());
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testParseInParallelChunks() throws IOException {
+        File file = File.createTempFile("parallelAccount", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter printWriter = new PrintWriter(file, "UTF-8")) {
+            for (int i = 0; i < 1000; i++) {
+                printWriter.print("record " + i + (i % 4 == 0 ? ",income," : ",dining,") + "2.5\n");
+            }
+            printWriter.print("last,other,1");
+        }
+
+        Account acc = Reader.readAccountParallel(file, 100);
+        Account expected = Reader.readAccountStreaming(file);
+        assertEquals(1001, acc.getLog().size());
+        assertEquals(expected.getLog(), acc.getLog());
+        checkRecordMatches(acc.getRecordById(999), "record 999", "dining", 2.5);
+        checkRecordMatches(acc.getRecord(1000), "last", "other", 1);
+        assertEquals(expected.getBalanceCents(), acc.getBalanceCents());
+        assertEquals(62500, acc.getCategorySumCents("income"));
+        assertTrue(acc.verifyTotals());
+    }
+
+    @Test
+    void testParseInParallelChunksFiles() throws IOException {
+        Account acc = Reader.readAccountParallel(new File("./data/testAccount2.txt"), 1 << 20);
+        assertEquals(10, acc.getLog().size());
+        assertEquals(3278.95, acc.getBalance());
+        File empty = File.createTempFile("emptyAccount", ".txt");
+        empty.deleteOnExit();
+        assertEquals(0, Reader.readAccountParallel(empty, 1).getLog().size());
+        try {
+            Reader.readAccountParallel(new File("./data/testAccountMalformed.txt"), 8);
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
     // --------------------------------------------------------
 
     // Private methods to help with testing
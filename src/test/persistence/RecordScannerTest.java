@@ -0,0 +1,119 @@
+package persistence;
+
+import model.Account;
+import model.Record;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class RecordScannerTest {
+
+    @Test
+    void testScanLines() throws IOException {
+        RecordScanner scanner = scannerOver("pay,income,100\r\nwater bill,bills,23.5,extra\nlast,other,0.01", 64);
+        checkRecordMatches(scanner.next(), "pay", "income", 10000);
+        checkRecordMatches(scanner.next(), "water bill", "bills", 2350);
+        checkRecordMatches(scanner.next(), "last", "other", 1);
+        assertNull(scanner.next());
+        assertNull(scanner.next());
+        assertEquals(3, scanner.getLineNumber());
+        scanner.close();
+    }
+
+    @Test
+    void testStopAtFooter() throws IOException {
+        RecordScanner scanner = scannerOver("pay,income,100\n" + footerOf(new Record("pay", "income", 100)), 64);
+        checkRecordMatches(scanner.next(), "pay", "income", 10000);
+        assertNull(scanner.next());
+        assertEquals(1, scanner.getLineNumber());
+        scanner.close();
+    }
+
+    @Test
+    void testTitlesStartingWithMarker() throws IOException {
+        RecordScanner scanner = scannerOver("\u0001note,income,1\npay,income,100\n\u0001F,income,2\n", 8);
+        checkRecordMatches(scanner.next(), "\u0001note", "income", 100);
+        checkRecordMatches(scanner.next(), "pay", "income", 10000);
+        checkRecordMatches(scanner.next(), "\u0001F", "income", 200);
+        assertNull(scanner.next());
+        assertEquals(3, scanner.getLineNumber());
+    }
+
+    @Test
+    void testScanLinesAcrossSmallBuffer() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append("a long record title number ").append(i).append(",dining,").append(i).append(".5\n");
+        }
+        RecordScanner scanner = scannerOver(content.toString(), 4);
+        for (int i = 0; i < 100; i++) {
+            checkRecordMatches(scanner.next(), "a long record title number " + i, "dining", i * 100 + 50);
+        }
+        assertNull(scanner.next());
+    }
+
+    @Test
+    void testScanUnicodeTitleAndNewCategory() throws IOException {
+        RecordScanner scanner = scannerOver("caf\u00e9 au lait,dining,4.75\ngift,scanner test \u00e9,20\n", 8);
+        checkRecordMatches(scanner.next(), "caf\u00e9 au lait", "dining", 475);
+        checkRecordMatches(scanner.next(), "gift", "scanner test \u00e9", 2000);
+        assertNull(scanner.next());
+    }
+
+    @Test
+    void testNotARecord() {
+        checkThrows("pay,income100\n");
+        checkThrows("pay income 100\n");
+        checkThrows("pay,income,one hundred\n");
+        checkThrows("pay,income,\n");
+    }
+
+    @Test
+    void testNotText() {
+        byte[] bytes = {'p', (byte) 0xff, ',', 'i', 'n', 'c', 'o', 'm', 'e', ',', '1'};
+        try {
+            new RecordScanner(new ByteArrayInputStream(bytes), 16).next();
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private RecordScanner scannerOver(String content, int bufferSize) {
+        return new RecordScanner(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+
+    private String footerOf(Record... records) {
+        Account acc = new Account();
+        for (Record rec : records) {
+            acc.addRecord(rec);
+        }
+        return new String(AccountFooter.of(acc.snapshot()).toBytes(), StandardCharsets.UTF_8);
+    }
+
+    private void checkRecordMatches(Record rec, String expectedTitle, String expectedCategory, long expectedCents) {
+        assertEquals(expectedTitle, rec.getTitle());
+        assertEquals(expectedCategory, rec.getCategory());
+        assertEquals(expectedCents, rec.getCents());
+    }
+
+    private void checkThrows(String content) {
+        try {
+            scannerOver(content, 16).next();
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+package persistence;
+
+import model.Account;
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class SaveServiceTest implements SaveListener {
+    private File file;
+    private Account acc;
+    private List<Long> savedVersions;
+    private List<IOException> failures;
+    private int requestsAnswered;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        file = File.createTempFile("savedAccount", ".txt");
+        file.deleteOnExit();
+        Journal.journalFileOf(file).deleteOnExit();
+        acc = new Account();
+        savedVersions = new ArrayList<>();
+        failures = new ArrayList<>();
+        requestsAnswered = 0;
+    }
+
+    @Test
+    void testSave() throws IOException, InterruptedException {
+        acc.addRecord(new Record("pay", "income", 100));
+        SaveService service = new SaveService(acc, file, AccountFormat.TEXT, this, Runnable::run);
+        service.requestSave();
+        assertTrue(service.close(10000));
+
+        assertEquals(List.of(acc.snapshot().getVersion()), savedVersions);
+        assertEquals(1, requestsAnswered);
+        assertEquals(acc.getLog(), Reader.readAccount(file).getLog());
+    }
+
+    @Test
+    void testSaveBinary() throws IOException, InterruptedException {
+        acc.addRecord(new Record("pay", "income", 100));
+        SaveService service = new SaveService(acc, file, AccountFormat.BINARY, this, Runnable::run);
+        service.requestSave();
+        assertTrue(service.close(10000));
+
+        assertEquals(AccountFormat.BINARY, AccountFormat.detect(file));
+        assertEquals(acc.getLog(), Reader.readAccount(file).getLog());
+    }
+
+    @Test
+    void testBurstCoalesced() throws IOException, InterruptedException {
+        CountDownLatch firstSaveReported = new CountDownLatch(1);
+        CountDownLatch burstRequested = new CountDownLatch(1);
+        SaveService service = new SaveService(acc, file, AccountFormat.TEXT, this, callback -> {
+            callback.run();
+            firstSaveReported.countDown();
+            awaitQuietly(burstRequested);
+        });
+        acc.addRecord(new Record("pay", "income", 100));
+        service.requestSave();
+        firstSaveReported.await();
+        for (int i = 0; i < 100; i++) {
+            acc.addRecord(new Record("r" + i, "bills", 1));
+            service.requestSave();
+        }
+        burstRequested.countDown();
+        assertTrue(service.close(10000));
+
+        assertEquals(2, savedVersions.size());
+        assertEquals(101, requestsAnswered);
+        assertEquals(acc.snapshot().getVersion(), (long) savedVersions.get(1));
+        assertEquals(acc.getLog(), Reader.readAccount(file).getLog());
+    }
+
+    @Test
+    void testSnapshotTakenWhenWriteStarts() throws IOException, InterruptedException {
+        CountDownLatch changed = new CountDownLatch(1);
+        SaveService service = new SaveService(acc, file, AccountFormat.TEXT, this, Runnable::run);
+        service.execute(() -> awaitQuietly(changed));
+        acc.addRecord(new Record("pay", "income", 100));
+        service.requestSave();
+        acc.addRecord(new Record("rent", "bills", 50));
+        changed.countDown();
+        assertTrue(service.close(10000));
+
+        assertEquals(List.of(acc.getVersion()), savedVersions);
+        assertEquals(acc.getLog(), Reader.readAccount(file).getLog());
+    }
+
+    @Test
+    void testSaveWithJournal() throws IOException, InterruptedException {
+        CountDownLatch firstSaveReported = new CountDownLatch(1);
+        SaveService service = new SaveService(acc, file, AccountFormat.TEXT, this, callback -> {
+            callback.run();
+            firstSaveReported.countDown();
+        });
+        Journal journal = new Journal(file, acc, service);
+        service.useJournal(journal);
+        long checkpointLength = file.length();
+        acc.addRecord(new Record("pay", "income", 100));
+        service.requestSave();
+        firstSaveReported.await();
+        for (int i = 0; i < 1100; i++) {
+            acc.addRecord(new Record("r" + i, "bills", 1));
+        }
+        service.requestSave();
+        assertTrue(service.close(10000));
+
+        assertEquals(2, savedVersions.size());
+        assertTrue(file.length() > checkpointLength);
+        assertTrue(Files.size(Journal.journalFileOf(file).toPath()) < file.length());
+        assertEquals(acc.getLog(), Reader.readAccount(file).getLog());
+        journal.close();
+    }
+
+    @Test
+    void testSaveFailed() throws InterruptedException {
+        File missing = new File(file.getPath() + ".missing", "account.txt");
+        SaveService service = new SaveService(acc, missing, AccountFormat.TEXT, this, Runnable::run);
+        service.requestSave();
+        assertTrue(service.close(10000));
+
+        assertEquals(0, savedVersions.size());
+        assertEquals(1, failures.size());
+        assertEquals(1, requestsAnswered);
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            fail("InterruptedException should not have been thrown");
+        }
+    }
+
+    @Override
+    public void saveSucceeded(long version, int requests, long latencyMillis) {
+        savedVersions.add(version);
+        requestsAnswered += requests;
+        assertTrue(latencyMillis >= 0);
+    }
+
+    @Override
+    public void saveFailed(long version, int requests, long latencyMillis, IOException e) {
+        failures.add(e);
+        requestsAnswered += requests;
+    }
+
+}
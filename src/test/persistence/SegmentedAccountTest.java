@@ -0,0 +1,185 @@
+package persistence;
+
+import model.Account;
+import model.AccountListener;
+import model.AccountTotals;
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SegmentedAccountTest {
+    private File directory;
+    private Account all;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("segmentedAccount").toFile();
+        directory.deleteOnExit();
+        all = new Account();
+    }
+
+    @Test
+    void testSealSegments() throws IOException {
+        SegmentedAccount segmented = new SegmentedAccount(directory, 10);
+        addRecords(segmented, 25);
+        segmented.save();
+
+        assertEquals(2, segmented.getClosedCount());
+        assertEquals(5, segmented.getActive().getLog().size());
+        assertEquals(all.getLog().subList(20, 25), segmented.getActive().getLog());
+        assertEquals(all.getLog().subList(10, 20), segmented.loadClosed(1).getLog());
+        checkTotalsMatch(all, segmented.getTotals());
+        deleteOnExit();
+    }
+
+    @Test
+    void testReopenReadsActiveAndTotals() throws IOException {
+        SegmentedAccount segmented = new SegmentedAccount(directory, 10);
+        addRecords(segmented, 34);
+        segmented.save();
+        segmented.getActive().removeRecordById(segmented.getActive().getLog().get(0).getId());
+        all.removeRecordById(30);
+        segmented.save();
+
+        SegmentedAccount reopened = new SegmentedAccount(directory, 10);
+        assertEquals(3, reopened.getClosedCount());
+        assertEquals(all.getLog().subList(30, 33), reopened.getActive().getLog());
+        assertTrue(reopened.getClosedTotals(0) instanceof AccountFooter);
+        assertEquals(10, ((AccountFooter) reopened.getClosedTotals(0)).getRecordCount());
+        checkTotalsMatch(all, reopened.getTotals());
+        assertEquals(all.getLog().subList(0, 10), reopened.loadClosed(0).getLog());
+        deleteOnExit();
+    }
+
+    @Test
+    void testSegmentWithoutFooter() throws IOException {
+        SegmentedAccount segmented = new SegmentedAccount(directory, 10);
+        addRecords(segmented, 12);
+        segmented.save();
+        Account closed = segmented.loadClosed(0);
+        Writer writer = new Writer(new File(directory, "segment-000000.txt"));
+        writer.write((SaveableData) closed);
+        writer.close();
+
+        SegmentedAccount reopened = new SegmentedAccount(directory, 10);
+        assertFalse(reopened.getClosedTotals(0) instanceof AccountFooter);
+        checkTotalsMatch(all, reopened.getTotals());
+        deleteOnExit();
+    }
+
+    @Test
+    void testCrashWhileSealing() throws IOException {
+        SegmentedAccount segmented = new SegmentedAccount(directory, 10);
+        addRecords(segmented, 8);
+        segmented.save();
+        Account stray = new Account();
+        stray.addRecord(new Record("stray", "other", 1));
+        Writer.writeAtomically(new File(directory, "segment-000000.txt"), AccountFormat.TEXT, stray.snapshot());
+
+        SegmentedAccount reopened = new SegmentedAccount(directory, 10);
+        assertEquals(0, reopened.getClosedCount());
+        assertFalse(new File(directory, "segment-000000.txt").exists());
+        checkTotalsMatch(all, reopened.getTotals());
+        deleteOnExit();
+    }
+
+    @Test
+    void testSealManySegmentsAtOnce() throws IOException {
+        SegmentedAccount segmented = new SegmentedAccount(directory, 10);
+        addRecords(segmented, 47);
+        List<Account> changes = new ArrayList<>();
+        segmented.getActive().addListener(new AccountListener() {
+            public void recordAdded(long id, Record record) {}
+
+            public void recordEdited(long id, Record record) {}
+
+            public void recordRemoved(long id) {}
+
+            public void recordRestored(long id, Record record) {}
+
+            public void recordsChanged(Account account) {
+                changes.add(account);
+            }
+        });
+        segmented.save();
+
+        assertEquals(1, changes.size());
+        assertEquals(4, segmented.getClosedCount());
+        assertEquals(all.getLog().subList(40, 47), segmented.getActive().getLog());
+        assertEquals(all.getLog().subList(30, 40), segmented.loadClosed(3).getLog());
+        assertEquals(all.getLog().subList(30, 40), new SegmentedAccount(directory, 10).loadClosed(3).getLog());
+        assertFalse(new File(directory, "active-000000.txt").exists());
+        checkTotalsMatch(all, segmented.getTotals());
+        deleteOnExit();
+    }
+
+    @Test
+    void testCrashWhileSealingManySegments() throws IOException {
+        SegmentedAccount segmented = new SegmentedAccount(directory, 10);
+        addRecords(segmented, 8);
+        segmented.save();
+        Account stray = new Account();
+        stray.addRecord(new Record("stray", "other", 1));
+        Writer.writeAtomically(new File(directory, "segment-000000.txt"), AccountFormat.TEXT, stray.snapshot());
+        Writer.writeAtomically(new File(directory, "segment-000001.txt"), AccountFormat.TEXT, stray.snapshot());
+
+        SegmentedAccount reopened = new SegmentedAccount(directory, 10);
+        assertEquals(0, reopened.getClosedCount());
+        assertFalse(new File(directory, "segment-000000.txt").exists());
+        assertFalse(new File(directory, "segment-000001.txt").exists());
+        checkTotalsMatch(all, reopened.getTotals());
+        deleteOnExit();
+    }
+
+    @Test
+    void testEmpty() throws IOException {
+        SegmentedAccount segmented = new SegmentedAccount(new File(directory, "new"), 10);
+        assertTrue(segmented.getTotals().isLogEmpty());
+        assertEquals(0, segmented.getTotals().getBalanceCents());
+        segmented.save();
+        assertTrue(new SegmentedAccount(new File(directory, "new"), 10).getActive().isLogEmpty());
+        deleteOnExit();
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private void addRecords(SegmentedAccount segmented, int count) {
+        for (int i = 0; i < count; i++) {
+            Record record = new Record("record " + i, i % 4 == 0 ? "income" : "bills", i + 1);
+            segmented.getActive().addRecord(record);
+            all.addRecord(record);
+        }
+    }
+
+    private void checkTotalsMatch(Account expected, AccountTotals totals) {
+        assertEquals(expected.getBalanceCents(), totals.getBalanceCents());
+        assertEquals(expected.isLogEmpty(), totals.isLogEmpty());
+        for (int id = 0; id < totals.getCategories().size(); id++) {
+            assertEquals(expected.getCategorySumCents(id), totals.getCategorySumCents(id));
+        }
+    }
+
+    private void deleteOnExit() {
+        File[] files = directory.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            file.deleteOnExit();
+            File[] inner = file.listFiles();
+            for (File innerFile : inner == null ? new File[0] : inner) {
+                innerFile.deleteOnExit();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package persistence;
+
+import model.Account;
+import model.AccountTotals;
+import model.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TieredAccountTest {
+    private Account all;
+    private Account hot;
+    private TieredAccount tiered;
+
+    @BeforeEach
+    void runBefore() {
+        all = new Account();
+        hot = new Account();
+        tiered = new TieredAccount(hot, 100, 128);
+        addRecords(1000);
+    }
+
+    @Test
+    void testArchive() {
+        assertEquals(896, tiered.archive());
+        assertEquals(896, tiered.getColdCount());
+        assertEquals(104, hot.getLog().size());
+        assertEquals(1000, tiered.size());
+        assertEquals(0, tiered.archive());
+        assertTrue(tiered.getColdBytes() > 0);
+        assertTrue(tiered.getColdBytes() < 896 * 12);
+    }
+
+    @Test
+    void testGetRecordAcrossTiers() {
+        tiered.archive();
+        assertEquals(all.getRecord(0), tiered.getRecord(0));
+        assertEquals(all.getRecord(895), tiered.getRecord(895));
+        assertEquals(all.getRecord(300), tiered.getRecord(300));
+        assertEquals(all.getRecord(896), tiered.getRecord(896));
+        assertEquals(all.getRecord(999), tiered.getRecord(999));
+        assertEquals(all.getLog(), tiered.getLog());
+    }
+
+    @Test
+    void testTotalsExact() {
+        checkTotalsMatch(all, tiered.getTotals());
+        tiered.archive();
+        checkTotalsMatch(all, tiered.getTotals());
+
+        long id = hot.getLog().get(hot.getLog().size() - 1).getId();
+        hot.editRecordCentsById(id, "edited", "income", 123456);
+        all.editRecordCentsById(999, "edited", "income", 123456);
+        addRecords(300);
+        assertEquals(256, tiered.archive());
+        checkTotalsMatch(all, tiered.getTotals());
+        assertEquals(all.getLog(), tiered.getLog());
+    }
+
+    @Test
+    void testArchiveAfterRemovals() {
+        for (int pos = 500; pos > 0; pos -= 50) {
+            hot.removeRecord(pos);
+            all.removeRecord(pos);
+        }
+        assertEquals(768, tiered.archive());
+        assertEquals(222, hot.getLog().size());
+        assertEquals(all.getLog(), tiered.getLog());
+        assertEquals(all.getRecord(767), tiered.getRecord(767));
+        assertEquals(all.getRecord(768), hot.getRecord(0));
+        checkTotalsMatch(all, tiered.getTotals());
+        assertTrue(hot.verifyTotals());
+    }
+
+    // --------------------------------------------------------
+
+    // Private methods to help with testing
+
+    private void addRecords(int count) {
+        for (int i = 0; i < count; i++) {
+            Record record = new Record("record " + i, i % 5 == 0 ? "income" : "shopping", i % 50 + 1);
+            hot.addRecord(record);
+            all.addRecord(record);
+        }
+    }
+
+    private void checkTotalsMatch(Account expected, AccountTotals totals) {
+        assertEquals(expected.getBalanceCents(), totals.getBalanceCents());
+        for (int id = 0; id < totals.getCategories().size(); id++) {
+            assertEquals(expected.getCategorySumCents(id), totals.getCategorySumCents(id));
+        }
+    }
+
+}
@@ -1,16 +1,21 @@
 package persistence;
 
 import model.Account;
+import model.AccountSnapshot;
 import model.Record;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class WriterTest {
@@ -52,6 +57,98 @@ public class WriterTest {
         }
     }
 
+    @Test
+    void testWriteAccountsBinary() throws IOException {
+        acc.addRecord(new Record("First addition", "income", 150.16));
+        acc.addRecord(new Record("Second addition", "other", 23));
+        testWriter.close();
+        File file = File.createTempFile("binaryAccount", ".bin");
+        file.deleteOnExit();
+
+        Writer binaryWriter = new Writer(file, AccountFormat.BINARY);
+        binaryWriter.write(acc);
+        binaryWriter.close();
+
+        assertEquals(AccountFormat.BINARY, AccountFormat.detect(file));
+        Account account = Reader.readAccount(file);
+        assertEquals(2, account.getLog().size());
+        checkRecordMatches(account.getRecord(1), "Second addition", "other", 23);
+        assertEquals(127.16, account.getBalance());
+    }
+
+    @Test
+    void testWriteAccountText() throws IOException {
+        acc.addRecord(new Record("First addition", "income", 150.16));
+        testWriter.write(acc);
+        testWriter.close();
+
+        assertEquals(AccountFormat.TEXT, AccountFormat.detect(new File(TEST_FILE)));
+        assertEquals(150.16, Reader.readAccount(new File(TEST_FILE)).getBalance());
+    }
+
+    @Test
+    void testWriteSnapshot() throws IOException {
+        acc.addRecord(new Record("First addition", "income", 150.16));
+        AccountSnapshot snapshot = acc.snapshot();
+        acc.addRecord(new Record("Second addition", "other", 23));
+        testWriter.write(snapshot);
+        testWriter.close();
+
+        Account account = Reader.readAccount(new File(TEST_FILE));
+        assertEquals(1, account.getLog().size());
+        assertEquals(150.16, account.getBalance());
+    }
+
+    @Test
+    void testWriteAtomically() throws IOException {
+        testWriter.close();
+        acc.addRecord(new Record("First addition", "income", 150.16));
+        Writer.writeAtomically(new File(TEST_FILE), AccountFormat.TEXT, acc.snapshot());
+        assertEquals(150.16, Reader.readAccount(new File(TEST_FILE)).getBalance());
+
+        assertFalse(new File(TEST_FILE + AtomicFile.TEMP_SUFFIX).exists());
+
+        File file = File.createTempFile("binaryAccount", ".bin");
+        file.deleteOnExit();
+        Writer.writeAtomically(file, AccountFormat.BINARY, acc.snapshot());
+        assertEquals(AccountFormat.BINARY, AccountFormat.detect(file));
+        assertEquals(150.16, Reader.readAccount(file).getBalance());
+    }
+
+    @Test
+    void testWriteBinaryRejectsOtherData() throws IOException {
+        testWriter.close();
+        Writer binaryWriter = new Writer(new ByteArrayOutputStream(), AccountFormat.BINARY);
+        try {
+            binaryWriter.write(printWriter -> printWriter.print("not an account"));
+            fail("IllegalStateException should have been thrown");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        binaryWriter.write(acc.snapshot());
+        assertFalse(binaryWriter.checkError());
+    }
+
+    @Test
+    void testWriteFailureRecorded() {
+        testWriter.close();
+        acc.addRecord(new Record("First addition", "income", 150.16));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+
+        Writer binaryWriter = new Writer(broken, AccountFormat.BINARY);
+        binaryWriter.write(acc);
+        assertTrue(binaryWriter.checkError());
+        Writer textWriter = new Writer(broken, AccountFormat.TEXT);
+        textWriter.write(acc);
+        textWriter.close();
+        assertTrue(textWriter.checkError());
+    }
+
     // --------------------------------------------------------
 
     // Private methods to help with testing